@@ -68,6 +68,8 @@ public class CacheConfiguration {
             createCache(cm, furrymatch.domain.Match.class.getName() + ".chats");
             createCache(cm, furrymatch.domain.Contract.class.getName());
             createCache(cm, furrymatch.domain.Chat.class.getName());
+            createCache(cm, furrymatch.repository.PetCandidateCache.SEARCH_CANDIDATES_CACHE);
+            createCache(cm, furrymatch.service.SessionContextService.SESSION_CONTEXTS_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
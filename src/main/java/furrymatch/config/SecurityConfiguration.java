@@ -115,6 +115,7 @@ public class SecurityConfiguration {
             .antMatchers(HttpMethod.POST, "/api/pets/search").permitAll() //
             .antMatchers("/api/admin/**").hasAuthority(AuthoritiesConstants.ADMIN)
             .antMatchers("/api/**").authenticated()
+            .antMatchers("/websocket/**").authenticated()
             .antMatchers("/management/health").permitAll()
             .antMatchers("/management/health/**").permitAll()
             .antMatchers("/management/info").permitAll()
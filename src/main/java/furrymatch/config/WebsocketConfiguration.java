@@ -0,0 +1,93 @@
+package furrymatch.config;
+
+import furrymatch.security.AuthoritiesConstants;
+import furrymatch.web.websocket.ChatChannelInterceptor;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * STOMP over websocket, with an in-memory broker, used to push the chat messages of a match to its owners.
+ * <p>
+ * The handshake goes through the security filter chain, so the websocket session is bound to the HTTP session of
+ * the user who opened it. Heart-beats are exchanged every 10 seconds both ways, so that the clients notice a
+ * connection that died silently.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer {
+
+    private static final long HEART_BEAT_MILLIS = 10_000;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ChatChannelInterceptor chatChannelInterceptor;
+
+    private final TaskScheduler messageBrokerTaskScheduler;
+
+    public WebsocketConfiguration(
+        JHipsterProperties jHipsterProperties,
+        ChatChannelInterceptor chatChannelInterceptor,
+        // Lazy, as the scheduler is declared by the message broker configuration this class contributes to
+        @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler
+    ) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.chatChannelInterceptor = chatChannelInterceptor;
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry config) {
+        config
+            .enableSimpleBroker("/topic")
+            .setHeartbeatValue(new long[] { HEART_BEAT_MILLIS, HEART_BEAT_MILLIS })
+            .setTaskScheduler(messageBrokerTaskScheduler);
+        config.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        String[] allowedOrigins = Optional
+            .ofNullable(jHipsterProperties.getCors().getAllowedOrigins())
+            .map(origins -> origins.toArray(new String[0]))
+            .orElse(new String[0]);
+        registry.addEndpoint("/websocket/chat").setHandshakeHandler(defaultHandshakeHandler()).setAllowedOrigins(allowedOrigins);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(chatChannelInterceptor);
+    }
+
+    private DefaultHandshakeHandler defaultHandshakeHandler() {
+        return new DefaultHandshakeHandler() {
+            @Override
+            protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                Principal principal = request.getPrincipal();
+                if (principal == null) {
+                    Collection<SimpleGrantedAuthority> authorities = new ArrayList<>();
+                    authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
+                    principal = new AnonymousAuthenticationToken("WebsocketConfiguration", "anonymous", authorities);
+                }
+                return principal;
+            }
+        };
+    }
+}
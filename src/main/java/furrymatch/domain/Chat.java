@@ -1,5 +1,6 @@
 package furrymatch.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -33,6 +34,18 @@ public class Chat implements Serializable {
     @Column(name = "state_chat")
     private String stateChat;
 
+    /**
+     * The sender, recipient and read flag are derived from {@link #stateChat}, so they can be indexed.
+     */
+    @Column(name = "sender_id")
+    private Long senderId;
+
+    @Column(name = "recipient_id")
+    private Long recipientId;
+
+    @Column(name = "read_flag")
+    private Boolean readFlag;
+
     @ManyToOne
     @JsonIgnoreProperties(value = { "contract", "chats", "firstLiked", "secondLiked" }, allowSetters = true)
     private Match match;
@@ -89,6 +102,41 @@ public class Chat implements Serializable {
 
     public void setStateChat(String stateChat) {
         this.stateChat = stateChat;
+        this.senderId = null;
+        this.recipientId = null;
+        this.readFlag = null;
+        // "senderId;recipientId;unread|read"
+        String[] parts = stateChat != null ? stateChat.split(";", -1) : new String[0];
+        if (parts.length == 3 && ("unread".equals(parts[2]) || "read".equals(parts[2]))) {
+            try {
+                this.senderId = Long.valueOf(parts[0]);
+                this.recipientId = Long.valueOf(parts[1]);
+                this.readFlag = "read".equals(parts[2]);
+            } catch (NumberFormatException e) {
+                this.senderId = null;
+                this.recipientId = null;
+            }
+        }
+    }
+
+    public Long getSenderId() {
+        return this.senderId;
+    }
+
+    public Long getRecipientId() {
+        return this.recipientId;
+    }
+
+    public Boolean getReadFlag() {
+        return this.readFlag;
+    }
+
+    /**
+     * Whether the chat is waiting to be read by its recipient.
+     */
+    @JsonIgnore
+    public boolean isUnread() {
+        return this.recipientId != null && Boolean.FALSE.equals(this.readFlag);
     }
 
     public Match getMatch() {
@@ -0,0 +1,156 @@
+package furrymatch.domain;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * One conversation of a pet: the counterpart of one of its matches, with the last message and the number of
+ * messages its owner has not read yet. Maintained with the chats, so the inbox of a pet is read without going
+ * through the chats.
+ */
+@Entity
+@Table(name = "chat_inbox")
+@IdClass(ChatInboxId.class)
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ChatInbox implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "pet_id")
+    private Long petId;
+
+    @Id
+    @Column(name = "match_id")
+    private Long matchId;
+
+    @NotNull
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @NotNull
+    @Column(name = "counterpart_pet_id", nullable = false)
+    private Long counterpartPetId;
+
+    @NotNull
+    @Column(name = "counterpart_owner_id", nullable = false)
+    private Long counterpartOwnerId;
+
+    @NotNull
+    @Column(name = "last_chat_id", nullable = false)
+    private Long lastChatId;
+
+    @Column(name = "last_message")
+    private String lastMessage;
+
+    @Column(name = "last_date_chat")
+    private LocalDateTime lastDateChat;
+
+    @NotNull
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount;
+
+    public Long getPetId() {
+        return this.petId;
+    }
+
+    public void setPetId(Long petId) {
+        this.petId = petId;
+    }
+
+    public Long getMatchId() {
+        return this.matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public Long getOwnerId() {
+        return this.ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public Long getCounterpartPetId() {
+        return this.counterpartPetId;
+    }
+
+    public void setCounterpartPetId(Long counterpartPetId) {
+        this.counterpartPetId = counterpartPetId;
+    }
+
+    public Long getCounterpartOwnerId() {
+        return this.counterpartOwnerId;
+    }
+
+    public void setCounterpartOwnerId(Long counterpartOwnerId) {
+        this.counterpartOwnerId = counterpartOwnerId;
+    }
+
+    public Long getLastChatId() {
+        return this.lastChatId;
+    }
+
+    public void setLastChatId(Long lastChatId) {
+        this.lastChatId = lastChatId;
+    }
+
+    public String getLastMessage() {
+        return this.lastMessage;
+    }
+
+    public void setLastMessage(String lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public LocalDateTime getLastDateChat() {
+        return this.lastDateChat;
+    }
+
+    public void setLastDateChat(LocalDateTime lastDateChat) {
+        this.lastDateChat = lastDateChat;
+    }
+
+    public Integer getUnreadCount() {
+        return this.unreadCount;
+    }
+
+    public void setUnreadCount(Integer unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChatInbox)) {
+            return false;
+        }
+        ChatInbox other = (ChatInbox) o;
+        return petId != null && matchId != null && petId.equals(other.petId) && matchId.equals(other.matchId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ChatInbox{" +
+            "petId=" + getPetId() +
+            ", matchId=" + getMatchId() +
+            ", counterpartPetId=" + getCounterpartPetId() +
+            ", lastChatId=" + getLastChatId() +
+            ", unreadCount=" + getUnreadCount() +
+            "}";
+    }
+}
@@ -0,0 +1,48 @@
+package furrymatch.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link ChatInbox}: a pet in one of its matches.
+ */
+public class ChatInboxId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long petId;
+
+    private Long matchId;
+
+    public ChatInboxId() {}
+
+    public ChatInboxId(Long petId, Long matchId) {
+        this.petId = petId;
+        this.matchId = matchId;
+    }
+
+    public Long getPetId() {
+        return petId;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChatInboxId)) {
+            return false;
+        }
+        ChatInboxId other = (ChatInboxId) o;
+        return Objects.equals(petId, other.petId) && Objects.equals(matchId, other.matchId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(petId, matchId);
+    }
+}
@@ -0,0 +1,76 @@
+package furrymatch.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The number of chats an owner has not read yet, maintained with the chats so it can be read without counting them.
+ */
+@Entity
+@Table(name = "chat_unread_counter")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ChatUnreadCounter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @NotNull
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount;
+
+    public Long getOwnerId() {
+        return this.ownerId;
+    }
+
+    public ChatUnreadCounter ownerId(Long ownerId) {
+        this.setOwnerId(ownerId);
+        return this;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public Integer getUnreadCount() {
+        return this.unreadCount;
+    }
+
+    public ChatUnreadCounter unreadCount(Integer unreadCount) {
+        this.setUnreadCount(unreadCount);
+        return this;
+    }
+
+    public void setUnreadCount(Integer unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChatUnreadCounter)) {
+            return false;
+        }
+        return ownerId != null && ownerId.equals(((ChatUnreadCounter) o).ownerId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ChatUnreadCounter{" +
+            "ownerId=" + getOwnerId() +
+            ", unreadCount=" + getUnreadCount() +
+            "}";
+    }
+}
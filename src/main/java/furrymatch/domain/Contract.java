@@ -1,9 +1,11 @@
 package furrymatch.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import furrymatch.domain.enumeration.ContractStatus;
 import java.io.Serializable;
 import java.time.LocalDate;
 import javax.persistence.*;
+import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
@@ -38,6 +40,14 @@ public class Contract implements Serializable {
     @Column(name = "contract_date")
     private LocalDate contractDate;
 
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ContractStatus status;
+
+    @Column(name = "initiator_id")
+    private Long initiatorId;
+
     @JsonIgnoreProperties(value = { "contract", "chats", "firstLiked", "secondLiked" }, allowSetters = true)
     @OneToOne(cascade = CascadeType.MERGE, orphanRemoval = true, mappedBy = "contract")
     private Match match;
@@ -122,6 +132,32 @@ public class Contract implements Serializable {
         this.contractDate = contractDate;
     }
 
+    public ContractStatus getStatus() {
+        return this.status;
+    }
+
+    public Contract status(ContractStatus status) {
+        this.setStatus(status);
+        return this;
+    }
+
+    public void setStatus(ContractStatus status) {
+        this.status = status;
+    }
+
+    public Long getInitiatorId() {
+        return this.initiatorId;
+    }
+
+    public Contract initiatorId(Long initiatorId) {
+        this.setInitiatorId(initiatorId);
+        return this;
+    }
+
+    public void setInitiatorId(Long initiatorId) {
+        this.initiatorId = initiatorId;
+    }
+
     public Match getMatch() {
         return this.match;
     }
@@ -170,6 +206,8 @@ public class Contract implements Serializable {
             ", pedigree='" + getPedigree() + "'" +
             ", otherNotes='" + getOtherNotes() + "'" +
             ", contractDate='" + getContractDate() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", initiatorId=" + getInitiatorId() +
             "}";
     }
 }
@@ -0,0 +1,108 @@
+package furrymatch.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The pair of pets of a {@link Match}, the lowest pet id first, so the matches of a pet or of two pets are found
+ * with index seeks instead of joining both likees.
+ */
+@Entity
+@Table(name = "match_pair")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class MatchPair implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "match_id")
+    private Long matchId;
+
+    @NotNull
+    @Column(name = "low_pet_id", nullable = false)
+    private Long lowPetId;
+
+    @NotNull
+    @Column(name = "high_pet_id", nullable = false)
+    private Long highPetId;
+
+    public Long getMatchId() {
+        return this.matchId;
+    }
+
+    public MatchPair matchId(Long matchId) {
+        this.setMatchId(matchId);
+        return this;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public Long getLowPetId() {
+        return this.lowPetId;
+    }
+
+    public MatchPair lowPetId(Long lowPetId) {
+        this.setLowPetId(lowPetId);
+        return this;
+    }
+
+    public void setLowPetId(Long lowPetId) {
+        this.lowPetId = lowPetId;
+    }
+
+    public Long getHighPetId() {
+        return this.highPetId;
+    }
+
+    public MatchPair highPetId(Long highPetId) {
+        this.setHighPetId(highPetId);
+        return this;
+    }
+
+    public void setHighPetId(Long highPetId) {
+        this.highPetId = highPetId;
+    }
+
+    /**
+     * Set the pets of the pair, in any order.
+     *
+     * @param petId the id of one of the pets.
+     * @param otherPetId the id of the other pet.
+     * @return this pair.
+     */
+    public MatchPair pets(Long petId, Long otherPetId) {
+        this.setLowPetId(Math.min(petId, otherPetId));
+        this.setHighPetId(Math.max(petId, otherPetId));
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MatchPair)) {
+            return false;
+        }
+        return matchId != null && matchId.equals(((MatchPair) o).matchId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MatchPair{" +
+            "matchId=" + getMatchId() +
+            ", lowPetId=" + getLowPetId() +
+            ", highPetId=" + getHighPetId() +
+            "}";
+    }
+}
@@ -0,0 +1,128 @@
+package furrymatch.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * The pet a user is using the application as, and the matches they last opened from the match and the contract
+ * pages. Kept in memory by the session context service, which reads this table once per login.
+ */
+@Entity
+@Table(name = "user_session_context")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class UserSessionContext implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @NotNull
+    @Size(min = 1, max = 50)
+    @Column(name = "login", length = 50, unique = true, nullable = false)
+    private String login;
+
+    @Column(name = "selected_pet_id")
+    private Long selectedPetId;
+
+    @Column(name = "match_id")
+    private Long matchId;
+
+    @Column(name = "contract_match_id")
+    private Long contractMatchId;
+
+    @Column(name = "contract_owner_id")
+    private Long contractOwnerId;
+
+    @Column(name = "contract_pet_id")
+    private Long contractPetId;
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getLogin() {
+        return this.login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Long getSelectedPetId() {
+        return this.selectedPetId;
+    }
+
+    public void setSelectedPetId(Long selectedPetId) {
+        this.selectedPetId = selectedPetId;
+    }
+
+    public Long getMatchId() {
+        return this.matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public Long getContractMatchId() {
+        return this.contractMatchId;
+    }
+
+    public void setContractMatchId(Long contractMatchId) {
+        this.contractMatchId = contractMatchId;
+    }
+
+    public Long getContractOwnerId() {
+        return this.contractOwnerId;
+    }
+
+    public void setContractOwnerId(Long contractOwnerId) {
+        this.contractOwnerId = contractOwnerId;
+    }
+
+    public Long getContractPetId() {
+        return this.contractPetId;
+    }
+
+    public void setContractPetId(Long contractPetId) {
+        this.contractPetId = contractPetId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserSessionContext)) {
+            return false;
+        }
+        return userId != null && userId.equals(((UserSessionContext) o).userId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserSessionContext{" +
+            "userId=" + getUserId() +
+            ", login='" + getLogin() + "'" +
+            ", selectedPetId=" + getSelectedPetId() +
+            ", matchId=" + getMatchId() +
+            ", contractMatchId=" + getContractMatchId() +
+            ", contractOwnerId=" + getContractOwnerId() +
+            ", contractPetId=" + getContractPetId() +
+            "}";
+    }
+}
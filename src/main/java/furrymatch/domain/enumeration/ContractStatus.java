@@ -0,0 +1,19 @@
+package furrymatch.domain.enumeration;
+
+/**
+ * The ContractStatus enumeration.
+ */
+public enum ContractStatus {
+    /**
+     * Being written by the owner who started it.
+     */
+    DRAFT,
+    /**
+     * Sent to the other owner.
+     */
+    SENT,
+    /**
+     * Accepted by the other owner.
+     */
+    ACCEPTED,
+}
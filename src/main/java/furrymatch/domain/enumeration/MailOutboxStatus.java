@@ -0,0 +1,15 @@
+package furrymatch.domain.enumeration;
+
+/**
+ * The MailOutboxStatus enumeration.
+ */
+public enum MailOutboxStatus {
+    /**
+     * Waiting to be sent, or to be retried.
+     */
+    PENDING,
+    /**
+     * Given up on, after too many attempts or because the message could not be built.
+     */
+    FAILED,
+}
@@ -0,0 +1,35 @@
+package furrymatch.repository;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class to keep in-memory read models in step with the database.
+ * <p>
+ * In-memory structures must only see changes that were actually committed, otherwise a rolled back
+ * transaction would leave them pointing at rows that do not exist.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    /**
+     * Run the given action once the current transaction commits, or immediately if no transaction is active.
+     *
+     * @param action the action to run.
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package furrymatch.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a {@link furrymatch.domain.ChatInbox} row with the owner of the counterpart pet, loaded in
+ * one query.
+ */
+public interface ChatInboxProjection {
+    Long getMatchId();
+
+    Long getPetId();
+
+    Long getCounterpartPetId();
+
+    Long getCounterpartOwnerId();
+
+    String getFirstName();
+
+    String getFirstLastName();
+
+    String getPhoto();
+
+    Long getLastChatId();
+
+    String getLastMessage();
+
+    LocalDateTime getLastDateChat();
+
+    Integer getUnreadCount();
+}
@@ -0,0 +1,96 @@
+package furrymatch.repository;
+
+import furrymatch.domain.ChatInbox;
+import furrymatch.domain.ChatInboxId;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the ChatInbox entity.
+ */
+@Repository
+public interface ChatInboxRepository extends JpaRepository<ChatInbox, ChatInboxId> {
+    String INBOX_SELECT =
+        "SELECT inbox.matchId AS matchId, inbox.petId AS petId, inbox.counterpartPetId AS counterpartPetId, " +
+        "inbox.counterpartOwnerId AS counterpartOwnerId, owner.firstName AS firstName, owner.firstLastName AS firstLastName, " +
+        "owner.photo AS photo, inbox.lastChatId AS lastChatId, inbox.lastMessage AS lastMessage, " +
+        "inbox.lastDateChat AS lastDateChat, inbox.unreadCount AS unreadCount " +
+        "FROM ChatInbox inbox, Owner owner WHERE owner.id = inbox.counterpartOwnerId AND inbox.petId = :petId ";
+
+    /**
+     * Find the latest conversations of a pet, the most recently active first.
+     */
+    @Query(INBOX_SELECT + "ORDER BY inbox.lastChatId DESC")
+    List<ChatInboxProjection> findByPetId(@Param("petId") Long petId, Pageable pageable);
+
+    /**
+     * Find the conversations of a pet last active before a given message, the most recently active first.
+     */
+    @Query(INBOX_SELECT + "AND inbox.lastChatId < :beforeChatId ORDER BY inbox.lastChatId DESC")
+    List<ChatInboxProjection> findByPetIdBefore(
+        @Param("petId") Long petId,
+        @Param("beforeChatId") Long beforeChatId,
+        Pageable pageable
+    );
+
+    /**
+     * Record a new message in the inbox of a pet, creating the conversation if needed, in a single statement. The
+     * last message only moves forward, whatever the order the transactions commit in.
+     */
+    @Modifying
+    @Query(
+        value = "INSERT INTO chat_inbox (pet_id, match_id, owner_id, counterpart_pet_id, counterpart_owner_id, " +
+        "last_chat_id, last_message, last_date_chat, unread_count) " +
+        "VALUES (:petId, :matchId, :ownerId, :counterpartPetId, :counterpartOwnerId, :chatId, :message, :dateChat, :unread) " +
+        "ON DUPLICATE KEY UPDATE " +
+        "last_message = IF(VALUES(last_chat_id) >= last_chat_id, VALUES(last_message), last_message), " +
+        "last_date_chat = IF(VALUES(last_chat_id) >= last_chat_id, VALUES(last_date_chat), last_date_chat), " +
+        "last_chat_id = GREATEST(last_chat_id, VALUES(last_chat_id)), " +
+        "unread_count = unread_count + VALUES(unread_count)",
+        nativeQuery = true
+    )
+    void addMessage(
+        @Param("petId") Long petId,
+        @Param("matchId") Long matchId,
+        @Param("ownerId") Long ownerId,
+        @Param("counterpartPetId") Long counterpartPetId,
+        @Param("counterpartOwnerId") Long counterpartOwnerId,
+        @Param("chatId") Long chatId,
+        @Param("message") String message,
+        @Param("dateChat") LocalDateTime dateChat,
+        @Param("unread") int unread
+    );
+
+    /**
+     * Copy an edited chat to the inboxes it is the last message of.
+     */
+    @Modifying
+    @Query(
+        "UPDATE ChatInbox inbox SET inbox.lastMessage = :message, inbox.lastDateChat = :dateChat " +
+        "WHERE inbox.matchId = :matchId AND inbox.lastChatId = :chatId"
+    )
+    void updateLastMessage(
+        @Param("matchId") Long matchId,
+        @Param("chatId") Long chatId,
+        @Param("message") String message,
+        @Param("dateChat") LocalDateTime dateChat
+    );
+
+    /**
+     * Add to the unread count of an owner in a match. It never goes below zero.
+     */
+    @Modifying
+    @Query(
+        value = "UPDATE chat_inbox SET unread_count = GREATEST(unread_count + :delta, 0) WHERE match_id = :matchId AND owner_id = :ownerId",
+        nativeQuery = true
+    )
+    void addUnread(@Param("matchId") Long matchId, @Param("ownerId") Long ownerId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("DELETE FROM ChatInbox inbox WHERE inbox.matchId = :matchId")
+    void deleteByMatchId(@Param("matchId") Long matchId);
+}
@@ -1,7 +1,10 @@
 package furrymatch.repository;
 
 import furrymatch.domain.Chat;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,16 +22,58 @@ public interface ChatRepository extends JpaRepository<Chat, Long> {
     @Query("SELECT c FROM Chat c WHERE c.stateChat = :state1 OR c.stateChat = :state2")
     List<Chat> findByStateChat(@Param("state1") String state1, @Param("state2") String state2);
 
+    /**
+     * Find the last message of each of the given matches, as {@code [matchId, message, dateChat]} rows. The latest
+     * message of a match is its highest id, read from the match_id foreign key index.
+     */
     @Query(
-        value = "SELECT * FROM chat WHERE substring_index(state_chat, ';', -1) = 'unread' AND substring_index(substring_index(state_chat, ';', -2), ';', 1) = :ownerId",
-        nativeQuery = true
+        "SELECT c.match.id, c.message, c.dateChat FROM Chat c WHERE c.id IN " +
+        "(SELECT MAX(last.id) FROM Chat last WHERE last.match.id IN :matchIds GROUP BY last.match.id)"
     )
-    List<Chat> findUnreadChatsByOwnerId(@Param("ownerId") Long ownerId);
+    List<Object[]> findLastMessagesByMatchIdIn(@Param("matchIds") Collection<Long> matchIds);
 
-    //Marks chat message as read
+    @Query("SELECT c FROM Chat c WHERE c.match.id = :matchId ORDER BY c.dateChat DESC, c.id DESC")
+    List<Chat> findLatestByMatchId(@Param("matchId") Long matchId, Pageable pageable);
+
+    /**
+     * Find the messages of a match older than a given one, newest first. Messages without a date sort last, as
+     * MySQL puts nulls last in descending order.
+     */
+    @Query(
+        "SELECT c FROM Chat c WHERE c.match.id = :matchId " +
+        "AND (c.dateChat < :beforeDate OR (c.dateChat = :beforeDate AND c.id < :beforeId) OR c.dateChat IS NULL) " +
+        "ORDER BY c.dateChat DESC, c.id DESC"
+    )
+    List<Chat> findByMatchIdBefore(
+        @Param("matchId") Long matchId,
+        @Param("beforeDate") LocalDateTime beforeDate,
+        @Param("beforeId") Long beforeId,
+        Pageable pageable
+    );
+
+    @Query("SELECT c FROM Chat c WHERE c.match.id = :matchId AND c.dateChat IS NULL AND c.id < :beforeId ORDER BY c.id DESC")
+    List<Chat> findUndatedByMatchIdBefore(@Param("matchId") Long matchId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    List<Chat> findByRecipientIdAndReadFlagFalse(Long recipientId);
+
+    /**
+     * Mark the messages a recipient received in a match as read, up to a given message.
+     *
+     * @return the number of messages marked.
+     */
     @Modifying
     @Query(
-        "UPDATE Chat c SET c.stateChat = REPLACE(c.stateChat, 'unread', 'read') WHERE c.match.id = :matchId AND LOCATE(CONCAT(:senderId, ';'), c.stateChat) = 1 AND c.stateChat LIKE '%unread'"
+        "UPDATE Chat c SET c.readFlag = true, c.stateChat = REPLACE(c.stateChat, 'unread', 'read') " +
+        "WHERE c.match.id = :matchId AND c.recipientId = :recipientId AND c.readFlag = false AND c.id <= :upToChatId"
+    )
+    int markRead(@Param("matchId") Long matchId, @Param("recipientId") Long recipientId, @Param("upToChatId") Long upToChatId);
+
+    /**
+     * Count the unread chats of a match, as {@code [recipientId, count]} rows.
+     */
+    @Query(
+        "SELECT c.recipientId, COUNT(c) FROM Chat c " +
+        "WHERE c.match.id = :matchId AND c.readFlag = false AND c.recipientId IS NOT NULL GROUP BY c.recipientId"
     )
-    void updateChatStateByMatchIdAndRecipientId(@Param("matchId") Long matchId, @Param("senderId") Long senderId);
+    List<Object[]> countUnreadByMatchId(@Param("matchId") Long matchId);
 }
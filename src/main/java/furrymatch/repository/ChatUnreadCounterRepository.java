@@ -0,0 +1,27 @@
+package furrymatch.repository;
+
+import furrymatch.domain.ChatUnreadCounter;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the ChatUnreadCounter entity.
+ */
+@Repository
+public interface ChatUnreadCounterRepository extends JpaRepository<ChatUnreadCounter, Long> {
+    @Query("SELECT c.unreadCount FROM ChatUnreadCounter c WHERE c.ownerId = :ownerId")
+    Optional<Integer> findUnreadCountByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Add to the counter of an owner, creating it if needed, in a single statement. It never goes below zero.
+     */
+    @Modifying
+    @Query(
+        value = "INSERT INTO chat_unread_counter (owner_id, unread_count) VALUES (:ownerId, GREATEST(:delta, 0)) " +
+        "ON DUPLICATE KEY UPDATE unread_count = GREATEST(unread_count + :delta, 0)",
+        nativeQuery = true
+    )
+    void add(@Param("ownerId") Long ownerId, @Param("delta") int delta);
+}
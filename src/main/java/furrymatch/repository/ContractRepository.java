@@ -1,7 +1,10 @@
 package furrymatch.repository;
 
 import furrymatch.domain.Contract;
+import furrymatch.domain.enumeration.ContractStatus;
 import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,11 +15,27 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ContractRepository extends JpaRepository<Contract, Long> {
     @Query(
-        "SELECT m, l.firstPet, l.secondPet " +
-        "FROM Match m " +
-        "JOIN Likee l ON m.firstLiked.id = l.id OR m.secondLiked.id = l.id " +
-        "LEFT JOIN m.contract c " +
-        "WHERE l.firstPet.id = :currentPetId"
+        "SELECT m, p, o " +
+        "FROM MatchPair mp, Match m, Pet p, Pet o " +
+        "WHERE m.id = mp.matchId AND p.id = :currentPetId " +
+        "AND ((mp.lowPetId = :currentPetId AND o.id = mp.highPetId) OR (mp.highPetId = :currentPetId AND o.id = mp.lowPetId))"
     )
     List<Object[]> findMatchedPetsAnContracts(@Param("currentPetId") Long currentPetId);
+
+    /**
+     * Find the contracts no match points to. The anti-join probes the unique index of {@code jhi_match.contract_id}
+     * once per contract, without loading the matches.
+     */
+    @Query(
+        value = "select contract from Contract contract " +
+        "where not exists (select m.id from Match m where m.contract = contract)",
+        countQuery = "select count(contract) from Contract contract " +
+        "where not exists (select m.id from Match m where m.contract = contract)"
+    )
+    Page<Contract> findAllWhereMatchIsNull(Pageable pageable);
+
+    /**
+     * Find the contracts an owner wrote that are in a given status, from the index on {@code (status, initiator_id)}.
+     */
+    Page<Contract> findAllByStatusAndInitiatorId(ContractStatus status, Long initiatorId, Pageable pageable);
 }
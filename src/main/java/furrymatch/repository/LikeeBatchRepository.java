@@ -0,0 +1,94 @@
+package furrymatch.repository;
+
+import furrymatch.domain.Likee;
+import furrymatch.domain.Pet;
+import furrymatch.domain.enumeration.LikeType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository writing many {@link Likee} rows at once.
+ * <p>
+ * Likee ids are generated by the database, which prevents Hibernate from batching inserts, so the rows are written
+ * with a single JDBC batch instead. It runs in the current JPA transaction, and the callers lock the pet pairs they
+ * write.
+ */
+@Repository
+public class LikeeBatchRepository {
+
+    /**
+     * A pet swipes another one only once, a repeated swipe replaces the decision.
+     */
+    private static final String UPSERT_LIKEE =
+        "insert into likee (like_state, first_pet_id, second_pet_id) values (?, ?, ?) " +
+        "on duplicate key update like_state = values(like_state)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager em;
+
+    public LikeeBatchRepository(JdbcTemplate jdbcTemplate, EntityManager em) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.em = em;
+    }
+
+    /**
+     * Insert the likees of a pet for other pets in the given order, or update them if they exist.
+     *
+     * @param firstPetId the id of the pet that swiped.
+     * @param secondPetIds the ids of the swiped pets.
+     * @param likeStates the decision for each swiped pet, at the same index.
+     */
+    public void insertAll(Long firstPetId, List<Long> secondPetIds, List<LikeType> likeStates) {
+        // Rows written by Hibernate but not flushed yet must come first
+        em.flush();
+        // Only the rows that already exist can be in the second level cache. The callers lock the pairs, so no other
+        // swipe adds one until the upsert ran
+        List<Long> updatedIds = em
+            .createQuery(
+                "select likee.id from Likee likee where likee.firstPet.id = :firstPetId and likee.secondPet.id in :secondPetIds",
+                Long.class
+            )
+            .setParameter("firstPetId", firstPetId)
+            .setParameter("secondPetIds", secondPetIds)
+            .getResultList();
+        jdbcTemplate.batchUpdate(
+            UPSERT_LIKEE,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setString(1, likeStates.get(i).name());
+                    ps.setLong(2, firstPetId);
+                    ps.setLong(3, secondPetIds.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return secondPetIds.size();
+                }
+            }
+        );
+
+        // The likees and their collections are in the second level cache, and were bypassed. They are evicted again
+        // after commit, as a transaction reading the rows meanwhile would put back the previous decisions
+        evictCaches(firstPetId, secondPetIds, updatedIds);
+        AfterCommit.run(() -> evictCaches(firstPetId, secondPetIds, updatedIds));
+    }
+
+    private void evictCaches(Long firstPetId, List<Long> secondPetIds, List<Long> updatedIds) {
+        org.hibernate.Cache cache = em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        for (Long updatedId : updatedIds) {
+            cache.evictEntityData(Likee.class, updatedId);
+        }
+        cache.evictCollectionData(Pet.class.getName() + ".firstLikees", firstPetId);
+        for (Long secondPetId : secondPetIds) {
+            cache.evictCollectionData(Pet.class.getName() + ".secondLikees", secondPetId);
+        }
+    }
+}
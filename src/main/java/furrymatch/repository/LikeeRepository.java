@@ -1,8 +1,11 @@
 package furrymatch.repository;
 
 import furrymatch.domain.Likee;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -13,4 +16,16 @@ import org.springframework.stereotype.Repository;
 public interface LikeeRepository extends JpaRepository<Likee, Long> {
     Optional<Likee> findByFirstPetIdAndSecondPetId(Long firstPetId, Long secondPetId);
     Optional<Likee> findBySecondPetIdAndFirstPetId(Long secondPetId, Long firstPetId);
+
+    @Query("select likee.firstPet.id from Likee likee where likee.secondPet.id = :secondPetId and likee.firstPet.id in :firstPetIds")
+    List<Long> findFirstPetIdsBySecondPetIdAndFirstPetIdIn(
+        @Param("secondPetId") Long secondPetId,
+        @Param("firstPetIds") Collection<Long> firstPetIds
+    );
+
+    @Query("select likee from Likee likee where likee.firstPet.id = :firstPetId and likee.secondPet.id in :secondPetIds")
+    List<Likee> findByFirstPetIdAndSecondPetIdIn(
+        @Param("firstPetId") Long firstPetId,
+        @Param("secondPetIds") Collection<Long> secondPetIds
+    );
 }
@@ -0,0 +1,27 @@
+package furrymatch.repository;
+
+import furrymatch.domain.MailOutbox;
+import furrymatch.domain.enumeration.MailOutboxStatus;
+import java.time.Instant;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the MailOutbox entity.
+ */
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+    /**
+     * Lock the oldest emails due to be sent. Rows locked by another dispatcher are skipped ({@code -2} is the
+     * Hibernate "skip locked" timeout), so several instances can drain the outbox at the same time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select mail from MailOutbox mail where mail.status = :status and mail.nextAttemptAt <= :now order by mail.id")
+    List<MailOutbox> findDue(@Param("status") MailOutboxStatus status, @Param("now") Instant now, Pageable pageable);
+}
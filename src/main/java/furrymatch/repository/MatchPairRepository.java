@@ -0,0 +1,67 @@
+package furrymatch.repository;
+
+import furrymatch.domain.MatchPair;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the MatchPair entity.
+ */
+@Repository
+public interface MatchPairRepository extends JpaRepository<MatchPair, Long> {
+    /**
+     * Find the pair of two pets. The read locks the row, so it sees the latest committed pair whatever the
+     * transaction snapshot.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<MatchPair> findByLowPetIdAndHighPetId(Long lowPetId, Long highPetId);
+
+    @Query(
+        "select pair.matchId from MatchPair pair where pair.lowPetId = :petId and pair.matchId < :beforeMatchId " +
+        "order by pair.matchId desc"
+    )
+    List<Long> findMatchIdsByLowPetIdBefore(
+        @Param("petId") Long petId,
+        @Param("beforeMatchId") Long beforeMatchId,
+        Pageable pageable
+    );
+
+    @Query(
+        "select pair.matchId from MatchPair pair where pair.highPetId = :petId and pair.matchId < :beforeMatchId " +
+        "order by pair.matchId desc"
+    )
+    List<Long> findMatchIdsByHighPetIdBefore(
+        @Param("petId") Long petId,
+        @Param("beforeMatchId") Long beforeMatchId,
+        Pageable pageable
+    );
+
+    @Query(
+        "select pair.matchId as matchId, pair.lowPetId as lowPetId, pair.highPetId as highPetId, " +
+        "m.dateMatch as dateMatch, contract.id as contractId, contract.status as contractStatus " +
+        "from MatchPair pair, Match m left join m.contract contract " +
+        "where m.id = pair.matchId and pair.matchId in :matchIds"
+    )
+    List<MatchSummaryProjection> findSummariesByMatchIdIn(@Param("matchIds") Collection<Long> matchIds);
+
+    @Query(
+        "select pet.owner.id from MatchPair pair, Pet pet " +
+        "where pair.matchId = :matchId and (pet.id = pair.lowPetId or pet.id = pair.highPetId)"
+    )
+    List<Long> findOwnerIdsByMatchId(@Param("matchId") Long matchId);
+
+    /**
+     * Find the pets of a match with their owners, as {@code [petId, ownerId]} rows.
+     */
+    @Query(
+        "select pet.id, pet.owner.id from MatchPair pair, Pet pet " +
+        "where pair.matchId = :matchId and (pet.id = pair.lowPetId or pet.id = pair.highPetId)"
+    )
+    List<Object[]> findPetsAndOwnersByMatchId(@Param("matchId") Long matchId);
+}
@@ -0,0 +1,22 @@
+package furrymatch.repository;
+
+import furrymatch.domain.enumeration.ContractStatus;
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a {@link furrymatch.domain.Match} with its pair of pets and its contract, loaded in one
+ * query from the {@link furrymatch.domain.MatchPair} projection, without initializing any association.
+ */
+public interface MatchSummaryProjection {
+    Long getMatchId();
+
+    Long getLowPetId();
+
+    Long getHighPetId();
+
+    LocalDate getDateMatch();
+
+    Long getContractId();
+
+    ContractStatus getContractStatus();
+}
@@ -0,0 +1,165 @@
+package furrymatch.repository;
+
+import furrymatch.repository.PetSearchIndex.Attribute;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the base discovery candidates of a set of filters: the ids of all the pets matching them, before the
+ * exclusions that depend on who is searching (own pets, already swiped pets).
+ * <p>
+ * Many pets search with the same filters, so the entries are keyed by the normalized filter values and shared
+ * between them. Entries are evicted selectively: when a pet is re-indexed, only the entries whose filters match its
+ * previous or its new values are dropped.
+ * <p>
+ * Every eviction bumps a generation counter. Candidates are computed after reading it and only put if it did not
+ * change meanwhile, so an eviction landing between the lookup and the put is not overwritten with stale ids.
+ * <p>
+ * The cache drops entries on its own, when they expire or when it is full, without telling anyone. The keys whose
+ * entries are gone are swept whenever the tracked keys double, so they stay bounded by the size of the cache.
+ */
+@Component
+public class PetCandidateCache {
+
+    public static final String SEARCH_CANDIDATES_CACHE = "searchCandidates";
+
+    private final CacheManager cacheManager;
+
+    /**
+     * The filters of every key put in the cache, so the entries affected by a change can be found without scanning
+     * the cache itself.
+     */
+    private final Map<String, Map<Attribute, String>> keys = new ConcurrentHashMap<>();
+
+    static final int MIN_SWEEP_SIZE = 64;
+
+    private long generation;
+
+    /**
+     * Number of tracked keys from which the next sweep runs.
+     */
+    private int sweepAt = MIN_SWEEP_SIZE;
+
+    public PetCandidateCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the cached candidates of some filters.
+     *
+     * @param filterValues the filters, as returned by {@link PetSearchIndex#filterValues}.
+     * @return the ids of the matching pets in ascending order, which must not be modified, or empty on a miss.
+     */
+    public Optional<long[]> get(Map<Attribute, String> filterValues) {
+        return Optional.ofNullable(cache().get(key(filterValues), long[].class));
+    }
+
+    /**
+     * Get the current generation, to be read before computing candidates that will be put in the cache.
+     *
+     * @return the number of evictions so far.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Cache the candidates of some filters, unless an eviction happened since they were computed.
+     *
+     * @param filterValues the filters, as returned by {@link PetSearchIndex#filterValues}.
+     * @param candidateIds the ids of the matching pets, in ascending order.
+     * @param computedAt the {@link #generation()} read before computing the candidates.
+     * @return whether the candidates were cached.
+     */
+    public synchronized boolean put(Map<Attribute, String> filterValues, long[] candidateIds, long computedAt) {
+        if (computedAt != generation) {
+            return false;
+        }
+        String key = key(filterValues);
+        keys.put(key, filterValues);
+        cache().put(key, candidateIds);
+        if (keys.size() >= sweepAt) {
+            sweep();
+        }
+        return true;
+    }
+
+    /**
+     * Forget the keys whose entries the cache dropped on its own.
+     */
+    private void sweep() {
+        Cache cache = cache();
+        keys.keySet().removeIf(key -> cache.get(key) == null);
+        sweepAt = Math.max(MIN_SWEEP_SIZE, keys.size() * 2);
+    }
+
+    /**
+     * @return the number of keys tracked for the selective evictions.
+     */
+    int trackedKeys() {
+        return keys.size();
+    }
+
+    /**
+     * Evict the entries a pet belongs to, or will belong to.
+     *
+     * @param previous the values the pet was indexed with, or {@code null} if it was not indexed.
+     * @param current the values the pet is now indexed with, or {@code null} if it was removed.
+     */
+    public synchronized void evictMatching(Map<Attribute, Set<String>> previous, Map<Attribute, Set<String>> current) {
+        generation++;
+        keys.forEach((key, filterValues) -> {
+            if (matches(filterValues, previous) || matches(filterValues, current)) {
+                keys.remove(key);
+                cache().evict(key);
+            }
+        });
+    }
+
+    /**
+     * Evict all the entries.
+     */
+    public synchronized void clear() {
+        generation++;
+        keys.clear();
+        sweepAt = MIN_SWEEP_SIZE;
+        cache().clear();
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(SEARCH_CANDIDATES_CACHE));
+    }
+
+    static boolean matches(Map<Attribute, String> filterValues, Map<Attribute, Set<String>> petValues) {
+        if (petValues == null) {
+            return false;
+        }
+        for (Map.Entry<Attribute, String> filter : filterValues.entrySet()) {
+            Set<String> values = petValues.get(filter.getKey());
+            if (values == null || !values.contains(filter.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Canonical form of a set of filters: the filter values, in {@link Attribute} order.
+     */
+    static String key(Map<Attribute, String> filterValues) {
+        StringBuilder key = new StringBuilder();
+        for (Attribute attribute : Attribute.values()) {
+            String value = filterValues.get(attribute);
+            if (value != null) {
+                key.append(attribute.name()).append('=').append(value.length()).append(':').append(value).append(';');
+            }
+        }
+        return key.toString();
+    }
+}
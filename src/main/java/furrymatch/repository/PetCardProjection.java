@@ -0,0 +1,38 @@
+package furrymatch.repository;
+
+import furrymatch.domain.enumeration.PetType;
+import furrymatch.domain.enumeration.Sex;
+
+/**
+ * Read-only projection of a {@link furrymatch.domain.Pet} with the fields shown on a pet card, loaded in one query
+ * with its breed and its owner location, without initializing any association.
+ */
+public interface PetCardProjection {
+    Long getId();
+
+    String getName();
+
+    PetType getPetType();
+
+    String getDescription();
+
+    Sex getSex();
+
+    Boolean getTradeMoney();
+
+    Boolean getTradePups();
+
+    Boolean getPedigree();
+
+    Double getDesireAmmount();
+
+    Long getBreedId();
+
+    String getBreedName();
+
+    String getProvince();
+
+    String getCanton();
+
+    String getDistrict();
+}
@@ -3,8 +3,8 @@ package furrymatch.repository;
 import furrymatch.domain.Pet;
 import furrymatch.domain.Photo;
 import furrymatch.domain.SearchCriteria;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
@@ -16,17 +16,20 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface PetRepository extends JpaRepository<Pet, Long> {
+    String PET_CARD_QUERY =
+        "select pet.id as id, pet.name as name, pet.petType as petType, pet.description as description, pet.sex as sex, " +
+        "pet.tradeMoney as tradeMoney, pet.tradePups as tradePups, pet.pedigree as pedigree, pet.desireAmmount as desireAmmount, " +
+        "breed.id as breedId, breed.breed as breedName, owner.province as province, owner.canton as canton, owner.district as district " +
+        "from Pet pet left join pet.breed breed left join pet.owner owner ";
+
     @Query(value = "SELECT * FROM Pet WHERE owner_user_id = :ownerId", nativeQuery = true)
     List<Pet> findAllByOwnerID(@Param("ownerId") Long ownerId);
 
-    @Query(
-        value = "SELECT jm.id AS matchId " +
-        "FROM pet p " +
-        "JOIN likee l1 ON (p.id = l1.first_pet_id OR p.id = l1.second_pet_id) " +
-        "JOIN likee l2 ON (p.id = l2.first_pet_id OR p.id = l2.second_pet_id) " +
-        "JOIN jhi_match jm ON (l1.id = jm.first_liked_id AND l2.id = jm.second_liked_id) " +
-        "WHERE p.id = :petId",
-        nativeQuery = true
-    )
-    Optional<Long> findMatchByPetId(@Param("petId") Long petId);
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    @Query(PET_CARD_QUERY + "where pet.id in :ids")
+    List<PetCardProjection> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(PET_CARD_QUERY + "where owner.id = :ownerId order by pet.id")
+    List<PetCardProjection> findCardsByOwnerId(@Param("ownerId") Long ownerId);
 }
@@ -0,0 +1,693 @@
+package furrymatch.repository;
+
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
+import furrymatch.domain.SearchCriteria;
+import furrymatch.domain.enumeration.PetType;
+import java.text.Normalizer;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory inverted index over the discovery filters of {@link Pet} and {@link Owner}.
+ * <p>
+ * Every attribute value owns a bitmap of the pet ids having that value, so a discovery search is answered by
+ * intersecting at most ten bitmaps instead of evaluating a dynamic Criteria query. The index is loaded once when the
+ * application is ready, and then maintained incrementally (after commit) by the services that write pets, owners and
+ * search criteria.
+ * <p>
+ * A pet has one value per attribute, except the objective: a pet matches the objective of any of its search
+ * criteria, as with the join of the SQL search. Values are compared like the database collation does, ignoring case
+ * and accents (see {@link #normalize(String)}).
+ * <p>
+ * Facet counts are kept per facet and filter context, computed from the postings on the first request of a context
+ * and then updated on every re-indexed pet. A request only subtracts the pets excluded for the pet that is swiping.
+ */
+@Component
+public class PetSearchIndex {
+
+    /**
+     * The attributes a discovery search can filter on.
+     */
+    public enum Attribute {
+        PET_TYPE,
+        SEX,
+        BREED,
+        PEDIGREE,
+        TRADE_MONEY,
+        TRADE_PUPS,
+        PROVINCE,
+        CANTON,
+        DISTRICT,
+        OBJECTIVE,
+        OWNER,
+    }
+
+    static final int MAX_FACET_CONTEXTS = 1_000;
+
+    private final Logger log = LoggerFactory.getLogger(PetSearchIndex.class);
+
+    private final EntityManager em;
+
+    private final PetCandidateCache petCandidateCache;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Attribute, Map<String, BitSet>> postings = new EnumMap<>(Attribute.class);
+
+    private final Map<Long, Map<Attribute, Set<String>>> petValues = new HashMap<>();
+
+    /**
+     * The objective of every search criteria, by pet then by search criteria id.
+     */
+    private final Map<Long, Map<Long, String>> objectives = new HashMap<>();
+
+    private final Map<Long, Long> objectivePets = new HashMap<>();
+
+    /**
+     * The first spelling seen of every normalized value, so facets are returned as the users wrote them.
+     */
+    private final Map<Attribute, Map<String, String>> labels = new EnumMap<>(Attribute.class);
+
+    private final BitSet ownedPets = new BitSet();
+
+    /**
+     * The number of owned pets matching a filter context, by value of the counted facet. Kept up to date by
+     * {@link #replace(Long, Map)}.
+     */
+    private final Map<FacetKey, Map<String, Long>> facetCounts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FacetKey, Map<String, Long>> eldest) {
+            return size() > MAX_FACET_CONTEXTS;
+        }
+    };
+
+    private volatile boolean ready;
+
+    public PetSearchIndex(EntityManager em, PetCandidateCache petCandidateCache) {
+        this.em = em;
+        this.petCandidateCache = petCandidateCache;
+        for (Attribute attribute : Attribute.values()) {
+            postings.put(attribute, new HashMap<>());
+            labels.put(attribute, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Load the whole index from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        lock.writeLock().lock();
+        try {
+            List<Object[]> pets = em
+                .createQuery(
+                    "select pet.id, pet.petType, pet.sex, breed.id, pet.pedigree, pet.tradeMoney, pet.tradePups, " +
+                    "owner.id, owner.province, owner.canton, owner.district " +
+                    "from Pet pet left join pet.breed breed left join pet.owner owner",
+                    Object[].class
+                )
+                .getResultList();
+            List<Object[]> searchCriteria = em
+                .createQuery(
+                    "select sc.id, sc.pet.id, sc.objective from SearchCriteria sc where sc.pet is not null and sc.objective is not null",
+                    Object[].class
+                )
+                .getResultList();
+
+            postings.values().forEach(Map::clear);
+            synchronized (facetCounts) {
+                facetCounts.clear();
+            }
+            petValues.clear();
+            objectives.clear();
+            objectivePets.clear();
+            ownedPets.clear();
+            for (Object[] row : searchCriteria) {
+                putObjective((Long) row[0], (Long) row[1], (String) row[2]);
+            }
+            for (Object[] row : pets) {
+                Map<Attribute, Set<String>> values = new EnumMap<>(Attribute.class);
+                put(values, Attribute.PET_TYPE, row[1]);
+                put(values, Attribute.SEX, row[2]);
+                put(values, Attribute.BREED, row[3]);
+                put(values, Attribute.PEDIGREE, row[4]);
+                put(values, Attribute.TRADE_MONEY, row[5]);
+                put(values, Attribute.TRADE_PUPS, row[6]);
+                put(values, Attribute.OWNER, row[7]);
+                put(values, Attribute.PROVINCE, row[8]);
+                put(values, Attribute.CANTON, row[9]);
+                put(values, Attribute.DISTRICT, row[10]);
+                putObjectives((Long) row[0], values);
+                replace((Long) row[0], values);
+            }
+            ready = true;
+            petCandidateCache.clear();
+            log.info("Pet search index loaded with {} pets", petValues.size());
+        } catch (RuntimeException e) {
+            ready = false;
+            petCandidateCache.clear();
+            log.warn("Pet search index disabled, falling back to database queries: {}", e.toString());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} once the index has been loaded and can answer searches.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Index (or re-index) a pet and its owner location, once the current transaction commits.
+     *
+     * @param pet the saved pet.
+     */
+    public void index(Pet pet) {
+        Map<Attribute, Set<String>> values = new EnumMap<>(Attribute.class);
+        put(values, Attribute.PET_TYPE, pet.getPetType());
+        put(values, Attribute.SEX, pet.getSex());
+        put(values, Attribute.BREED, pet.getBreed() != null ? pet.getBreed().getId() : null);
+        put(values, Attribute.PEDIGREE, pet.getPedigree());
+        put(values, Attribute.TRADE_MONEY, pet.getTradeMoney());
+        put(values, Attribute.TRADE_PUPS, pet.getTradePups());
+        Owner owner = pet.getOwner();
+        if (owner != null) {
+            put(values, Attribute.OWNER, owner.getId());
+            put(values, Attribute.PROVINCE, owner.getProvince());
+            put(values, Attribute.CANTON, owner.getCanton());
+            put(values, Attribute.DISTRICT, owner.getDistrict());
+        }
+        Long petId = pet.getId();
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                putObjectives(petId, values);
+                evictCandidates(replace(petId, values), values);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Index the objective of a search criteria, once the current transaction commits.
+     *
+     * @param searchCriteriaId the id of the search criteria.
+     * @param petId the id of the pet owning the search criteria.
+     * @param objective the objective, or {@code null} if it has none.
+     */
+    public void indexObjective(Long searchCriteriaId, Long petId, String objective) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Long previousPetId = forgetObjective(searchCriteriaId);
+                putObjective(searchCriteriaId, petId, objective);
+                refreshObjectives(previousPetId);
+                if (!petId.equals(previousPetId)) {
+                    refreshObjectives(petId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Remove the objective of a deleted search criteria, once the current transaction commits.
+     *
+     * @param searchCriteriaId the id of the search criteria.
+     */
+    public void removeObjective(Long searchCriteriaId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                refreshObjectives(forgetObjective(searchCriteriaId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Re-index the location of all the pets of an owner, once the current transaction commits.
+     *
+     * @param owner the saved owner.
+     */
+    public void indexOwnerLocation(Owner owner) {
+        Map<Attribute, Set<String>> values = new EnumMap<>(Attribute.class);
+        put(values, Attribute.PROVINCE, owner.getProvince());
+        put(values, Attribute.CANTON, owner.getCanton());
+        put(values, Attribute.DISTRICT, owner.getDistrict());
+        Long ownerId = owner.getId();
+        AfterCommit.run(() -> {
+            if (!ready) {
+                petCandidateCache.clear();
+            }
+            BitSet pets = petsOf(Attribute.OWNER, String.valueOf(ownerId));
+            for (int petId = pets.nextSetBit(0); petId >= 0; petId = pets.nextSetBit(petId + 1)) {
+                merge((long) petId, values, Attribute.PROVINCE, Attribute.CANTON, Attribute.DISTRICT);
+            }
+        });
+    }
+
+    /**
+     * Remove a pet from the index, once the current transaction commits.
+     *
+     * @param petId the id of the deleted pet.
+     */
+    public void remove(Long petId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Map<Long, String> petObjectives = objectives.remove(petId);
+                if (petObjectives != null) {
+                    petObjectives.keySet().forEach(objectivePets::remove);
+                }
+                evictCandidates(replace(petId, null), null);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Compute the ids of the pets matching the given filters.
+     *
+     * @param filters the search criteria.
+     * @return a fresh bitmap of the matching pet ids, or empty if the index is not ready.
+     */
+    public Optional<BitSet> candidates(SearchCriteria filters) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Map<Attribute, String> wanted = filterValues(filters);
+        lock.readLock().lock();
+        try {
+            // Pets without an owner never show up in discovery
+            BitSet result = (BitSet) ownedPets.clone();
+            for (Map.Entry<Attribute, String> filter : wanted.entrySet()) {
+                BitSet posting = postings.get(filter.getKey()).get(filter.getValue());
+                if (posting == null) {
+                    return Optional.of(new BitSet());
+                }
+                result.and(posting);
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count, for every value of the given attributes, the pets that would match the filters if that value was
+     * selected. The filter on the counted attribute itself is ignored, so every alternative value gets a count.
+     *
+     * @param filters the search criteria giving the filter context.
+     * @param ownerId the current owner, whose pets are not counted.
+     * @param seen the pets already swiped by the pet that is swiping, which are not counted either.
+     * @param facets the attributes to count.
+     * @return the number of matching pets by value, by attribute, or empty if the index is not ready.
+     */
+    public Optional<Map<Attribute, Map<String, Long>>> facets(
+        SearchCriteria filters,
+        Long ownerId,
+        LongHashSet seen,
+        Attribute... facets
+    ) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Map<Attribute, String> wanted = filterValues(filters);
+        Map<Attribute, Map<String, Long>> counts = new EnumMap<>(Attribute.class);
+        lock.readLock().lock();
+        try {
+            BitSet excluded = petsOf(Attribute.OWNER, String.valueOf(ownerId));
+            synchronized (seen) {
+                for (LongCursor cursor : seen) {
+                    if (cursor.value >= 0 && cursor.value <= Integer.MAX_VALUE) {
+                        excluded.set((int) cursor.value);
+                    }
+                }
+            }
+            excluded.and(ownedPets);
+            for (Attribute facet : facets) {
+                Map<Attribute, String> context = new EnumMap<>(Attribute.class);
+                context.putAll(wanted);
+                context.remove(facet);
+                Map<String, Long> valueCounts = new HashMap<>(facetCounts(new FacetKey(facet, context)));
+                for (int petId = excluded.nextSetBit(0); petId >= 0; petId = excluded.nextSetBit(petId + 1)) {
+                    count(valueCounts, facet, context, petValues.get((long) petId), -1);
+                }
+                Map<String, Long> labelled = new TreeMap<>();
+                valueCounts.forEach((value, count) -> labelled.put(label(facet, value), count));
+                counts.put(facet, labelled);
+            }
+            return Optional.of(counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the ids of the pets having the given value for an attribute.
+     *
+     * @param attribute the attribute.
+     * @param value the value, as returned by {@link #filterValues(SearchCriteria)}.
+     * @return a fresh bitmap of pet ids.
+     */
+    public BitSet petsOf(Attribute attribute, String value) {
+        lock.readLock().lock();
+        try {
+            BitSet posting = postings.get(attribute).get(normalize(value));
+            return posting == null ? new BitSet() : (BitSet) posting.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalize the filters of a search criteria into index values, mirroring how {@link SearchPetRepository}
+     * binds them in SQL and how the database compares them. Only the filters that are set are returned.
+     *
+     * @param filters the search criteria.
+     * @return the filter values, by attribute.
+     */
+    public static Map<Attribute, String> filterValues(SearchCriteria filters) {
+        Map<Attribute, String> values = new EnumMap<>(Attribute.class);
+        if (filters.getObjective() != null) {
+            values.put(Attribute.OBJECTIVE, normalize(filters.getObjective()));
+        }
+        if (filters.getFilterType() != null) {
+            values.put(Attribute.PET_TYPE, normalize(PetType.valueOf(filters.getFilterType()).name()));
+        }
+        if (filters.getSex() != null) {
+            values.put(Attribute.SEX, normalize(filters.getSex().name()));
+        }
+        if (filters.getBreed() != null) {
+            values.put(Attribute.BREED, normalize(String.valueOf(Long.valueOf(filters.getBreed()))));
+        }
+        if (filters.getTradePups() != null) {
+            values.put(Attribute.TRADE_PUPS, normalize(String.valueOf(Boolean.valueOf(filters.getTradePups()))));
+        }
+        if (filters.getPedigree() != null) {
+            values.put(Attribute.PEDIGREE, normalize(String.valueOf(Boolean.valueOf(filters.getPedigree()))));
+        }
+        if (filters.getTradeMoney() != null) {
+            values.put(Attribute.TRADE_MONEY, normalize(String.valueOf(Boolean.valueOf(filters.getTradeMoney()))));
+        }
+        if (filters.getProvice() != null) {
+            values.put(Attribute.PROVINCE, normalize(filters.getProvice()));
+        }
+        if (filters.getCanton() != null) {
+            values.put(Attribute.CANTON, normalize(filters.getCanton()));
+        }
+        if (filters.getDistrict() != null) {
+            values.put(Attribute.DISTRICT, normalize(filters.getDistrict()));
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    private void merge(Long petId, Map<Attribute, Set<String>> values, Attribute... merged) {
+        lock.writeLock().lock();
+        try {
+            Map<Attribute, Set<String>> current = petValues.get(petId);
+            if (current == null) {
+                evictCandidates(null, null);
+                return;
+            }
+            Map<Attribute, Set<String>> updated = new EnumMap<>(current);
+            for (Attribute attribute : merged) {
+                updated.remove(attribute);
+            }
+            updated.putAll(values);
+            evictCandidates(replace(petId, updated), updated);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record the objective of a search criteria. Must be called with the write lock held.
+     */
+    private void putObjective(Long searchCriteriaId, Long petId, String objective) {
+        if (objective == null || petId == null) {
+            return;
+        }
+        String value = normalize(objective);
+        label(Attribute.OBJECTIVE, value, objective);
+        objectives.computeIfAbsent(petId, id -> new HashMap<>()).put(searchCriteriaId, value);
+        objectivePets.put(searchCriteriaId, petId);
+    }
+
+    /**
+     * Forget the objective of a search criteria. Must be called with the write lock held.
+     *
+     * @return the id of the pet that owned it, or {@code null}.
+     */
+    private Long forgetObjective(Long searchCriteriaId) {
+        Long petId = objectivePets.remove(searchCriteriaId);
+        if (petId != null) {
+            Map<Long, String> petObjectives = objectives.get(petId);
+            if (petObjectives != null) {
+                petObjectives.remove(searchCriteriaId);
+                if (petObjectives.isEmpty()) {
+                    objectives.remove(petId);
+                }
+            }
+        }
+        return petId;
+    }
+
+    /**
+     * Set the objectives of a pet in its values. Must be called with the write lock held.
+     */
+    private void putObjectives(Long petId, Map<Attribute, Set<String>> values) {
+        Map<Long, String> petObjectives = objectives.get(petId);
+        if (petObjectives == null || petObjectives.isEmpty()) {
+            values.remove(Attribute.OBJECTIVE);
+        } else {
+            values.put(Attribute.OBJECTIVE, Collections.unmodifiableSet(new HashSet<>(petObjectives.values())));
+        }
+    }
+
+    /**
+     * Re-index a pet after its objectives changed. Must be called with the write lock held.
+     */
+    private void refreshObjectives(Long petId) {
+        if (petId == null) {
+            return;
+        }
+        Map<Attribute, Set<String>> current = petValues.get(petId);
+        if (current == null) {
+            evictCandidates(null, null);
+            return;
+        }
+        Map<Attribute, Set<String>> updated = new EnumMap<>(current);
+        putObjectives(petId, updated);
+        evictCandidates(replace(petId, updated), updated);
+    }
+
+    /**
+     * Get the counts of a facet in a filter context, computing them from the postings on the first request. Must be
+     * called with the read or the write lock held.
+     */
+    private Map<String, Long> facetCounts(FacetKey key) {
+        synchronized (facetCounts) {
+            Map<String, Long> counts = facetCounts.get(key);
+            if (counts != null) {
+                return counts;
+            }
+        }
+        BitSet context = (BitSet) ownedPets.clone();
+        for (Map.Entry<Attribute, String> filter : key.context.entrySet()) {
+            BitSet posting = postings.get(filter.getKey()).get(filter.getValue());
+            if (posting == null) {
+                context.clear();
+                break;
+            }
+            context.and(posting);
+        }
+        Map<String, Long> counts = new HashMap<>();
+        if (!context.isEmpty()) {
+            BitSet matching = new BitSet();
+            postings
+                .get(key.facet)
+                .forEach((value, posting) -> {
+                    matching.clear();
+                    matching.or(posting);
+                    matching.and(context);
+                    int count = matching.cardinality();
+                    if (count > 0) {
+                        counts.put(value, (long) count);
+                    }
+                });
+        }
+        synchronized (facetCounts) {
+            // Another reader may have computed the same counts meanwhile, both are equal under the read lock
+            return facetCounts.computeIfAbsent(key, k -> counts);
+        }
+    }
+
+    /**
+     * Add the facet values of a pet to some counts, if it is owned and matches their filter context.
+     */
+    private static void count(
+        Map<String, Long> counts,
+        Attribute facet,
+        Map<Attribute, String> context,
+        Map<Attribute, Set<String>> values,
+        long delta
+    ) {
+        if (values == null || !values.containsKey(Attribute.OWNER) || !PetCandidateCache.matches(context, values)) {
+            return;
+        }
+        for (String value : values.getOrDefault(facet, Collections.emptySet())) {
+            counts.compute(value, (v, count) -> {
+                long updated = (count == null ? 0 : count) + delta;
+                return updated > 0 ? updated : null;
+            });
+        }
+    }
+
+    /**
+     * Drop the cached candidates a re-indexed pet may have entered or left. Until the index is loaded, the previous
+     * values of the pet are not known, so the whole cache is dropped.
+     */
+    private void evictCandidates(Map<Attribute, Set<String>> previous, Map<Attribute, Set<String>> current) {
+        if (ready) {
+            petCandidateCache.evictMatching(previous, current);
+        } else {
+            petCandidateCache.clear();
+        }
+    }
+
+    /**
+     * Swap the indexed values of a pet. Must be called with the write lock held.
+     *
+     * @return the values the pet was indexed with, or {@code null} if it was not indexed.
+     */
+    private Map<Attribute, Set<String>> replace(Long petId, Map<Attribute, Set<String>> values) {
+        int bit = toBit(petId);
+        Map<Attribute, Set<String>> previous = values == null ? petValues.remove(petId) : petValues.put(petId, values);
+        if (previous != null) {
+            previous.forEach((attribute, attributeValues) -> {
+                Map<String, BitSet> attributePostings = postings.get(attribute);
+                for (String value : attributeValues) {
+                    BitSet posting = attributePostings.get(value);
+                    if (posting != null) {
+                        posting.clear(bit);
+                        if (posting.isEmpty()) {
+                            attributePostings.remove(value);
+                        }
+                    }
+                }
+            });
+        }
+        if (values != null) {
+            values.forEach((attribute, attributeValues) -> {
+                for (String value : attributeValues) {
+                    postings.get(attribute).computeIfAbsent(value, v -> new BitSet()).set(bit);
+                }
+            });
+        }
+        ownedPets.set(bit, values != null && values.containsKey(Attribute.OWNER));
+        synchronized (facetCounts) {
+            facetCounts.forEach((key, counts) -> {
+                count(counts, key.facet, key.context, previous, -1);
+                count(counts, key.facet, key.context, values, 1);
+            });
+        }
+        return previous;
+    }
+
+    private void put(Map<Attribute, Set<String>> values, Attribute attribute, Object value) {
+        if (value != null) {
+            String label = value instanceof Enum ? ((Enum<?>) value).name() : String.valueOf(value);
+            String normalized = normalize(label);
+            label(attribute, normalized, label);
+            values.put(attribute, Collections.singleton(normalized));
+        }
+    }
+
+    private void label(Attribute attribute, String normalized, String label) {
+        labels.get(attribute).putIfAbsent(normalized, label);
+    }
+
+    private String label(Attribute attribute, String normalized) {
+        return labels.get(attribute).getOrDefault(normalized, normalized);
+    }
+
+    /**
+     * Normalize a value the way the database collation compares strings: case and accents are ignored.
+     *
+     * @param value the value.
+     * @return the normalized value.
+     */
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static int toBit(Long petId) {
+        if (petId == null || petId < 0 || petId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Pet id out of the index range: " + petId);
+        }
+        return petId.intValue();
+    }
+
+    private static final class FacetKey {
+
+        private final Attribute facet;
+
+        private final Map<Attribute, String> context;
+
+        private FacetKey(Attribute facet, Map<Attribute, String> context) {
+            this.facet = facet;
+            this.context = context;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FacetKey)) {
+                return false;
+            }
+            FacetKey other = (FacetKey) o;
+            return facet == other.facet && context.equals(other.context);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(facet, context);
+        }
+    }
+}
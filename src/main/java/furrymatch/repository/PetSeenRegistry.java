@@ -0,0 +1,169 @@
+package furrymatch.repository;
+
+import com.carrotsearch.hppc.LongHashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-pet "seen" sets: the ids of the pets a pet has already liked or disliked.
+ * <p>
+ * A set is loaded lazily from the {@code likee} table the first time a pet searches, then kept up to date by
+ * {@link #record(Long, Long)} on every new like, so discovery can filter already swiped pets in memory instead of
+ * running a {@code NOT IN} subquery that grows with every swipe. The sets are primitive long hash sets, and only
+ * the most recently used {@link #MAX_PETS} pets are kept in memory.
+ * <p>
+ * A pet is registered as loading before its set is read, so the swipes committed while the query runs are kept
+ * aside and merged into the loaded set instead of being lost.
+ */
+@Component
+public class PetSeenRegistry {
+
+    static final int MAX_PETS = 10_000;
+
+    private final EntityManager em;
+
+    private final Map<Long, LongHashSet> seenByPet = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, LongHashSet> eldest) {
+            return size() > MAX_PETS;
+        }
+    };
+
+    private final Map<Long, Loading> loading = new HashMap<>();
+
+    public PetSeenRegistry(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Get the ids of the pets already swiped by a pet, loading them if needed.
+     * <p>
+     * The returned set is shared: callers must only read it while holding its monitor.
+     *
+     * @param petId the id of the pet that is swiping.
+     * @return the seen set.
+     */
+    public LongHashSet seenBy(Long petId) {
+        Loading pending;
+        synchronized (seenByPet) {
+            LongHashSet seen = seenByPet.get(petId);
+            if (seen != null) {
+                return seen;
+            }
+            pending = loading.computeIfAbsent(petId, id -> new Loading());
+            pending.loaders++;
+        }
+        LongHashSet loaded = new LongHashSet();
+        try {
+            em
+                .createQuery(
+                    "select likee.secondPet.id from Likee likee where likee.firstPet.id = :petId and likee.secondPet is not null",
+                    Long.class
+                )
+                .setParameter("petId", petId)
+                .getResultList()
+                .forEach(loaded::add);
+        } catch (RuntimeException e) {
+            synchronized (seenByPet) {
+                release(petId, pending);
+            }
+            throw e;
+        }
+        synchronized (seenByPet) {
+            release(petId, pending);
+            LongHashSet seen = seenByPet.get(petId);
+            if (seen != null) {
+                return seen;
+            }
+            loaded.addAll(pending.recorded);
+            if (!pending.evicted) {
+                seenByPet.put(petId, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Unregister a load. Must be called while holding the monitor of {@code seenByPet}.
+     */
+    private void release(Long petId, Loading pending) {
+        if (--pending.loaders == 0) {
+            loading.remove(petId);
+        }
+    }
+
+    /**
+     * Check whether a pet was already swiped.
+     *
+     * @param seen a set returned by {@link #seenBy(Long)}.
+     * @param candidateId the id of the candidate pet.
+     * @return {@code true} if the candidate was already swiped.
+     */
+    public static boolean contains(LongHashSet seen, long candidateId) {
+        synchronized (seen) {
+            return seen.contains(candidateId);
+        }
+    }
+
+    /**
+     * Record a swipe, once the current transaction commits. If the set of the swiping pet is being loaded, the swipe
+     * is merged into it once loaded; if it is not loaded at all, it will be read from the database when needed.
+     *
+     * @param firstPetId the id of the pet that swiped.
+     * @param secondPetId the id of the swiped pet.
+     */
+    public void record(Long firstPetId, Long secondPetId) {
+        if (firstPetId == null || secondPetId == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            LongHashSet seen;
+            synchronized (seenByPet) {
+                seen = seenByPet.get(firstPetId);
+                Loading pending = loading.get(firstPetId);
+                if (seen == null && pending != null) {
+                    pending.recorded.add(secondPetId);
+                }
+            }
+            if (seen != null) {
+                synchronized (seen) {
+                    seen.add(secondPetId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop the set of a pet, once the current transaction commits, so it is reloaded on its next search.
+     *
+     * @param petId the id of the pet.
+     */
+    public void evict(Long petId) {
+        AfterCommit.run(() -> {
+            synchronized (seenByPet) {
+                seenByPet.remove(petId);
+                Loading pending = loading.get(petId);
+                if (pending != null) {
+                    // The loads in progress may have read the removed swipes
+                    pending.evicted = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * A set being read from the database.
+     */
+    private static final class Loading {
+
+        private int loaders;
+
+        private boolean evicted;
+
+        private final LongHashSet recorded = new LongHashSet();
+    }
+}
@@ -1,6 +1,7 @@
 package furrymatch.repository;
 
 import furrymatch.domain.Photo;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
@@ -16,4 +17,10 @@ public interface PhotoRepository extends JpaRepository<Photo, Long> {
     List<Photo> findAllPhotosByPetID(@Param("petId") Long petId);
 
     void deleteByIdIn(List<Long> ids);
+
+    /**
+     * Get the photo URLs of some pets, as {@code [petId, photoUrl]} rows ordered by pet then photo.
+     */
+    @Query("select photo.pet.id, photo.photoUrl from Photo photo where photo.pet.id in :petIds order by photo.pet.id, photo.id")
+    List<Object[]> findPhotoUrlsByPetIdIn(@Param("petIds") Collection<Long> petIds);
 }
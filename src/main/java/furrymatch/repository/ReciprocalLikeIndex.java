@@ -0,0 +1,160 @@
+package furrymatch.repository;
+
+import com.carrotsearch.hppc.LongHashSet;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory set of the (first pet, second pet) pairs of the {@code likee} table, so a mutual like can be detected
+ * without querying the database.
+ * <p>
+ * Each pair is packed into a single primitive long, there is at most one likee row per pair, and the pairs are
+ * spread over {@link #STRIPES} primitive hash sets, each guarded by its own monitor, so concurrent swipes rarely
+ * contend. The set is loaded once when the application is ready and then maintained (after commit) by the likee
+ * service.
+ */
+@Component
+public class ReciprocalLikeIndex {
+
+    private static final int STRIPE_BITS = 6;
+
+    static final int STRIPES = 1 << STRIPE_BITS;
+
+    private final Logger log = LoggerFactory.getLogger(ReciprocalLikeIndex.class);
+
+    private final EntityManager em;
+
+    private final LongHashSet[] stripes = new LongHashSet[STRIPES];
+
+    private volatile boolean ready;
+
+    public ReciprocalLikeIndex(EntityManager em) {
+        this.em = em;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LongHashSet();
+        }
+    }
+
+    /**
+     * Load the whole index from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        // Cleared before reading, so the likes committed while loading are kept
+        for (LongHashSet stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        List<Object[]> pairs = em
+            .createQuery(
+                "select likee.firstPet.id, likee.secondPet.id from Likee likee " +
+                "where likee.firstPet is not null and likee.secondPet is not null",
+                Object[].class
+            )
+            .getResultList();
+        for (Object[] pair : pairs) {
+            if (!packable((Long) pair[0], (Long) pair[1])) {
+                ready = false;
+                log.warn("Reciprocal like index disabled, pet ids exceed 32 bits: {}, {}", pair[0], pair[1]);
+                return;
+            }
+            add(pack((Long) pair[0], (Long) pair[1]));
+        }
+        ready = true;
+        log.info("Reciprocal like index loaded with {} likes", pairs.size());
+    }
+
+    /**
+     * Whether the index can answer for the given pets. When it cannot, the caller must ask the database.
+     *
+     * @param firstPetId the id of the pet that swiped.
+     * @param secondPetId the id of the swiped pet.
+     * @return {@code true} if {@link #contains(Long, Long)} can be trusted for these pets.
+     */
+    public boolean canAnswer(Long firstPetId, Long secondPetId) {
+        return ready && packable(firstPetId, secondPetId);
+    }
+
+    /**
+     * Check whether a pet has a likee row for another pet.
+     *
+     * @param firstPetId the id of the pet that swiped.
+     * @param secondPetId the id of the swiped pet.
+     * @return {@code true} if the pair is indexed.
+     */
+    public boolean contains(Long firstPetId, Long secondPetId) {
+        long key = pack(firstPetId, secondPetId);
+        LongHashSet stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.contains(key);
+        }
+    }
+
+    /**
+     * Index a pair, once the current transaction commits.
+     *
+     * @param firstPetId the id of the pet that swiped.
+     * @param secondPetId the id of the swiped pet.
+     */
+    public void record(Long firstPetId, Long secondPetId) {
+        if (!packable(firstPetId, secondPetId)) {
+            return;
+        }
+        long key = pack(firstPetId, secondPetId);
+        AfterCommit.run(() -> add(key));
+    }
+
+    /**
+     * Remove a pair, once the current transaction commits.
+     *
+     * @param firstPetId the id of the pet that swiped.
+     * @param secondPetId the id of the swiped pet.
+     */
+    public void remove(Long firstPetId, Long secondPetId) {
+        if (!packable(firstPetId, secondPetId)) {
+            return;
+        }
+        long key = pack(firstPetId, secondPetId);
+        AfterCommit.run(() -> {
+            LongHashSet stripe = stripe(key);
+            synchronized (stripe) {
+                stripe.remove(key);
+            }
+        });
+    }
+
+    private void add(long key) {
+        LongHashSet stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.add(key);
+        }
+    }
+
+    private LongHashSet stripe(long key) {
+        return stripes[stripeOf(key)];
+    }
+
+    static int stripeOf(long key) {
+        // Fold the two halves, so pairs of the same first pet are spread over the stripes
+        long mixed = (key ^ (key >>> 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> (Long.SIZE - STRIPE_BITS));
+    }
+
+    static long pack(long firstPetId, long secondPetId) {
+        return (firstPetId << 32) | secondPetId;
+    }
+
+    private static boolean packable(Long firstPetId, Long secondPetId) {
+        return (
+            firstPetId != null && secondPetId != null && firstPetId >= 0 && secondPetId >= 0 && firstPetId <= 0xFFFFFFFFL && secondPetId <= 0xFFFFFFFFL
+        );
+    }
+}
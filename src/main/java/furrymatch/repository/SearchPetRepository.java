@@ -1,11 +1,14 @@
 package furrymatch.repository;
 
+import com.carrotsearch.hppc.LongHashSet;
 import furrymatch.domain.*;
 import furrymatch.domain.enumeration.PetType;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import javax.persistence.EntityManager;
-import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import org.springframework.stereotype.Repository;
 
@@ -14,17 +17,101 @@ public class SearchPetRepository {
 
     private final EntityManager em;
 
-    public SearchPetRepository(EntityManager em) {
+    private final PetSearchIndex petSearchIndex;
+
+    private final PetSeenRegistry petSeenRegistry;
+
+    private final PetCandidateCache petCandidateCache;
+
+    public SearchPetRepository(
+        EntityManager em,
+        PetSearchIndex petSearchIndex,
+        PetSeenRegistry petSeenRegistry,
+        PetCandidateCache petCandidateCache
+    ) {
         this.em = em;
+        this.petSearchIndex = petSearchIndex;
+        this.petSeenRegistry = petSeenRegistry;
+        this.petCandidateCache = petCandidateCache;
+    }
+
+    /**
+     * Keyset-paginated discovery search: returns the ids of at most {@code limit} pets matching the filters whose id
+     * is strictly greater than {@code afterId}, ordered by id, without loading the entities.
+     *
+     * @param filters the search criteria of the pet that is swiping.
+     * @param ownerId the current owner, whose pets are excluded.
+     * @param afterId the last pet id already buffered, or {@code null} to start from the beginning.
+     * @param limit the maximum number of ids to return.
+     * @return the ids of the next batch of candidate pets, in ascending order.
+     */
+    public List<Long> searchPetIds(SearchCriteria filters, Long ownerId, Long afterId, int limit) {
+        long[] candidates = baseCandidates(filters);
+        // Exclusions depending on who is searching are applied after the shared lookup
+        LongHashSet ownPets = ownPets(ownerId);
+        LongHashSet seen = petSeenRegistry.seenBy(filters.getPet().getId());
+
+        List<Long> ids = new ArrayList<>(limit);
+        int start = afterId == null ? 0 : firstIndexAfter(candidates, afterId);
+        for (int i = start; i < candidates.length && ids.size() < limit; i++) {
+            long candidateId = candidates[i];
+            if (!ownPets.contains(candidateId) && !PetSeenRegistry.contains(seen, candidateId)) {
+                ids.add(candidateId);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Get the ids of all the pets matching the filters, from the {@link PetCandidateCache}, or else from the
+     * {@link PetSearchIndex}, or else from the database while the index is not loaded.
+     */
+    private long[] baseCandidates(SearchCriteria filters) {
+        Map<PetSearchIndex.Attribute, String> filterValues = PetSearchIndex.filterValues(filters);
+        Optional<long[]> cached = petCandidateCache.get(filterValues);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long generation = petCandidateCache.generation();
+        long[] candidates = petSearchIndex
+            .candidates(filters)
+            .map(bits -> bits.stream().asLongStream().toArray())
+            .orElseGet(() -> criteriaQuery(filters).stream().mapToLong(Long::longValue).toArray());
+        petCandidateCache.put(filterValues, candidates, generation);
+        return candidates;
     }
 
-    public List<Pet> searchPets(SearchCriteria filters, Long ownerId) {
+    private LongHashSet ownPets(Long ownerId) {
+        LongHashSet ownPets = new LongHashSet();
+        if (petSearchIndex.isReady()) {
+            petSearchIndex.petsOf(PetSearchIndex.Attribute.OWNER, String.valueOf(ownerId)).stream().forEach(ownPets::add);
+        } else {
+            em
+                .createQuery("select pet.id from Pet pet where pet.owner.id = :ownerId", Long.class)
+                .setParameter("ownerId", ownerId)
+                .getResultList()
+                .forEach(ownPets::add);
+        }
+        return ownPets;
+    }
+
+    /**
+     * Index of the first candidate strictly greater than {@code afterId}.
+     */
+    private static int firstIndexAfter(long[] candidates, long afterId) {
+        int index = Arrays.binarySearch(candidates, afterId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Ids of all the pets matching the filters, regardless of who is searching.
+     */
+    private List<Long> criteriaQuery(SearchCriteria filters) {
         CriteriaBuilder criteriaBuilder = em.getCriteriaBuilder();
-        CriteriaQuery<Pet> criteriaQueryPet = criteriaBuilder.createQuery(Pet.class);
+        CriteriaQuery<Long> criteriaQueryPet = criteriaBuilder.createQuery(Long.class);
         Root<Pet> petRoot = criteriaQueryPet.from(Pet.class);
 
         List<Predicate> predicates = new ArrayList<>();
-        System.out.print("Filters" + filters);
 
         // Join with SearchCriteria
         Join<Pet, SearchCriteria> searchCriteriaJoin = petRoot.join("searchCriteria", JoinType.LEFT);
@@ -86,23 +173,10 @@ public class SearchPetRepository {
             predicates.add(districtPredicate);
         }
 
-        // Exclude pets belonging to the current owner
-        Predicate excludeCurrentOwnerPredicate = criteriaBuilder.notEqual(ownerJoin.get("id"), ownerId);
-        predicates.add(excludeCurrentOwnerPredicate);
-
-        // Exclude pets that have already been liked by the current user's pet
-        Subquery<Long> likedPetsSubquery = criteriaQueryPet.subquery(Long.class);
-        Root<Likee> likeRoot = likedPetsSubquery.from(Likee.class);
-        likedPetsSubquery.select(likeRoot.get("secondPet").get("id"));
-        likedPetsSubquery.where(criteriaBuilder.equal(likeRoot.get("firstPet").get("id"), filters.getPet().getId()));
-
-        Predicate notLikedByUserPetPredicate = petRoot.get("id").in(likedPetsSubquery).not();
-        predicates.add(notLikedByUserPetPredicate);
-
+        criteriaQueryPet.select(petRoot.<Long>get("id")).distinct(true);
         criteriaQueryPet.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
+        criteriaQueryPet.orderBy(criteriaBuilder.asc(petRoot.get("id")));
 
-        TypedQuery<Pet> petQuery = em.createQuery(criteriaQueryPet);
-
-        return petQuery.getResultList();
+        return em.createQuery(criteriaQueryPet).getResultList();
     }
 }
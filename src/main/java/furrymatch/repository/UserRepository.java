@@ -9,7 +9,6 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -38,18 +37,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
 
-    @Modifying
-    @Query(value = "UPDATE jhi_user SET image_url = :petId WHERE id = :id", nativeQuery = true)
-    void updateUserSelectedPet(@Param("petId") Long petId, @Param("id") Long id);
-
-    @Modifying
-    @Query(value = "UPDATE jhi_user SET last_name = :matchPetId WHERE id = :id", nativeQuery = true)
-    void updateUserMatchPet(@Param("matchPetId") String matchPetId, @Param("id") Long id);
-
-    @Modifying
-    @Query(value = "UPDATE jhi_user SET first_name = :matchId WHERE id = :id", nativeQuery = true)
-    void updateUserMatch(@Param("matchId") String matchId, @Param("id") Long id);
-
     @Query(value = "SELECT * FROM jhi_user WHERE id = :id", nativeQuery = true)
     Optional<User> findOne(@Param("id") Long id);
 }
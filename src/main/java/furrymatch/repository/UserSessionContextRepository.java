@@ -0,0 +1,19 @@
+package furrymatch.repository;
+
+import furrymatch.domain.UserSessionContext;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the UserSessionContext entity.
+ */
+@Repository
+public interface UserSessionContextRepository extends JpaRepository<UserSessionContext, Long> {
+    Optional<UserSessionContext> findOneByLogin(String login);
+
+    @Modifying
+    @Query("update UserSessionContext context set context.login = :newLogin where context.userId = :userId")
+    void updateLogin(@Param("userId") Long userId, @Param("newLogin") String newLogin);
+}
@@ -1,17 +1,35 @@
 package furrymatch.service;
 
 import furrymatch.domain.Chat;
+import furrymatch.domain.Match;
+import furrymatch.domain.User;
+import furrymatch.repository.AfterCommit;
+import furrymatch.repository.ChatInboxRepository;
 import furrymatch.repository.ChatRepository;
+import furrymatch.repository.ChatUnreadCounterRepository;
+import furrymatch.repository.MatchPairRepository;
 import furrymatch.repository.UserRepository;
 import furrymatch.security.SecurityUtils;
+import furrymatch.service.dto.ChatMessageDTO;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service Implementation for managing {@link Chat}.
@@ -22,15 +40,82 @@ public class ChatService {
 
     private final Logger log = LoggerFactory.getLogger(ChatService.class);
 
+    private static final String MATCH_TOPIC_PREFIX = "/topic/matches/";
+
+    private static final String MATCH_TOPIC_SUFFIX = "/chats";
+
+    private static final long READ_RECEIPTS_FLUSH_DELAY = 1000;
+
     private final ChatRepository chatRepository;
 
     private final UserRepository userRepository;
 
+    private final ChatUnreadCounterRepository chatUnreadCounterRepository;
+
+    private final ChatInboxRepository chatInboxRepository;
+
+    private final MatchPairRepository matchPairRepository;
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final RecentChatCache recentChatCache;
+
+    private final ReadReceiptBuffer readReceiptBuffer;
+
     private Long selectedPet;
 
-    public ChatService(ChatRepository chatRepository, UserRepository userRepository) {
+    public ChatService(
+        ChatRepository chatRepository,
+        UserRepository userRepository,
+        ChatUnreadCounterRepository chatUnreadCounterRepository,
+        ChatInboxRepository chatInboxRepository,
+        MatchPairRepository matchPairRepository,
+        SimpMessageSendingOperations messagingTemplate,
+        RecentChatCache recentChatCache,
+        ReadReceiptBuffer readReceiptBuffer
+    ) {
         this.chatRepository = chatRepository;
         this.userRepository = userRepository;
+        this.chatUnreadCounterRepository = chatUnreadCounterRepository;
+        this.chatInboxRepository = chatInboxRepository;
+        this.matchPairRepository = matchPairRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.recentChatCache = recentChatCache;
+        this.readReceiptBuffer = readReceiptBuffer;
+    }
+
+    /**
+     * The channel the messages of a match are pushed to.
+     *
+     * @param matchId the id of the match.
+     * @return the destination of the channel.
+     */
+    public static String matchTopic(Long matchId) {
+        return MATCH_TOPIC_PREFIX + matchId + MATCH_TOPIC_SUFFIX;
+    }
+
+    /**
+     * Parse the id of the match of a channel.
+     *
+     * @param destination a destination, as returned by {@link #matchTopic(Long)}.
+     * @return the id of the match, or empty if the destination is not a match channel.
+     */
+    public static Optional<Long> parseMatchTopic(String destination) {
+        if (
+            destination == null ||
+            !destination.startsWith(MATCH_TOPIC_PREFIX) ||
+            !destination.endsWith(MATCH_TOPIC_SUFFIX) ||
+            destination.length() <= MATCH_TOPIC_PREFIX.length() + MATCH_TOPIC_SUFFIX.length()
+        ) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(
+                Long.valueOf(destination.substring(MATCH_TOPIC_PREFIX.length(), destination.length() - MATCH_TOPIC_SUFFIX.length()))
+            );
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
     }
 
     /**
@@ -41,7 +126,88 @@ public class ChatService {
      */
     public Chat save(Chat chat) {
         log.debug("Request to save Chat : {}", chat);
-        return chatRepository.save(chat);
+        Chat result = chatRepository.save(chat);
+        if (result.isUnread()) {
+            chatUnreadCounterRepository.add(result.getRecipientId(), 1);
+        }
+        if (result.getMatch() != null && result.getMatch().getId() != null) {
+            addToInboxes(result);
+            ChatMessageDTO pushed = asStored(result);
+            AfterCommit.run(() -> {
+                recentChatCache.append(pushed);
+                messagingTemplate.convertAndSend(matchTopic(pushed.getMatchId()), pushed);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Make a new chat the last message of the conversation, in the inbox of both pets of its match.
+     */
+    private void addToInboxes(Chat chat) {
+        Long matchId = chat.getMatch().getId();
+        List<Object[]> pets = matchPairRepository.findPetsAndOwnersByMatchId(matchId);
+        if (pets.size() != 2) {
+            log.warn("Chat {} not added to the inboxes, match {} has no pair of pets", chat.getId(), matchId);
+            return;
+        }
+        for (int i = 0; i < 2; i++) {
+            Object[] pet = pets.get(i);
+            Object[] counterpart = pets.get(1 - i);
+            Long ownerId = (Long) pet[1];
+            int unread = chat.isUnread() && ownerId.equals(chat.getRecipientId()) ? 1 : 0;
+            chatInboxRepository.addMessage(
+                (Long) pet[0],
+                matchId,
+                ownerId,
+                (Long) counterpart[0],
+                (Long) counterpart[1],
+                chat.getId(),
+                chat.getMessage(),
+                chat.getDateChat(),
+                unread
+            );
+        }
+    }
+
+    /**
+     * Send a message in a match, from one of its owners to the other one.
+     *
+     * @param matchId the id of the match.
+     * @param senderLogin the login of the sending user.
+     * @param message the text of the message.
+     * @return the persisted entity, or empty if the user is not one of the owners of the match.
+     */
+    public Optional<Chat> send(Long matchId, String senderLogin, String message) {
+        log.debug("Request to send a Chat in Match : {}", matchId);
+        Optional<Long> senderId = userRepository.findOneByLogin(senderLogin).map(User::getId);
+        List<Long> ownerIds = matchPairRepository.findOwnerIdsByMatchId(matchId);
+        if (senderId.isEmpty() || !ownerIds.contains(senderId.get())) {
+            return Optional.empty();
+        }
+        // Both pets may belong to the same owner, who then writes to themselves
+        Long recipientId = ownerIds.stream().filter(ownerId -> !ownerId.equals(senderId.get())).findFirst().orElse(senderId.get());
+        Chat chat = new Chat()
+            .dateChat(LocalDateTime.now())
+            .message(message)
+            .stateChat(senderId.get() + ";" + recipientId + ";unread")
+            .match(new Match().id(matchId));
+        return Optional.of(save(chat));
+    }
+
+    /**
+     * Check whether a user owns one of the pets of a match, and may follow its channel.
+     *
+     * @param matchId the id of the match.
+     * @param login the login of the user.
+     * @return {@code true} if the user is one of the owners of the match.
+     */
+    @Transactional(readOnly = true)
+    public boolean isMatchOwner(Long matchId, String login) {
+        return userRepository
+            .findOneByLogin(login)
+            .map(user -> matchPairRepository.findOwnerIdsByMatchId(matchId).contains(user.getId()))
+            .orElse(false);
     }
 
     /**
@@ -52,7 +218,15 @@ public class ChatService {
      */
     public Chat update(Chat chat) {
         log.debug("Request to update Chat : {}", chat);
-        return chatRepository.save(chat);
+        Long previousUnreadRecipientId = chatRepository
+            .findById(chat.getId())
+            .filter(Chat::isUnread)
+            .map(Chat::getRecipientId)
+            .orElse(null);
+        Chat result = chatRepository.save(chat);
+        updateUnreadCounters(previousUnreadRecipientId, result);
+        refreshReadModels(result);
+        return result;
     }
 
     /**
@@ -67,6 +241,7 @@ public class ChatService {
         return chatRepository
             .findById(chat.getId())
             .map(existingChat -> {
+                Long previousUnreadRecipientId = existingChat.isUnread() ? existingChat.getRecipientId() : null;
                 if (chat.getDateChat() != null) {
                     existingChat.setDateChat(chat.getDateChat());
                 }
@@ -76,10 +251,52 @@ public class ChatService {
                 if (chat.getStateChat() != null) {
                     existingChat.setStateChat(chat.getStateChat());
                 }
+                updateUnreadCounters(previousUnreadRecipientId, existingChat);
 
                 return existingChat;
             })
-            .map(chatRepository::save);
+            .map(chatRepository::save)
+            .map(result -> {
+                refreshReadModels(result);
+                return result;
+            });
+    }
+
+    /**
+     * Refresh the copies of an edited chat: the last message of the inboxes and the recent messages of its match.
+     */
+    private void refreshReadModels(Chat chat) {
+        if (chat.getMatch() != null) {
+            chatInboxRepository.updateLastMessage(chat.getMatch().getId(), chat.getId(), chat.getMessage(), chat.getDateChat());
+            ChatMessageDTO edited = asStored(chat);
+            AfterCommit.run(() -> recentChatCache.replace(edited));
+        }
+    }
+
+    /**
+     * Move a chat between the unread counters after its state changed.
+     *
+     * @param previousUnreadRecipientId the recipient the chat was unread for, or {@code null} if it was not unread.
+     * @param chat the chat, with its new state.
+     */
+    private void updateUnreadCounters(Long previousUnreadRecipientId, Chat chat) {
+        Long unreadRecipientId = chat.isUnread() ? chat.getRecipientId() : null;
+        if (Objects.equals(previousUnreadRecipientId, unreadRecipientId)) {
+            return;
+        }
+        Long matchId = chat.getMatch() != null ? chat.getMatch().getId() : null;
+        if (previousUnreadRecipientId != null) {
+            chatUnreadCounterRepository.add(previousUnreadRecipientId, -1);
+            if (matchId != null) {
+                chatInboxRepository.addUnread(matchId, previousUnreadRecipientId, -1);
+            }
+        }
+        if (unreadRecipientId != null) {
+            chatUnreadCounterRepository.add(unreadRecipientId, 1);
+            if (matchId != null) {
+                chatInboxRepository.addUnread(matchId, unreadRecipientId, 1);
+            }
+        }
     }
 
     /**
@@ -106,6 +323,79 @@ public class ChatService {
         return chatRepository.findById(id);
     }
 
+    /**
+     * Get a page of the messages of a match, paginated backwards from its latest message.
+     * <p>
+     * Pages are served from the {@link RecentChatCache} as long as it holds them, and by keyset queries on
+     * {@code (date_chat, id)} beyond.
+     *
+     * @param matchId the id of the match.
+     * @param ownerId the id of the current owner.
+     * @param beforeDate the date of the oldest message already received, if {@code beforeId} is set.
+     * @param beforeId the id of the oldest message already received, or {@code null} for the latest messages.
+     * @param limit the maximum number of messages to return.
+     * @return the messages, oldest first, or empty if the owner has no pet in the match.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<ChatMessageDTO>> findChats(Long matchId, Long ownerId, LocalDateTime beforeDate, Long beforeId, int limit) {
+        log.debug("Request to get the Chats of Match : {} before : {}", matchId, beforeId);
+        RecentChatCache.Snapshot recent = latest(matchId);
+        if (!recent.getOwnerIds().contains(ownerId)) {
+            return Optional.empty();
+        }
+        List<ChatMessageDTO> messages = recent.getMessages();
+        if (beforeId != null) {
+            ChatMessageDTO cursor = new ChatMessageDTO();
+            cursor.setDateChat(beforeDate);
+            cursor.setId(beforeId);
+            int older = 0;
+            while (older < messages.size() && RecentChatCache.CHRONOLOGICAL.compare(messages.get(older), cursor) < 0) {
+                older++;
+            }
+            if (older < limit) {
+                PageRequest page = PageRequest.of(0, limit);
+                return Optional.of(
+                    oldestFirst(
+                        beforeDate == null
+                            ? chatRepository.findUndatedByMatchIdBefore(matchId, beforeId, page)
+                            : chatRepository.findByMatchIdBefore(matchId, beforeDate, beforeId, page)
+                    )
+                );
+            }
+            messages = messages.subList(0, older);
+        }
+        return Optional.of(messages.subList(Math.max(0, messages.size() - limit), messages.size()));
+    }
+
+    private RecentChatCache.Snapshot latest(Long matchId) {
+        return recentChatCache.latest(
+            matchId,
+            () ->
+                new RecentChatCache.Snapshot(
+                    matchPairRepository.findOwnerIdsByMatchId(matchId),
+                    oldestFirst(chatRepository.findLatestByMatchId(matchId, PageRequest.of(0, RecentChatCache.CAPACITY)))
+                )
+        );
+    }
+
+    /**
+     * Map a saved chat as it will be read back: date_chat is a DATE column, so the time of day is dropped. Cached and
+     * pushed messages then sort, and build cursors, exactly like the ones read from the database.
+     */
+    private static ChatMessageDTO asStored(Chat chat) {
+        ChatMessageDTO message = new ChatMessageDTO(chat);
+        if (message.getDateChat() != null) {
+            message.setDateChat(message.getDateChat().truncatedTo(ChronoUnit.DAYS));
+        }
+        return message;
+    }
+
+    private static List<ChatMessageDTO> oldestFirst(List<Chat> newestFirst) {
+        List<ChatMessageDTO> messages = newestFirst.stream().map(ChatMessageDTO::new).collect(Collectors.toList());
+        Collections.reverse(messages);
+        return messages;
+    }
+
     public List<Chat> findByStateChat(String state1, String state2) {
         return chatRepository.findByStateChat(state1, state2);
     }
@@ -118,14 +408,83 @@ public class ChatService {
     public void delete(Long id) {
         log.debug("Request to delete Chat : {}", id);
         // chatRepository.deleteById(id);
+        for (Object[] unread : chatRepository.countUnreadByMatchId(id)) {
+            chatUnreadCounterRepository.add((Long) unread[0], -((Long) unread[1]).intValue());
+        }
         chatRepository.deleteChats(id);
+        chatInboxRepository.deleteByMatchId(id);
+        AfterCommit.run(() -> recentChatCache.evict(id));
     }
 
+    @Transactional(readOnly = true)
     public List<Chat> findUnreadChatsByOwnerId(Long ownerId) {
-        return chatRepository.findUnreadChatsByOwnerId(ownerId);
+        return chatRepository.findByRecipientIdAndReadFlagFalse(ownerId);
+    }
+
+    /**
+     * Get the number of chats an owner has not read yet, from its counter.
+     *
+     * @param ownerId the id of the owner.
+     * @return the number of unread chats.
+     */
+    @Transactional(readOnly = true)
+    public int countUnreadChatsByOwnerId(Long ownerId) {
+        return chatUnreadCounterRepository.findUnreadCountByOwnerId(ownerId).orElse(0);
     }
 
-    public void updateChatState(Long matchId, Long senderId) {
-        chatRepository.updateChatStateByMatchIdAndRecipientId(matchId, senderId);
+    /**
+     * Record that an owner has read a match, up to its latest message.
+     * <p>
+     * The receipt is only buffered, and written with the other ones by {@link #flushReadReceipts()}. Repeating it
+     * before a new message comes in neither touches the buffer nor the database.
+     *
+     * @param matchId the id of the match.
+     * @param readerId the id of the owner who read the messages.
+     */
+    @Transactional(readOnly = true)
+    public void updateChatState(Long matchId, Long readerId) {
+        RecentChatCache.Snapshot recent = latest(matchId);
+        if (!recent.getOwnerIds().contains(readerId)) {
+            return;
+        }
+        Long latestChatId = recent
+            .getMessages()
+            .stream().map(ChatMessageDTO::getId).filter(Objects::nonNull).max(Long::compare).orElse(null);
+        if (latestChatId != null) {
+            readReceiptBuffer.record(matchId, readerId, latestChatId);
+        }
+    }
+
+    /**
+     * Write the buffered read receipts: mark the messages as read and take them off the counters of their recipients.
+     * <p>
+     * This is scheduled to get fired every second, and once more by {@link ReadReceiptShutdownFlush} when the
+     * application stops. The receipts are put back in the buffer if the transaction rolls back.
+     */
+    @Scheduled(fixedDelay = READ_RECEIPTS_FLUSH_DELAY)
+    public void flushReadReceipts() {
+        Map<ReadReceiptBuffer.Receipt, Long> receipts = readReceiptBuffer.drain();
+        if (receipts.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        readReceiptBuffer.requeue(receipts);
+                    }
+                }
+            }
+        );
+        receipts.forEach((receipt, upToChatId) -> {
+            int read = chatRepository.markRead(receipt.getMatchId(), receipt.getReaderId(), upToChatId);
+            if (read > 0) {
+                chatUnreadCounterRepository.add(receipt.getReaderId(), -read);
+                chatInboxRepository.addUnread(receipt.getMatchId(), receipt.getReaderId(), -read);
+            }
+            AfterCommit.run(() -> recentChatCache.markRead(receipt.getMatchId(), receipt.getReaderId(), upToChatId));
+        });
+        log.debug("Flushed {} read receipts", receipts.size());
     }
 }
@@ -0,0 +1,155 @@
+package furrymatch.service;
+
+import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
+import furrymatch.service.dto.PetCardDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ranks discovery candidates by compatibility with the pet that is swiping.
+ * <p>
+ * The score is an integer computed from the fields of both pets only, so the same candidates always come back in
+ * the same order. Ties are broken by ascending pet id.
+ */
+@Service
+public class CompatibilityRankingService {
+
+    static final int SAME_BREED = 40;
+
+    static final int SAME_DISTRICT = 30;
+
+    static final int SAME_CANTON = 20;
+
+    static final int PEDIGREE = 10;
+
+    static final int TRADE_PUPS = 5;
+
+    static final int TRADE_MONEY = 10;
+
+    static final int PER_PHOTO = 2;
+
+    static final int MAX_SCORED_PHOTOS = 5;
+
+    /**
+     * Worst candidate first, so the root of the heap is the one to drop.
+     */
+    private static final Comparator<ScoredPet> WORST_FIRST = Comparator
+        .comparingInt((ScoredPet scored) -> scored.score)
+        .thenComparing(scored -> scored.card.getId(), Comparator.nullsFirst(Comparator.<Long>reverseOrder()));
+
+    private final Timer rankingTimer;
+
+    public CompatibilityRankingService(MeterRegistry meterRegistry) {
+        this.rankingTimer =
+            Timer
+                .builder("furrymatch.pet.search.ranking")
+                .description("Time spent ranking a window of discovery candidates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Keep the {@code k} most compatible candidates, using a heap bounded to {@code k} elements instead of sorting the
+     * whole list.
+     *
+     * @param swipingPet the pet that is swiping.
+     * @param candidates the candidates to rank.
+     * @param k the maximum number of candidates to keep.
+     * @return the best candidates, most compatible first.
+     */
+    public List<PetCardDTO> topK(Pet swipingPet, List<PetCardDTO> candidates, int k) {
+        if (k <= 0 || candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return rankingTimer.record(() -> {
+            PriorityQueue<ScoredPet> heap = new PriorityQueue<>(Math.min(k, candidates.size()) + 1, WORST_FIRST);
+            for (PetCardDTO candidate : candidates) {
+                ScoredPet scored = new ScoredPet(candidate, score(swipingPet, candidate));
+                if (heap.size() < k) {
+                    heap.add(scored);
+                } else if (WORST_FIRST.compare(scored, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(scored);
+                }
+            }
+            List<PetCardDTO> ranked = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                ranked.add(heap.poll().card);
+            }
+            Collections.reverse(ranked);
+            return ranked;
+        });
+    }
+
+    /**
+     * Compatibility score of a candidate for the pet that is swiping.
+     *
+     * @param swipingPet the pet that is swiping.
+     * @param candidate the candidate pet.
+     * @return the score, higher is better.
+     */
+    static int score(Pet swipingPet, PetCardDTO candidate) {
+        int score = 0;
+        if (swipingPet.getBreed() != null && Objects.equals(swipingPet.getBreed().getId(), candidate.getBreedId())) {
+            score += SAME_BREED;
+        }
+
+        // Canton ids are only unique in their province, and district ids in their canton
+        Owner swipingOwner = swipingPet.getOwner();
+        if (
+            swipingOwner != null &&
+            sameValue(swipingOwner.getProvince(), candidate.getProvince()) &&
+            sameValue(swipingOwner.getCanton(), candidate.getCanton())
+        ) {
+            score += sameValue(swipingOwner.getDistrict(), candidate.getDistrict()) ? SAME_DISTRICT : SAME_CANTON;
+        }
+
+        if (Boolean.TRUE.equals(swipingPet.getPedigree()) && Boolean.TRUE.equals(candidate.getPedigree())) {
+            score += PEDIGREE;
+        }
+        if (Boolean.TRUE.equals(swipingPet.getTradePups()) && Boolean.TRUE.equals(candidate.getTradePups())) {
+            score += TRADE_PUPS;
+        }
+        if (Boolean.TRUE.equals(swipingPet.getTradeMoney()) && Boolean.TRUE.equals(candidate.getTradeMoney())) {
+            score += moneyScore(swipingPet.getDesireAmmount(), candidate.getDesireAmmount());
+        }
+
+        score += PER_PHOTO * Math.min(candidate.getPhotoUrls().size(), MAX_SCORED_PHOTOS);
+        return score;
+    }
+
+    /**
+     * The closer the amounts both owners want, the higher the score: {@link #TRADE_MONEY} for the same amount, down to
+     * zero when one of them is unknown or not positive.
+     */
+    private static int moneyScore(Double swipingAmount, Double candidateAmount) {
+        if (swipingAmount == null || candidateAmount == null || swipingAmount <= 0 || candidateAmount <= 0) {
+            return 0;
+        }
+        double ratio = Math.min(swipingAmount, candidateAmount) / Math.max(swipingAmount, candidateAmount);
+        return (int) Math.round(TRADE_MONEY * ratio);
+    }
+
+    private static boolean sameValue(String first, String second) {
+        return first != null && first.equals(second);
+    }
+
+    private static final class ScoredPet {
+
+        private final PetCardDTO card;
+
+        private final int score;
+
+        private ScoredPet(PetCardDTO card, int score) {
+            this.card = card;
+            this.score = score;
+        }
+    }
+}
@@ -1,31 +1,211 @@
 package furrymatch.service;
 
 import furrymatch.domain.Contract;
+import furrymatch.domain.Match;
+import furrymatch.domain.Owner;
+import furrymatch.domain.enumeration.ContractStatus;
 import furrymatch.repository.ContractRepository;
+import furrymatch.repository.MatchPairRepository;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link Contract}.
+ * <p>
+ * A contract follows a small state machine: it is created as a {@link ContractStatus#DRAFT} by one of the owners of
+ * the match, its initiator, who may edit it and then send it ({@link ContractStatus#SENT}). Editing a sent contract
+ * makes it a draft again. Once sent, the other owner may accept it ({@link ContractStatus#ACCEPTED}), which is final.
+ * <p>
+ * The contract emails are queued in the transaction of the change they announce, so they are only sent if it commits.
  */
 @Service
 @Transactional
 public class ContractService {
 
+    private static final Map<ContractStatus, Set<ContractStatus>> TRANSITIONS = new EnumMap<>(ContractStatus.class);
+
+    static {
+        TRANSITIONS.put(ContractStatus.DRAFT, EnumSet.of(ContractStatus.DRAFT, ContractStatus.SENT));
+        TRANSITIONS.put(ContractStatus.SENT, EnumSet.of(ContractStatus.DRAFT, ContractStatus.ACCEPTED));
+        TRANSITIONS.put(ContractStatus.ACCEPTED, EnumSet.noneOf(ContractStatus.class));
+    }
+
     private final Logger log = LoggerFactory.getLogger(ContractService.class);
 
     private final ContractRepository contractRepository;
 
-    public ContractService(ContractRepository contractRepository) {
+    private final MatchPairRepository matchPairRepository;
+
+    private final MatchService matchService;
+
+    private final MailService mailService;
+
+    public ContractService(
+        ContractRepository contractRepository,
+        MatchPairRepository matchPairRepository,
+        MatchService matchService,
+        MailService mailService
+    ) {
         this.contractRepository = contractRepository;
+        this.matchPairRepository = matchPairRepository;
+        this.matchService = matchService;
+        this.mailService = mailService;
+    }
+
+    /**
+     * Create the draft of a contract.
+     *
+     * @param contract the contract to create.
+     * @param initiatorId the id of the owner who writes the contract.
+     * @return the persisted entity.
+     */
+    public Contract create(Contract contract, Long initiatorId) {
+        log.debug("Request to create Contract : {} by owner {}", contract, initiatorId);
+        contract.setStatus(ContractStatus.DRAFT);
+        contract.setInitiatorId(initiatorId);
+        return contractRepository.save(contract);
+    }
+
+    /**
+     * Create the draft of a contract for a match and email it to its initiator.
+     *
+     * @param contract the contract to create.
+     * @param match the match the contract is for.
+     * @param initiator the owner who writes the contract.
+     * @param counterpart the other owner of the match.
+     * @param email the email address of the initiator.
+     * @return the persisted entity.
+     */
+    public Contract create(Contract contract, Match match, Owner initiator, Owner counterpart, String email) {
+        Contract result = create(contract, initiator.getId());
+        match.setContract(result);
+        matchService.update(match);
+        mailService.sendContractMail(initiator, counterpart, result, email);
+        return result;
+    }
+
+    /**
+     * Edit a contract, which makes it a draft again. Only its initiator may edit it.
+     *
+     * @param contract the edited contract.
+     * @param ownerId the id of the owner who edits the contract.
+     * @return the persisted entity.
+     * @throws InvalidContractTransitionException if the contract cannot be edited by this owner.
+     */
+    public Contract edit(Contract contract, Long ownerId) {
+        log.debug("Request to edit Contract : {} by owner {}", contract, ownerId);
+        Contract existing = contractRepository.findById(contract.getId()).orElseThrow();
+        checkTransition(existing, ContractStatus.DRAFT, Objects.equals(existing.getInitiatorId(), ownerId));
+        contract.setStatus(ContractStatus.DRAFT);
+        contract.setInitiatorId(existing.getInitiatorId());
+        return contractRepository.save(contract);
+    }
+
+    /**
+     * Edit a contract, which makes it a draft again, and email it to its initiator.
+     *
+     * @param contract the edited contract.
+     * @param initiator the owner who edits the contract.
+     * @param counterpart the other owner of the match.
+     * @param email the email address of the initiator.
+     * @return the persisted entity.
+     * @throws InvalidContractTransitionException if the contract cannot be edited by this owner.
+     */
+    public Contract edit(Contract contract, Owner initiator, Owner counterpart, String email) {
+        Contract result = edit(contract, initiator.getId());
+        mailService.sendContractMail(initiator, counterpart, result, email);
+        return result;
+    }
+
+    /**
+     * Send a draft to the other owner. Only its initiator may send it.
+     *
+     * @param id the id of the contract.
+     * @param ownerId the id of the owner who sends the contract.
+     * @return the persisted entity, if the contract exists.
+     * @throws InvalidContractTransitionException if the contract cannot be sent by this owner.
+     */
+    public Optional<Contract> send(Long id, Long ownerId) {
+        log.debug("Request to send Contract : {} by owner {}", id, ownerId);
+        return contractRepository
+            .findById(id)
+            .map(contract -> {
+                checkTransition(contract, ContractStatus.SENT, Objects.equals(contract.getInitiatorId(), ownerId));
+                contract.setStatus(ContractStatus.SENT);
+                return contract;
+            });
+    }
+
+    /**
+     * Send a draft to the other owner and email it to them.
+     *
+     * @param id the id of the contract.
+     * @param initiator the owner who sends the contract.
+     * @param counterpart the other owner of the match.
+     * @param email the email address of the other owner.
+     * @return the persisted entity, if the contract exists.
+     * @throws InvalidContractTransitionException if the contract cannot be sent by this owner.
+     */
+    public Optional<Contract> send(Long id, Owner initiator, Owner counterpart, String email) {
+        Optional<Contract> result = send(id, initiator.getId());
+        result.ifPresent(contract -> mailService.sendContractMail(initiator, counterpart, contract, email));
+        return result;
+    }
+
+    /**
+     * Accept a sent contract. Only the other owner of the match may accept it.
+     *
+     * @param id the id of the contract.
+     * @param ownerId the id of the owner who accepts the contract.
+     * @return the persisted entity, if the contract exists.
+     * @throws InvalidContractTransitionException if the contract cannot be accepted by this owner.
+     */
+    public Optional<Contract> accept(Long id, Long ownerId) {
+        log.debug("Request to accept Contract : {} by owner {}", id, ownerId);
+        return contractRepository
+            .findById(id)
+            .map(contract -> {
+                boolean otherOwner =
+                    !Objects.equals(contract.getInitiatorId(), ownerId) &&
+                    contract.getMatch() != null &&
+                    matchPairRepository.findOwnerIdsByMatchId(contract.getMatch().getId()).contains(ownerId);
+                checkTransition(contract, ContractStatus.ACCEPTED, otherOwner);
+                contract.setStatus(ContractStatus.ACCEPTED);
+                return contract;
+            });
+    }
+
+    private static void checkTransition(Contract contract, ContractStatus next, boolean allowedOwner) {
+        if (!allowedOwner || !canMove(contract.getStatus(), next)) {
+            throw new InvalidContractTransitionException(contract.getId(), contract.getStatus(), next);
+        }
+    }
+
+    /**
+     * Whether a contract may go from a status to another one.
+     *
+     * @param current the current status, {@code null} for a contract not created yet.
+     * @param next the new status.
+     * @return {@code true} if the transition is allowed.
+     */
+    static boolean canMove(ContractStatus current, ContractStatus next) {
+        if (current == null) {
+            return next == ContractStatus.DRAFT;
+        }
+        return TRANSITIONS.get(current).contains(next);
     }
 
     /**
@@ -51,17 +231,25 @@ public class ContractService {
     }
 
     /**
-     * Partially update a contract.
+     * Partially update a contract, which is an edit: it makes the contract a draft again and only its initiator may
+     * do it.
      *
      * @param contract the entity to update partially.
+     * @param ownerId the id of the owner who edits the contract.
      * @return the persisted entity.
+     * @throws InvalidContractTransitionException if the contract cannot be edited by this owner.
      */
-    public Optional<Contract> partialUpdate(Contract contract) {
-        log.debug("Request to partially update Contract : {}", contract);
+    public Optional<Contract> partialUpdate(Contract contract, Long ownerId) {
+        log.debug("Request to partially update Contract : {} by owner {}", contract, ownerId);
 
         return contractRepository
             .findById(contract.getId())
             .map(existingContract -> {
+                checkTransition(
+                    existingContract,
+                    ContractStatus.DRAFT,
+                    Objects.equals(existingContract.getInitiatorId(), ownerId)
+                );
                 if (contract.getTradeMoney() != null) {
                     existingContract.setTradeMoney(contract.getTradeMoney());
                 }
@@ -77,6 +265,7 @@ public class ContractService {
                 if (contract.getContractDate() != null) {
                     existingContract.setContractDate(contract.getContractDate());
                 }
+                existingContract.setStatus(ContractStatus.DRAFT);
 
                 return existingContract;
             })
@@ -96,16 +285,34 @@ public class ContractService {
     }
 
     /**
-     *  Get all the contracts where Match is {@code null}.
+     *  Get the contracts where Match is {@code null}.
+     *
+     *  @param pageable the pagination information, sorted by id when it has no sort.
      *  @return the list of entities.
      */
     @Transactional(readOnly = true)
-    public List<Contract> findAllWhereMatchIsNull() {
+    public Page<Contract> findAllWhereMatchIsNull(Pageable pageable) {
         log.debug("Request to get all contracts where Match is null");
-        return StreamSupport
-            .stream(contractRepository.findAll().spliterator(), false)
-            .filter(contract -> contract.getMatch() == null)
-            .collect(Collectors.toList());
+        if (pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        }
+        return contractRepository.findAllWhereMatchIsNull(pageable);
+    }
+
+    /**
+     * Get the contracts an owner sent that the other owner has not accepted yet.
+     *
+     * @param ownerId the id of the owner who sent the contracts.
+     * @param pageable the pagination information, sorted by id when it has no sort.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Contract> findPending(Long ownerId, Pageable pageable) {
+        log.debug("Request to get the pending Contracts of owner {}", ownerId);
+        if (pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        }
+        return contractRepository.findAllByStatusAndInitiatorId(ContractStatus.SENT, ownerId, pageable);
     }
 
     /**
@@ -0,0 +1,372 @@
+package furrymatch.service;
+
+import com.carrotsearch.hppc.LongHashSet;
+import furrymatch.domain.Pet;
+import furrymatch.domain.SearchCriteria;
+import furrymatch.repository.AfterCommit;
+import furrymatch.repository.PetSearchIndex;
+import furrymatch.repository.PetSeenRegistry;
+import furrymatch.repository.SearchPetRepository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps a bounded queue of ready discovery candidates for each active pet, so the gallery can rank and pop its
+ * batches without running the search again.
+ * <p>
+ * A queue is built on the first request of a pet, then refilled on the {@code taskExecutor} with keyset batches
+ * whenever it drops below {@link #LOW_WATER_MARK}. A request never waits for a refill: it ranks what is buffered, and
+ * only searches itself when nothing is. Every batch is chosen among all the candidates buffered in the
+ * queue, its {@link Window}, and the delivered candidates are removed from it, so the ranking decides what is
+ * delivered and no candidate of a pass is skipped or delivered twice. A pass ends once the candidates are exhausted
+ * and the queue is empty; the next one starts over, so the pets that were shown but not swiped come back.
+ * <p>
+ * A queue is tied to the filters it was built with, and is dropped when the pet's {@link SearchCriteria} change, and
+ * keeps its own copy of them for the refills. Pets swiped after a refill are dropped when the window is read.
+ */
+@Service
+public class DiscoveryQueueService {
+
+    private final Logger log = LoggerFactory.getLogger(DiscoveryQueueService.class);
+
+    static final int MAX_PETS = 10_000;
+
+    static final int QUEUE_CAPACITY = 200;
+
+    static final int LOW_WATER_MARK = 50;
+
+    /**
+     * Source of the pass ids, unique across all the queues, so a cursor never continues a pass of a rebuilt queue.
+     */
+    private static final AtomicLong PASSES = new AtomicLong();
+
+    private final SearchPetRepository searchPetRepository;
+
+    private final PetSeenRegistry petSeenRegistry;
+
+    private final Executor taskExecutor;
+
+    private final Map<Long, DiscoveryQueue> queues = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, DiscoveryQueue> eldest) {
+            return size() > MAX_PETS;
+        }
+    };
+
+    public DiscoveryQueueService(
+        SearchPetRepository searchPetRepository,
+        PetSeenRegistry petSeenRegistry,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        this.searchPetRepository = searchPetRepository;
+        this.petSeenRegistry = petSeenRegistry;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Read the candidates buffered for a pet, to rank them before {@link #take(Window, List) taking} a batch.
+     * <p>
+     * The window holds the candidates buffered so far, and a refill is scheduled in the background when they are
+     * fewer than {@code limit}. The queue is only filled in the calling thread when it holds no candidate, as on the
+     * first call for a pet, or the first one after its filters changed.
+     *
+     * @param filters the search criteria of the pet that is swiping.
+     * @param ownerId the current owner, whose pets are excluded.
+     * @param pass the pass the client is paging through, or {@code null} to continue the current pass, or to start a
+     * new one if it is over.
+     * @param limit the size of the batch that will be taken.
+     * @return the window, empty if {@code pass} is over or belongs to a queue that was dropped.
+     */
+    public Window window(SearchCriteria filters, Long ownerId, Long pass, int limit) {
+        Long petId = filters.getPet().getId();
+        QueueKey key = new QueueKey(PetSearchIndex.filterValues(filters), ownerId);
+        DiscoveryQueue queue;
+        synchronized (queues) {
+            queue = queues.get(petId);
+            if (queue == null || !queue.key.equals(key)) {
+                queue = new DiscoveryQueue(key, copyOf(filters), PASSES.incrementAndGet());
+                queues.put(petId, queue);
+            }
+        }
+
+        LongHashSet seen = petSeenRegistry.seenBy(petId);
+        while (true) {
+            Window window = null;
+            boolean needsRefill = false;
+            synchronized (queue) {
+                if (pass == null && queue.exhausted && queue.ids.isEmpty()) {
+                    // The pass is over, start a new one with the lowest ids
+                    queue.pass = PASSES.incrementAndGet();
+                    queue.lastQueuedId = null;
+                    queue.exhausted = false;
+                }
+                if (pass != null && pass != queue.pass) {
+                    return new Window(queue, pass, new ArrayList<>());
+                }
+                queue.ids.removeIf(candidateId -> PetSeenRegistry.contains(seen, candidateId));
+                if (!queue.ids.isEmpty() || queue.exhausted) {
+                    window = new Window(queue, queue.pass, new ArrayList<>(queue.ids));
+                    needsRefill = queue.ids.size() < limit && !queue.exhausted && !queue.refilling;
+                    if (needsRefill) {
+                        queue.refilling = true;
+                    }
+                }
+            }
+            if (window != null) {
+                if (needsRefill) {
+                    taskExecutor.execute(() -> refillInBackground(petId, queue));
+                }
+                return window;
+            }
+            // Nothing to rank, even if a refill is running: search in this thread rather than wait for it
+            refill(petId, queue);
+        }
+    }
+
+    /**
+     * Take the chosen candidates of a window out of its queue, and schedule a refill in the background when needed.
+     * <p>
+     * A candidate taken by a concurrent request of the same pet, or dropped with its queue, is left out of the batch.
+     *
+     * @param window the window the candidates were chosen from.
+     * @param ids the chosen candidate ids, in delivery order.
+     * @return the batch, with the taken ids in delivery order.
+     */
+    public Batch take(Window window, List<Long> ids) {
+        DiscoveryQueue queue = window.queue;
+        List<Long> taken = new ArrayList<>(ids.size());
+        boolean more;
+        boolean needsRefill;
+        synchronized (queue) {
+            if (queue.pass != window.pass) {
+                return new Batch(taken, window.pass, false);
+            }
+            for (Long id : ids) {
+                if (queue.ids.remove(id)) {
+                    taken.add(id);
+                }
+            }
+            more = !queue.ids.isEmpty() || !queue.exhausted;
+            needsRefill = queue.ids.size() < LOW_WATER_MARK && !queue.exhausted && !queue.refilling;
+            if (needsRefill) {
+                queue.refilling = true;
+            }
+        }
+        if (needsRefill) {
+            taskExecutor.execute(() -> refillInBackground(window.petId(), queue));
+        }
+        return new Batch(taken, window.pass, more);
+    }
+
+    /**
+     * Drop the queue of a pet once the current transaction commits, so it is rebuilt with its new filters on its
+     * next search.
+     *
+     * @param petId the id of the pet.
+     */
+    public void invalidate(Long petId) {
+        AfterCommit.run(() -> {
+            synchronized (queues) {
+                queues.remove(petId);
+            }
+        });
+    }
+
+    private void refillInBackground(Long petId, DiscoveryQueue queue) {
+        try {
+            refill(petId, queue);
+        } finally {
+            synchronized (queue) {
+                queue.refilling = false;
+            }
+        }
+    }
+
+    /**
+     * Top the queue up to {@link #QUEUE_CAPACITY} with the candidates of the pass following the last queued one.
+     * <p>
+     * A request may refill an empty queue while a background refill runs: the candidates of the refill that finishes
+     * last are dropped if the other one already moved the queue past the same position.
+     */
+    private void refill(Long petId, DiscoveryQueue queue) {
+        int missing;
+        Long afterId;
+        long pass;
+        synchronized (queue) {
+            if (queue.exhausted) {
+                return;
+            }
+            missing = QUEUE_CAPACITY - queue.ids.size();
+            afterId = queue.lastQueuedId;
+            pass = queue.pass;
+        }
+        if (missing <= 0) {
+            return;
+        }
+        List<Long> ids = searchPetRepository.searchPetIds(queue.filters, queue.key.ownerId, afterId, missing);
+        synchronized (queue) {
+            if (queue.pass != pass || !Objects.equals(queue.lastQueuedId, afterId)) {
+                return;
+            }
+            queue.ids.addAll(ids);
+            if (!ids.isEmpty()) {
+                queue.lastQueuedId = ids.get(ids.size() - 1);
+            }
+            queue.exhausted = ids.size() < missing;
+        }
+        log.debug("Refilled discovery queue of pet {} with {} candidates", petId, ids.size());
+    }
+
+    /**
+     * Copy the filters of a pet, so the queue never touches the managed entity outside of the request that loaded it.
+     */
+    private static SearchCriteria copyOf(SearchCriteria filters) {
+        return new SearchCriteria()
+            .id(filters.getId())
+            .filterType(filters.getFilterType())
+            .breed(filters.getBreed())
+            .tradePups(filters.getTradePups())
+            .sex(filters.getSex())
+            .pedigree(filters.getPedigree())
+            .tradeMoney(filters.getTradeMoney())
+            .provice(filters.getProvice())
+            .canton(filters.getCanton())
+            .district(filters.getDistrict())
+            .objective(filters.getObjective())
+            .pet(new Pet().id(filters.getPet().getId()));
+    }
+
+    /**
+     * The candidates buffered in a queue when a batch is chosen.
+     */
+    public static final class Window {
+
+        private final DiscoveryQueue queue;
+
+        private final long pass;
+
+        private final List<Long> ids;
+
+        Window(DiscoveryQueue queue, long pass, List<Long> ids) {
+            this.queue = queue;
+            this.pass = pass;
+            this.ids = ids;
+        }
+
+        /**
+         * @return the candidate ids not swiped yet, in ascending id order.
+         */
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        private Long petId() {
+            return queue.filters.getPet().getId();
+        }
+    }
+
+    /**
+     * A batch taken from a discovery queue.
+     */
+    public static final class Batch {
+
+        private final List<Long> ids;
+
+        private final long pass;
+
+        private final boolean more;
+
+        Batch(List<Long> ids, long pass, boolean more) {
+            this.ids = ids;
+            this.pass = pass;
+            this.more = more;
+        }
+
+        /**
+         * @return the candidate ids, in delivery order.
+         */
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        /**
+         * @return the pass the batch was taken from, to continue it with the next batch.
+         */
+        public long getPass() {
+            return pass;
+        }
+
+        /**
+         * @return whether the pass has candidates left after this batch.
+         */
+        public boolean hasMore() {
+            return more;
+        }
+    }
+
+    private static final class QueueKey {
+
+        private final Map<PetSearchIndex.Attribute, String> filterValues;
+
+        private final Long ownerId;
+
+        private QueueKey(Map<PetSearchIndex.Attribute, String> filterValues, Long ownerId) {
+            this.filterValues = filterValues;
+            this.ownerId = ownerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueueKey)) {
+                return false;
+            }
+            QueueKey other = (QueueKey) o;
+            return filterValues.equals(other.filterValues) && Objects.equals(ownerId, other.ownerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filterValues, ownerId);
+        }
+    }
+
+    private static final class DiscoveryQueue {
+
+        private final QueueKey key;
+
+        private final SearchCriteria filters;
+
+        /**
+         * The buffered candidates of the pass, in ascending id order.
+         */
+        private final Set<Long> ids = new LinkedHashSet<>(QUEUE_CAPACITY * 2);
+
+        private long pass;
+
+        private Long lastQueuedId;
+
+        private boolean exhausted;
+
+        private boolean refilling;
+
+        private DiscoveryQueue(QueueKey key, SearchCriteria filters, long pass) {
+            this.key = key;
+            this.filters = filters;
+            this.pass = pass;
+        }
+    }
+}
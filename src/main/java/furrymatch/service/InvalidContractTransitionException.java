@@ -0,0 +1,12 @@
+package furrymatch.service;
+
+import furrymatch.domain.enumeration.ContractStatus;
+
+public class InvalidContractTransitionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidContractTransitionException(Long contractId, ContractStatus current, ContractStatus next) {
+        super("Contract " + contractId + " cannot go from " + current + " to " + next + "!");
+    }
+}
@@ -0,0 +1,10 @@
+package furrymatch.service;
+
+public class InvalidSwipeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidSwipeException(String message) {
+        super(message);
+    }
+}
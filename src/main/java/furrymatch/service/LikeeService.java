@@ -2,9 +2,24 @@ package furrymatch.service;
 
 import furrymatch.domain.Likee;
 import furrymatch.domain.Match;
+import furrymatch.domain.enumeration.LikeType;
+import furrymatch.repository.LikeeBatchRepository;
 import furrymatch.repository.LikeeRepository;
+import furrymatch.repository.PetRepository;
+import furrymatch.repository.PetSeenRegistry;
+import furrymatch.repository.ReciprocalLikeIndex;
+import furrymatch.service.dto.SwipeBatchDTO;
+import furrymatch.service.dto.SwipeDTO;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -23,58 +38,208 @@ public class LikeeService {
 
     private final LikeeRepository likeeRepository;
 
+    private final LikeeBatchRepository likeeBatchRepository;
+
+    private final PetRepository petRepository;
+
     private final UserService userService;
     private final MatchService matchService;
 
-    public LikeeService(LikeeRepository likeeRepository, UserService userService, MatchService matchService) {
+    private final PetSeenRegistry petSeenRegistry;
+
+    private final ReciprocalLikeIndex reciprocalLikeIndex;
+
+    private final PetPairLocks petPairLocks = new PetPairLocks();
+
+    public LikeeService(
+        LikeeRepository likeeRepository,
+        LikeeBatchRepository likeeBatchRepository,
+        PetRepository petRepository,
+        UserService userService,
+        MatchService matchService,
+        PetSeenRegistry petSeenRegistry,
+        ReciprocalLikeIndex reciprocalLikeIndex
+    ) {
         this.likeeRepository = likeeRepository;
+        this.likeeBatchRepository = likeeBatchRepository;
+        this.petRepository = petRepository;
         this.userService = userService;
         this.matchService = matchService;
+        this.petSeenRegistry = petSeenRegistry;
+        this.reciprocalLikeIndex = reciprocalLikeIndex;
     }
 
     /**
-     * Save a likee.
+     * Save a likee. A pet swipes another one only once: if it already did, its decision is replaced.
      *
      * @param likee the entity to save.
      * @return the persisted entity.
+     * @throws InvalidSwipeException if one of the pets of the likee has no id.
      */
     public Likee save(Likee likee) {
         log.debug("Request to save Likee : {}", likee);
-        return likeeRepository.save(likee);
+        checkPetIds(likee, false);
+        if (likee.getFirstPet() != null && likee.getSecondPet() != null) {
+            petPairLocks.lockUntilCompletion(likee.getFirstPet().getId(), Collections.singletonList(likee.getSecondPet().getId()));
+            Optional<Likee> existingLikee = likeeRepository.findByFirstPetIdAndSecondPetId(
+                likee.getFirstPet().getId(),
+                likee.getSecondPet().getId()
+            );
+            if (existingLikee.isPresent()) {
+                existingLikee.get().setLikeState(likee.getLikeState());
+                return likeeRepository.save(existingLikee.get());
+            }
+        }
+        Likee result = likeeRepository.save(likee);
+        if (result.getFirstPet() != null && result.getSecondPet() != null) {
+            petSeenRegistry.record(result.getFirstPet().getId(), result.getSecondPet().getId());
+            reciprocalLikeIndex.record(result.getFirstPet().getId(), result.getSecondPet().getId());
+        }
+        return result;
     }
 
     public void isMatch(Likee likee) {
-        boolean isMatch = checkIfBothPetsLikedEachOther(likee.getSecondPet().getId(), likee.getFirstPet().getId());
-        if (isMatch) {
-            //log.debug("Match is being saved in the backend!");
-            Match newMatch = new Match();
-            newMatch.setNotifyMatch(true);
-            newMatch.setDateMatch(LocalDate.now());
-            newMatch.setFirstLiked(likee);
-            newMatch.setSecondLiked(
-                likeeRepository.findByFirstPetIdAndSecondPetId(likee.getSecondPet().getId(), likee.getFirstPet().getId()).orElse(null)
-            );
-            matchService.save(newMatch);
-        }
+        checkIfMatch(likee);
     }
 
+    /**
+     * Create the match a saved likee completes, if the other pet already liked back.
+     *
+     * @param likee the saved likee.
+     * @return the id of the match, or {@code null} if there is none.
+     * @throws InvalidSwipeException if one of the pets of the likee is missing or has no id.
+     */
     public Long checkIfMatch(Likee likee) {
-        boolean isMatch = checkIfBothPetsLikedEachOther(likee.getSecondPet().getId(), likee.getFirstPet().getId());
-        if (isMatch) {
-            log.debug("Match is being saved in the backend!");
-            Match newMatch = new Match();
-            newMatch.setNotifyMatch(true);
-            newMatch.setDateMatch(LocalDate.now());
-            newMatch.setFirstLiked(likee);
-            newMatch.setSecondLiked(
-                likeeRepository.findByFirstPetIdAndSecondPetId(likee.getSecondPet().getId(), likee.getFirstPet().getId()).orElse(null)
-            );
-            Match savedMatch = matchService.save(newMatch);
-            return savedMatch.getId();
+        checkPetIds(likee, true);
+        Long firstPetId = likee.getFirstPet().getId();
+        Long secondPetId = likee.getSecondPet().getId();
+        petPairLocks.lockUntilCompletion(firstPetId, Collections.singletonList(secondPetId));
+        // The given likee was just saved, only the like in the other direction is left to check
+        if (hasLiked(secondPetId, firstPetId)) {
+            return match(likee, secondPetId);
         }
         return null;
     }
 
+    /**
+     * Check that the pets of a likee are identified, before their pair is locked.
+     *
+     * @param likee the likee.
+     * @param required whether both pets must be given.
+     */
+    private static void checkPetIds(Likee likee, boolean required) {
+        if (required && (likee.getFirstPet() == null || likee.getSecondPet() == null)) {
+            throw new InvalidSwipeException("A swipe needs both of its pets");
+        }
+        if (
+            (likee.getFirstPet() != null && likee.getFirstPet().getId() == null) ||
+            (likee.getSecondPet() != null && likee.getSecondPet().getId() == null)
+        ) {
+            throw new InvalidSwipeException("The pets of a swipe need an id");
+        }
+    }
+
+    /**
+     * Get the match of a pair of pets, or create it. The pair must be locked.
+     *
+     * @param likee the likee that completes the match.
+     * @param likedBackPetId the id of the pet that liked back.
+     * @return the id of the match.
+     */
+    private Long match(Likee likee, Long likedBackPetId) {
+        Long firstPetId = likee.getFirstPet().getId();
+        Optional<Match> existingMatch = matchService.findOneByPets(firstPetId, likedBackPetId);
+        if (existingMatch.isPresent()) {
+            return existingMatch.get().getId();
+        }
+        log.debug("Match is being saved in the backend!");
+        Match newMatch = new Match();
+        newMatch.setNotifyMatch(true);
+        newMatch.setDateMatch(LocalDate.now());
+        newMatch.setFirstLiked(likee);
+        newMatch.setSecondLiked(likeeRepository.findByFirstPetIdAndSecondPetId(likedBackPetId, firstPetId).orElse(null));
+        return matchService.save(newMatch).getId();
+    }
+
+    /**
+     * Save the swipes a pet made in a row, and create the matches they complete.
+     * <p>
+     * All the likees are inserted with one JDBC batch, then the liked pets that already swiped the current pet back
+     * are looked up at once. A pet swiped more than once in the batch keeps its first decision, and a pet that was
+     * already swiped gets its decision replaced.
+     *
+     * @param swipeBatch the pet that swiped and its decisions, in order.
+     * @param ownerId the current owner, who must own the pet that swiped.
+     * @return the ids of the created matches, in swipe order, or empty if the pet is not one of the owner's.
+     */
+    public Optional<List<Long>> saveBatch(SwipeBatchDTO swipeBatch, Long ownerId) {
+        log.debug("Request to save a batch of Likees : {}", swipeBatch);
+        Long petId = swipeBatch.getPetId();
+        Map<Long, LikeType> decisions = new LinkedHashMap<>();
+        for (SwipeDTO swipe : swipeBatch.getSwipes()) {
+            if (!petId.equals(swipe.getPetId())) {
+                decisions.putIfAbsent(swipe.getPetId(), swipe.getLikeState());
+            }
+        }
+        List<Long> swipedPetIds = new ArrayList<>(decisions.keySet());
+        // Locked before the first query, like a single swipe: the first read fixes the snapshot of the transaction,
+        // which must include the likees and matches a pet swiping back committed while this one waited
+        petPairLocks.lockUntilCompletion(petId, swipedPetIds);
+        if (!petRepository.existsByIdAndOwnerId(petId, ownerId)) {
+            return Optional.empty();
+        }
+        if (decisions.isEmpty()) {
+            return Optional.of(new ArrayList<>());
+        }
+
+        likeeBatchRepository.insertAll(petId, swipedPetIds, new ArrayList<>(decisions.values()));
+        for (Long swipedPetId : swipedPetIds) {
+            petSeenRegistry.record(petId, swipedPetId);
+            reciprocalLikeIndex.record(petId, swipedPetId);
+        }
+
+        // Only a like completes a match
+        List<Long> likedPetIds = new ArrayList<>();
+        decisions.forEach((swipedPetId, likeState) -> {
+            if (likeState == LikeType.Like) {
+                likedPetIds.add(swipedPetId);
+            }
+        });
+        Set<Long> swipedBack = likedPetIds.isEmpty() ? Collections.emptySet() : swipedBack(petId, likedPetIds);
+        if (swipedBack.isEmpty()) {
+            return Optional.of(new ArrayList<>());
+        }
+        Map<Long, Likee> likees = new HashMap<>();
+        for (Likee likee : likeeRepository.findByFirstPetIdAndSecondPetIdIn(petId, swipedBack)) {
+            likees.put(likee.getSecondPet().getId(), likee);
+        }
+        List<Long> matchIds = new ArrayList<>(swipedBack.size());
+        for (Long likedPetId : likedPetIds) {
+            if (swipedBack.contains(likedPetId)) {
+                matchIds.add(match(likees.get(likedPetId), likedPetId));
+            }
+        }
+        log.debug("Batch of {} swipes of pet {} created {} matches", swipedPetIds.size(), petId, matchIds.size());
+        return Optional.of(matchIds);
+    }
+
+    /**
+     * The pets among the given ones that already swiped a pet.
+     */
+    private Set<Long> swipedBack(Long petId, List<Long> swipedPetIds) {
+        Set<Long> swipedBack = new HashSet<>();
+        for (Long swipedPetId : swipedPetIds) {
+            if (!reciprocalLikeIndex.canAnswer(swipedPetId, petId)) {
+                swipedBack.addAll(likeeRepository.findFirstPetIdsBySecondPetIdAndFirstPetIdIn(petId, swipedPetIds));
+                return swipedBack;
+            }
+            if (reciprocalLikeIndex.contains(swipedPetId, petId)) {
+                swipedBack.add(swipedPetId);
+            }
+        }
+        return swipedBack;
+    }
+
     /**
      * Update a likee.
      *
@@ -83,6 +248,13 @@ public class LikeeService {
      */
     public Likee update(Likee likee) {
         log.debug("Request to update Likee : {}", likee);
+        likeeRepository.findById(likee.getId()).ifPresent(this::unindex);
+        if (likee.getFirstPet() != null) {
+            petSeenRegistry.evict(likee.getFirstPet().getId());
+            if (likee.getSecondPet() != null) {
+                reciprocalLikeIndex.record(likee.getFirstPet().getId(), likee.getSecondPet().getId());
+            }
+        }
         return likeeRepository.save(likee);
     }
 
@@ -138,12 +310,35 @@ public class LikeeService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Likee : {}", id);
+        likeeRepository.findById(id).ifPresent(this::unindex);
         likeeRepository.deleteById(id);
     }
 
+    /**
+     * Drop a likee that is about to change or disappear from the in-memory read models.
+     */
+    private void unindex(Likee likee) {
+        if (likee.getFirstPet() != null) {
+            petSeenRegistry.evict(likee.getFirstPet().getId());
+            if (likee.getSecondPet() != null) {
+                reciprocalLikeIndex.remove(likee.getFirstPet().getId(), likee.getSecondPet().getId());
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
     public boolean checkIfBothPetsLikedEachOther(Long firstPetId, Long secondPetId) {
-        Optional<Likee> likee1 = likeeRepository.findByFirstPetIdAndSecondPetId(firstPetId, secondPetId);
-        Optional<Likee> likee2 = likeeRepository.findByFirstPetIdAndSecondPetId(secondPetId, firstPetId);
-        return likee1.isPresent() && likee2.isPresent();
+        return hasLiked(firstPetId, secondPetId) && hasLiked(secondPetId, firstPetId);
+    }
+
+    /**
+     * Check whether a pet already swiped another one, from the {@link ReciprocalLikeIndex} when it can answer, or
+     * else from the database.
+     */
+    private boolean hasLiked(Long firstPetId, Long secondPetId) {
+        if (reciprocalLikeIndex.canAnswer(firstPetId, secondPetId)) {
+            return reciprocalLikeIndex.contains(firstPetId, secondPetId);
+        }
+        return likeeRepository.findByFirstPetIdAndSecondPetId(firstPetId, secondPetId).isPresent();
     }
 }
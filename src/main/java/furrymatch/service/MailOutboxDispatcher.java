@@ -0,0 +1,217 @@
+package furrymatch.service;
+
+import furrymatch.domain.MailOutbox;
+import furrymatch.domain.enumeration.MailOutboxStatus;
+import furrymatch.repository.MailOutboxRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Sends the emails of the mail outbox.
+ * <p>
+ * The due emails are sent in batches of {@link #BATCH_SIZE}, through a single call to the mail sender, which sends a
+ * whole batch over one SMTP connection. A batch is claimed in a short transaction, which leases its emails by moving
+ * their next attempt {@link #LEASE} ahead, so that no other dispatcher takes them while they are sent. The emails are
+ * sent outside of any transaction, then a second short transaction deletes the sent emails and reschedules the
+ * others. An email that fails is retried later, waiting twice as long after each attempt, from
+ * {@link #FIRST_RETRY_DELAY} up to {@link #MAX_RETRY_DELAY}, and is marked as failed after {@link #MAX_ATTEMPTS}
+ * attempts. An email whose dispatcher stopped before the second transaction is sent again once its lease is over.
+ */
+@Service
+public class MailOutboxDispatcher {
+
+    static final int BATCH_SIZE = 50;
+
+    static final int MAX_ATTEMPTS = 8;
+
+    static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(30);
+
+    static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    static final Duration LEASE = Duration.ofMinutes(5);
+
+    private static final long DISPATCH_DELAY = 1000;
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final JavaMailSender javaMailSender;
+
+    private final MailOutboxRepository mailOutboxRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public MailOutboxDispatcher(
+        JHipsterProperties jHipsterProperties,
+        JavaMailSender javaMailSender,
+        MailOutboxRepository mailOutboxRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.javaMailSender = javaMailSender;
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Send the next batch of due emails.
+     * <p>
+     * This is scheduled to get fired every second.
+     *
+     * @return the number of emails taken from the outbox, sent or not.
+     */
+    @Scheduled(fixedDelay = DISPATCH_DELAY)
+    public int dispatch() {
+        Instant now = Instant.now();
+        List<MailOutbox> due = transactionTemplate.execute(status -> claim(now));
+        if (due == null || due.isEmpty()) {
+            return 0;
+        }
+
+        List<MailOutbox> unsent = new ArrayList<>();
+        Map<MimeMessage, MailOutbox> messages = new LinkedHashMap<>();
+        for (MailOutbox mail : due) {
+            try {
+                messages.put(createMimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                // The same content would fail again
+                log.warn("Email {} to '{}' could not be built, giving up", mail.getId(), mail.getRecipient(), e);
+                mail.setAttempts(mail.getAttempts() + 1);
+                mail.setLastError(errorOf(e));
+                mail.setStatus(MailOutboxStatus.FAILED);
+                unsent.add(mail);
+            }
+        }
+
+        Map<Object, Exception> failures = send(new ArrayList<>(messages.keySet()));
+        List<MailOutbox> sent = new ArrayList<>();
+        messages.forEach((message, mail) -> {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                sent.add(mail);
+            } else {
+                retryLater(mail, failure, Instant.now());
+                unsent.add(mail);
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            mailOutboxRepository.deleteAll(sent);
+            mailOutboxRepository.saveAll(unsent);
+        });
+        log.debug("Sent {} emails, {} failed", sent.size(), due.size() - sent.size());
+        return due.size();
+    }
+
+    /**
+     * Lock the next due emails and lease them to this dispatcher.
+     */
+    private List<MailOutbox> claim(Instant now) {
+        List<MailOutbox> due = mailOutboxRepository.findDue(MailOutboxStatus.PENDING, now, PageRequest.of(0, BATCH_SIZE));
+        Instant leaseEnd = now.plus(LEASE);
+        due.forEach(mail -> mail.setNextAttemptAt(leaseEnd));
+        return due;
+    }
+
+    /**
+     * Send the messages over one connection.
+     *
+     * @return the exception of each message that could not be sent.
+     */
+    private Map<Object, Exception> send(List<MimeMessage> batch) {
+        if (batch.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            javaMailSender.send(batch.toArray(new MimeMessage[0]));
+            return Collections.emptyMap();
+        } catch (MailSendException e) {
+            if (!e.getFailedMessages().isEmpty()) {
+                return e.getFailedMessages();
+            }
+            return allFailed(batch, e);
+        } catch (MailException e) {
+            // Could not connect or authenticate, nothing was sent
+            return allFailed(batch, e);
+        }
+    }
+
+    private static Map<Object, Exception> allFailed(List<MimeMessage> batch, Exception e) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        batch.forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private void retryLater(MailOutbox mail, Exception failure, Instant now) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(errorOf(failure));
+        if (attempts >= MAX_ATTEMPTS) {
+            log.warn(
+                "Email {} to '{}' could not be sent after {} attempts, giving up",
+                mail.getId(),
+                mail.getRecipient(),
+                attempts,
+                failure
+            );
+            mail.setStatus(MailOutboxStatus.FAILED);
+        } else {
+            log.warn("Email {} to '{}' could not be sent, attempt {}: {}", mail.getId(), mail.getRecipient(), attempts, failure.toString());
+            mail.setNextAttemptAt(now.plus(retryDelay(attempts)));
+        }
+    }
+
+    /**
+     * Time to wait before the next attempt.
+     *
+     * @param attempts the number of attempts already made, at least one.
+     * @return the delay, doubled after each attempt and capped to {@link #MAX_RETRY_DELAY}.
+     */
+    static Duration retryDelay(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = FIRST_RETRY_DELAY.multipliedBy(1L << doublings);
+        return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+    }
+
+    private MimeMessage createMimeMessage(MailOutbox mail) throws MessagingException {
+        // Prepare message using a Spring helper
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(
+            mimeMessage,
+            Boolean.TRUE.equals(mail.getMultipart()),
+            StandardCharsets.UTF_8.name()
+        );
+        message.setTo(mail.getRecipient());
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getContent() != null ? mail.getContent() : "", Boolean.TRUE.equals(mail.getHtml()));
+        return mimeMessage;
+    }
+
+    private static String errorOf(Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -1,28 +1,27 @@
 package furrymatch.service;
 
 import furrymatch.domain.Contract;
+import furrymatch.domain.MailOutbox;
 import furrymatch.domain.Owner;
 import furrymatch.domain.User;
-import java.nio.charset.StandardCharsets;
+import furrymatch.domain.enumeration.MailOutboxStatus;
+import furrymatch.repository.MailOutboxRepository;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.Locale;
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * Emails are not sent right away: they are written to the mail outbox, in the transaction of the caller if there is
+ * one, and sent in batches by the {@link MailOutboxDispatcher}. An email is therefore only sent if the change it
+ * reports is committed, and it is retried if the SMTP server fails.
  */
 @Service
 public class MailService {
@@ -39,84 +38,73 @@ public class MailService {
 
     private final JHipsterProperties jHipsterProperties;
 
-    private final JavaMailSender javaMailSender;
+    private final MailOutboxRepository mailOutboxRepository;
 
-    private final MessageSource messageSource;
-
-    private final SpringTemplateEngine templateEngine;
+    private final MailTemplateRenderer mailTemplateRenderer;
 
     public MailService(
         JHipsterProperties jHipsterProperties,
-        JavaMailSender javaMailSender,
-        MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        MailOutboxRepository mailOutboxRepository,
+        MailTemplateRenderer mailTemplateRenderer
     ) {
         this.jHipsterProperties = jHipsterProperties;
-        this.javaMailSender = javaMailSender;
-        this.messageSource = messageSource;
-        this.templateEngine = templateEngine;
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailTemplateRenderer = mailTemplateRenderer;
     }
 
-    @Async
+    @Transactional
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
-            "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
+            "Queue email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
             isMultipart,
             isHtml,
             to,
             subject,
             content
         );
-
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Email could not be sent to user '{}'", to, e);
-        }
+        Instant now = Instant.now();
+        MailOutbox mail = new MailOutbox();
+        mail.setRecipient(to);
+        mail.setSubject(subject);
+        mail.setContent(content);
+        mail.setMultipart(isMultipart);
+        mail.setHtml(isHtml);
+        mail.setStatus(MailOutboxStatus.PENDING);
+        mail.setAttempts(0);
+        mail.setNextAttemptAt(now);
+        mail.setCreatedDate(now);
+        mailOutboxRepository.save(mail);
     }
 
-    @Async
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
             return;
         }
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
+        Locale locale = mailTemplateRenderer.locale(user.getLangKey());
+        Map<String, Object> variables = new HashMap<>();
+        variables.put(USER, user);
+        variables.put(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        String content = mailTemplateRenderer.render(templateName, locale, variables);
+        String subject = mailTemplateRenderer.subject(titleKey, locale);
         sendEmail(user.getEmail(), subject, content, false, true);
     }
 
-    @Async
     public void sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
         sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
     }
 
-    @Async
     public void sendCreationEmail(User user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
         sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
     }
 
-    @Async
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
         sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
     }
 
-    @Async
     public void sendEmailContractFromTemplate(
         Owner user,
         Owner user2,
@@ -125,17 +113,15 @@ public class MailService {
         String templateName,
         String titleKey
     ) {
-        Locale locale = Locale.forLanguageTag("en");
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(USER2, user2);
-        context.setVariable(CONTRACT, contract);
-        String content = templateEngine.process(templateName, context);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put(USER, user);
+        variables.put(USER2, user2);
+        variables.put(CONTRACT, contract);
+        String content = mailTemplateRenderer.render(templateName, mailTemplateRenderer.locale("en"), variables);
         String subject = titleKey;
         sendEmail(email, subject, content, false, true);
     }
 
-    @Async
     public void sendContractMail(Owner user, Owner user2, Contract contract, String email) {
         sendEmailContractFromTemplate(user, user2, contract, email, "mail/contractEmail", "Contrato creado de FurryMatch");
     }
@@ -0,0 +1,90 @@
+package furrymatch.service;
+
+import furrymatch.config.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+
+/**
+ * Renders the mail templates of {@code templates/mail}.
+ * <p>
+ * The templates are parsed once by the template engine and kept in its cache ({@code spring.thymeleaf.cache}), the
+ * locales of the language keys and the subjects of each locale are resolved once and kept here, so rendering an
+ * email only evaluates its template. The time spent rendering is recorded per template, in the
+ * {@code furrymatch.mail.render} timer.
+ */
+@Component
+public class MailTemplateRenderer {
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final MessageSource messageSource;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Locale> locales = new ConcurrentHashMap<>();
+
+    private final Map<Locale, Map<String, String>> subjects = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> renderTimers = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(SpringTemplateEngine templateEngine, MessageSource messageSource, MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Get the locale of a language key.
+     *
+     * @param langKey the language key, the default language if {@code null}.
+     * @return the locale.
+     */
+    public Locale locale(String langKey) {
+        return locales.computeIfAbsent(langKey != null ? langKey : Constants.DEFAULT_LANGUAGE, Locale::forLanguageTag);
+    }
+
+    /**
+     * Get the subject of an email.
+     *
+     * @param titleKey the message key of the subject.
+     * @param locale the locale of the email.
+     * @return the subject, in the given locale.
+     */
+    public String subject(String titleKey, Locale locale) {
+        return subjects
+            .computeIfAbsent(locale, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(titleKey, key -> messageSource.getMessage(key, null, locale));
+    }
+
+    /**
+     * Render a mail template.
+     *
+     * @param templateName the name of the template, such as {@code mail/activationEmail}.
+     * @param locale the locale of the email.
+     * @param variables the variables of the template.
+     * @return the content of the email.
+     */
+    public String render(String templateName, Locale locale, Map<String, Object> variables) {
+        Context context = new Context(locale, variables);
+        return renderTimer(templateName).record(() -> templateEngine.process(templateName, context));
+    }
+
+    private Timer renderTimer(String templateName) {
+        return renderTimers.computeIfAbsent(
+            templateName,
+            name ->
+                Timer
+                    .builder("furrymatch.mail.render")
+                    .description("Time spent rendering an email from its template")
+                    .tag("template", name)
+                    .register(meterRegistry)
+        );
+    }
+}
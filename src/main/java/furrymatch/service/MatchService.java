@@ -1,10 +1,11 @@
 package furrymatch.service;
 
+import furrymatch.domain.Likee;
 import furrymatch.domain.Match;
-import furrymatch.domain.User;
+import furrymatch.domain.MatchPair;
+import furrymatch.repository.LikeeRepository;
+import furrymatch.repository.MatchPairRepository;
 import furrymatch.repository.MatchRepository;
-import furrymatch.repository.UserRepository;
-import furrymatch.security.SecurityUtils;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,11 +25,22 @@ public class MatchService {
     private final Logger log = LoggerFactory.getLogger(MatchService.class);
 
     private final MatchRepository matchRepository;
-    private final UserRepository userRepository;
+    private final SessionContextService sessionContextService;
 
-    public MatchService(MatchRepository matchRepository, UserRepository userRepository) {
+    private final MatchPairRepository matchPairRepository;
+
+    private final LikeeRepository likeeRepository;
+
+    public MatchService(
+        MatchRepository matchRepository,
+        SessionContextService sessionContextService,
+        MatchPairRepository matchPairRepository,
+        LikeeRepository likeeRepository
+    ) {
         this.matchRepository = matchRepository;
-        this.userRepository = userRepository;
+        this.sessionContextService = sessionContextService;
+        this.matchPairRepository = matchPairRepository;
+        this.likeeRepository = likeeRepository;
     }
 
     /**
@@ -39,7 +51,9 @@ public class MatchService {
      */
     public Match save(Match match) {
         log.debug("Request to save Match : {}", match);
-        return matchRepository.save(match);
+        Match result = matchRepository.save(match);
+        savePair(result);
+        return result;
     }
 
     /**
@@ -50,7 +64,25 @@ public class MatchService {
      */
     public Match update(Match match) {
         log.debug("Request to update Match : {}", match);
-        return matchRepository.save(match);
+        Match result = matchRepository.save(match);
+        savePair(result);
+        return result;
+    }
+
+    /**
+     * Keep the {@link MatchPair} of a match in step with its likees. Its row is removed with the match by the
+     * database.
+     */
+    private void savePair(Match match) {
+        Likee likee = match.getFirstLiked() != null ? match.getFirstLiked() : match.getSecondLiked();
+        if (likee != null && (likee.getFirstPet() == null || likee.getSecondPet() == null) && likee.getId() != null) {
+            likee = likeeRepository.findById(likee.getId()).orElse(null);
+        }
+        if (likee == null || likee.getFirstPet() == null || likee.getSecondPet() == null) {
+            matchPairRepository.findById(match.getId()).ifPresent(matchPairRepository::delete);
+            return;
+        }
+        matchPairRepository.save(new MatchPair().matchId(match.getId()).pets(likee.getFirstPet().getId(), likee.getSecondPet().getId()));
     }
 
     /**
@@ -101,9 +133,22 @@ public class MatchService {
         return matchRepository.findById(id);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Get the match of two pets, whichever liked first.
+     *
+     * @param firstPetId the id of one of the pets.
+     * @param secondPetId the id of the other pet.
+     * @return the match of the pets, if any.
+     */
+    public Optional<Match> findOneByPets(Long firstPetId, Long secondPetId) {
+        log.debug("Request to get Match of pets : {}, {}", firstPetId, secondPetId);
+        return matchPairRepository
+            .findByLowPetIdAndHighPetId(Math.min(firstPetId, secondPetId), Math.max(firstPetId, secondPetId))
+            .flatMap(pair -> matchRepository.findById(pair.getMatchId()));
+    }
+
     public Optional<Long> getCurrentUserPetId() {
-        return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneByLogin).map(user -> Long.valueOf(user.getImageUrl()));
+        return sessionContextService.current().getSelectedPetId();
     }
 
     /**
@@ -1,14 +1,19 @@
 package furrymatch.service;
 
 import furrymatch.domain.Owner;
+import furrymatch.repository.ChatInboxProjection;
+import furrymatch.repository.ChatInboxRepository;
 import furrymatch.repository.OwnerRepository;
-import furrymatch.repository.UserRepository;
-import furrymatch.security.SecurityUtils;
+import furrymatch.repository.PetSearchIndex;
+import furrymatch.service.dto.ChatInboxDTO;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,13 +29,22 @@ public class OwnerService {
 
     private final OwnerRepository ownerRepository;
 
-    private final UserRepository userRepository;
+    private final SessionContextService sessionContextService;
 
-    private Long selectedPet;
+    private final PetSearchIndex petSearchIndex;
 
-    public OwnerService(OwnerRepository ownerRepository, UserRepository userRepository) {
+    private final ChatInboxRepository chatInboxRepository;
+
+    public OwnerService(
+        OwnerRepository ownerRepository,
+        SessionContextService sessionContextService,
+        PetSearchIndex petSearchIndex,
+        ChatInboxRepository chatInboxRepository
+    ) {
         this.ownerRepository = ownerRepository;
-        this.userRepository = userRepository;
+        this.sessionContextService = sessionContextService;
+        this.petSearchIndex = petSearchIndex;
+        this.chatInboxRepository = chatInboxRepository;
     }
 
     /**
@@ -41,7 +55,7 @@ public class OwnerService {
      */
     public Owner save(Owner owner) {
         log.debug("Request to save Owner : {}", owner);
-        return ownerRepository.save(owner);
+        return indexLocation(ownerRepository.save(owner));
     }
 
     /**
@@ -52,7 +66,7 @@ public class OwnerService {
      */
     public Owner update(Owner owner) {
         log.debug("Request to update Owner : {}", owner);
-        return ownerRepository.save(owner);
+        return indexLocation(ownerRepository.save(owner));
     }
 
     /**
@@ -112,7 +126,16 @@ public class OwnerService {
 
                 return existingOwner;
             })
-            .map(ownerRepository::save);
+            .map(ownerRepository::save)
+            .map(this::indexLocation);
+    }
+
+    /**
+     * The owner location is a discovery filter for all of the owner's pets.
+     */
+    private Owner indexLocation(Owner owner) {
+        petSearchIndex.indexOwnerLocation(owner);
+        return owner;
     }
 
     /**
@@ -127,15 +150,40 @@ public class OwnerService {
         return ownerRepository.findAll(pageable);
     }
 
+    /**
+     * Get a page of the inbox of the pet the current user has selected, the most recently active conversations first.
+     *
+     * @param beforeChatId the last message of the last conversation already received, or {@code null} for the first page.
+     * @param limit the maximum number of conversations to return.
+     * @return the conversations.
+     */
     @Transactional(readOnly = true)
-    public List<Owner> findUserChats() {
-        SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .ifPresent(user -> {
-                selectedPet = Long.valueOf(user.getImageUrl());
-            });
-        return ownerRepository.findUserPetChats(selectedPet);
+    public List<ChatInboxDTO> findUserChats(Long beforeChatId, int limit) {
+        Long petId = sessionContextService.current().getSelectedPetId().orElse(null);
+        if (petId == null) {
+            return new ArrayList<>();
+        }
+        PageRequest page = PageRequest.of(0, limit);
+        List<ChatInboxProjection> rows = beforeChatId == null
+            ? chatInboxRepository.findByPetId(petId, page)
+            : chatInboxRepository.findByPetIdBefore(petId, beforeChatId, page);
+        return rows.stream().map(OwnerService::toInboxDTO).collect(Collectors.toList());
+    }
+
+    private static ChatInboxDTO toInboxDTO(ChatInboxProjection row) {
+        ChatInboxDTO conversation = new ChatInboxDTO();
+        conversation.setMatchId(row.getMatchId());
+        conversation.setPetId(row.getPetId());
+        conversation.setCounterpartPetId(row.getCounterpartPetId());
+        conversation.setCounterpartOwnerId(row.getCounterpartOwnerId());
+        conversation.setFirstName(row.getFirstName());
+        conversation.setFirstLastName(row.getFirstLastName());
+        conversation.setPhoto(row.getPhoto());
+        conversation.setLastChatId(row.getLastChatId());
+        conversation.setLastMessage(row.getLastMessage());
+        conversation.setLastDateChat(row.getLastDateChat());
+        conversation.setUnreadCount(row.getUnreadCount());
+        return conversation;
     }
 
     /**
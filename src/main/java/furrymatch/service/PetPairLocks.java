@@ -0,0 +1,66 @@
+package furrymatch.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Striped locks on pairs of pets, held until the current transaction completes.
+ * <p>
+ * Both directions of a pair share the same lock, so the two pets of a pair cannot create their likes or their match at
+ * the same time, while unrelated pairs most likely fall on other stripes. Stripes are always taken in ascending order,
+ * so locking several pairs at once cannot deadlock.
+ */
+class PetPairLocks {
+
+    private static final int STRIPE_BITS = 6;
+
+    static final int STRIPES = 1 << STRIPE_BITS;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    PetPairLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Lock the pairs a pet forms with other pets, until the current transaction commits or rolls back.
+     *
+     * @param petId the id of the pet.
+     * @param otherPetIds the ids of the other pets.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    void lockUntilCompletion(Long petId, Collection<Long> otherPetIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Pet pairs can only be locked inside a transaction");
+        }
+        int[] indexes = otherPetIds.stream().mapToInt(otherPetId -> stripe(petId, otherPetId)).distinct().sorted().toArray();
+        List<ReentrantLock> locked = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            stripes[index].lock();
+            locked.add(stripes[index]);
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    for (int i = locked.size() - 1; i >= 0; i--) {
+                        locked.get(i).unlock();
+                    }
+                }
+            }
+        );
+    }
+
+    static int stripe(long firstPetId, long secondPetId) {
+        long low = Math.min(firstPetId, secondPetId);
+        long high = Math.max(firstPetId, secondPetId);
+        long mixed = (low * 0x9E3779B97F4A7C15L + high) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (mixed >>> (Long.SIZE - STRIPE_BITS));
+    }
+}
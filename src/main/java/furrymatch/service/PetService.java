@@ -6,10 +6,20 @@ import furrymatch.domain.Photo;
 import furrymatch.domain.SearchCriteria;
 import furrymatch.repository.*;
 import furrymatch.security.SecurityUtils;
+import furrymatch.service.dto.DiscoveryBatchDTO;
+import furrymatch.service.dto.MatchSummaryDTO;
+import furrymatch.service.dto.PetCardDTO;
+import furrymatch.service.dto.PetFacetsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +32,21 @@ public class PetService {
 
     private final Logger log = LoggerFactory.getLogger(PetService.class);
 
+    /**
+     * Maximum number of pet ids bound in a single card or photo URL query.
+     */
+    private static final int CARD_BATCH_SIZE = 500;
+
+    /**
+     * Maximum number of photo URLs on a pet card.
+     */
+    private static final int PET_CARD_PHOTOS = 5;
+
+    /**
+     * Number of characters of the last chat message shown in a match summary.
+     */
+    static final int MESSAGE_PREVIEW_LENGTH = 80;
+
     private final PetRepository petRepository;
 
     private final PhotoRepository photoRepository;
@@ -30,18 +55,61 @@ public class PetService {
 
     private final SearchPetRepository searchPetRepository;
 
+    private final PetSearchIndex petSearchIndex;
+
+    private final PetSeenRegistry petSeenRegistry;
+
+    private final DiscoveryQueueService discoveryQueueService;
+
+    private final CompatibilityRankingService compatibilityRankingService;
+
+    private final MatchPairRepository matchPairRepository;
+
+    private final ChatRepository chatRepository;
+
+    private final SessionContextService sessionContextService;
+
+    private final Counter photoHydrationQueries;
+
+    private final DistributionSummary photoHydrationPets;
+
     public PetService(
         PetRepository petRepository,
         PhotoRepository photoRepository,
         UserRepository userRepository,
         OwnerRepository ownerRepository,
-        SearchPetRepository searchPetRepository
+        SearchPetRepository searchPetRepository,
+        PetSearchIndex petSearchIndex,
+        PetSeenRegistry petSeenRegistry,
+        DiscoveryQueueService discoveryQueueService,
+        CompatibilityRankingService compatibilityRankingService,
+        MatchPairRepository matchPairRepository,
+        ChatRepository chatRepository,
+        SessionContextService sessionContextService,
+        MeterRegistry meterRegistry
     ) {
         this.petRepository = petRepository;
         this.photoRepository = photoRepository;
         this.userRepository = userRepository;
         this.ownerRepository = ownerRepository;
         this.searchPetRepository = searchPetRepository;
+        this.petSearchIndex = petSearchIndex;
+        this.petSeenRegistry = petSeenRegistry;
+        this.discoveryQueueService = discoveryQueueService;
+        this.compatibilityRankingService = compatibilityRankingService;
+        this.matchPairRepository = matchPairRepository;
+        this.chatRepository = chatRepository;
+        this.sessionContextService = sessionContextService;
+        this.photoHydrationQueries =
+            Counter
+                .builder("furrymatch.pet.photo.hydration.queries")
+                .description("Number of SQL statements issued to load the photos of a batch of pets")
+                .register(meterRegistry);
+        this.photoHydrationPets =
+            DistributionSummary
+                .builder("furrymatch.pet.photo.hydration.pets")
+                .description("Number of pets whose photos were loaded by a single hydration step")
+                .register(meterRegistry);
     }
 
     /**
@@ -65,6 +133,7 @@ public class PetService {
             });
 
         petRepository.save(pet);
+        petSearchIndex.index(pet);
 
         if (pet.getPhotos() != null) {
             LocalDate currentDate = LocalDate.now();
@@ -106,6 +175,7 @@ public class PetService {
             });
 
         petRepository.save(pet);
+        petSearchIndex.index(pet);
 
         if (pet.getPhotos() != null) {
             LocalDate currentDate = LocalDate.now();
@@ -180,54 +250,218 @@ public class PetService {
 
                 return existingPet;
             })
-            .map(petRepository::save);
+            .map(petRepository::save)
+            .map(savedPet -> {
+                petSearchIndex.index(savedPet);
+                return savedPet;
+            });
     }
 
     /**
-     * Get all the pets.
+     * Get all the pets of an owner.
      *
-     * @return the list of entities.
+     * @param id the id of the owner.
+     * @return the list of pet cards, ordered by id.
      */
     @Transactional(readOnly = true)
     /* public Page<Pet> findAll(Pageable pageable) {
         log.debug("Request to get all Pets");
         return petRepository.findAll(pageable);
     }*/
-    public List<Pet> findAll(Long id) {
+    public List<PetCardDTO> findAll(Long id) {
         log.debug("Request to get all Pets");
-        List<Pet> pets = petRepository.findAllByOwnerID(id);
-        ArrayList<Pet> newPets = new ArrayList<>();
-        pets.forEach(pet -> {
-            Set<Photo> set = new HashSet<>(photoRepository.findAllPhotosByPetID(pet.getId()));
-            pet.setPhotos(set);
-            newPets.add(pet);
-        });
-        return newPets;
+        return toCards(petRepository.findCardsByOwnerId(id));
+    }
+
+    /**
+     * Count the discovery candidates for every value of the discovery filters, in the filter context of a pet.
+     *
+     * @param searchCriteria the search criteria of the pet that is swiping.
+     * @param ownerId the current owner, whose pets are not counted.
+     * @return the counts, without the pets already swiped, or empty while the search index is not loaded.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PetFacetsDTO> searchFacets(SearchCriteria searchCriteria, Long ownerId) {
+        return petSearchIndex
+            .facets(
+                searchCriteria,
+                ownerId,
+                petSeenRegistry.seenBy(searchCriteria.getPet().getId()),
+                PetSearchIndex.Attribute.PET_TYPE,
+                PetSearchIndex.Attribute.SEX,
+                PetSearchIndex.Attribute.BREED,
+                PetSearchIndex.Attribute.PROVINCE,
+                PetSearchIndex.Attribute.CANTON,
+                PetSearchIndex.Attribute.DISTRICT
+            )
+            .map(counts -> {
+                PetFacetsDTO facets = new PetFacetsDTO();
+                facets.setPetType(counts.get(PetSearchIndex.Attribute.PET_TYPE));
+                facets.setSex(counts.get(PetSearchIndex.Attribute.SEX));
+                facets.setBreed(counts.get(PetSearchIndex.Attribute.BREED));
+                facets.setProvince(counts.get(PetSearchIndex.Attribute.PROVINCE));
+                facets.setCanton(counts.get(PetSearchIndex.Attribute.CANTON));
+                facets.setDistrict(counts.get(PetSearchIndex.Attribute.DISTRICT));
+                return facets;
+            });
+    }
+
+    /**
+     * Get the next batch of discovery candidates for a pet from its precomputed discovery queue: the most compatible
+     * of all the candidates buffered in the queue, which are then removed from it.
+     *
+     * @param searchCriteria the search criteria of the pet that is swiping.
+     * @param ownerId the current owner, whose pets are excluded.
+     * @param pass the pass returned with the previous batch, or {@code null} to start browsing.
+     * @param limit the maximum number of pets to return.
+     * @return the batch, most compatible first.
+     */
+    @Transactional(readOnly = true)
+    public DiscoveryBatchDTO nextDiscoveryBatch(SearchCriteria searchCriteria, Long ownerId, Long pass, int limit) {
+        DiscoveryQueueService.Window window = discoveryQueueService.window(searchCriteria, ownerId, pass, limit);
+        List<PetCardDTO> ranked = rank(searchCriteria.getPet(), findCards(window.getIds()), limit);
+        List<Long> rankedIds = new ArrayList<>(ranked.size());
+        ranked.forEach(card -> rankedIds.add(card.getId()));
+        DiscoveryQueueService.Batch batch = discoveryQueueService.take(window, rankedIds);
+        if (batch.getIds().size() < ranked.size()) {
+            Set<Long> taken = new HashSet<>(batch.getIds());
+            ranked.removeIf(card -> !taken.contains(card.getId()));
+        }
+        return new DiscoveryBatchDTO(ranked, batch.hasMore() ? batch.getPass() : null);
     }
 
-    public List<Pet> searchPets(SearchCriteria searchCriteria, Long ownerId) {
-        // log.debug("Request to get all Pets based on search criteria");
-        List<Pet> pets = searchPetRepository.searchPets(searchCriteria, ownerId);
-
-        // System.out.println("Pets returned by searchPetRepository.searchPets():");
-        pets.forEach(System.out::println);
-        ArrayList<Pet> newPets = new ArrayList<>();
-        pets.forEach(pet -> {
-            Set<Photo> petPhotos = pet.getPhotos();
-            if (petPhotos == null) {
-                petPhotos = new HashSet<>();
+    /**
+     * Keep the {@code limit} candidates most compatible with the pet that is swiping, or the first ones if it is not
+     * known.
+     */
+    private List<PetCardDTO> rank(Pet swipingPet, List<PetCardDTO> candidates, int limit) {
+        if (swipingPet == null) {
+            return new ArrayList<>(candidates.subList(0, Math.min(limit, candidates.size())));
+        }
+        return compatibilityRankingService.topK(swipingPet, candidates, limit);
+    }
+
+    /**
+     * Load the cards of the given pets, in the same order, with one projection query and one photo URL query per
+     * {@link #CARD_BATCH_SIZE} pets.
+     */
+    private List<PetCardDTO> findCards(List<Long> ids) {
+        List<PetCardDTO> cards = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += CARD_BATCH_SIZE) {
+            cards.addAll(toCards(petRepository.findCardsByIdIn(ids.subList(from, Math.min(from + CARD_BATCH_SIZE, ids.size())))));
+        }
+        Map<Long, Integer> positions = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) {
+            positions.putIfAbsent(ids.get(i), i);
+        }
+        cards.sort(Comparator.comparing(card -> positions.get(card.getId())));
+        return cards;
+    }
+
+    /**
+     * Turn card projections into cards, with their first {@link #PET_CARD_PHOTOS} photo URLs loaded in one query per
+     * {@link #CARD_BATCH_SIZE} pets.
+     */
+    private List<PetCardDTO> toCards(List<PetCardProjection> projections) {
+        Map<Long, PetCardDTO> cards = new LinkedHashMap<>();
+        projections.forEach(projection -> cards.put(projection.getId(), new PetCardDTO(projection)));
+        if (cards.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(cards.keySet());
+        for (int from = 0; from < ids.size(); from += CARD_BATCH_SIZE) {
+            List<Object[]> photoUrls = photoRepository.findPhotoUrlsByPetIdIn(ids.subList(from, Math.min(from + CARD_BATCH_SIZE, ids.size())));
+            photoHydrationQueries.increment();
+            for (Object[] row : photoUrls) {
+                List<String> urls = cards.get((Long) row[0]).getPhotoUrls();
+                if (urls.size() < PET_CARD_PHOTOS) {
+                    urls.add((String) row[1]);
+                }
             }
-            List<Photo> photosByPetID = photoRepository.findAllPhotosByPetID(pet.getId());
-            petPhotos.addAll(photosByPetID);
-            pet.setPhotos(petPhotos);
-            newPets.add(pet);
-            // System.out.println("List of pets" + pet);
-        });
-        return newPets;
+        }
+        photoHydrationPets.record(ids.size());
+        return new ArrayList<>(cards.values());
     }
 
+    /**
+     * Get the id of the newest match of a pet, from the {@link furrymatch.domain.MatchPair} projection: the newest
+     * match where the pet is the low side of the pair and the newest one where it is the high side are read with one
+     * index range scan each.
+     *
+     * @param petId the id of the pet.
+     * @return the id of its newest match, or {@code null} if it has none.
+     */
+    @Transactional(readOnly = true)
     public Long findMatchByPetId(Long petId) {
-        return petRepository.findMatchByPetId(petId).orElse(null);
+        Pageable first = PageRequest.of(0, 1);
+        List<Long> matchIds = new ArrayList<>(matchPairRepository.findMatchIdsByLowPetIdBefore(petId, Long.MAX_VALUE, first));
+        matchIds.addAll(matchPairRepository.findMatchIdsByHighPetIdBefore(petId, Long.MAX_VALUE, first));
+        return matchIds.stream().max(Comparator.naturalOrder()).orElse(null);
+    }
+
+    /**
+     * Get a page of the matches of a pet, newest first.
+     * <p>
+     * The matches where the pet is the low and the high side of the pair are read with one index range scan each,
+     * then the page is completed with one query for the summaries, one for the other pets' cards and one for the last
+     * messages.
+     *
+     * @param petId the id of the pet.
+     * @param ownerId the current owner, who must own the pet.
+     * @param beforeMatchId only return the matches older than this one, or {@code null} for the first page.
+     * @param limit the maximum number of matches to return.
+     * @return the matches newest first, or empty if the pet does not belong to the owner.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<MatchSummaryDTO>> findMatchSummaries(Long petId, Long ownerId, Long beforeMatchId, int limit) {
+        log.debug("Request to get the Matches of Pet : {} before {}", petId, beforeMatchId);
+        if (!petRepository.existsByIdAndOwnerId(petId, ownerId)) {
+            return Optional.empty();
+        }
+        Long before = beforeMatchId != null ? beforeMatchId : Long.MAX_VALUE;
+        Pageable page = PageRequest.of(0, limit);
+        List<Long> matchIds = new ArrayList<>(matchPairRepository.findMatchIdsByLowPetIdBefore(petId, before, page));
+        matchIds.addAll(matchPairRepository.findMatchIdsByHighPetIdBefore(petId, before, page));
+        if (matchIds.isEmpty()) {
+            return Optional.of(new ArrayList<>());
+        }
+        matchIds.sort(Comparator.reverseOrder());
+        matchIds = new ArrayList<>(matchIds.subList(0, Math.min(limit, matchIds.size())));
+
+        Map<Long, MatchSummaryProjection> projections = new HashMap<>();
+        List<Long> otherPetIds = new ArrayList<>(matchIds.size());
+        for (MatchSummaryProjection projection : matchPairRepository.findSummariesByMatchIdIn(matchIds)) {
+            projections.put(projection.getMatchId(), projection);
+            otherPetIds.add(petId.equals(projection.getLowPetId()) ? projection.getHighPetId() : projection.getLowPetId());
+        }
+        Map<Long, PetCardDTO> cards = new HashMap<>();
+        findCards(otherPetIds).forEach(card -> cards.put(card.getId(), card));
+        Map<Long, Object[]> lastMessages = new HashMap<>();
+        chatRepository.findLastMessagesByMatchIdIn(matchIds).forEach(row -> lastMessages.put((Long) row[0], row));
+
+        List<MatchSummaryDTO> summaries = new ArrayList<>(matchIds.size());
+        for (Long matchId : matchIds) {
+            MatchSummaryProjection projection = projections.get(matchId);
+            if (projection == null) {
+                continue;
+            }
+            MatchSummaryDTO summary = new MatchSummaryDTO();
+            summary.setMatchId(matchId);
+            summary.setDateMatch(projection.getDateMatch());
+            summary.setPet(cards.get(petId.equals(projection.getLowPetId()) ? projection.getHighPetId() : projection.getLowPetId()));
+            summary.setContractId(projection.getContractId());
+            summary.setContractStatus(projection.getContractStatus());
+            Object[] lastMessage = lastMessages.get(matchId);
+            if (lastMessage != null) {
+                String message = (String) lastMessage[1];
+                summary.setLastMessage(
+                    message != null && message.length() > MESSAGE_PREVIEW_LENGTH ? message.substring(0, MESSAGE_PREVIEW_LENGTH) : message
+                );
+                summary.setLastMessageDate((LocalDateTime) lastMessage[2]);
+            }
+            summaries.add(summary);
+        }
+        return Optional.of(summaries);
     }
 
     /**
@@ -250,19 +484,14 @@ public class PetService {
     public void delete(Long id) {
         log.debug("Request to delete Pet : {}", id);
         petRepository.deleteById(id);
+        petSearchIndex.remove(id);
     }
 
-    @Transactional(readOnly = true)
     public Long getCurrentUserPetId() {
-        return SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .map(user -> Long.valueOf(user.getImageUrl()))
-            .orElseThrow(() -> new IllegalStateException("User pet ID not found"));
+        return sessionContextService.current().getSelectedPetId().orElseThrow(() -> new IllegalStateException("User pet ID not found"));
     }
 
-    @Transactional(readOnly = true)
     public Optional<Long> getPetId() {
-        return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneByLogin).map(user -> Long.valueOf(user.getImageUrl()));
+        return sessionContextService.current().getSelectedPetId();
     }
 }
@@ -0,0 +1,109 @@
+package furrymatch.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffers the read receipts of the chats, so they are written in batches instead of on every "mark read" call.
+ * <p>
+ * A receipt is the id of the latest message of a match an owner has seen: every message that owner received in the
+ * match up to that id is read. Receipts are merged in memory until the chat service flushes them, and the highest
+ * mark recorded for each (match, reader) is remembered, so marking a conversation read again before a new message
+ * comes in is a no-op. Only the {@link #MAX_MARKS} most recently used marks are remembered.
+ */
+@Component
+public class ReadReceiptBuffer {
+
+    static final int MAX_MARKS = 100_000;
+
+    private final Map<Receipt, Long> pending = new HashMap<>();
+
+    private final Map<Receipt, Long> marks = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Receipt, Long> eldest) {
+            return size() > MAX_MARKS;
+        }
+    };
+
+    /**
+     * Record that an owner has seen the messages of a match up to a given one.
+     *
+     * @param matchId the id of the match.
+     * @param readerId the id of the owner who read the messages.
+     * @param upToChatId the id of the latest message seen.
+     * @return {@code true} if the receipt moved the mark forward and will be flushed.
+     */
+    public synchronized boolean record(Long matchId, Long readerId, Long upToChatId) {
+        Receipt receipt = new Receipt(matchId, readerId);
+        Long mark = marks.get(receipt);
+        if (mark != null && mark >= upToChatId) {
+            return false;
+        }
+        marks.put(receipt, upToChatId);
+        pending.put(receipt, upToChatId);
+        return true;
+    }
+
+    /**
+     * Take all the receipts recorded since the previous call.
+     *
+     * @return the latest message seen, by (match, reader).
+     */
+    public synchronized Map<Receipt, Long> drain() {
+        Map<Receipt, Long> drained = new HashMap<>(pending);
+        pending.clear();
+        return drained;
+    }
+
+    /**
+     * Put back receipts that could not be written, unless newer ones were recorded meanwhile.
+     *
+     * @param receipts the receipts, as returned by {@link #drain()}.
+     */
+    public synchronized void requeue(Map<Receipt, Long> receipts) {
+        receipts.forEach((receipt, upToChatId) -> pending.merge(receipt, upToChatId, Math::max));
+    }
+
+    /**
+     * A reader in a match.
+     */
+    public static final class Receipt {
+
+        private final Long matchId;
+
+        private final Long readerId;
+
+        Receipt(Long matchId, Long readerId) {
+            this.matchId = matchId;
+            this.readerId = readerId;
+        }
+
+        public Long getMatchId() {
+            return matchId;
+        }
+
+        public Long getReaderId() {
+            return readerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Receipt)) {
+                return false;
+            }
+            Receipt other = (Receipt) o;
+            return Objects.equals(matchId, other.matchId) && Objects.equals(readerId, other.readerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(matchId, readerId);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package furrymatch.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the read receipts still in the {@link ReadReceiptBuffer} when the application stops.
+ * <p>
+ * It stops after the web server, so no receipt is recorded once it ran, and before the database connections are
+ * closed.
+ */
+@Component
+public class ReadReceiptShutdownFlush implements SmartLifecycle {
+
+    /**
+     * Below the phase of the web server, so it is stopped later.
+     */
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+
+    private final Logger log = LoggerFactory.getLogger(ReadReceiptShutdownFlush.class);
+
+    private final ChatService chatService;
+
+    private volatile boolean running;
+
+    public ReadReceiptShutdownFlush(ChatService chatService) {
+        this.chatService = chatService;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            chatService.flushReadReceipts();
+        } catch (RuntimeException e) {
+            log.error("Could not write the buffered read receipts on shutdown", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
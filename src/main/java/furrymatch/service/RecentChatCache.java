@@ -0,0 +1,283 @@
+package furrymatch.service;
+
+import furrymatch.service.dto.ChatMessageDTO;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the latest {@link #CAPACITY} messages of the recently opened matches, so the first page of a conversation is
+ * served from memory.
+ * <p>
+ * The messages of a match are held in a ring buffer, ordered by date then id, which drops its oldest message when a
+ * new one comes in. A match is loaded from the database on its first read, then kept up to date by the chat service
+ * once its transactions commit. Only the {@link #MAX_MATCHES} most recently used matches are kept.
+ */
+@Component
+public class RecentChatCache {
+
+    public static final int CAPACITY = 50;
+
+    static final int MAX_MATCHES = 10_000;
+
+    static final Comparator<ChatMessageDTO> CHRONOLOGICAL = Comparator
+        .comparing(ChatMessageDTO::getDateChat, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+        .thenComparing(ChatMessageDTO::getId, Comparator.nullsFirst(Comparator.<Long>naturalOrder()));
+
+    private final Map<Long, RecentChats> matches = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RecentChats> eldest) {
+            return size() > MAX_MATCHES;
+        }
+    };
+
+    /**
+     * Get the owners and the latest messages of a match, loading them on a miss.
+     * <p>
+     * The match is registered before the loader runs, so the messages committed while it loads are merged with what
+     * it returns, and the edits and reads committed meanwhile are applied again on top of it.
+     *
+     * @param matchId the id of the match.
+     * @param loader loads the owners and the latest {@link #CAPACITY} messages of the match from the database.
+     * @return the owners of the match and its latest messages, oldest first.
+     */
+    public Snapshot latest(Long matchId, Supplier<Snapshot> loader) {
+        RecentChats recent;
+        synchronized (matches) {
+            recent = matches.computeIfAbsent(matchId, id -> new RecentChats());
+        }
+        synchronized (recent) {
+            if (recent.loaded) {
+                return recent.snapshot();
+            }
+        }
+        Snapshot loaded = loader.get();
+        synchronized (recent) {
+            if (!recent.loaded) {
+                recent.ownerIds = loaded.ownerIds;
+                loaded.messages.forEach(recent::add);
+                // The loader may have read the rows before these changes committed
+                recent.pending.forEach(change -> change.accept(recent));
+                recent.pending = null;
+                recent.loaded = true;
+            }
+            return recent.snapshot();
+        }
+    }
+
+    /**
+     * Add a new message to its match, if the match is cached.
+     *
+     * @param message the committed message.
+     */
+    public void append(ChatMessageDTO message) {
+        RecentChats recent = get(message.getMatchId());
+        if (recent != null) {
+            synchronized (recent) {
+                recent.add(message);
+            }
+        }
+    }
+
+    /**
+     * Replace an edited message, if it is cached.
+     *
+     * @param message the committed message.
+     */
+    public void replace(ChatMessageDTO message) {
+        RecentChats recent = get(message.getMatchId());
+        if (recent != null) {
+            synchronized (recent) {
+                recent.apply(chats -> chats.replace(message));
+            }
+        }
+    }
+
+    /**
+     * Mark the cached messages a recipient received in a match as read, up to a given message.
+     *
+     * @param matchId the id of the match.
+     * @param recipientId the id of the owner who read the messages.
+     * @param upToChatId the id of the latest message read.
+     */
+    public void markRead(Long matchId, Long recipientId, Long upToChatId) {
+        RecentChats recent = get(matchId);
+        if (recent != null) {
+            synchronized (recent) {
+                recent.apply(chats -> chats.markRead(recipientId, upToChatId));
+            }
+        }
+    }
+
+    /**
+     * Drop a match.
+     *
+     * @param matchId the id of the match.
+     */
+    public void evict(Long matchId) {
+        synchronized (matches) {
+            matches.remove(matchId);
+        }
+    }
+
+    private RecentChats get(Long matchId) {
+        if (matchId == null) {
+            return null;
+        }
+        synchronized (matches) {
+            return matches.get(matchId);
+        }
+    }
+
+    /**
+     * The owners and the latest messages of a match.
+     */
+    public static final class Snapshot {
+
+        private final List<Long> ownerIds;
+
+        private final List<ChatMessageDTO> messages;
+
+        /**
+         * @param ownerIds the ids of the owners of the pets of the match.
+         * @param messages the latest messages of the match, in any order.
+         */
+        public Snapshot(List<Long> ownerIds, List<ChatMessageDTO> messages) {
+            this.ownerIds = ownerIds;
+            this.messages = messages;
+        }
+
+        public List<Long> getOwnerIds() {
+            return ownerIds;
+        }
+
+        /**
+         * @return the messages, oldest first.
+         */
+        public List<ChatMessageDTO> getMessages() {
+            return messages;
+        }
+    }
+
+    private static final class RecentChats {
+
+        private final ChatMessageDTO[] ring = new ChatMessageDTO[CAPACITY];
+
+        private int head;
+
+        private int size;
+
+        private List<Long> ownerIds = new ArrayList<>();
+
+        private boolean loaded;
+
+        /**
+         * The changes made to the messages while the match loads, to replay on the loaded messages.
+         */
+        private List<Consumer<RecentChats>> pending = new ArrayList<>();
+
+        private ChatMessageDTO at(int index) {
+            return ring[(head + index) % CAPACITY];
+        }
+
+        private void set(int index, ChatMessageDTO message) {
+            ring[(head + index) % CAPACITY] = message;
+        }
+
+        /**
+         * Insert a message at its place, messages mostly come in order so the place is searched from the newest.
+         */
+        private void add(ChatMessageDTO message) {
+            for (int i = 0; i < size; i++) {
+                if (Objects.equals(at(i).getId(), message.getId())) {
+                    return;
+                }
+            }
+            int position = size;
+            while (position > 0 && CHRONOLOGICAL.compare(at(position - 1), message) > 0) {
+                position--;
+            }
+            if (size == CAPACITY) {
+                if (position == 0) {
+                    // Older than everything kept
+                    return;
+                }
+                ring[head] = null;
+                head = (head + 1) % CAPACITY;
+                size--;
+                position--;
+            }
+            for (int i = size; i > position; i--) {
+                set(i, at(i - 1));
+            }
+            set(position, message);
+            size++;
+        }
+
+        private void apply(Consumer<RecentChats> change) {
+            change.accept(this);
+            if (!loaded) {
+                pending.add(change);
+            }
+        }
+
+        /**
+         * Replace a kept message in place, then move it to its new place if its date changed.
+         */
+        private void replace(ChatMessageDTO message) {
+            for (int i = 0; i < size; i++) {
+                if (Objects.equals(at(i).getId(), message.getId())) {
+                    set(i, message);
+                    for (int j = i; j > 0 && CHRONOLOGICAL.compare(at(j - 1), at(j)) > 0; j--) {
+                        swap(j - 1, j);
+                    }
+                    for (int j = i; j < size - 1 && CHRONOLOGICAL.compare(at(j), at(j + 1)) > 0; j++) {
+                        swap(j, j + 1);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void swap(int first, int second) {
+            ChatMessageDTO message = at(first);
+            set(first, at(second));
+            set(second, message);
+        }
+
+        private void markRead(Long recipientId, Long upToChatId) {
+            for (int i = 0; i < size; i++) {
+                ChatMessageDTO message = at(i);
+                boolean unread = message.getStateChat() != null && message.getStateChat().contains("unread");
+                boolean seen = message.getId() != null && message.getId() <= upToChatId;
+                if (unread && seen && Objects.equals(message.getRecipientId(), recipientId)) {
+                    // Copied, the previous instance may be serialized at the same time
+                    ChatMessageDTO read = new ChatMessageDTO();
+                    read.setId(message.getId());
+                    read.setMatchId(message.getMatchId());
+                    read.setMessage(message.getMessage());
+                    read.setDateChat(message.getDateChat());
+                    read.setStateChat(message.getStateChat().replace("unread", "read"));
+                    read.setSenderId(message.getSenderId());
+                    read.setRecipientId(message.getRecipientId());
+                    set(i, read);
+                }
+            }
+        }
+
+        private Snapshot snapshot() {
+            List<ChatMessageDTO> messages = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                messages.add(at(i));
+            }
+            return new Snapshot(ownerIds, messages);
+        }
+    }
+}
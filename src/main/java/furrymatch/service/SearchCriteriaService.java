@@ -2,9 +2,8 @@ package furrymatch.service;
 
 import furrymatch.domain.Pet;
 import furrymatch.domain.SearchCriteria;
+import furrymatch.repository.PetSearchIndex;
 import furrymatch.repository.SearchCriteriaRepository;
-import furrymatch.repository.UserRepository;
-import furrymatch.security.SecurityUtils;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,16 +23,26 @@ public class SearchCriteriaService {
 
     private final SearchCriteriaRepository searchCriteriaRepository;
 
-    private final UserRepository userRepository;
+    private final SessionContextService sessionContextService;
 
     private final PetService petService;
 
-    private Long selectedPet;
+    private final PetSearchIndex petSearchIndex;
 
-    public SearchCriteriaService(SearchCriteriaRepository searchCriteriaRepository, UserRepository userRepository, PetService petService) {
+    private final DiscoveryQueueService discoveryQueueService;
+
+    public SearchCriteriaService(
+        SearchCriteriaRepository searchCriteriaRepository,
+        SessionContextService sessionContextService,
+        PetService petService,
+        PetSearchIndex petSearchIndex,
+        DiscoveryQueueService discoveryQueueService
+    ) {
         this.searchCriteriaRepository = searchCriteriaRepository;
-        this.userRepository = userRepository;
+        this.sessionContextService = sessionContextService;
         this.petService = petService;
+        this.petSearchIndex = petSearchIndex;
+        this.discoveryQueueService = discoveryQueueService;
     }
 
     /**
@@ -44,14 +53,14 @@ public class SearchCriteriaService {
      */
     public SearchCriteria save(SearchCriteria searchCriteria) {
         log.debug("Request to save SearchCriteria : {}", searchCriteria);
-        SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .ifPresent(user -> {
-                Optional<Pet> pet = petService.findOne(Long.valueOf(user.getImageUrl()));
+        sessionContextService
+            .current()
+            .getSelectedPetId()
+            .ifPresent(petId -> {
+                Optional<Pet> pet = petService.findOne(petId);
                 searchCriteria.setPet(pet.get());
             });
-        return searchCriteriaRepository.save(searchCriteria);
+        return indexObjective(searchCriteriaRepository.save(searchCriteria));
     }
 
     /**
@@ -62,7 +71,7 @@ public class SearchCriteriaService {
      */
     public SearchCriteria update(SearchCriteria searchCriteria) {
         log.debug("Request to update SearchCriteria : {}", searchCriteria);
-        return searchCriteriaRepository.save(searchCriteria);
+        return indexObjective(searchCriteriaRepository.save(searchCriteria));
     }
 
     /**
@@ -110,7 +119,20 @@ public class SearchCriteriaService {
 
                 return existingSearchCriteria;
             })
-            .map(searchCriteriaRepository::save);
+            .map(searchCriteriaRepository::save)
+            .map(this::indexObjective);
+    }
+
+    /**
+     * The objective of a pet's search criteria is also a discovery filter for the other pets, and its other fields
+     * are the filters its discovery queue was built with.
+     */
+    private SearchCriteria indexObjective(SearchCriteria searchCriteria) {
+        if (searchCriteria.getPet() != null) {
+            petSearchIndex.indexObjective(searchCriteria.getId(), searchCriteria.getPet().getId(), searchCriteria.getObjective());
+            discoveryQueueService.invalidate(searchCriteria.getPet().getId());
+        }
+        return searchCriteria;
     }
 
     /**
@@ -145,13 +167,7 @@ public class SearchCriteriaService {
 
     @Transactional(readOnly = true)
     public Optional<SearchCriteria> findByOwnerUser() {
-        SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .ifPresent(user -> {
-                selectedPet = Long.valueOf(user.getImageUrl());
-            });
-        return searchCriteriaRepository.findByOwnerUser(selectedPet);
+        return sessionContextService.current().getSelectedPetId().flatMap(searchCriteriaRepository::findByOwnerUser);
     }
 
     /**
@@ -162,5 +178,6 @@ public class SearchCriteriaService {
     public void delete(Long id) {
         log.debug("Request to delete SearchCriteria : {}", id);
         searchCriteriaRepository.deleteById(id);
+        petSearchIndex.removeObjective(id);
     }
 }
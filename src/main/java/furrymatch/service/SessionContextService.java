@@ -0,0 +1,343 @@
+package furrymatch.service;
+
+import furrymatch.domain.User;
+import furrymatch.domain.UserSessionContext;
+import furrymatch.repository.AfterCommit;
+import furrymatch.repository.UserSessionContextRepository;
+import furrymatch.security.SecurityUtils;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Keeps the session context of the users: the pet they use the application as, and the matches they last opened.
+ * <p>
+ * The contexts are stored in the {@code user_session_context} table and cached by login in the
+ * {@link #SESSION_CONTEXTS_CACHE} cache, which is bounded and expires its entries. A context is read from the table
+ * on a miss and replaced once the transactions changing it commit. The context of the current user is resolved once
+ * per request and kept in the request attributes, so every reader of a request sees the same context without a query.
+ * <p>
+ * Every change of the cache bumps a generation counter. A context is loaded after reading it, without holding any
+ * lock, and only put if it did not change meanwhile, so a context committed during the load is not overwritten with
+ * an older read. A transaction that changed contexts reads its own changes, and does not cache the contexts it loads
+ * since they are not committed yet.
+ */
+@Service
+public class SessionContextService {
+
+    public static final String SESSION_CONTEXTS_CACHE = SessionContextService.class.getName() + ".contexts";
+
+    static final String REQUEST_ATTRIBUTE = SessionContextService.class.getName() + ".current";
+
+    private final Logger log = LoggerFactory.getLogger(SessionContextService.class);
+
+    private final UserSessionContextRepository userSessionContextRepository;
+
+    private final CacheManager cacheManager;
+
+    private long generation;
+
+    public SessionContextService(UserSessionContextRepository userSessionContextRepository, CacheManager cacheManager) {
+        this.userSessionContextRepository = userSessionContextRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the session context of the current user.
+     *
+     * @return the context, empty if no user is logged in.
+     */
+    public SessionContext current() {
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object resolved = request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (resolved instanceof SessionContext && Objects.equals(((SessionContext) resolved).login, login.orElse(null))) {
+                return (SessionContext) resolved;
+            }
+        }
+        SessionContext context = login.map(this::get).orElse(SessionContext.EMPTY);
+        remember(context);
+        return context;
+    }
+
+    /**
+     * Get the session context of a user.
+     *
+     * @param login the login of the user.
+     * @return the context, empty if the user has none yet.
+     */
+    public SessionContext get(String login) {
+        Map<String, SessionContext> changed = changedInTransaction(false);
+        if (changed != null) {
+            // The cache does not hold the changes of this transaction yet
+            return changed.containsKey(login) ? changed.get(login) : load(login);
+        }
+        SessionContext cached = cache().get(login, SessionContext.class);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedAt = generation();
+        SessionContext loaded = load(login);
+        putIfUnchanged(loaded, loadedAt);
+        return loaded;
+    }
+
+    private SessionContext load(String login) {
+        return userSessionContextRepository.findOneByLogin(login).map(SessionContext::of).orElseGet(() -> SessionContext.empty(login));
+    }
+
+    /**
+     * Select the pet a user uses the application as.
+     *
+     * @param user the user.
+     * @param petId the id of the pet.
+     * @return the new context of the user.
+     */
+    @Transactional
+    public SessionContext selectPet(User user, Long petId) {
+        return update(user, context -> context.setSelectedPetId(petId));
+    }
+
+    /**
+     * Record the match a user opened from the matches of their pet.
+     *
+     * @param user the user.
+     * @param matchId the id of the match.
+     * @return the new context of the user.
+     */
+    @Transactional
+    public SessionContext openMatch(User user, Long matchId) {
+        return update(user, context -> context.setMatchId(matchId));
+    }
+
+    /**
+     * Record the match a user is writing or sending a contract for.
+     *
+     * @param user the user.
+     * @param matchId the id of the match.
+     * @param ownerId the id of the other owner of the match.
+     * @param petId the id of the pet of the other owner.
+     * @return the new context of the user.
+     */
+    @Transactional
+    public SessionContext openContract(User user, Long matchId, Long ownerId, Long petId) {
+        return update(user, context -> {
+            context.setContractMatchId(matchId);
+            context.setContractOwnerId(ownerId);
+            context.setContractPetId(petId);
+        });
+    }
+
+    /**
+     * Move the context of a user to their new login.
+     *
+     * @param userId the id of the user.
+     * @param oldLogin the previous login of the user.
+     * @param newLogin the new login of the user.
+     */
+    @Transactional
+    public void rename(Long userId, String oldLogin, String newLogin) {
+        if (Objects.equals(oldLogin, newLogin)) {
+            return;
+        }
+        userSessionContextRepository.updateLogin(userId, newLogin);
+        forgetInTransaction(oldLogin);
+        forgetInTransaction(newLogin);
+        AfterCommit.run(() -> {
+            evict(oldLogin);
+            evict(newLogin);
+        });
+    }
+
+    /**
+     * Drop the context of a user from memory, its row is deleted with the user.
+     *
+     * @param login the login of the user.
+     */
+    public void forget(String login) {
+        forgetInTransaction(login);
+        AfterCommit.run(() -> evict(login));
+    }
+
+    private SessionContext update(User user, Consumer<UserSessionContext> change) {
+        UserSessionContext entity = userSessionContextRepository
+            .findById(user.getId())
+            .orElseGet(() -> {
+                UserSessionContext created = new UserSessionContext();
+                created.setUserId(user.getId());
+                return created;
+            });
+        entity.setLogin(user.getLogin());
+        change.accept(entity);
+        userSessionContextRepository.save(entity);
+        log.debug("Changed session context: {}", entity);
+
+        SessionContext context = SessionContext.of(entity);
+        Map<String, SessionContext> changed = changedInTransaction(true);
+        if (changed != null) {
+            changed.put(context.login, context);
+        }
+        AfterCommit.run(() -> put(context));
+        if (Objects.equals(SecurityUtils.getCurrentUserLogin().orElse(null), context.login)) {
+            remember(context);
+        }
+        return context;
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void putIfUnchanged(SessionContext context, long loadedAt) {
+        if (loadedAt == generation) {
+            cache().put(context.login, context);
+        }
+    }
+
+    private synchronized void put(SessionContext context) {
+        generation++;
+        cache().put(context.login, context);
+    }
+
+    private synchronized void evict(String login) {
+        generation++;
+        cache().evict(login);
+    }
+
+    private void forgetInTransaction(String login) {
+        Map<String, SessionContext> changed = changedInTransaction(true);
+        if (changed != null) {
+            changed.remove(login);
+        }
+    }
+
+    /**
+     * The contexts changed by the current transaction, by login.
+     *
+     * @param create whether to start tracking the changes of the transaction if it has none yet.
+     * @return the changed contexts, {@code null} outside of a transaction or if it changed none and create is false.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, SessionContext> changedInTransaction(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<String, SessionContext> changed = (Map<String, SessionContext>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null && create) {
+            changed = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changed);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(SessionContextService.this);
+                    }
+                }
+            );
+        }
+        return changed;
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(SESSION_CONTEXTS_CACHE));
+    }
+
+    private static void remember(SessionContext context) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, context, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * The session context of a user, immutable.
+     */
+    public static final class SessionContext {
+
+        static final SessionContext EMPTY = empty(null);
+
+        private final String login;
+
+        private final Long selectedPetId;
+
+        private final Long matchId;
+
+        private final Long contractMatchId;
+
+        private final Long contractOwnerId;
+
+        private final Long contractPetId;
+
+        SessionContext(String login, Long selectedPetId, Long matchId, Long contractMatchId, Long contractOwnerId, Long contractPetId) {
+            this.login = login;
+            this.selectedPetId = selectedPetId;
+            this.matchId = matchId;
+            this.contractMatchId = contractMatchId;
+            this.contractOwnerId = contractOwnerId;
+            this.contractPetId = contractPetId;
+        }
+
+        static SessionContext empty(String login) {
+            return new SessionContext(login, null, null, null, null, null);
+        }
+
+        static SessionContext of(UserSessionContext entity) {
+            return new SessionContext(
+                entity.getLogin(),
+                entity.getSelectedPetId(),
+                entity.getMatchId(),
+                entity.getContractMatchId(),
+                entity.getContractOwnerId(),
+                entity.getContractPetId()
+            );
+        }
+
+        /**
+         * @return the id of the pet the user uses the application as.
+         */
+        public Optional<Long> getSelectedPetId() {
+            return Optional.ofNullable(selectedPetId);
+        }
+
+        /**
+         * @return the id of the match the user last opened from the matches of their pet.
+         */
+        public Optional<Long> getMatchId() {
+            return Optional.ofNullable(matchId);
+        }
+
+        /**
+         * @return the id of the match the user last opened a contract for.
+         */
+        public Optional<Long> getContractMatchId() {
+            return Optional.ofNullable(contractMatchId);
+        }
+
+        /**
+         * @return the id of the other owner of the contract match.
+         */
+        public Optional<Long> getContractOwnerId() {
+            return Optional.ofNullable(contractOwnerId);
+        }
+
+        /**
+         * @return the id of the pet of the other owner of the contract match.
+         */
+        public Optional<Long> getContractPetId() {
+            return Optional.ofNullable(contractPetId);
+        }
+    }
+}
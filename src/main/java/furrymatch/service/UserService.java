@@ -50,13 +50,16 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final SessionContextService sessionContextService;
+
     public UserService(
         UserRepository userRepository,
         OwnerRepository ownerRepository,
         PasswordEncoder passwordEncoder,
         PersistentTokenRepository persistentTokenRepository,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        SessionContextService sessionContextService
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
@@ -64,6 +67,7 @@ public class UserService {
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
         this.ownerRepository = ownerRepository;
+        this.sessionContextService = sessionContextService;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -236,6 +240,7 @@ public class UserService {
             .map(Optional::get)
             .map(user -> {
                 this.clearUserCaches(user);
+                sessionContextService.rename(user.getId(), user.getLogin(), userDTO.getLogin().toLowerCase());
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -261,24 +266,13 @@ public class UserService {
             .map(AdminUserDTO::new);
     }
 
-    public void updateUserSelectedPet(Long petId, Long id) {
-        userRepository.updateUserSelectedPet(petId, id);
-    }
-
-    public void updateUserMatchPet(String matchPetId, Long id) {
-        userRepository.updateUserMatchPet(matchPetId, id);
-    }
-
-    public void updateUserMatch(String matchId, Long id) {
-        userRepository.updateUserMatch(matchId, id);
-    }
-
     public void deleteUser(String login) {
         userRepository
             .findOneByLogin(login)
             .ifPresent(user -> {
                 userRepository.delete(user);
                 this.clearUserCaches(user);
+                sessionContextService.forget(user.getLogin());
                 log.debug("Deleted User: {}", user);
             });
     }
@@ -395,6 +389,7 @@ public class UserService {
                 log.debug("Deleting not activated user {}", user.getLogin());
                 userRepository.delete(user);
                 this.clearUserCaches(user);
+                sessionContextService.forget(user.getLogin());
             });
     }
 
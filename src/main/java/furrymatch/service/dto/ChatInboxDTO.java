@@ -0,0 +1,135 @@
+package furrymatch.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A DTO representing one conversation of the inbox of a pet: the counterpart pet and its owner, with the last
+ * message and the number of messages not read yet.
+ */
+public class ChatInboxDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long matchId;
+
+    private Long petId;
+
+    private Long counterpartPetId;
+
+    private Long counterpartOwnerId;
+
+    private String firstName;
+
+    private String firstLastName;
+
+    private String photo;
+
+    private Long lastChatId;
+
+    private String lastMessage;
+
+    private LocalDateTime lastDateChat;
+
+    private Integer unreadCount;
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public Long getPetId() {
+        return petId;
+    }
+
+    public void setPetId(Long petId) {
+        this.petId = petId;
+    }
+
+    public Long getCounterpartPetId() {
+        return counterpartPetId;
+    }
+
+    public void setCounterpartPetId(Long counterpartPetId) {
+        this.counterpartPetId = counterpartPetId;
+    }
+
+    public Long getCounterpartOwnerId() {
+        return counterpartOwnerId;
+    }
+
+    public void setCounterpartOwnerId(Long counterpartOwnerId) {
+        this.counterpartOwnerId = counterpartOwnerId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getFirstLastName() {
+        return firstLastName;
+    }
+
+    public void setFirstLastName(String firstLastName) {
+        this.firstLastName = firstLastName;
+    }
+
+    public String getPhoto() {
+        return photo;
+    }
+
+    public void setPhoto(String photo) {
+        this.photo = photo;
+    }
+
+    public Long getLastChatId() {
+        return lastChatId;
+    }
+
+    public void setLastChatId(Long lastChatId) {
+        this.lastChatId = lastChatId;
+    }
+
+    public String getLastMessage() {
+        return lastMessage;
+    }
+
+    public void setLastMessage(String lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public LocalDateTime getLastDateChat() {
+        return lastDateChat;
+    }
+
+    public void setLastDateChat(LocalDateTime lastDateChat) {
+        this.lastDateChat = lastDateChat;
+    }
+
+    public Integer getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Integer unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ChatInboxDTO{" +
+            "matchId=" + matchId +
+            ", petId=" + petId +
+            ", counterpartPetId=" + counterpartPetId +
+            ", lastChatId=" + lastChatId +
+            ", unreadCount=" + unreadCount +
+            "}";
+    }
+}
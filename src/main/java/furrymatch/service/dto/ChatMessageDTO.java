@@ -0,0 +1,109 @@
+package furrymatch.service.dto;
+
+import furrymatch.domain.Chat;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A DTO representing a chat message, as pushed to the match channels over the websocket.
+ */
+public class ChatMessageDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private Long matchId;
+
+    private String message;
+
+    private LocalDateTime dateChat;
+
+    private String stateChat;
+
+    private Long senderId;
+
+    private Long recipientId;
+
+    public ChatMessageDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ChatMessageDTO(Chat chat) {
+        this.id = chat.getId();
+        this.matchId = chat.getMatch() != null ? chat.getMatch().getId() : null;
+        this.message = chat.getMessage();
+        this.dateChat = chat.getDateChat();
+        this.stateChat = chat.getStateChat();
+        this.senderId = chat.getSenderId();
+        this.recipientId = chat.getRecipientId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getDateChat() {
+        return dateChat;
+    }
+
+    public void setDateChat(LocalDateTime dateChat) {
+        this.dateChat = dateChat;
+    }
+
+    public String getStateChat() {
+        return stateChat;
+    }
+
+    public void setStateChat(String stateChat) {
+        this.stateChat = stateChat;
+    }
+
+    public Long getSenderId() {
+        return senderId;
+    }
+
+    public void setSenderId(Long senderId) {
+        this.senderId = senderId;
+    }
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public void setRecipientId(Long recipientId) {
+        this.recipientId = recipientId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ChatMessageDTO{" +
+            "id=" + id +
+            ", matchId=" + matchId +
+            ", dateChat='" + dateChat + "'" +
+            ", senderId=" + senderId +
+            ", recipientId=" + recipientId +
+            "}";
+    }
+}
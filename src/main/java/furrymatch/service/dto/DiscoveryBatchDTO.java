@@ -0,0 +1,53 @@
+package furrymatch.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO representing a batch of discovery candidates, with the pass the next batch continues.
+ */
+public class DiscoveryBatchDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<PetCardDTO> pets;
+
+    private Long nextPass;
+
+    public DiscoveryBatchDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public DiscoveryBatchDTO(List<PetCardDTO> pets, Long nextPass) {
+        this.pets = pets;
+        this.nextPass = nextPass;
+    }
+
+    public List<PetCardDTO> getPets() {
+        return pets;
+    }
+
+    public void setPets(List<PetCardDTO> pets) {
+        this.pets = pets;
+    }
+
+    /**
+     * @return the pass the next batch continues, or {@code null} if its candidates are exhausted.
+     */
+    public Long getNextPass() {
+        return nextPass;
+    }
+
+    public void setNextPass(Long nextPass) {
+        this.nextPass = nextPass;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DiscoveryBatchDTO{" +
+            "pets=" + pets +
+            ", nextPass=" + nextPass +
+            "}";
+    }
+}
@@ -0,0 +1,102 @@
+package furrymatch.service.dto;
+
+import furrymatch.domain.enumeration.ContractStatus;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A DTO representing a match of a pet, as listed in its matches: the other pet's card, the contract status and a
+ * preview of the last chat message.
+ */
+public class MatchSummaryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long matchId;
+
+    private LocalDate dateMatch;
+
+    private PetCardDTO pet;
+
+    private Long contractId;
+
+    private ContractStatus contractStatus;
+
+    private String lastMessage;
+
+    private LocalDateTime lastMessageDate;
+
+    public MatchSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public LocalDate getDateMatch() {
+        return dateMatch;
+    }
+
+    public void setDateMatch(LocalDate dateMatch) {
+        this.dateMatch = dateMatch;
+    }
+
+    public PetCardDTO getPet() {
+        return pet;
+    }
+
+    public void setPet(PetCardDTO pet) {
+        this.pet = pet;
+    }
+
+    public Long getContractId() {
+        return contractId;
+    }
+
+    public void setContractId(Long contractId) {
+        this.contractId = contractId;
+    }
+
+    public ContractStatus getContractStatus() {
+        return contractStatus;
+    }
+
+    public void setContractStatus(ContractStatus contractStatus) {
+        this.contractStatus = contractStatus;
+    }
+
+    public String getLastMessage() {
+        return lastMessage;
+    }
+
+    public void setLastMessage(String lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public LocalDateTime getLastMessageDate() {
+        return lastMessageDate;
+    }
+
+    public void setLastMessageDate(LocalDateTime lastMessageDate) {
+        this.lastMessageDate = lastMessageDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MatchSummaryDTO{" +
+            "matchId=" + matchId +
+            ", dateMatch='" + dateMatch + "'" +
+            ", pet=" + (pet != null ? pet.getId() : null) +
+            ", contractId=" + contractId +
+            ", contractStatus='" + contractStatus + "'" +
+            ", lastMessageDate='" + lastMessageDate + "'" +
+            "}";
+    }
+}
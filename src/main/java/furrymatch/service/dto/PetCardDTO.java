@@ -0,0 +1,204 @@
+package furrymatch.service.dto;
+
+import furrymatch.domain.enumeration.PetType;
+import furrymatch.domain.enumeration.Sex;
+import furrymatch.repository.PetCardProjection;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing a pet card, as shown by the discovery gallery and the pet list: a pet with its breed name, its
+ * owner location and its first photos, but none of its associations.
+ */
+public class PetCardDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String name;
+
+    private PetType petType;
+
+    private String description;
+
+    private Sex sex;
+
+    private Boolean tradeMoney;
+
+    private Boolean tradePups;
+
+    private Boolean pedigree;
+
+    private Double desireAmmount;
+
+    private Long breedId;
+
+    private String breedName;
+
+    private String province;
+
+    private String canton;
+
+    private String district;
+
+    private List<String> photoUrls = new ArrayList<>();
+
+    public PetCardDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public PetCardDTO(PetCardProjection card) {
+        this.id = card.getId();
+        this.name = card.getName();
+        this.petType = card.getPetType();
+        this.description = card.getDescription();
+        this.sex = card.getSex();
+        this.tradeMoney = card.getTradeMoney();
+        this.tradePups = card.getTradePups();
+        this.pedigree = card.getPedigree();
+        this.desireAmmount = card.getDesireAmmount();
+        this.breedId = card.getBreedId();
+        this.breedName = card.getBreedName();
+        this.province = card.getProvince();
+        this.canton = card.getCanton();
+        this.district = card.getDistrict();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public PetType getPetType() {
+        return petType;
+    }
+
+    public void setPetType(PetType petType) {
+        this.petType = petType;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Sex getSex() {
+        return sex;
+    }
+
+    public void setSex(Sex sex) {
+        this.sex = sex;
+    }
+
+    public Boolean getTradeMoney() {
+        return tradeMoney;
+    }
+
+    public void setTradeMoney(Boolean tradeMoney) {
+        this.tradeMoney = tradeMoney;
+    }
+
+    public Boolean getTradePups() {
+        return tradePups;
+    }
+
+    public void setTradePups(Boolean tradePups) {
+        this.tradePups = tradePups;
+    }
+
+    public Boolean getPedigree() {
+        return pedigree;
+    }
+
+    public void setPedigree(Boolean pedigree) {
+        this.pedigree = pedigree;
+    }
+
+    public Double getDesireAmmount() {
+        return desireAmmount;
+    }
+
+    public void setDesireAmmount(Double desireAmmount) {
+        this.desireAmmount = desireAmmount;
+    }
+
+    public Long getBreedId() {
+        return breedId;
+    }
+
+    public void setBreedId(Long breedId) {
+        this.breedId = breedId;
+    }
+
+    public String getBreedName() {
+        return breedName;
+    }
+
+    public void setBreedName(String breedName) {
+        this.breedName = breedName;
+    }
+
+    public String getProvince() {
+        return province;
+    }
+
+    public void setProvince(String province) {
+        this.province = province;
+    }
+
+    public String getCanton() {
+        return canton;
+    }
+
+    public void setCanton(String canton) {
+        this.canton = canton;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public void setDistrict(String district) {
+        this.district = district;
+    }
+
+    public List<String> getPhotoUrls() {
+        return photoUrls;
+    }
+
+    public void setPhotoUrls(List<String> photoUrls) {
+        this.photoUrls = photoUrls;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PetCardDTO{" +
+            "id=" + id +
+            ", name='" + name + "'" +
+            ", petType='" + petType + "'" +
+            ", sex='" + sex + "'" +
+            ", breedName='" + breedName + "'" +
+            ", province='" + province + "'" +
+            ", canton='" + canton + "'" +
+            ", district='" + district + "'" +
+            ", photoUrls=" + photoUrls +
+            "}";
+    }
+}
@@ -0,0 +1,90 @@
+package furrymatch.service.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A DTO representing the number of discovery candidates for every value of the discovery filters, in the filter
+ * context of the pet that is swiping.
+ */
+public class PetFacetsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Map<String, Long> petType;
+
+    private Map<String, Long> sex;
+
+    private Map<String, Long> breed;
+
+    private Map<String, Long> province;
+
+    private Map<String, Long> canton;
+
+    private Map<String, Long> district;
+
+    public PetFacetsDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public Map<String, Long> getPetType() {
+        return petType;
+    }
+
+    public void setPetType(Map<String, Long> petType) {
+        this.petType = petType;
+    }
+
+    public Map<String, Long> getSex() {
+        return sex;
+    }
+
+    public void setSex(Map<String, Long> sex) {
+        this.sex = sex;
+    }
+
+    public Map<String, Long> getBreed() {
+        return breed;
+    }
+
+    public void setBreed(Map<String, Long> breed) {
+        this.breed = breed;
+    }
+
+    public Map<String, Long> getProvince() {
+        return province;
+    }
+
+    public void setProvince(Map<String, Long> province) {
+        this.province = province;
+    }
+
+    public Map<String, Long> getCanton() {
+        return canton;
+    }
+
+    public void setCanton(Map<String, Long> canton) {
+        this.canton = canton;
+    }
+
+    public Map<String, Long> getDistrict() {
+        return district;
+    }
+
+    public void setDistrict(Map<String, Long> district) {
+        this.district = district;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PetFacetsDTO{" +
+            "petType=" + petType +
+            ", sex=" + sex +
+            ", breed=" + breed +
+            ", province=" + province +
+            ", canton=" + canton +
+            ", district=" + district +
+            "}";
+    }
+}
@@ -0,0 +1,56 @@
+package furrymatch.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * A DTO representing the swipes made by a pet in a row, in the order they were made.
+ */
+public class SwipeBatchDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_SWIPES = 500;
+
+    @NotNull
+    private Long petId;
+
+    @Valid
+    @NotEmpty
+    @Size(max = MAX_SWIPES)
+    private List<SwipeDTO> swipes = new ArrayList<>();
+
+    public SwipeBatchDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public Long getPetId() {
+        return petId;
+    }
+
+    public void setPetId(Long petId) {
+        this.petId = petId;
+    }
+
+    public List<SwipeDTO> getSwipes() {
+        return swipes;
+    }
+
+    public void setSwipes(List<SwipeDTO> swipes) {
+        this.swipes = swipes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SwipeBatchDTO{" +
+            "petId=" + petId +
+            ", swipes=" + swipes.size() +
+            "}";
+    }
+}
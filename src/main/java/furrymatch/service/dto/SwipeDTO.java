@@ -0,0 +1,53 @@
+package furrymatch.service.dto;
+
+import furrymatch.domain.enumeration.LikeType;
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A DTO representing one like or dislike decision of a {@link SwipeBatchDTO}.
+ */
+public class SwipeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private Long petId;
+
+    @NotNull
+    private LikeType likeState;
+
+    public SwipeDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SwipeDTO(Long petId, LikeType likeState) {
+        this.petId = petId;
+        this.likeState = likeState;
+    }
+
+    public Long getPetId() {
+        return petId;
+    }
+
+    public void setPetId(Long petId) {
+        this.petId = petId;
+    }
+
+    public LikeType getLikeState() {
+        return likeState;
+    }
+
+    public void setLikeState(LikeType likeState) {
+        this.likeState = likeState;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SwipeDTO{" +
+            "petId=" + petId +
+            ", likeState='" + likeState + "'" +
+            "}";
+    }
+}
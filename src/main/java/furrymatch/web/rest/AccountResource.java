@@ -7,6 +7,7 @@ import furrymatch.repository.UserRepository;
 import furrymatch.security.AuthoritiesConstants;
 import furrymatch.security.SecurityUtils;
 import furrymatch.service.MailService;
+import furrymatch.service.SessionContextService;
 import furrymatch.service.UserService;
 import furrymatch.service.dto.AdminUserDTO;
 import furrymatch.service.dto.PasswordChangeDTO;
@@ -16,6 +17,8 @@ import furrymatch.web.rest.vm.ManagedUserVM;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.apache.commons.lang3.StringUtils;
@@ -41,6 +44,16 @@ public class AccountResource {
         }
     }
 
+    /**
+     * The match opened from the matches page: {@code matchId,petId}.
+     */
+    private static final Pattern MATCH = Pattern.compile("(\\d+),(\\d+)");
+
+    /**
+     * The match opened from the contracts page: {@code matchId,ownerId-petId}.
+     */
+    private static final Pattern CONTRACT_MATCH = Pattern.compile("(\\d+),(\\d+)-(\\d+)");
+
     private final Logger log = LoggerFactory.getLogger(AccountResource.class);
 
     private final UserRepository userRepository;
@@ -50,18 +63,23 @@ public class AccountResource {
     private final MailService mailService;
 
     private final PersistentTokenRepository persistentTokenRepository;
+
+    private final SessionContextService sessionContextService;
+
     private String applicationName;
 
     public AccountResource(
         UserRepository userRepository,
         UserService userService,
         MailService mailService,
-        PersistentTokenRepository persistentTokenRepository
+        PersistentTokenRepository persistentTokenRepository,
+        SessionContextService sessionContextService
     ) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
         this.persistentTokenRepository = persistentTokenRepository;
+        this.sessionContextService = sessionContextService;
     }
 
     /**
@@ -304,31 +322,44 @@ public class AccountResource {
 
     @PostMapping("/account/selectedPet/{petId}")
     public ResponseEntity<Void> updateUserPetId(@PathVariable(value = "petId", required = false) final Long petId) {
-        Long id = userService.getUserWithAuthorities().get().getId();
-        userService.updateUserSelectedPet(petId, id);
+        User user = userService.getUserWithAuthorities().get();
+        sessionContextService.selectPet(user, petId);
         return ResponseEntity
             .noContent()
-            .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, "user", id.toString()))
+            .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, "user", user.getId().toString()))
             .build();
     }
 
     @PostMapping("/account/saveMatchPet/{matchPetId}")
     public ResponseEntity<Void> updateMatchPet(@PathVariable(value = "matchPetId", required = false) final String matchPetId) {
-        Long id = userService.getUserWithAuthorities().get().getId();
-        userService.updateUserMatchPet(matchPetId, id);
+        Matcher contractMatch = CONTRACT_MATCH.matcher(matchPetId);
+        if (!contractMatch.matches()) {
+            throw new BadRequestAlertException("Invalid match", "user", "matchinvalid");
+        }
+        User user = userService.getUserWithAuthorities().get();
+        sessionContextService.openContract(
+            user,
+            Long.valueOf(contractMatch.group(1)),
+            Long.valueOf(contractMatch.group(2)),
+            Long.valueOf(contractMatch.group(3))
+        );
         return ResponseEntity
             .noContent()
-            .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, "user", id.toString()))
+            .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, "user", user.getId().toString()))
             .build();
     }
 
     @PostMapping("/account/saveMatch/{matchId}")
     public ResponseEntity<Void> updateUserMatch(@PathVariable(value = "matchId", required = false) final String matchId) {
-        Long id = userService.getUserWithAuthorities().get().getId();
-        userService.updateUserMatch(matchId, id);
+        Matcher match = MATCH.matcher(matchId);
+        if (!match.matches()) {
+            throw new BadRequestAlertException("Invalid match", "user", "matchinvalid");
+        }
+        User user = userService.getUserWithAuthorities().get();
+        sessionContextService.openMatch(user, Long.valueOf(match.group(1)));
         return ResponseEntity
             .noContent()
-            .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, "user", id.toString()))
+            .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, "user", user.getId().toString()))
             .build();
     }
 }
@@ -1,18 +1,18 @@
 package furrymatch.web.rest;
 
 import furrymatch.domain.Chat;
-import furrymatch.domain.Match;
 import furrymatch.repository.ChatRepository;
-import furrymatch.repository.UserRepository;
-import furrymatch.repository.UserRepository;
-import furrymatch.security.SecurityUtils;
 import furrymatch.service.ChatService;
 import furrymatch.service.MatchService;
+import furrymatch.service.SessionContextService;
 import furrymatch.service.UserService;
+import furrymatch.service.dto.ChatMessageDTO;
 import furrymatch.web.rest.errors.BadRequestAlertException;
+import furrymatch.web.rest.util.CursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -40,6 +40,12 @@ public class ChatResource {
 
     private static final String ENTITY_NAME = "chat";
 
+    private static final int DEFAULT_HISTORY_LIMIT = 20;
+
+    private static final int MAX_HISTORY_LIMIT = 50;
+
+    private static final String NO_DATE = "-";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -51,21 +57,19 @@ public class ChatResource {
 
     private final MatchService matchService;
 
-    private final UserRepository userRepository;
-
-    private Match match;
+    private final SessionContextService sessionContextService;
 
     public ChatResource(
         ChatService chatService,
         ChatRepository chatRepository,
         UserService userService,
-        UserRepository userRepository,
+        SessionContextService sessionContextService,
         MatchService matchService
     ) {
         this.chatService = chatService;
         this.chatRepository = chatRepository;
         this.userService = userService;
-        this.userRepository = userRepository;
+        this.sessionContextService = sessionContextService;
         this.matchService = matchService;
     }
 
@@ -94,13 +98,7 @@ public class ChatResource {
     public ResponseEntity<Chat> createChatEmpty(@RequestBody Long id) throws URISyntaxException {
         Chat chat = new Chat();
         chat.setDateChat(LocalDateTime.now());
-        SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .ifPresent(userr -> {
-                match = matchService.findOne(Long.valueOf((userr.getFirstName()).substring(0, (userr.getFirstName()).indexOf(",")))).get();
-                chat.setMatch(match);
-            });
+        sessionContextService.current().getMatchId().flatMap(matchService::findOne).ifPresent(chat::setMatch);
         Chat result = chatService.save(chat);
         return ResponseEntity
             .created(new URI("/api/chats/" + result.getId()))
@@ -224,6 +222,43 @@ public class ChatResource {
             .build();
     }
 
+    /**
+     * {@code GET  /matches/:id/chats} : get a page of the messages of a match, paginated backwards from the latest one.
+     *
+     * @param id the id of the match.
+     * @param before the opaque cursor returned in the {@code X-Next-Cursor} header of the previous page, if any.
+     * @param limit the maximum number of messages to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the messages in body, oldest first, or with status {@code 404 (Not Found)} if the current owner has no pet in the match.
+     */
+    @GetMapping("/matches/{id}/chats")
+    public ResponseEntity<List<ChatMessageDTO>> getMatchChats(
+        @PathVariable Long id,
+        @RequestParam(required = false) String before,
+        @RequestParam(defaultValue = "" + DEFAULT_HISTORY_LIMIT) int limit
+    ) {
+        log.debug("REST request to get the Chats of Match : {}", id);
+        Long currentOwnerId = userService.getUserWithAuthorities().get().getId();
+        LocalDateTime beforeDate = null;
+        Long beforeId = null;
+        if (before != null && !before.isEmpty()) {
+            List<String> keys = CursorUtil.decode(before, 2, ENTITY_NAME);
+            try {
+                beforeDate = NO_DATE.equals(keys.get(0)) ? null : LocalDateTime.parse(keys.get(0));
+                beforeId = Long.valueOf(keys.get(1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+        Optional<List<ChatMessageDTO>> chats = chatService.findChats(id, currentOwnerId, beforeDate, beforeId, pageSize);
+        String nextCursor = chats
+            .filter(page -> page.size() == pageSize)
+            .map(page -> page.get(0))
+            .map(oldest -> CursorUtil.encode(oldest.getDateChat() == null ? NO_DATE : oldest.getDateChat(), oldest.getId()))
+            .orElse(null);
+        return ResponseUtil.wrapOrNotFound(chats, CursorUtil.generateCursorHttpHeaders(nextCursor));
+    }
+
     @GetMapping("/chats/unread")
     public ResponseEntity<List<Chat>> getUnreadChatsForCurrentUser() {
         Long currentOwnerId = userService.getUserWithAuthorities().get().getId();
@@ -231,9 +266,30 @@ public class ChatResource {
         return ResponseEntity.ok().body(unreadChats);
     }
 
+    /**
+     * {@code GET  /chats/unread/count} : get the number of chats the current owner has not read yet.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of unread chats in body.
+     */
+    @GetMapping("/chats/unread/count")
+    public ResponseEntity<Integer> countUnreadChatsForCurrentUser() {
+        Long currentOwnerId = userService.getUserWithAuthorities().get().getId();
+        return ResponseEntity.ok().body(chatService.countUnreadChatsByOwnerId(currentOwnerId));
+    }
+
+    /**
+     * {@code PUT  /chats/update-state/:matchId/:senderId} : mark the messages the current owner received in a match as read.
+     * <p>
+     * The receipt is written asynchronously, within a second.
+     *
+     * @param matchId the id of the match.
+     * @param senderId the id of the other owner of the match, kept for compatibility: the current owner is the reader.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}.
+     */
     @PutMapping("/chats/update-state/{matchId}/{senderId}")
     public ResponseEntity<Void> updateChatState(@PathVariable Long matchId, @PathVariable Long senderId) {
-        chatService.updateChatState(matchId, senderId);
+        Long currentOwnerId = userService.getUserWithAuthorities().get().getId();
+        chatService.updateChatState(matchId, currentOwnerId);
         return ResponseEntity.ok().build();
     }
 }
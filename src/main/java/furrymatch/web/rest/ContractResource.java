@@ -2,8 +2,6 @@ package furrymatch.web.rest;
 
 import furrymatch.domain.*;
 import furrymatch.repository.ContractRepository;
-import furrymatch.repository.UserRepository;
-import furrymatch.security.SecurityUtils;
 import furrymatch.service.*;
 import furrymatch.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
@@ -18,7 +16,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -46,34 +43,26 @@ public class ContractResource {
 
     private final MatchService matchService;
 
-    private final MailService mailService;
-
     private final OwnerService ownerService;
 
     private final UserService userService;
 
-    private final UserRepository userRepository;
-
-    private Match match;
-
-    private Owner owner2;
+    private final SessionContextService sessionContextService;
 
     public ContractResource(
         ContractService contractService,
         ContractRepository contractRepository,
         MatchService matchService,
-        MailService mailService,
         OwnerService ownerService,
         UserService userService,
-        UserRepository userRepository
+        SessionContextService sessionContextService
     ) {
         this.contractService = contractService;
         this.contractRepository = contractRepository;
         this.matchService = matchService;
-        this.mailService = mailService;
         this.ownerService = ownerService;
         this.userService = userService;
-        this.userRepository = userRepository;
+        this.sessionContextService = sessionContextService;
     }
 
     /**
@@ -92,29 +81,10 @@ public class ContractResource {
         User user = userService.getUserWithAuthorities().get();
         Owner owner1 = ownerService.findOne(user.getId()).get();
 
-        SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .ifPresent(userr -> {
-                owner2 =
-                    ownerService
-                        .findOne(
-                            Long.valueOf(
-                                (userr.getLastName()).substring((userr.getLastName()).indexOf(",") + 1, (userr.getLastName()).indexOf("-"))
-                            )
-                        )
-                        .get();
-                match = matchService.findOne(Long.valueOf((userr.getLastName()).substring(0, (userr.getLastName()).indexOf(",")))).get();
-            });
-
-        String other = contract.getOtherNotes() + ";" + owner1.getId() + ";1";
-        contract.setOtherNotes(other);
-        Contract result = contractService.save(contract);
-
-        match.setContract(result);
-        matchService.update(match);
-
-        mailService.sendContractMail(owner1, owner2, contract, user.getEmail());
+        Owner owner2 = contractCounterpart();
+        Match match = contractMatch();
+
+        Contract result = contractService.create(contract, match, owner1, owner2, user.getEmail());
         return ResponseEntity
             .created(new URI("/api/contracts/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -126,31 +96,31 @@ public class ContractResource {
         User user = userService.getUserWithAuthorities().get();
         Owner owner1 = ownerService.findOne(user.getId()).get();
 
-        Contract contract = contractService.findOne(id).get();
-
-        SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .ifPresent(userr -> {
-                owner2 =
-                    ownerService
-                        .findOne(
-                            Long.valueOf(
-                                (userr.getLastName()).substring((userr.getLastName()).indexOf(",") + 1, (userr.getLastName()).indexOf("-"))
-                            )
-                        )
-                        .get();
-            });
+        Owner owner2 = contractCounterpart();
 
         User user2 = userService.findOne(owner2.getId()).get();
 
-        String other = (contract.getOtherNotes()).substring(0, contract.getOtherNotes().indexOf(';')) + ";" + owner1.getId() + ";2";
-        contract.setOtherNotes(other);
-
-        Contract result = contractService.update(contract);
+        Optional<Contract> result = contractService.send(id, owner1, owner2, user2.getEmail());
+        return ResponseUtil.wrapOrNotFound(result);
+    }
 
-        mailService.sendContractMail(owner1, owner2, contract, user2.getEmail());
-        return ResponseEntity.ok().body(contract);
+    /**
+     * {@code POST  /contracts/:id/accept} : the current owner accepts the contract the other owner of the match sent.
+     *
+     * @param id the id of the contract to accept.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the accepted contract,
+     * or with status {@code 400 (Bad Request)} if the contract cannot be accepted by the current owner,
+     * or with status {@code 404 (Not Found)} if the contract is not found.
+     */
+    @PostMapping("/contracts/{id}/accept")
+    public ResponseEntity<Contract> acceptContract(@PathVariable Long id) {
+        log.debug("REST request to accept Contract : {}", id);
+        User user = userService.getUserWithAuthorities().get();
+        Optional<Contract> result = contractService.accept(id, user.getId());
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString())
+        );
     }
 
     /**
@@ -182,26 +152,9 @@ public class ContractResource {
         User user = userService.getUserWithAuthorities().get();
         Owner owner1 = ownerService.findOne(user.getId()).get();
 
-        SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .ifPresent(userr -> {
-                owner2 =
-                    ownerService
-                        .findOne(
-                            Long.valueOf(
-                                (userr.getLastName()).substring((userr.getLastName()).indexOf(",") + 1, (userr.getLastName()).indexOf("-"))
-                            )
-                        )
-                        .get();
-            });
-
-        String other = contract.getOtherNotes() + ";" + owner1.getId() + ";1";
-        contract.setOtherNotes(other);
-
-        Contract result = contractService.update(contract);
-
-        mailService.sendContractMail(owner1, owner2, contract, user.getEmail());
+        Owner owner2 = contractCounterpart();
+
+        Contract result = contractService.edit(contract, owner1, owner2, user.getEmail());
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, contract.getId().toString()))
@@ -214,7 +167,7 @@ public class ContractResource {
      * @param id the id of the contract to save.
      * @param contract the contract to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated contract,
-     * or with status {@code 400 (Bad Request)} if the contract is not valid,
+     * or with status {@code 400 (Bad Request)} if the contract is not valid or cannot be edited by the current owner,
      * or with status {@code 404 (Not Found)} if the contract is not found,
      * or with status {@code 500 (Internal Server Error)} if the contract couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -236,7 +189,8 @@ public class ContractResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Contract> result = contractService.partialUpdate(contract);
+        User user = userService.getUserWithAuthorities().get();
+        Optional<Contract> result = contractService.partialUpdate(contract, user.getId());
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -256,12 +210,29 @@ public class ContractResource {
         @org.springdoc.api.annotations.ParameterObject Pageable pageable,
         @RequestParam(required = false) String filter
     ) {
+        Page<Contract> page;
         if ("match-is-null".equals(filter)) {
-            log.debug("REST request to get all Contracts where match is null");
-            return new ResponseEntity<>(contractService.findAllWhereMatchIsNull(), HttpStatus.OK);
+            log.debug("REST request to get a page of Contracts where match is null");
+            page = contractService.findAllWhereMatchIsNull(pageable);
+        } else {
+            log.debug("REST request to get a page of Contracts");
+            page = contractService.findAll(pageable);
         }
-        log.debug("REST request to get a page of Contracts");
-        Page<Contract> page = contractService.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /contracts/pending} : get the contracts the current owner sent that the other owner has not accepted yet.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of contracts in body.
+     */
+    @GetMapping("/contracts/pending")
+    public ResponseEntity<List<Contract>> getPendingContracts(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+        log.debug("REST request to get a page of the pending Contracts of the current owner");
+        User user = userService.getUserWithAuthorities().get();
+        Page<Contract> page = contractService.findPending(user.getId(), pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -300,4 +271,26 @@ public class ContractResource {
         List<Object[]> matchedPets = contractService.findMatchedPetsWithNoContract(currentPetId);
         return ResponseEntity.ok().body(matchedPets);
     }
+
+    /**
+     * The other owner of the match the current user opened a contract for.
+     */
+    private Owner contractCounterpart() {
+        return sessionContextService
+            .current()
+            .getContractOwnerId()
+            .flatMap(ownerService::findOne)
+            .orElseThrow(() -> new BadRequestAlertException("No contract match selected", ENTITY_NAME, "matchnotselected"));
+    }
+
+    /**
+     * The match the current user opened a contract for.
+     */
+    private Match contractMatch() {
+        return sessionContextService
+            .current()
+            .getContractMatchId()
+            .flatMap(matchService::findOne)
+            .orElseThrow(() -> new BadRequestAlertException("No contract match selected", ENTITY_NAME, "matchnotselected"));
+    }
 }
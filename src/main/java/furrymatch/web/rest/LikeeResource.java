@@ -3,6 +3,8 @@ package furrymatch.web.rest;
 import furrymatch.domain.Likee;
 import furrymatch.repository.LikeeRepository;
 import furrymatch.service.LikeeService;
+import furrymatch.service.UserService;
+import furrymatch.service.dto.SwipeBatchDTO;
 import furrymatch.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -43,9 +45,12 @@ public class LikeeResource {
 
     private final LikeeRepository likeeRepository;
 
-    public LikeeResource(LikeeService likeeService, LikeeRepository likeeRepository) {
+    private final UserService userService;
+
+    public LikeeResource(LikeeService likeeService, LikeeRepository likeeRepository, UserService userService) {
         this.likeeService = likeeService;
         this.likeeRepository = likeeRepository;
+        this.userService = userService;
     }
 
     /**
@@ -194,10 +199,25 @@ public class LikeeResource {
             throw new BadRequestAlertException("A new likee cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Likee result = likeeService.save(likee);
-        Long matchId = likeeService.checkIfMatch(likee);
+        Long matchId = likeeService.checkIfMatch(result);
         return ResponseEntity
             .created(new URI("/api/likee/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(matchId);
     }
+
+    /**
+     * {@code POST  /likees/batch} : Save the swipes a pet made in a row, in one transaction.
+     *
+     * @param swipeBatch the pet that swiped and its like or dislike decisions, in order.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ids of the created matches,
+     * or with status {@code 400 (Bad Request)} if the batch is empty or too large, or with status {@code 404 (Not Found)}
+     * if the pet is not one of the current owner's.
+     */
+    @PostMapping("/likees/batch")
+    public ResponseEntity<List<Long>> createLikeeBatch(@Valid @RequestBody SwipeBatchDTO swipeBatch) {
+        log.debug("REST request to save a batch of Likees : {}", swipeBatch);
+        Long ownerId = userService.getUserWithAuthorities().get().getId();
+        return ResponseUtil.wrapOrNotFound(likeeService.saveBatch(swipeBatch, ownerId));
+    }
 }
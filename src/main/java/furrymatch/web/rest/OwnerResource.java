@@ -4,7 +4,9 @@ import furrymatch.domain.Owner;
 import furrymatch.repository.OwnerRepository;
 import furrymatch.service.OwnerService;
 import furrymatch.service.UserService;
+import furrymatch.service.dto.ChatInboxDTO;
 import furrymatch.web.rest.errors.BadRequestAlertException;
+import furrymatch.web.rest.util.CursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -36,6 +38,10 @@ public class OwnerResource {
 
     private static final String ENTITY_NAME = "owner";
 
+    private static final int DEFAULT_INBOX_LIMIT = 20;
+
+    private static final int MAX_INBOX_LIMIT = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -154,10 +160,24 @@ public class OwnerResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /owners/user} : get a page of the inbox of the pet the current user has selected.
+     *
+     * @param cursor the opaque cursor returned in the {@code X-Next-Cursor} header of the previous page, if any.
+     * @param limit the maximum number of conversations to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the conversations in body, the most recently active first.
+     */
     @GetMapping("/owners/user")
-    public ResponseEntity<List<Owner>> getAllUserChats() {
-        List<Owner> page = ownerService.findUserChats();
-        return ResponseEntity.ok().body(page);
+    public ResponseEntity<List<ChatInboxDTO>> getAllUserChats(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + DEFAULT_INBOX_LIMIT) int limit
+    ) {
+        log.debug("REST request to get the inbox of the current user");
+        Long beforeChatId = CursorUtil.decodeId(cursor, ENTITY_NAME);
+        int pageSize = Math.max(1, Math.min(limit, MAX_INBOX_LIMIT));
+        List<ChatInboxDTO> page = ownerService.findUserChats(beforeChatId, pageSize);
+        String nextCursor = page.size() == pageSize ? CursorUtil.encode(page.get(page.size() - 1).getLastChatId()) : null;
+        return ResponseEntity.ok().headers(CursorUtil.generateCursorHttpHeaders(nextCursor)).body(page);
     }
 
     /**
@@ -5,13 +5,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import furrymatch.domain.Pet;
 import furrymatch.domain.SearchCriteria;
 import furrymatch.repository.PetRepository;
-import furrymatch.repository.UserRepository;
-import furrymatch.security.SecurityUtils;
 import furrymatch.service.OwnerService;
 import furrymatch.service.PetService;
 import furrymatch.service.SearchCriteriaService;
+import furrymatch.service.SessionContextService;
 import furrymatch.service.UserService;
+import furrymatch.service.dto.DiscoveryBatchDTO;
+import furrymatch.service.dto.MatchSummaryDTO;
+import furrymatch.service.dto.PetCardDTO;
+import furrymatch.service.dto.PetFacetsDTO;
 import furrymatch.web.rest.errors.BadRequestAlertException;
+import furrymatch.web.rest.util.CursorUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -42,6 +46,10 @@ public class PetResource {
 
     private static final String ENTITY_NAME = "pet";
 
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -56,23 +64,21 @@ public class PetResource {
     @Autowired
     private ObjectMapper objectMapper;
 
-    private final UserRepository userRepository;
-
-    private Long petId;
+    private final SessionContextService sessionContextService;
 
     public PetResource(
         PetService petService,
         PetRepository petRepository,
         UserService userService,
         SearchCriteriaService searchCriteriaService,
-        UserRepository userRepository,
+        SessionContextService sessionContextService,
         OwnerService ownerService
     ) {
         this.petService = petService;
         this.petRepository = petRepository;
         this.userService = userService;
         this.searchCriteriaService = searchCriteriaService;
-        this.userRepository = userRepository;
+        this.sessionContextService = sessionContextService;
     }
 
     /**
@@ -89,8 +95,7 @@ public class PetResource {
             throw new BadRequestAlertException("A new pet cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Pet result = petService.save(pet);
-        Long id = userService.getUserWithAuthorities().get().getId();
-        userService.updateUserSelectedPet(result.getId(), id);
+        sessionContextService.selectPet(userService.getUserWithAuthorities().get(), result.getId());
         return ResponseEntity
             .created(new URI("/api/pets/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -205,34 +210,69 @@ public class PetResource {
     }
 
     /**
-     * {@code GET  /pets} : get all the pets.
+     * {@code GET  /pets} : get all the pets of the current owner.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pets in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pet cards in body.
      */
     @GetMapping("/pets")
-    public ResponseEntity<List<Pet>> getAllPets(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<PetCardDTO>> getAllPets(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
         // log.debug("REST request to get a page of Pets");
         // Page<Pet> page = petService.findAll(pageable);
         Long id = userService.getUserWithAuthorities().get().getId();
-        List<Pet> page = petService.findAll(id);
+        List<PetCardDTO> page = petService.findAll(id);
         //HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(),page);
         return ResponseEntity.ok().body(page);
     }
 
+    /**
+     * {@code GET  /pets/search} : get the next batch of discovery candidates for the pet in session.
+     * <p>
+     * Following the {@code X-Next-Cursor} headers delivers every candidate of a pass once. The header is left out once
+     * the pass is over; a cursor of a pass that is over, or that was dropped because the filters changed, returns an
+     * empty batch.
+     *
+     * @param after the opaque cursor returned in the {@code X-Next-Cursor} header of the previous batch, if any.
+     * @param limit the maximum number of pets to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pet cards in body, most compatible first.
+     */
     @GetMapping("/pets/search")
-    public ResponseEntity<List<Pet>> searchPets(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<PetCardDTO>> searchPets(
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit
+    ) {
         log.debug("REST request to get pets based on search criteria");
         //String petId = userService.getUserWithAuthorities().get().getImageUrl();
         //Current Pet In Session
         String petId = String.valueOf(petService.getCurrentUserPetId());
-        System.out.println("******************************************");
-        System.out.println("PET ID FROM searchPets function " + petId);
         Long ownerId = userService.getUserWithAuthorities().get().getId();
-        log.debug("PET ID: ", petId);
+        log.debug("PET ID: {}", petId);
+        Long pass = CursorUtil.decodeId(after, ENTITY_NAME);
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
         SearchCriteria searchCriteria = searchCriteriaService.findByPetId(Long.valueOf(petId));
-        List<Pet> pets = petService.searchPets(searchCriteria, ownerId);
-        return ResponseEntity.ok().body(pets);
+        // Every batch is ranked among the candidates buffered in the pet's discovery queue, the cursor holds its pass
+        DiscoveryBatchDTO batch = petService.nextDiscoveryBatch(searchCriteria, ownerId, pass, pageSize);
+        String nextCursor = batch.getNextPass() == null ? null : CursorUtil.encode(batch.getNextPass());
+        return ResponseEntity.ok().headers(CursorUtil.generateCursorHttpHeaders(nextCursor)).body(batch.getPets());
+    }
+
+    /**
+     * {@code GET  /pets/search/facets} : count the discovery candidates for every value of the discovery filters, in the
+     * filter context of the pet in session.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts in body,
+     * or with status {@code 503 (Service Unavailable)} while the search index is loading.
+     */
+    @GetMapping("/pets/search/facets")
+    public ResponseEntity<PetFacetsDTO> searchFacets() {
+        log.debug("REST request to get the discovery facets");
+        Long petId = petService.getCurrentUserPetId();
+        Long ownerId = userService.getUserWithAuthorities().get().getId();
+        SearchCriteria searchCriteria = searchCriteriaService.findByPetId(petId);
+        return petService
+            .searchFacets(searchCriteria, ownerId)
+            .map(facets -> ResponseEntity.ok().body(facets))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
     }
 
     /**
@@ -250,16 +290,36 @@ public class PetResource {
 
     @GetMapping("/pets/contract")
     public ResponseEntity<Pet> getPetContract() {
-        SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .ifPresent(userr -> {
-                petId = (Long.valueOf((userr.getLastName()).substring((userr.getLastName()).indexOf("-") + 1)));
-            });
-        Optional<Pet> pet = petService.findOne(petId);
+        Optional<Pet> pet = sessionContextService.current().getContractPetId().flatMap(petService::findOne);
         return ResponseUtil.wrapOrNotFound(pet);
     }
 
+    /**
+     * {@code GET  /pets/:id/matches} : get a page of the matches of a pet of the current owner, newest first.
+     *
+     * @param id the id of the pet.
+     * @param cursor the opaque cursor returned in the {@code X-Next-Cursor} header of the previous page, if any.
+     * @param limit the maximum number of matches to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the match summaries in body, or with status {@code 404 (Not Found)} if the pet is not one of the current owner's.
+     */
+    @GetMapping("/pets/{id}/matches")
+    public ResponseEntity<List<MatchSummaryDTO>> getPetMatches(
+        @PathVariable Long id,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit
+    ) {
+        log.debug("REST request to get the matches of Pet : {}", id);
+        Long ownerId = userService.getUserWithAuthorities().get().getId();
+        Long beforeMatchId = CursorUtil.decodeId(cursor, ENTITY_NAME);
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        Optional<List<MatchSummaryDTO>> matches = petService.findMatchSummaries(id, ownerId, beforeMatchId, pageSize);
+        String nextCursor = matches
+            .filter(page -> page.size() == pageSize)
+            .map(page -> CursorUtil.encode(page.get(page.size() - 1).getMatchId()))
+            .orElse(null);
+        return ResponseUtil.wrapOrNotFound(matches, CursorUtil.generateCursorHttpHeaders(nextCursor));
+    }
+
     @GetMapping("/pets/match/{petId}")
     public ResponseEntity<Long> getMatchByPetId(@PathVariable Long petId) {
         Long matchId = petService.findMatchByPetId(petId);
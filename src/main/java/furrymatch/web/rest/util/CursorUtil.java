@@ -0,0 +1,90 @@
+package furrymatch.web.rest.util;
+
+import furrymatch.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Utility class for keyset ("cursor") pagination.
+ * <p>
+ * A cursor is the sort key of the last row a client has received, encoded as an opaque URL-safe token so that
+ * clients never build or parse it themselves.
+ */
+public final class CursorUtil {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = "|";
+
+    private CursorUtil() {}
+
+    /**
+     * Encode the keys of the last returned row into an opaque cursor.
+     *
+     * @param keys the sort keys, in order.
+     * @return the cursor.
+     */
+    public static String encode(Object... keys) {
+        String raw = Arrays.stream(keys).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encode(Object...)}.
+     *
+     * @param cursor the cursor sent by the client.
+     * @param expectedKeys the number of keys the cursor must hold.
+     * @param entityName the entity name used in the error alert.
+     * @return the raw keys, in order.
+     * @throws BadRequestAlertException if the cursor is malformed.
+     */
+    public static List<String> decode(String cursor, int expectedKeys, String entityName) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> keys = Arrays.asList(raw.split("\\" + SEPARATOR, -1));
+            if (keys.size() == expectedKeys) {
+                return keys;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the bad request below
+        }
+        throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+    }
+
+    /**
+     * Decode a single numeric key cursor, such as an entity id.
+     *
+     * @param cursor the cursor sent by the client, may be {@code null}.
+     * @param entityName the entity name used in the error alert.
+     * @return the decoded id, or {@code null} if no cursor was sent.
+     * @throws BadRequestAlertException if the cursor is malformed.
+     */
+    public static Long decodeId(String cursor, String entityName) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(decode(cursor, 1, entityName).get(0));
+        } catch (NumberFormatException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Generate the headers advertising the cursor of the next page.
+     *
+     * @param nextCursor the cursor of the next page, or {@code null} if this was the last page.
+     * @return the {@link HttpHeaders}.
+     */
+    public static HttpHeaders generateCursorHttpHeaders(String nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return headers;
+    }
+}
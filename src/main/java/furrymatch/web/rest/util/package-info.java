@@ -0,0 +1,4 @@
+/**
+ * Helpers shared by the Spring MVC REST controllers.
+ */
+package furrymatch.web.rest.util;
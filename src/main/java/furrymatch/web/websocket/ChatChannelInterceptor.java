@@ -0,0 +1,45 @@
+package furrymatch.web.websocket;
+
+import furrymatch.service.ChatService;
+import java.security.Principal;
+import java.util.Optional;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Only lets the owners of a match subscribe to its chat channel.
+ */
+@Component
+public class ChatChannelInterceptor implements ChannelInterceptor {
+
+    private final ChatService chatService;
+
+    /**
+     * The chat service is resolved lazily: it pushes through the broker, which is itself configured with this
+     * interceptor.
+     */
+    public ChatChannelInterceptor(@Lazy ChatService chatService) {
+        this.chatService = chatService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            return message;
+        }
+        Optional<Long> matchId = ChatService.parseMatchTopic(accessor.getDestination());
+        Principal user = accessor.getUser();
+        if (matchId.isEmpty() || user == null || !chatService.isMatchOwner(matchId.get(), user.getName())) {
+            throw new AccessDeniedException("Not allowed to subscribe to " + accessor.getDestination());
+        }
+        return message;
+    }
+}
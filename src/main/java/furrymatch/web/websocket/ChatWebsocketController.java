@@ -0,0 +1,48 @@
+package furrymatch.web.websocket;
+
+import furrymatch.service.ChatService;
+import furrymatch.service.dto.ChatMessageDTO;
+import java.security.Principal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Websocket controller receiving the chat messages sent over STOMP.
+ * <p>
+ * Saved messages are pushed back to the match channel by {@link ChatService#save}, like the ones created through
+ * the REST API.
+ */
+@Controller
+public class ChatWebsocketController {
+
+    private final Logger log = LoggerFactory.getLogger(ChatWebsocketController.class);
+
+    private final ChatService chatService;
+
+    public ChatWebsocketController(ChatService chatService) {
+        this.chatService = chatService;
+    }
+
+    /**
+     * Send a message in a match.
+     *
+     * @param matchId the id of the match.
+     * @param chat the message, only its text is read.
+     * @param principal the sending user.
+     */
+    @MessageMapping("/matches/{matchId}/chats")
+    public void sendChat(@DestinationVariable Long matchId, @Payload ChatMessageDTO chat, Principal principal) {
+        log.debug("Websocket request to send a Chat in Match : {}", matchId);
+        if (chat.getMessage() == null || chat.getMessage().isBlank()) {
+            return;
+        }
+        chatService
+            .send(matchId, principal.getName(), chat.getMessage())
+            .orElseThrow(() -> new AccessDeniedException("Not an owner of match " + matchId));
+    }
+}
@@ -0,0 +1,13 @@
+export interface IChatInbox {
+  matchId: number;
+  petId?: number | null;
+  counterpartPetId?: number | null;
+  counterpartOwnerId?: number | null;
+  firstName?: string | null;
+  firstLastName?: string | null;
+  photo?: string | null;
+  lastChatId?: number | null;
+  lastMessage?: string | null;
+  lastDateChat?: string | null;
+  unreadCount?: number | null;
+}
@@ -0,0 +1,9 @@
+export interface IChatMessage {
+  id: number;
+  matchId?: number | null;
+  message?: string | null;
+  dateChat?: string | null;
+  stateChat?: string | null;
+  senderId?: number | null;
+  recipientId?: number | null;
+}
@@ -1,11 +1,13 @@
 import { Component, Input, Output, EventEmitter, OnInit, OnDestroy } from '@angular/core';
 import { IOwner } from 'app/entities/owner/owner.model';
 import { ChatService } from '../service/chat.service';
+import { ChatSocketService } from '../service/chat-socket.service';
 import { IChat, NewChat } from '../chat.model';
+import { IChatMessage } from '../chat-message.model';
 import { Account } from '../../../core/auth/account.model';
 import { AccountService } from '../../../core/auth/account.service';
 import { HttpResponse } from '@angular/common/http';
-import { forkJoin } from 'rxjs';
+import { forkJoin, Subscription } from 'rxjs';
 import Swal from 'sweetalert2';
 
 @Component({
@@ -24,8 +26,13 @@ export class ChatWindowComponent implements OnInit, OnDestroy {
   match: any;
   isSendingMessage: boolean = false;
   messageUpdateInterval: any;
+  socketConnected = false;
+  olderCursor: string | null = null;
+  isLoadingOlder = false;
+  hasOlderPages = false;
+  private socketSubscriptions = new Subscription();
 
-  constructor(private chatService: ChatService, private accountService: AccountService) {
+  constructor(private chatService: ChatService, private chatSocketService: ChatSocketService, private accountService: AccountService) {
     this.accountService.identity().subscribe((account: Account | null) => {
       this.currentUser = account;
       this.loadMessages();
@@ -33,8 +40,23 @@ export class ChatWindowComponent implements OnInit, OnDestroy {
   }
 
   ngOnInit(): void {
+    if (this.identityNumber) {
+      this.socketSubscriptions.add(this.chatSocketService.receive(this.identityNumber).subscribe(message => this.onMessagePushed(message)));
+      this.socketSubscriptions.add(
+        this.chatSocketService.connectionState().subscribe(connected => {
+          // Catch up on what was missed while disconnected
+          if (connected && !this.socketConnected) {
+            this.loadMessages();
+          }
+          this.socketConnected = connected;
+        })
+      );
+    }
+    // Polling is only the fallback, while the messages are not pushed over the socket
     this.messageUpdateInterval = setInterval(() => {
-      this.loadMessages();
+      if (!this.socketConnected) {
+        this.loadMessages();
+      }
     }, 5000);
   }
 
@@ -42,10 +64,33 @@ export class ChatWindowComponent implements OnInit, OnDestroy {
     if (this.messageUpdateInterval) {
       clearInterval(this.messageUpdateInterval);
     }
+    this.socketSubscriptions.unsubscribe();
+  }
+
+  onMessagePushed(pushed: IChatMessage): void {
+    if (this.messages.some(message => message.id === pushed.id)) {
+      return;
+    }
+    // Pushed messages are the newest ones of the match
+    this.messages = [...this.messages, this.chatService.convertMessageFromServer(pushed)];
   }
 
   loadMessages(): void {
-    if (this.currentUser && this.recipient && this.currentUser.id && this.recipient.id) {
+    if (this.identityNumber) {
+      this.chatService.findByMatch(this.identityNumber).subscribe((res: HttpResponse<IChat[]>) => {
+        const latest = res.body ?? [];
+        if (!this.hasOlderPages) {
+          this.messages = latest;
+          this.olderCursor = res.headers.get('X-Next-Cursor');
+          return;
+        }
+        // Keep the older pages already scrolled back to, refreshing the messages that came back
+        const latestById = new Map(latest.map(message => [message.id, message]));
+        const merged = this.messages.map(message => latestById.get(message.id) ?? message);
+        const known = new Set(merged.map(message => message.id));
+        this.messages = [...merged, ...latest.filter(message => !known.has(message.id))];
+      });
+    } else if (this.currentUser && this.recipient && this.currentUser.id && this.recipient.id) {
       const senderStateChat1 = `${this.currentUser.id};${this.recipient.id};unread`;
       const senderStateChat2 = `${this.currentUser.id};${this.recipient.id};read`;
       const receiverStateChat1 = `${this.recipient.id};${this.currentUser.id};unread`;
@@ -56,6 +101,22 @@ export class ChatWindowComponent implements OnInit, OnDestroy {
     }
   }
 
+  loadOlderMessages(): void {
+    if (!this.identityNumber || !this.olderCursor || this.isLoadingOlder) {
+      return;
+    }
+    this.isLoadingOlder = true;
+    this.chatService.findByMatch(this.identityNumber, this.olderCursor).subscribe({
+      next: (res: HttpResponse<IChat[]>) => {
+        this.messages = [...(res.body ?? []), ...this.messages];
+        this.hasOlderPages = true;
+        this.olderCursor = res.headers.get('X-Next-Cursor');
+        this.isLoadingOlder = false;
+      },
+      error: () => (this.isLoadingOlder = false),
+    });
+  }
+
   onCloseClick(): void {
     this.close.emit();
   }
@@ -64,11 +125,14 @@ export class ChatWindowComponent implements OnInit, OnDestroy {
     event.preventDefault();
     if (this.newMessage.trim()) {
       if (this.currentUser && this.recipient && this.currentUser.id && this.recipient.id && this.identityNumber) {
+        if (this.chatSocketService.send(this.identityNumber, this.newMessage)) {
+          // The saved message comes back on the match channel
+          this.changeMessage.emit(this.newMessage);
+          this.newMessage = '';
+          return;
+        }
         this.isSendingMessage = true;
         const senderStateChat1 = `${this.currentUser.id};${this.recipient.id};unread`;
-        const senderStateChat2 = `${this.currentUser.id};${this.recipient.id};read`;
-        const receiverStateChat1 = `${this.recipient.id};${this.currentUser.id};unread`;
-        const receiverStateChat2 = `${this.recipient.id};${this.currentUser.id};read`;
         const message: NewChat = {
           id: null,
           message: this.newMessage,
@@ -79,7 +143,7 @@ export class ChatWindowComponent implements OnInit, OnDestroy {
         this.changeMessage.emit(this.newMessage);
         this.chatService.create(message).subscribe(() => {
           this.newMessage = '';
-          this.getMessages(senderStateChat1, senderStateChat2, receiverStateChat1, receiverStateChat2);
+          this.loadMessages();
           this.isSendingMessage = false;
         });
       } else {
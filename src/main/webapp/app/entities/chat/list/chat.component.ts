@@ -6,6 +6,7 @@ import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 import Swal from 'sweetalert2';
 
 import { IChat } from '../chat.model';
+import { IChatInbox } from '../chat-inbox.model';
 import { IOwner } from '../../owner/owner.model';
 
 import { ITEMS_PER_PAGE, PAGE_HEADER, TOTAL_COUNT_RESPONSE_HEADER } from 'app/config/pagination.constants';
@@ -39,6 +40,7 @@ export class ChatComponent implements OnInit {
   page = 1;
 
   unreadMatchIds: (number | undefined)[] = [];
+  nextCursor: string | null = null;
 
   constructor(
     protected chatService: ChatService,
@@ -53,38 +55,41 @@ export class ChatComponent implements OnInit {
   ngOnInit(): void {
     //this.load();
     this.listChats();
-    this.loadUnreadChats();
   }
 
   listChats(): void {
     this.ownerService.findUserChats().subscribe(result => {
-      if (result.body) {
-        this.chats = result.body.filter((value, index, self) => self.findIndex(v => v.id === value.id) === index);
-        //this.chats = result.body;
-        console.log(this.chats);
-        let array2: IOwner[] = [];
-        const array = [...this.chats];
-        array.forEach((item, index) => {
-          if (item.phoneNumber) {
-            this.chatService.find(item.phoneNumber).subscribe(result => {
-              array2[index] = { ...array[index], message: result.body?.message, index: index };
-            });
-          }
-          this.chatArrays = array2;
-        });
-        if (this.chats.length < 1) {
-          this.chatArrays = [];
-        }
-      }
+      this.chatArrays = [];
+      this.unreadMatchIds = [];
+      this.addChats(result);
     });
   }
-  loadUnreadChats(): void {
-    this.chatService.getUnreadChatsForCurrentUser().subscribe((res: HttpResponse<IChat[]>) => {
-      this.unreadChats = res.body || [];
 
-      this.unreadMatchIds = this.unreadChats.map(unreadChat => unreadChat.match?.id).filter(id => id !== undefined);
-      console.log('Unread chats: ' + JSON.stringify(this.unreadChats, null, 2));
+  loadMoreChats(): void {
+    if (this.nextCursor) {
+      this.ownerService.findUserChats(this.nextCursor).subscribe(result => this.addChats(result));
+    }
+  }
+
+  protected addChats(result: HttpResponse<IChatInbox[]>): void {
+    this.nextCursor = result.headers.get('X-Next-Cursor');
+    const chatArrays = this.chatArrays ?? [];
+    (result.body ?? []).forEach(inbox => {
+      chatArrays.push({
+        id: inbox.counterpartOwnerId ?? undefined,
+        firstName: inbox.firstName,
+        firstLastName: inbox.firstLastName,
+        photo: inbox.photo,
+        identityNumber: String(inbox.matchId),
+        message: inbox.lastMessage,
+        index: chatArrays.length,
+      } as IOwner);
+      if (inbox.unreadCount) {
+        this.unreadMatchIds.push(inbox.matchId);
+      }
     });
+    this.chats = chatArrays;
+    this.chatArrays = chatArrays;
   }
 
   delete(id: any): void {
@@ -122,6 +127,7 @@ export class ChatComponent implements OnInit {
     console.log('Selected Match ID:', this.selectedMatchId);
     console.log('Recipient ID:', this.selectedRecipient.id);
     console.log('botón presionado');
+    this.unreadMatchIds = this.unreadMatchIds.filter(id => id !== this.selectedMatchId);
     // Update the chat state to 'read'
     if (this.selectedMatchId !== null && this.selectedRecipient.id !== null && this.selectedRecipient.id !== undefined) {
       this.chatService.updateChatState(this.selectedMatchId, this.selectedRecipient.id).subscribe(() => {
@@ -0,0 +1,295 @@
+import { Injectable, OnDestroy } from '@angular/core';
+import { BehaviorSubject, Observable, Subject } from 'rxjs';
+
+import { ApplicationConfigService } from 'app/core/config/application-config.service';
+import { IChatMessage } from '../chat-message.model';
+
+const FIRST_RECONNECT_DELAY = 1000;
+const MAX_RECONNECT_DELAY = 60000;
+// Heart-beats both ways, in milliseconds, as configured on the broker
+const HEART_BEAT = 10000;
+
+const ESCAPES: Record<string, string> = { '\\': '\\\\', '\r': '\\r', '\n': '\\n', ':': '\\c' };
+const UNESCAPES: Record<string, string> = { '\\\\': '\\', '\\r': '\r', '\\n': '\n', '\\c': ':' };
+
+const NULL_OCTET = 0;
+const LINE_FEED = 10;
+const CARRIAGE_RETURN = 13;
+
+interface MatchChannel {
+  id: string;
+  destination: string;
+  messages: Subject<IChatMessage>;
+  listeners: number;
+}
+
+function escapeHeader(value: string): string {
+  return value.replace(/[\\\r\n:]/g, character => ESCAPES[character]);
+}
+
+function unescapeHeader(value: string): string {
+  return value.replace(/\\[\\rnc]/g, sequence => UNESCAPES[sequence]);
+}
+
+function indexOf(bytes: Uint8Array, value: number, from: number): number {
+  for (let i = from; i < bytes.length; i++) {
+    if (bytes[i] === value) {
+      return i;
+    }
+  }
+  return -1;
+}
+
+/**
+ * Index of the first byte after the empty line ending the headers of a frame, or -1 if it was not received yet.
+ */
+function headersEnd(bytes: Uint8Array, from: number): number {
+  for (let i = from; i < bytes.length; i++) {
+    if (bytes[i] === LINE_FEED) {
+      const next = bytes[i + 1] === CARRIAGE_RETURN ? i + 2 : i + 1;
+      if (next < bytes.length && bytes[next] === LINE_FEED) {
+        return next + 1;
+      }
+    }
+  }
+  return -1;
+}
+
+/**
+ * Minimal STOMP 1.2 client over the native WebSocket, following the chat channels of the matches.
+ * The REST endpoints of the chat service remain the fallback while the socket is not connected.
+ *
+ * Frames are read as bytes: a body is delimited by its content-length header when it has one, by its NULL octet
+ * otherwise, and a frame may be split across WebSocket messages. Heart-beats are exchanged with the broker, a
+ * connection that stays silent for two heart-beats is closed, and a closed connection is reopened with a backoff
+ * while channels are followed. Receipts and transactions are not supported.
+ */
+@Injectable({ providedIn: 'root' })
+export class ChatSocketService implements OnDestroy {
+  private socket: WebSocket | null = null;
+  private pending = new Uint8Array(0);
+  private encoder = new TextEncoder();
+  private decoder = new TextDecoder();
+  private reconnectTimeout: any;
+  private reconnectDelay = FIRST_RECONNECT_DELAY;
+  private heartBeatInterval: any;
+  private watchdogInterval: any;
+  private lastReceived = 0;
+  private nextChannelId = 0;
+  private channels = new Map<number, MatchChannel>();
+  private connected$ = new BehaviorSubject<boolean>(false);
+
+  constructor(private applicationConfigService: ApplicationConfigService) {}
+
+  /**
+   * Emits whether messages are currently pushed over the socket.
+   */
+  connectionState(): Observable<boolean> {
+    return this.connected$.asObservable();
+  }
+
+  /**
+   * Follow the messages saved in a match, connecting if needed. The socket is closed once nothing is followed.
+   */
+  receive(matchId: number): Observable<IChatMessage> {
+    return new Observable<IChatMessage>(subscriber => {
+      let channel = this.channels.get(matchId);
+      if (!channel) {
+        channel = {
+          id: `match-${this.nextChannelId++}`,
+          destination: `/topic/matches/${matchId}/chats`,
+          messages: new Subject<IChatMessage>(),
+          listeners: 0,
+        };
+        this.channels.set(matchId, channel);
+        if (this.connected$.value) {
+          this.sendFrame('SUBSCRIBE', { id: channel.id, destination: channel.destination });
+        }
+      }
+      channel.listeners++;
+      const subscription = channel.messages.subscribe(subscriber);
+      this.connect();
+
+      return () => {
+        subscription.unsubscribe();
+        const followed = this.channels.get(matchId);
+        if (followed && --followed.listeners === 0) {
+          this.channels.delete(matchId);
+          if (this.connected$.value) {
+            this.sendFrame('UNSUBSCRIBE', { id: followed.id });
+          }
+          if (this.channels.size === 0) {
+            this.disconnect();
+          }
+        }
+      };
+    });
+  }
+
+  /**
+   * Send a message in a match over the socket.
+   *
+   * @return false if the socket is not connected, the caller should then use the REST endpoint.
+   */
+  send(matchId: number, message: string): boolean {
+    if (!this.connected$.value) {
+      return false;
+    }
+    this.sendFrame('SEND', { destination: `/app/matches/${matchId}/chats`, 'content-type': 'application/json' }, JSON.stringify({ message }));
+    return true;
+  }
+
+  ngOnDestroy(): void {
+    this.channels.clear();
+    this.disconnect();
+  }
+
+  private connect(): void {
+    if (this.socket) {
+      return;
+    }
+    clearTimeout(this.reconnectTimeout);
+    const url = new URL(this.applicationConfigService.getEndpointFor('websocket/chat'), document.baseURI);
+    url.protocol = url.protocol === 'https:' ? 'wss:' : 'ws:';
+    const socket = new WebSocket(url.toString());
+    socket.binaryType = 'arraybuffer';
+    this.socket = socket;
+    this.pending = new Uint8Array(0);
+    socket.onopen = () => this.sendFrame('CONNECT', { 'accept-version': '1.2', host: url.host, 'heart-beat': `${HEART_BEAT},${HEART_BEAT}` });
+    socket.onmessage = (event: MessageEvent) => {
+      if (this.socket === socket) {
+        this.onData(typeof event.data === 'string' ? this.encoder.encode(event.data) : new Uint8Array(event.data));
+      }
+    };
+    socket.onclose = () => this.closed(socket);
+  }
+
+  /**
+   * Forget a closed socket, and reopen one later if channels are still followed.
+   */
+  private closed(socket: WebSocket): void {
+    if (this.socket !== socket) {
+      return;
+    }
+    this.socket = null;
+    this.stopHeartBeats();
+    this.connected$.next(false);
+    if (this.channels.size > 0) {
+      this.reconnectTimeout = setTimeout(() => this.connect(), this.reconnectDelay);
+      this.reconnectDelay = Math.min(this.reconnectDelay * 2, MAX_RECONNECT_DELAY);
+    }
+  }
+
+  private disconnect(): void {
+    clearTimeout(this.reconnectTimeout);
+    this.stopHeartBeats();
+    this.reconnectDelay = FIRST_RECONNECT_DELAY;
+    const socket = this.socket;
+    this.socket = null;
+    this.connected$.next(false);
+    socket?.close();
+  }
+
+  /**
+   * Start the heart-beats negotiated in the CONNECTED frame, as described by the STOMP 1.2 specification.
+   */
+  private startHeartBeats(serverHeartBeat: string | undefined): void {
+    this.stopHeartBeats();
+    const [serverSends, serverExpects] = (serverHeartBeat ?? '0,0').split(',').map(value => parseInt(value, 10) || 0);
+    if (serverExpects > 0) {
+      const interval = Math.max(HEART_BEAT, serverExpects);
+      this.heartBeatInterval = setInterval(() => {
+        if (this.socket?.readyState === WebSocket.OPEN) {
+          this.socket.send('\n');
+        }
+      }, interval);
+    }
+    if (serverSends > 0) {
+      const timeout = 2 * Math.max(HEART_BEAT, serverSends);
+      this.watchdogInterval = setInterval(() => {
+        const socket = this.socket;
+        if (socket && Date.now() - this.lastReceived > timeout) {
+          // The connection died silently, its close handshake would not complete either
+          this.closed(socket);
+          socket.close();
+        }
+      }, timeout / 2);
+    }
+  }
+
+  private stopHeartBeats(): void {
+    clearInterval(this.heartBeatInterval);
+    clearInterval(this.watchdogInterval);
+  }
+
+  private onData(data: Uint8Array): void {
+    this.lastReceived = Date.now();
+    const bytes = new Uint8Array(this.pending.length + data.length);
+    bytes.set(this.pending);
+    bytes.set(data, this.pending.length);
+
+    let start = 0;
+    while (start < bytes.length) {
+      // Line feeds between frames are heart-beats
+      if (bytes[start] === LINE_FEED || bytes[start] === CARRIAGE_RETURN) {
+        start++;
+        continue;
+      }
+      const bodyStart = headersEnd(bytes, start);
+      if (bodyStart < 0) {
+        break;
+      }
+      const head = this.decoder.decode(bytes.subarray(start, bodyStart)).replace(/(\r?\n)+$/, '').split(/\r?\n/);
+      const command = head[0];
+      const headers = new Map<string, string>();
+      // The headers of the CONNECTED frame are not escaped
+      const unescape = command === 'CONNECTED' ? (value: string) => value : unescapeHeader;
+      for (const line of head.slice(1)) {
+        const separator = line.indexOf(':');
+        const name = unescape(line.substring(0, separator));
+        if (separator > 0 && !headers.has(name)) {
+          headers.set(name, unescape(line.substring(separator + 1)));
+        }
+      }
+
+      const contentLength = parseInt(headers.get('content-length') ?? '', 10);
+      const bodyEnd = isNaN(contentLength) ? indexOf(bytes, NULL_OCTET, bodyStart) : bodyStart + contentLength;
+      if (bodyEnd < 0 || bodyEnd >= bytes.length) {
+        // The rest of the frame, or its NULL octet, is in a later message
+        break;
+      }
+      this.onFrame(command, headers, this.decoder.decode(bytes.subarray(bodyStart, bodyEnd)));
+      start = bodyEnd + 1;
+    }
+    this.pending = bytes.slice(start);
+  }
+
+  private onFrame(command: string, headers: Map<string, string>, body: string): void {
+    if (command === 'CONNECTED') {
+      this.reconnectDelay = FIRST_RECONNECT_DELAY;
+      this.startHeartBeats(headers.get('heart-beat'));
+      this.channels.forEach(channel => this.sendFrame('SUBSCRIBE', { id: channel.id, destination: channel.destination }));
+      this.connected$.next(true);
+    } else if (command === 'MESSAGE') {
+      for (const channel of this.channels.values()) {
+        if (channel.id === headers.get('subscription')) {
+          channel.messages.next(JSON.parse(body) as IChatMessage);
+        }
+      }
+    } else if (command === 'ERROR') {
+      // The broker closes the connection after an error, the socket reconnects then
+      console.error('Chat socket error:', headers.get('message'));
+    }
+  }
+
+  private sendFrame(command: string, headers: Record<string, string>, body = ''): void {
+    if (this.socket?.readyState !== WebSocket.OPEN) {
+      return;
+    }
+    // The headers of the CONNECT frame are not escaped
+    const escape = command === 'CONNECT' ? (value: string) => value : escapeHeader;
+    const frameHeaders = body.length > 0 ? { ...headers, 'content-length': String(this.encoder.encode(body).length) } : headers;
+    const head = Object.entries(frameHeaders).map(([name, value]) => `${escape(name)}:${escape(value)}`);
+    this.socket.send(`${[command, ...head].join('\n')}\n\n${body}\0`);
+  }
+}
@@ -9,6 +9,7 @@ import { DATE_FORMAT } from 'app/config/input.constants';
 import { ApplicationConfigService } from 'app/core/config/application-config.service';
 import { createRequestOption } from 'app/core/request/request-util';
 import { IChat, NewChat } from '../chat.model';
+import { IChatMessage } from '../chat-message.model';
 
 export type PartialUpdateChat = Partial<IChat> & Pick<IChat, 'id'>;
 
@@ -28,6 +29,7 @@ export type EntityArrayResponseType = HttpResponse<IChat[]>;
 @Injectable({ providedIn: 'root' })
 export class ChatService {
   protected resourceUrl = this.applicationConfigService.getEndpointFor('api/chats');
+  protected matchesUrl = this.applicationConfigService.getEndpointFor('api/matches');
   public chatRead: EventEmitter<void> = new EventEmitter<void>();
   constructor(protected http: HttpClient, protected applicationConfigService: ApplicationConfigService) {}
 
@@ -58,6 +60,23 @@ export class ChatService {
     return this.http.get<IChat[]>(`${this.resourceUrl}/state?state1=${state1}&state2=${state2}`, { observe: 'response' });
   }
 
+  findByMatch(matchId: number, before?: string | null): Observable<HttpResponse<IChat[]>> {
+    const options = createRequestOption(before ? { before } : {});
+    return this.http
+      .get<IChatMessage[]>(`${this.matchesUrl}/${matchId}/chats`, { params: options, observe: 'response' })
+      .pipe(map(res => res.clone({ body: res.body ? res.body.map(message => this.convertMessageFromServer(message)) : null })));
+  }
+
+  convertMessageFromServer(message: IChatMessage): IChat {
+    return {
+      id: message.id,
+      message: message.message,
+      stateChat: message.stateChat,
+      dateChat: message.dateChat ? dayjs(message.dateChat) : undefined,
+      match: message.matchId ? { id: message.matchId } : null,
+    };
+  }
+
   find(id: number): Observable<EntityResponseType> {
     return this.http
       .get<RestChat>(`${this.resourceUrl}/${id}`, { observe: 'response' })
@@ -132,6 +151,10 @@ export class ChatService {
     return this.http.get<IChat[]>(`${this.resourceUrl}/unread`, { observe: 'response' });
   }
 
+  countUnreadChatsForCurrentUser(): Observable<HttpResponse<number>> {
+    return this.http.get<number>(`${this.resourceUrl}/unread/count`, { observe: 'response' });
+  }
+
   updateChatState(matchId: number, senderId: number): Observable<void> {
     return this.http.put<void>(`${this.resourceUrl}/update-state/${matchId}/${senderId}`, null);
   }
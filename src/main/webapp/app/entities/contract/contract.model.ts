@@ -1,4 +1,5 @@
 import dayjs from 'dayjs/esm';
+import { ContractStatus } from 'app/entities/enumerations/contract-status.model';
 
 export interface IContract {
   id: number;
@@ -7,6 +8,8 @@ export interface IContract {
   pedigree?: string | null;
   otherNotes?: string | null;
   contractDate?: dayjs.Dayjs | null;
+  status?: ContractStatus | null;
+  initiatorId?: number | null;
 }
 
 export type NewContract = Omit<IContract, 'id'> & { id: null };
@@ -13,6 +13,7 @@ import { IMatch } from '../../match/match.model';
 import { PhotoService } from '../../photo/service/photo.service';
 import { MatchService } from '../../match/service/match.service';
 import { AccountService } from '../../../core/auth/account.service';
+import { ContractStatus } from 'app/entities/enumerations/contract-status.model';
 
 interface PetEntry {
   pet: IPet;
@@ -20,7 +21,6 @@ interface PetEntry {
   contract: IContract | null;
   matchId: number;
   ownerId: number;
-  otherNotes?: string;
 }
 @Component({
   selector: 'jhi-contract',
@@ -154,49 +154,28 @@ export class ContractComponent implements OnInit {
     this.isLoading = false;
   }
   isCurrentUserCreatingContract(petEntry: PetEntry): boolean {
-    if (!petEntry.contract || !petEntry.contract.otherNotes) {
-      return false;
-    }
-    const otherNotesParts = petEntry.contract.otherNotes.split(';');
-    const creatorId = parseInt(otherNotesParts[1], 10);
-    const contractStatus = parseInt(otherNotesParts[2], 10);
-    this.currentUserId = this.getCurrentOwnerId();
-    // console.log('owner id', this.currentUserId)
-    return this.currentUserId === creatorId && contractStatus === 1;
+    return this.isInitiatedByCurrentUser(petEntry) && petEntry.contract?.status === ContractStatus.DRAFT;
   }
+
   isCurrentUserSendingContract(petEntry: PetEntry): boolean {
-    if (!petEntry.contract || !petEntry.contract.otherNotes) {
-      return false;
-    }
-    const otherNotesParts = petEntry.contract.otherNotes.split(';');
-    const creatorId = parseInt(otherNotesParts[1], 10);
-    const contractStatus = parseInt(otherNotesParts[2], 10);
-    this.currentUserId = this.getCurrentOwnerId();
-    // console.log('owner id', this.currentUserId)
-    return this.currentUserId === creatorId && contractStatus === 2;
+    return this.isInitiatedByCurrentUser(petEntry) && petEntry.contract?.status === ContractStatus.SENT;
   }
 
   isOtherUserSendingContract(petEntry: PetEntry): boolean {
-    if (!petEntry.contract || !petEntry.contract.otherNotes) {
-      return false;
-    }
-    const otherNotesParts = petEntry.contract.otherNotes.split(';');
-    const creatorId = parseInt(otherNotesParts[1], 10);
-    const contractStatus = parseInt(otherNotesParts[2], 10);
-    this.currentUserId = this.getCurrentOwnerId();
-    // console.log('owner id', this.currentUserId)
-    return this.currentUserId !== creatorId && contractStatus === 2;
+    return !this.isInitiatedByCurrentUser(petEntry) && petEntry.contract?.status === ContractStatus.SENT;
   }
+
   isOtherUserCreatingContract(petEntry: PetEntry): boolean {
-    if (!petEntry.contract || !petEntry.contract.otherNotes) {
-      return false;
-    }
-    const otherNotesParts = petEntry.contract.otherNotes.split(';');
-    const creatorId = parseInt(otherNotesParts[1], 10);
-    const contractStatus = parseInt(otherNotesParts[2], 10);
+    return !this.isInitiatedByCurrentUser(petEntry) && petEntry.contract?.status === ContractStatus.DRAFT;
+  }
+
+  isContractAccepted(petEntry: PetEntry): boolean {
+    return petEntry.contract?.status === ContractStatus.ACCEPTED;
+  }
+
+  protected isInitiatedByCurrentUser(petEntry: PetEntry): boolean {
     this.currentUserId = this.getCurrentOwnerId();
-    // console.log('owner id', this.currentUserId)
-    return this.currentUserId !== creatorId && contractStatus === 1;
+    return !!petEntry.contract && this.currentUserId === petEntry.contract.initiatorId;
   }
 
   getPetDataValues(): PetEntry[] {
@@ -228,4 +207,13 @@ export class ContractComponent implements OnInit {
       error: () => console.log('error'),
     });
   }
+
+  acceptContract(contractId: number | undefined): void {
+    if (contractId) {
+      this.contractService.accept(contractId).subscribe({
+        next: () => this.loadMatchedPetsAndContracts(),
+        error: () => console.log('error'),
+      });
+    }
+  }
 }
@@ -138,4 +138,10 @@ export class ContractService {
       .get<RestContract>(`${this.resourceUrl}/sendEmail/${id}`, { observe: 'response' })
       .pipe(map(res => this.convertResponseFromServer(res)));
   }
+
+  accept(id: number): Observable<EntityResponseType> {
+    return this.http
+      .post<RestContract>(`${this.resourceUrl}/${id}/accept`, null, { observe: 'response' })
+      .pipe(map(res => this.convertResponseFromServer(res)));
+  }
 }
@@ -0,0 +1,7 @@
+export enum ContractStatus {
+  DRAFT = 'DRAFT',
+
+  SENT = 'SENT',
+
+  ACCEPTED = 'ACCEPTED',
+}
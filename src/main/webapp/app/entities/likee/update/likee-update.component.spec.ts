@@ -10,6 +10,7 @@ import { LikeeFormService } from './likee-form.service';
 import { LikeeService } from '../service/likee.service';
 import { ILikee } from '../likee.model';
 import { IPet } from 'app/entities/pet/pet.model';
+import { IPetCard } from 'app/entities/pet/pet-card.model';
 import { PetService } from 'app/entities/pet/service/pet.service';
 
 import { LikeeUpdateComponent } from './likee-update.component';
@@ -56,7 +57,7 @@ describe('Likee Management Update Component', () => {
       const secondPet: IPet = { id: 33917 };
       likee.secondPet = secondPet;
 
-      const petCollection: IPet[] = [{ id: 16945 }];
+      const petCollection: IPetCard[] = [{ id: 16945 }];
       jest.spyOn(petService, 'query').mockReturnValue(of(new HttpResponse({ body: petCollection })));
       const additionalPets = [firstPet, secondPet];
       const expectedCollection: IPet[] = [...additionalPets, ...petCollection];
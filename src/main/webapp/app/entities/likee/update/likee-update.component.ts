@@ -8,6 +8,7 @@ import { LikeeFormService, LikeeFormGroup } from './likee-form.service';
 import { ILikee } from '../likee.model';
 import { LikeeService } from '../service/likee.service';
 import { IPet } from 'app/entities/pet/pet.model';
+import { IPetCard } from 'app/entities/pet/pet-card.model';
 import { PetService } from 'app/entities/pet/service/pet.service';
 import { LikeType } from 'app/entities/enumerations/like-type.model';
 
@@ -20,7 +21,7 @@ export class LikeeUpdateComponent implements OnInit {
   likee: ILikee | null = null;
   likeTypeValues = Object.keys(LikeType);
 
-  petsSharedCollection: IPet[] = [];
+  petsSharedCollection: Pick<IPet, 'id'>[] = [];
 
   editForm: LikeeFormGroup = this.likeeFormService.createLikeeFormGroup();
 
@@ -81,7 +82,7 @@ export class LikeeUpdateComponent implements OnInit {
     this.likee = likee;
     this.likeeFormService.resetForm(this.editForm, likee);
 
-    this.petsSharedCollection = this.petService.addPetToCollectionIfMissing<IPet>(
+    this.petsSharedCollection = this.petService.addPetToCollectionIfMissing<Pick<IPet, 'id'>>(
       this.petsSharedCollection,
       likee.firstPet,
       likee.secondPet
@@ -91,8 +92,12 @@ export class LikeeUpdateComponent implements OnInit {
   protected loadRelationshipsOptions(): void {
     this.petService
       .query()
-      .pipe(map((res: HttpResponse<IPet[]>) => res.body ?? []))
-      .pipe(map((pets: IPet[]) => this.petService.addPetToCollectionIfMissing<IPet>(pets, this.likee?.firstPet, this.likee?.secondPet)))
-      .subscribe((pets: IPet[]) => (this.petsSharedCollection = pets));
+      .pipe(map((res: HttpResponse<IPetCard[]>) => (res.body ?? []).map(card => ({ id: card.id }))))
+      .pipe(
+        map((pets: Pick<IPet, 'id'>[]) =>
+          this.petService.addPetToCollectionIfMissing<Pick<IPet, 'id'>>(pets, this.likee?.firstPet, this.likee?.secondPet)
+        )
+      )
+      .subscribe((pets: Pick<IPet, 'id'>[]) => (this.petsSharedCollection = pets));
   }
 }
@@ -0,0 +1,12 @@
+import { ContractStatus } from 'app/entities/enumerations/contract-status.model';
+import { IPetCard } from 'app/entities/pet/pet-card.model';
+
+export interface IMatchSummary {
+  matchId: number;
+  dateMatch?: string | null;
+  pet?: IPetCard | null;
+  contractId?: number | null;
+  contractStatus?: ContractStatus | null;
+  lastMessage?: string | null;
+  lastMessageDate?: string | null;
+}
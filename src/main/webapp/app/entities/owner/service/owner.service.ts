@@ -9,6 +9,7 @@ import { DATE_FORMAT } from 'app/config/input.constants';
 import { ApplicationConfigService } from 'app/core/config/application-config.service';
 import { createRequestOption } from 'app/core/request/request-util';
 import { IOwner, NewOwner } from '../owner.model';
+import { IChatInbox } from 'app/entities/chat/chat-inbox.model';
 
 export type PartialUpdateOwner = Partial<IOwner> & Pick<IOwner, 'user_id'>;
 
@@ -123,7 +124,8 @@ export class OwnerService {
       body: res.body ? res.body.map(item => this.convertDateFromServer(item)) : null,
     });
   }
-  findUserChats(): Observable<HttpResponse<IOwner[]>> {
-    return this.http.get<IOwner[]>(`${this.resourceUrl}/user`, { observe: 'response' });
+  findUserChats(cursor?: string | null): Observable<HttpResponse<IChatInbox[]>> {
+    const options = createRequestOption(cursor ? { cursor } : {});
+    return this.http.get<IChatInbox[]>(`${this.resourceUrl}/user`, { params: options, observe: 'response' });
   }
 }
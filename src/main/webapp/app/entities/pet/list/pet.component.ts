@@ -5,10 +5,11 @@ import { combineLatest, filter, Observable, switchMap, tap } from 'rxjs';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { IPet } from '../pet.model';
+import { IPetCard } from '../pet-card.model';
 
 import { ITEMS_PER_PAGE, PAGE_HEADER, TOTAL_COUNT_RESPONSE_HEADER } from 'app/config/pagination.constants';
 import { ASC, DESC, SORT, ITEM_DELETED_EVENT, DEFAULT_SORT_DATA } from 'app/config/navigation.constants';
-import { EntityArrayResponseType, PetService } from '../service/pet.service';
+import { CardArrayResponseType as EntityArrayResponseType, PetService } from '../service/pet.service';
 import { PetDeleteDialogComponent } from '../delete/pet-delete-dialog.component';
 
 @Component({
@@ -17,7 +18,7 @@ import { PetDeleteDialogComponent } from '../delete/pet-delete-dialog.component'
   styleUrls: ['./pet.component.css'],
 })
 export class PetComponent implements OnInit {
-  pets?: IPet[];
+  pets?: IPetCard[];
   isLoading = false;
 
   predicate = 'id';
@@ -94,7 +95,7 @@ export class PetComponent implements OnInit {
     console.log(this.pets);
   }
 
-  protected fillComponentAttributesFromResponseBody(data: IPet[] | null): IPet[] {
+  protected fillComponentAttributesFromResponseBody(data: IPetCard[] | null): IPetCard[] {
     return data ?? [];
   }
 
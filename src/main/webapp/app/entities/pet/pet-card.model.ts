@@ -0,0 +1,20 @@
+import { PetType } from 'app/entities/enumerations/pet-type.model';
+import { Sex } from 'app/entities/enumerations/sex.model';
+
+export interface IPetCard {
+  id: number;
+  name?: string | null;
+  petType?: PetType | null;
+  description?: string | null;
+  sex?: Sex | null;
+  tradeMoney?: boolean | null;
+  tradePups?: boolean | null;
+  pedigree?: boolean | null;
+  desireAmmount?: number | null;
+  breedId?: number | null;
+  breedName?: string | null;
+  province?: string | null;
+  canton?: string | null;
+  district?: string | null;
+  photoUrls?: string[];
+}
@@ -7,8 +7,8 @@ import { AccountService } from 'app/core/auth/account.service';
 import { LikeType } from '../../enumerations/like-type.model';
 import { LikeeService } from '../../likee/service/likee.service';
 import { MatchService } from '../../match/service/match.service';
-import { PetService, EntityArrayResponseType as PetEntityArrayResponseType } from '../service/pet.service';
-import { IPet } from '../pet.model';
+import { PetService, CardArrayResponseType as PetEntityArrayResponseType } from '../service/pet.service';
+import { IPetCard } from '../pet-card.model';
 import { ISearchCriteria } from '../../search-criteria/search-criteria.model';
 import { NavigationEnd, Router } from '@angular/router';
 import Swal from 'sweetalert2';
@@ -22,13 +22,14 @@ import dayjs from 'dayjs/esm';
   styleUrls: ['./search-match.component.scss'],
 })
 export class SearchMatchComponent implements OnInit {
-  pets: IPet[] = [];
+  pets: IPetCard[] = [];
   currentPetId: number | null | undefined;
   currentPetIndex = 0;
   filters: ISearchCriteria | null = null;
   newCurrentPetIndex?: number;
   noMorePets = false;
   loading = false;
+  nextCursor: string | null = null;
 
   constructor(
     private searchCriteriaService: SearchCriteriaService,
@@ -53,6 +54,7 @@ export class SearchMatchComponent implements OnInit {
     this.petService.search().subscribe(
       (res: PetEntityArrayResponseType) => {
         this.pets = res.body || [];
+        this.nextCursor = res.headers.get('X-Next-Cursor');
         console.log('All Pets ', JSON.stringify(this.pets, null, 2));
         this.currentPetIndex = 0;
         this.findPetInSession();
@@ -88,9 +90,25 @@ export class SearchMatchComponent implements OnInit {
       }
     });
   }
+  private loadMorePets(): void {
+    this.petService.search(this.nextCursor).subscribe((res: PetEntityArrayResponseType) => {
+      const morePets = res.body || [];
+      this.nextCursor = res.headers.get('X-Next-Cursor');
+      if (morePets.length > 0) {
+        this.pets = [...this.pets, ...morePets];
+        this.currentPetIndex++;
+      } else {
+        this.newCurrentPetIndex = undefined;
+        this.noMorePets = true;
+      }
+    });
+  }
+
   private moveToNextPet(): void {
     if (this.currentPetIndex < this.pets.length - 1) {
       this.currentPetIndex++;
+    } else if (this.nextCursor) {
+      this.loadMorePets();
     } else {
       this.newCurrentPetIndex = undefined;
       this.noMorePets = true;
@@ -6,6 +6,8 @@ import { isPresent } from 'app/core/util/operators';
 import { ApplicationConfigService } from 'app/core/config/application-config.service';
 import { createRequestOption } from 'app/core/request/request-util';
 import { IPet, NewPet } from '../pet.model';
+import { IPetCard } from '../pet-card.model';
+import { IMatchSummary } from '../../match/match-summary.model';
 import { ISearchCriteria, NewSearchCriteria } from '../../search-criteria/search-criteria.model';
 import { IPhoto } from '../../photo/photo.model';
 
@@ -13,6 +15,16 @@ export type PartialUpdatePet = Partial<IPet> & Pick<IPet, 'id'>;
 
 export type EntityResponseType = HttpResponse<IPet>;
 export type EntityArrayResponseType = HttpResponse<IPet[]>;
+export type CardArrayResponseType = HttpResponse<IPetCard[]>;
+
+export interface IPetFacets {
+  petType: Record<string, number>;
+  sex: Record<string, number>;
+  breed: Record<string, number>;
+  province: Record<string, number>;
+  canton: Record<string, number>;
+  district: Record<string, number>;
+}
 
 @Injectable({ providedIn: 'root' })
 export class PetService {
@@ -54,10 +66,10 @@ export class PetService {
     return this.http.get<IPet>(`${this.resourceUrl}/contract`, { observe: 'response' });
   }
 
-  query(req?: any): Observable<EntityArrayResponseType> {
+  query(req?: any): Observable<CardArrayResponseType> {
     const options = createRequestOption(req);
     console.log('Options: ' + options);
-    return this.http.get<IPet[]>(this.resourceUrl, { params: options, observe: 'response' });
+    return this.http.get<IPetCard[]>(this.resourceUrl, { params: options, observe: 'response' });
   }
 
   delete(id: number | undefined): Observable<HttpResponse<{}>> {
@@ -94,9 +106,19 @@ export class PetService {
       observe: 'response',
     });
   }
-  search(): Observable<HttpResponse<IPet[]>> {
+  search(after?: string | null): Observable<CardArrayResponseType> {
     const searchUrl = `${this.resourceUrl}/search`;
-    return this.http.get<IPet[]>(searchUrl, { observe: 'response' });
+    const options = createRequestOption(after ? { after } : {});
+    return this.http.get<IPetCard[]>(searchUrl, { params: options, observe: 'response' });
+  }
+
+  facets(): Observable<HttpResponse<IPetFacets>> {
+    return this.http.get<IPetFacets>(`${this.resourceUrl}/search/facets`, { observe: 'response' });
+  }
+
+  matches(petId: number, cursor?: string | null): Observable<HttpResponse<IMatchSummary[]>> {
+    const options = createRequestOption(cursor ? { cursor } : {});
+    return this.http.get<IMatchSummary[]>(`${this.resourceUrl}/${petId}/matches`, { params: options, observe: 'response' });
   }
 
   getPetInSession(): Observable<HttpResponse<number>> {
@@ -7,6 +7,7 @@ import { catchError } from 'rxjs/operators';
 
 import { PetFormService, PetFormGroup } from './pet-form.service';
 import { IPet } from '../pet.model';
+import { IPetCard } from '../pet-card.model';
 import { PetService } from '../service/pet.service';
 import { PhotoService } from '../../photo/service/photo.service';
 import { IOwner } from 'app/entities/owner/owner.model';
@@ -47,7 +48,7 @@ export class PetUpdateComponent implements OnInit {
 
   editForm: PetFormGroup = this.petFormService.createPetFormGroup(undefined, this.hasMatch);
 
-  pets: IPet[] = [];
+  pets: IPetCard[] = [];
   petFiles: File[] = [];
   petUpdateFiles: File[] = [];
   petPhotos: string[][] = Array(5).fill([]);
@@ -132,7 +133,7 @@ export class PetUpdateComponent implements OnInit {
   }
 
   loadPets(): void {
-    this.petService.query().subscribe((res: HttpResponse<IPet[]>) => {
+    this.petService.query().subscribe((res: HttpResponse<IPetCard[]>) => {
       this.pets = res.body || [];
     });
   }
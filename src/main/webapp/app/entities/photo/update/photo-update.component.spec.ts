@@ -10,6 +10,7 @@ import { PhotoFormService } from './photo-form.service';
 import { PhotoService } from '../service/photo.service';
 import { IPhoto } from '../photo.model';
 import { IPet } from 'app/entities/pet/pet.model';
+import { IPetCard } from 'app/entities/pet/pet-card.model';
 import { PetService } from 'app/entities/pet/service/pet.service';
 
 import { PhotoUpdateComponent } from './photo-update.component';
@@ -54,7 +55,7 @@ describe('Photo Management Update Component', () => {
       const pet: IPet = { id: 35760 };
       photo.pet = pet;
 
-      const petCollection: IPet[] = [{ id: 11740 }];
+      const petCollection: IPetCard[] = [{ id: 11740 }];
       jest.spyOn(petService, 'query').mockReturnValue(of(new HttpResponse({ body: petCollection })));
       const additionalPets = [pet];
       const expectedCollection: IPet[] = [...additionalPets, ...petCollection];
@@ -8,6 +8,7 @@ import { PhotoFormService, PhotoFormGroup } from './photo-form.service';
 import { IPhoto } from '../photo.model';
 import { PhotoService } from '../service/photo.service';
 import { IPet } from 'app/entities/pet/pet.model';
+import { IPetCard } from 'app/entities/pet/pet-card.model';
 import { PetService } from 'app/entities/pet/service/pet.service';
 
 @Component({
@@ -18,7 +19,7 @@ export class PhotoUpdateComponent implements OnInit {
   isSaving = false;
   photo: IPhoto | null = null;
 
-  petsSharedCollection: IPet[] = [];
+  petsSharedCollection: Pick<IPet, 'id'>[] = [];
 
   editForm: PhotoFormGroup = this.photoFormService.createPhotoFormGroup();
 
@@ -79,14 +80,14 @@ export class PhotoUpdateComponent implements OnInit {
     this.photo = photo;
     this.photoFormService.resetForm(this.editForm, photo);
 
-    this.petsSharedCollection = this.petService.addPetToCollectionIfMissing<IPet>(this.petsSharedCollection, photo.pet);
+    this.petsSharedCollection = this.petService.addPetToCollectionIfMissing<Pick<IPet, 'id'>>(this.petsSharedCollection, photo.pet);
   }
 
   protected loadRelationshipsOptions(): void {
     this.petService
       .query()
-      .pipe(map((res: HttpResponse<IPet[]>) => res.body ?? []))
-      .pipe(map((pets: IPet[]) => this.petService.addPetToCollectionIfMissing<IPet>(pets, this.photo?.pet)))
-      .subscribe((pets: IPet[]) => (this.petsSharedCollection = pets));
+      .pipe(map((res: HttpResponse<IPetCard[]>) => (res.body ?? []).map(card => ({ id: card.id }))))
+      .pipe(map((pets: Pick<IPet, 'id'>[]) => this.petService.addPetToCollectionIfMissing<Pick<IPet, 'id'>>(pets, this.photo?.pet)))
+      .subscribe((pets: Pick<IPet, 'id'>[]) => (this.petsSharedCollection = pets));
   }
 }
@@ -10,6 +10,7 @@ import { SearchCriteriaFormService } from './search-criteria-form.service';
 import { SearchCriteriaService } from '../service/search-criteria.service';
 import { ISearchCriteria } from '../search-criteria.model';
 import { IPet } from 'app/entities/pet/pet.model';
+import { IPetCard } from 'app/entities/pet/pet-card.model';
 import { PetService } from 'app/entities/pet/service/pet.service';
 
 import { SearchCriteriaUpdateComponent } from './search-criteria-update.component';
@@ -54,7 +55,7 @@ describe('SearchCriteria Management Update Component', () => {
       const pet: IPet = { id: 84827 };
       searchCriteria.pet = pet;
 
-      const petCollection: IPet[] = [{ id: 66398 }];
+      const petCollection: IPetCard[] = [{ id: 66398 }];
       jest.spyOn(petService, 'query').mockReturnValue(of(new HttpResponse({ body: petCollection })));
       const additionalPets = [pet];
       const expectedCollection: IPet[] = [...additionalPets, ...petCollection];
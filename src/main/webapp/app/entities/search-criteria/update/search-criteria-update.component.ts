@@ -8,6 +8,7 @@ import { SearchCriteriaFormService, SearchCriteriaFormGroup } from './search-cri
 import { ISearchCriteria } from '../search-criteria.model';
 import { SearchCriteriaService } from '../service/search-criteria.service';
 import { IPet } from 'app/entities/pet/pet.model';
+import { IPetCard } from 'app/entities/pet/pet-card.model';
 import { PetService } from 'app/entities/pet/service/pet.service';
 import { Sex } from 'app/entities/enumerations/sex.model';
 import { RegisterService } from '../../../account/register/register.service';
@@ -40,7 +41,7 @@ export class SearchCriteriaUpdateComponent implements OnInit {
   title: string;
   objective: any;
 
-  petsSharedCollection: IPet[] = [];
+  petsSharedCollection: Pick<IPet, 'id'>[] = [];
 
   editForm: SearchCriteriaFormGroup = this.searchCriteriaFormService.createSearchCriteriaFormGroup();
   filteredBreedsSharedCollection: IBreed[] = [];
@@ -150,15 +151,22 @@ export class SearchCriteriaUpdateComponent implements OnInit {
     this.searchCriteria = searchCriteria;
     this.searchCriteriaFormService.resetForm(this.editForm, searchCriteria);
 
-    this.petsSharedCollection = this.petService.addPetToCollectionIfMissing<IPet>(this.petsSharedCollection, searchCriteria.pet);
+    this.petsSharedCollection = this.petService.addPetToCollectionIfMissing<Pick<IPet, 'id'>>(
+      this.petsSharedCollection,
+      searchCriteria.pet
+    );
   }
 
   protected loadRelationshipsOptions(): void {
     this.petService
       .query()
-      .pipe(map((res: HttpResponse<IPet[]>) => res.body ?? []))
-      .pipe(map((pets: IPet[]) => this.petService.addPetToCollectionIfMissing<IPet>(pets, this.searchCriteria?.pet)))
-      .subscribe((pets: IPet[]) => (this.petsSharedCollection = pets));
+      .pipe(map((res: HttpResponse<IPetCard[]>) => (res.body ?? []).map(card => ({ id: card.id }))))
+      .pipe(
+        map((pets: Pick<IPet, 'id'>[]) =>
+          this.petService.addPetToCollectionIfMissing<Pick<IPet, 'id'>>(pets, this.searchCriteria?.pet)
+        )
+      )
+      .subscribe((pets: Pick<IPet, 'id'>[]) => (this.petsSharedCollection = pets));
     this.breedService
       .query()
       .pipe(map((res: HttpResponse<IBreed[]>) => res.body ?? []))
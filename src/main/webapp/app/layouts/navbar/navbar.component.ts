@@ -20,7 +20,6 @@ const searchCriteriaNewRoute = /^\/search-criteria\/new(\/.*)?$/;
 const petNewRoute = /^\/pet\/new$/;
 
 import { ChatService } from '../../entities/chat/service/chat.service';
-import { IChat } from '../../entities/chat/chat.model';
 
 @Component({
   selector: 'jhi-navbar',
@@ -35,7 +34,7 @@ export class NavbarComponent implements OnInit, OnDestroy {
   version = '';
   account: Account | null = null;
   entitiesNavbarItems: any[] = [];
-  unreadChats: IChat[] = []; // Define the unreadChats property here
+  unreadChatCount = 0;
 
   activeImgProfile = '../content/images/btn_profile_active.png';
   inactiveImgProfile = '../content/images/btn_profile_inactive.png';
@@ -180,16 +179,15 @@ export class NavbarComponent implements OnInit, OnDestroy {
   }
 
   loadUnreadChats(): void {
-    this.chatService.getUnreadChatsForCurrentUser().subscribe((res: HttpResponse<IChat[]>) => {
-      this.unreadChats = res.body || [];
-      //console.log('Unread chats: ' + JSON.stringify(this.unreadChats, null, 2));
+    this.chatService.countUnreadChatsForCurrentUser().subscribe((res: HttpResponse<number>) => {
+      this.unreadChatCount = res.body ?? 0;
       this.updateChatIcon();
     });
   }
   updateChatIcon() {
     if (this.isChatRouteActive() || this.isHoveringChat) {
       this.currentImgChat = this.activeImgChat;
-    } else if (this.unreadChats.length > 0) {
+    } else if (this.unreadChatCount > 0) {
       // If there are unread chats, set the chat icon to a different image to indicate new messages
       this.currentImgChat = this.unreadImgChat;
     } else {
@@ -20,4 +20,23 @@ class ChatTest {
         chat1.setId(null);
         assertThat(chat1).isNotEqualTo(chat2);
     }
+
+    @Test
+    void stateChatShouldSetTheReadStateColumns() {
+        Chat chat = new Chat().stateChat("4;7;unread");
+        assertThat(chat.getSenderId()).isEqualTo(4L);
+        assertThat(chat.getRecipientId()).isEqualTo(7L);
+        assertThat(chat.getReadFlag()).isFalse();
+        assertThat(chat.isUnread()).isTrue();
+
+        chat.setStateChat("4;7;read");
+        assertThat(chat.getReadFlag()).isTrue();
+        assertThat(chat.isUnread()).isFalse();
+
+        chat.setStateChat("AAAAAAAAAA");
+        assertThat(chat.getSenderId()).isNull();
+        assertThat(chat.getRecipientId()).isNull();
+        assertThat(chat.getReadFlag()).isNull();
+        assertThat(chat.isUnread()).isFalse();
+    }
 }
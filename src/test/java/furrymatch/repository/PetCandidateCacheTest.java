@@ -0,0 +1,75 @@
+package furrymatch.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import furrymatch.repository.PetSearchIndex.Attribute;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Unit tests for {@link PetCandidateCache}.
+ */
+class PetCandidateCacheTest {
+
+    private CacheManager cacheManager;
+
+    private PetCandidateCache petCandidateCache;
+
+    @BeforeEach
+    public void init() {
+        cacheManager = new ConcurrentMapCacheManager();
+        petCandidateCache = new PetCandidateCache(cacheManager);
+    }
+
+    @Test
+    void putShouldForgetTheKeysTheCacheDropped() {
+        for (int i = 0; i < PetCandidateCache.MIN_SWEEP_SIZE - 1; i++) {
+            put(i);
+            // The cache drops the entry on its own, as when it expires or when the cache is full
+            cacheManager.getCache(PetCandidateCache.SEARCH_CANDIDATES_CACHE).evict(PetCandidateCache.key(district(i)));
+        }
+        assertThat(petCandidateCache.trackedKeys()).isEqualTo(PetCandidateCache.MIN_SWEEP_SIZE - 1);
+
+        put(PetCandidateCache.MIN_SWEEP_SIZE);
+
+        assertThat(petCandidateCache.trackedKeys()).isEqualTo(1);
+        assertThat(petCandidateCache.get(district(PetCandidateCache.MIN_SWEEP_SIZE))).isPresent();
+    }
+
+    @Test
+    void trackedKeysShouldStayBoundedByTheLiveEntries() {
+        for (int i = 0; i < 10 * PetCandidateCache.MIN_SWEEP_SIZE; i++) {
+            put(i);
+            if (i >= 10) {
+                // Only the last 10 entries stay in the cache
+                cacheManager.getCache(PetCandidateCache.SEARCH_CANDIDATES_CACHE).evict(PetCandidateCache.key(district(i - 10)));
+            }
+        }
+
+        assertThat(petCandidateCache.trackedKeys()).isLessThan(PetCandidateCache.MIN_SWEEP_SIZE);
+    }
+
+    @Test
+    void evictMatchingShouldStillEvictTheTrackedEntries() {
+        put(1);
+        put(2);
+
+        petCandidateCache.evictMatching(null, Map.of(Attribute.DISTRICT, Set.of("district-1")));
+
+        assertThat(petCandidateCache.get(district(1))).isEmpty();
+        assertThat(petCandidateCache.get(district(2))).isPresent();
+        assertThat(petCandidateCache.trackedKeys()).isEqualTo(1);
+    }
+
+    private void put(int i) {
+        petCandidateCache.put(district(i), new long[] { i }, petCandidateCache.generation());
+    }
+
+    private static Map<Attribute, String> district(int i) {
+        return Map.of(Attribute.DISTRICT, "district-" + i);
+    }
+}
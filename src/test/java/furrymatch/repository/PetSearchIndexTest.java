@@ -0,0 +1,218 @@
+package furrymatch.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.carrotsearch.hppc.LongHashSet;
+import furrymatch.domain.Breed;
+import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
+import furrymatch.domain.SearchCriteria;
+import furrymatch.domain.enumeration.PetType;
+import furrymatch.domain.enumeration.Sex;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Unit tests for {@link PetSearchIndex}.
+ */
+class PetSearchIndexTest {
+
+    private PetSearchIndex petSearchIndex;
+
+    private PetCandidateCache petCandidateCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        EntityManager em = mock(EntityManager.class);
+        TypedQuery<Object[]> emptyQuery = mock(TypedQuery.class);
+        when(emptyQuery.getResultList()).thenReturn(Collections.emptyList());
+        when(em.createQuery(anyString(), any(Class.class))).thenReturn(emptyQuery);
+        petCandidateCache = new PetCandidateCache(new ConcurrentMapCacheManager());
+        petSearchIndex = new PetSearchIndex(em, petCandidateCache);
+        petSearchIndex.warmUp();
+
+        petSearchIndex.index(pet(1L, PetType.Perro, Sex.Hembra, 10L, owner(100L, "1", "01", "001")));
+        petSearchIndex.index(pet(2L, PetType.Perro, Sex.Macho, 10L, owner(100L, "1", "01", "001")));
+        petSearchIndex.index(pet(3L, PetType.Gato, Sex.Hembra, 20L, owner(200L, "2", "02", "002")));
+        petSearchIndex.index(pet(4L, PetType.Perro, Sex.Hembra, 10L, null));
+    }
+
+    @Test
+    void candidatesShouldIntersectAllFilters() {
+        SearchCriteria filters = new SearchCriteria().filterType("Perro").sex(Sex.Hembra).breed("10");
+
+        assertThat(petSearchIndex.candidates(filters)).contains(bits(1));
+    }
+
+    @Test
+    void candidatesShouldSkipPetsWithoutOwner() {
+        SearchCriteria filters = new SearchCriteria().filterType("Perro");
+
+        assertThat(petSearchIndex.candidates(filters)).contains(bits(1, 2));
+    }
+
+    @Test
+    void candidatesShouldFollowOwnerLocationChanges() {
+        SearchCriteria filters = new SearchCriteria().provice("2");
+        assertThat(petSearchIndex.candidates(filters)).contains(bits(3));
+
+        petSearchIndex.indexOwnerLocation(owner(100L, "2", "02", "002"));
+
+        assertThat(petSearchIndex.candidates(filters)).contains(bits(1, 2, 3));
+    }
+
+    @Test
+    void candidatesShouldFollowObjectiveChanges() {
+        petSearchIndex.indexObjective(20L, 2L, "Cruce");
+
+        assertThat(petSearchIndex.candidates(new SearchCriteria().objective("Cruce"))).contains(bits(2));
+
+        petSearchIndex.index(pet(2L, PetType.Gato, Sex.Macho, 20L, owner(100L, "1", "01", "001")));
+
+        assertThat(petSearchIndex.candidates(new SearchCriteria().objective("Cruce").filterType("Gato"))).contains(bits(2));
+    }
+
+    @Test
+    void candidatesShouldMatchEveryObjectiveOfAPet() {
+        petSearchIndex.indexObjective(20L, 2L, "Cruce");
+        petSearchIndex.indexObjective(21L, 2L, "Adopcion");
+
+        assertThat(petSearchIndex.candidates(new SearchCriteria().objective("Cruce"))).contains(bits(2));
+        assertThat(petSearchIndex.candidates(new SearchCriteria().objective("Adopcion"))).contains(bits(2));
+
+        petSearchIndex.removeObjective(20L);
+
+        assertThat(petSearchIndex.candidates(new SearchCriteria().objective("Cruce"))).contains(bits());
+        assertThat(petSearchIndex.candidates(new SearchCriteria().objective("Adopcion"))).contains(bits(2));
+    }
+
+    @Test
+    void candidatesShouldIgnoreCaseAndAccents() {
+        petSearchIndex.index(pet(5L, PetType.Gato, Sex.Macho, 20L, owner(300L, "San José", "Escazú", "San Rafael")));
+        petSearchIndex.indexObjective(50L, 5L, "Cruce");
+
+        assertThat(petSearchIndex.candidates(new SearchCriteria().provice("san jose").canton("ESCAZU"))).contains(bits(5));
+        assertThat(petSearchIndex.candidates(new SearchCriteria().objective("cruce"))).contains(bits(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedWarmUpShouldDisableTheIndex() {
+        EntityManager em = mock(EntityManager.class);
+        when(em.createQuery(anyString(), any(Class.class))).thenThrow(new PersistenceException("Connection refused"));
+        PetSearchIndex failing = new PetSearchIndex(em, petCandidateCache);
+
+        failing.warmUp();
+
+        assertThat(failing.isReady()).isFalse();
+        assertThat(failing.candidates(new SearchCriteria().filterType("Perro"))).isEmpty();
+    }
+
+    @Test
+    void removedPetShouldNotBeACandidate() {
+        petSearchIndex.remove(1L);
+
+        assertThat(petSearchIndex.candidates(new SearchCriteria().filterType("Perro"))).contains(bits(2));
+    }
+
+    @Test
+    void facetsShouldIgnoreTheirOwnFilterAndTheOwnerPets() {
+        SearchCriteria filters = new SearchCriteria().sex(Sex.Hembra);
+
+        Map<PetSearchIndex.Attribute, Map<String, Long>> facets = petSearchIndex
+            .facets(filters, 200L, new LongHashSet(), PetSearchIndex.Attribute.PET_TYPE, PetSearchIndex.Attribute.SEX)
+            .orElseThrow();
+
+        assertThat(facets.get(PetSearchIndex.Attribute.PET_TYPE)).containsOnly(entry("Perro", 1L));
+        assertThat(facets.get(PetSearchIndex.Attribute.SEX)).containsOnly(entry("Hembra", 1L), entry("Macho", 1L));
+    }
+
+    @Test
+    void facetsShouldNotCountSeenPets() {
+        LongHashSet seen = new LongHashSet();
+        seen.add(2L);
+
+        Map<PetSearchIndex.Attribute, Map<String, Long>> facets = petSearchIndex
+            .facets(new SearchCriteria(), 200L, seen, PetSearchIndex.Attribute.SEX)
+            .orElseThrow();
+
+        assertThat(facets.get(PetSearchIndex.Attribute.SEX)).containsOnly(entry("Hembra", 1L));
+    }
+
+    @Test
+    void facetsShouldFollowReindexedPets() {
+        SearchCriteria filters = new SearchCriteria().filterType("Perro");
+        petSearchIndex.facets(filters, 200L, new LongHashSet(), PetSearchIndex.Attribute.SEX);
+
+        petSearchIndex.index(pet(2L, PetType.Perro, Sex.Hembra, 10L, owner(100L, "1", "01", "001")));
+        petSearchIndex.index(pet(5L, PetType.Perro, Sex.Macho, 10L, owner(300L, "3", "03", "003")));
+        petSearchIndex.remove(1L);
+
+        Map<PetSearchIndex.Attribute, Map<String, Long>> facets = petSearchIndex
+            .facets(filters, 200L, new LongHashSet(), PetSearchIndex.Attribute.SEX)
+            .orElseThrow();
+
+        assertThat(facets.get(PetSearchIndex.Attribute.SEX)).containsOnly(entry("Hembra", 1L), entry("Macho", 1L));
+    }
+
+    @Test
+    void reindexShouldOnlyEvictAffectedCandidates() {
+        Map<PetSearchIndex.Attribute, String> cats = PetSearchIndex.filterValues(new SearchCriteria().filterType("Gato"));
+        Map<PetSearchIndex.Attribute, String> dogs = PetSearchIndex.filterValues(new SearchCriteria().filterType("Perro"));
+        Map<PetSearchIndex.Attribute, String> province2 = PetSearchIndex.filterValues(new SearchCriteria().provice("2"));
+        petCandidateCache.put(cats, new long[] { 3 }, petCandidateCache.generation());
+        petCandidateCache.put(dogs, new long[] { 1, 2 }, petCandidateCache.generation());
+        petCandidateCache.put(province2, new long[] { 3 }, petCandidateCache.generation());
+
+        petSearchIndex.index(pet(2L, PetType.Gato, Sex.Macho, 10L, owner(100L, "1", "01", "001")));
+
+        assertThat(petCandidateCache.get(cats)).isEmpty();
+        assertThat(petCandidateCache.get(dogs)).isEmpty();
+        assertThat(petCandidateCache.get(province2)).isPresent();
+    }
+
+    @Test
+    void candidatesComputedBeforeAnEvictionShouldNotBeCached() {
+        Map<PetSearchIndex.Attribute, String> cats = PetSearchIndex.filterValues(new SearchCriteria().filterType("Gato"));
+        long generation = petCandidateCache.generation();
+
+        // Re-indexed between the lookup and the put
+        petSearchIndex.index(pet(2L, PetType.Gato, Sex.Macho, 10L, owner(100L, "1", "01", "001")));
+
+        assertThat(petCandidateCache.put(cats, new long[] { 3 }, generation)).isFalse();
+        assertThat(petCandidateCache.get(cats)).isEmpty();
+        assertThat(petCandidateCache.put(cats, new long[] { 2, 3 }, petCandidateCache.generation())).isTrue();
+        assertThat(petCandidateCache.get(cats)).hasValueSatisfying(ids -> assertThat(ids).containsExactly(2, 3));
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+
+    private static Pet pet(Long id, PetType petType, Sex sex, Long breedId, Owner owner) {
+        Breed breed = new Breed();
+        breed.setId(breedId);
+        return new Pet().id(id).petType(petType).sex(sex).breed(breed).owner(owner);
+    }
+
+    private static Owner owner(Long id, String province, String canton, String district) {
+        return new Owner().id(id).province(province).canton(canton).district(district);
+    }
+}
@@ -0,0 +1,84 @@
+package furrymatch.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.carrotsearch.hppc.LongHashSet;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PetSeenRegistry}.
+ */
+class PetSeenRegistryTest {
+
+    private TypedQuery<Long> query;
+
+    private PetSeenRegistry petSeenRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        EntityManager em = mock(EntityManager.class);
+        query = mock(TypedQuery.class);
+        when(em.createQuery(anyString(), any(Class.class))).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        petSeenRegistry = new PetSeenRegistry(em);
+    }
+
+    @Test
+    void seenByShouldLoadTheSwipesOnce() {
+        when(query.getResultList()).thenReturn(List.of(2L, 3L));
+
+        LongHashSet seen = petSeenRegistry.seenBy(1L);
+
+        assertThat(PetSeenRegistry.contains(seen, 2L)).isTrue();
+        assertThat(PetSeenRegistry.contains(seen, 3L)).isTrue();
+        assertThat(petSeenRegistry.seenBy(1L)).isSameAs(seen);
+    }
+
+    @Test
+    void swipesRecordedWhileLoadingShouldBeKept() {
+        when(query.getResultList())
+            .thenAnswer(invocation -> {
+                // Committed after the query read the likee table
+                petSeenRegistry.record(1L, 4L);
+                return List.of(2L);
+            });
+
+        LongHashSet seen = petSeenRegistry.seenBy(1L);
+
+        assertThat(PetSeenRegistry.contains(seen, 2L)).isTrue();
+        assertThat(PetSeenRegistry.contains(seen, 4L)).isTrue();
+    }
+
+    @Test
+    void evictionWhileLoadingShouldNotKeepTheLoadedSet() {
+        when(query.getResultList())
+            .thenAnswer(invocation -> {
+                petSeenRegistry.evict(1L);
+                return List.of(2L);
+            })
+            .thenReturn(List.of());
+
+        petSeenRegistry.seenBy(1L);
+
+        assertThat(PetSeenRegistry.contains(petSeenRegistry.seenBy(1L), 2L)).isFalse();
+    }
+
+    @Test
+    void swipesOfUnloadedPetsShouldBeIgnored() {
+        petSeenRegistry.record(1L, 4L);
+        when(query.getResultList()).thenReturn(List.of(2L));
+
+        LongHashSet seen = petSeenRegistry.seenBy(1L);
+
+        assertThat(PetSeenRegistry.contains(seen, 4L)).isFalse();
+    }
+}
@@ -0,0 +1,138 @@
+package furrymatch.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link ReciprocalLikeIndex}.
+ */
+class ReciprocalLikeIndexTest {
+
+    private TypedQuery<Object[]> query;
+
+    private ReciprocalLikeIndex reciprocalLikeIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        EntityManager em = mock(EntityManager.class);
+        query = mock(TypedQuery.class);
+        when(em.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(new Object[] { 1L, 2L }, new Object[] { 3L, 1L }));
+        reciprocalLikeIndex = new ReciprocalLikeIndex(em);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void packShouldKeepTheDirectionOfThePair() {
+        assertThat(ReciprocalLikeIndex.pack(1L, 2L)).isNotEqualTo(ReciprocalLikeIndex.pack(2L, 1L));
+        assertThat(ReciprocalLikeIndex.pack(0xFFFFFFFFL, 0L)).isEqualTo(0xFFFFFFFF00000000L);
+        assertThat(ReciprocalLikeIndex.pack(0L, 0xFFFFFFFFL)).isEqualTo(0xFFFFFFFFL);
+    }
+
+    @Test
+    void pairsOfTheSamePetShouldBeSpreadOverTheStripes() {
+        Set<Integer> stripes = new HashSet<>();
+        for (long secondPetId = 1; secondPetId <= 1000; secondPetId++) {
+            int stripe = ReciprocalLikeIndex.stripeOf(ReciprocalLikeIndex.pack(42L, secondPetId));
+            assertThat(stripe).isBetween(0, ReciprocalLikeIndex.STRIPES - 1);
+            stripes.add(stripe);
+        }
+
+        assertThat(stripes).hasSize(ReciprocalLikeIndex.STRIPES);
+    }
+
+    @Test
+    void warmUpShouldLoadTheLikes() {
+        assertThat(reciprocalLikeIndex.canAnswer(1L, 2L)).isFalse();
+
+        reciprocalLikeIndex.warmUp();
+
+        assertThat(reciprocalLikeIndex.canAnswer(1L, 2L)).isTrue();
+        assertThat(reciprocalLikeIndex.contains(1L, 2L)).isTrue();
+        assertThat(reciprocalLikeIndex.contains(3L, 1L)).isTrue();
+        assertThat(reciprocalLikeIndex.contains(2L, 1L)).isFalse();
+    }
+
+    @Test
+    void warmUpShouldDisableTheIndexForIdsOver32Bits() {
+        when(query.getResultList()).thenReturn(List.of(new Object[] { 1L, 2L }, new Object[] { 1L << 32, 1L }));
+
+        reciprocalLikeIndex.warmUp();
+
+        assertThat(reciprocalLikeIndex.canAnswer(1L, 2L)).isFalse();
+    }
+
+    @Test
+    void canAnswerShouldRejectIdsThatCannotBePacked() {
+        reciprocalLikeIndex.warmUp();
+
+        assertThat(reciprocalLikeIndex.canAnswer(null, 2L)).isFalse();
+        assertThat(reciprocalLikeIndex.canAnswer(-1L, 2L)).isFalse();
+        assertThat(reciprocalLikeIndex.canAnswer(1L, 1L << 32)).isFalse();
+    }
+
+    @Test
+    void recordShouldIndexTheLikeOnceCommitted() {
+        reciprocalLikeIndex.warmUp();
+        TransactionSynchronizationManager.initSynchronization();
+
+        reciprocalLikeIndex.record(2L, 1L);
+
+        assertThat(reciprocalLikeIndex.contains(2L, 1L)).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(reciprocalLikeIndex.contains(2L, 1L)).isTrue();
+    }
+
+    @Test
+    void recordShouldNotIndexARolledBackLike() {
+        reciprocalLikeIndex.warmUp();
+        TransactionSynchronizationManager.initSynchronization();
+
+        reciprocalLikeIndex.record(2L, 1L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(reciprocalLikeIndex.contains(2L, 1L)).isFalse();
+    }
+
+    @Test
+    void removeShouldDropTheLikeOnceCommitted() {
+        reciprocalLikeIndex.warmUp();
+        TransactionSynchronizationManager.initSynchronization();
+
+        reciprocalLikeIndex.remove(1L, 2L);
+
+        assertThat(reciprocalLikeIndex.contains(1L, 2L)).isTrue();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(reciprocalLikeIndex.contains(1L, 2L)).isFalse();
+    }
+
+    @Test
+    void recordOutsideOfATransactionShouldIndexTheLikeAtOnce() {
+        reciprocalLikeIndex.warmUp();
+
+        reciprocalLikeIndex.record(2L, 1L);
+
+        assertThat(reciprocalLikeIndex.contains(2L, 1L)).isTrue();
+    }
+}
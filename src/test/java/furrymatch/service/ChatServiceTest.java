@@ -0,0 +1,25 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the match channels of {@link ChatService}.
+ */
+class ChatServiceTest {
+
+    @Test
+    void parseMatchTopicShouldReturnTheMatchOfItsChannel() {
+        assertThat(ChatService.parseMatchTopic(ChatService.matchTopic(42L))).contains(42L);
+    }
+
+    @Test
+    void parseMatchTopicShouldRejectOtherDestinations() {
+        assertThat(ChatService.parseMatchTopic(null)).isEmpty();
+        assertThat(ChatService.parseMatchTopic("/topic/matches//chats")).isEmpty();
+        assertThat(ChatService.parseMatchTopic("/topic/matches/abc/chats")).isEmpty();
+        assertThat(ChatService.parseMatchTopic("/topic/matches/42/chats/extra")).isEmpty();
+        assertThat(ChatService.parseMatchTopic("/topic/tracker")).isEmpty();
+    }
+}
@@ -0,0 +1,119 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import furrymatch.domain.Breed;
+import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
+import furrymatch.service.dto.PetCardDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CompatibilityRankingService}.
+ */
+class CompatibilityRankingServiceTest {
+
+    private CompatibilityRankingService compatibilityRankingService;
+
+    private Pet swipingPet;
+
+    @BeforeEach
+    public void init() {
+        compatibilityRankingService = new CompatibilityRankingService(new SimpleMeterRegistry());
+        Breed breed = new Breed();
+        breed.setId(10L);
+        swipingPet = new Pet().id(1L).breed(breed).owner(new Owner().province("1").canton("01").district("001")).pedigree(true);
+    }
+
+    @Test
+    void scoreShouldAddEveryMatchingSignal() {
+        PetCardDTO candidate = card(2L, 10L, "01", "001", 7);
+        candidate.setPedigree(true);
+
+        assertThat(CompatibilityRankingService.score(swipingPet, candidate))
+            .isEqualTo(
+                CompatibilityRankingService.SAME_BREED +
+                CompatibilityRankingService.SAME_DISTRICT +
+                CompatibilityRankingService.PEDIGREE +
+                CompatibilityRankingService.PER_PHOTO *
+                CompatibilityRankingService.MAX_SCORED_PHOTOS
+            );
+    }
+
+    @Test
+    void scoreShouldNotAddTheLocationOfAnotherProvince() {
+        PetCardDTO sameIdsElsewhere = card(2L, 20L, "01", "001", 0);
+        sameIdsElsewhere.setProvince("4");
+        PetCardDTO sameCanton = card(3L, 20L, "01", "009", 0);
+
+        assertThat(CompatibilityRankingService.score(swipingPet, sameIdsElsewhere)).isZero();
+        assertThat(CompatibilityRankingService.score(swipingPet, sameCanton)).isEqualTo(CompatibilityRankingService.SAME_CANTON);
+    }
+
+    @Test
+    void scoreShouldPreferCloserDesiredAmounts() {
+        swipingPet.tradeMoney(true).desireAmmount(100.0);
+        PetCardDTO close = card(2L, 20L, null, null, 0);
+        close.setTradeMoney(true);
+        close.setDesireAmmount(90.0);
+        PetCardDTO far = card(3L, 20L, null, null, 0);
+        far.setTradeMoney(true);
+        far.setDesireAmmount(400.0);
+
+        assertThat(CompatibilityRankingService.score(swipingPet, close)).isGreaterThan(CompatibilityRankingService.score(swipingPet, far));
+    }
+
+    @Test
+    void topKShouldKeepTheBestCandidatesFirst() {
+        PetCardDTO sameBreedSameDistrict = card(5L, 10L, "01", "001", 0);
+        PetCardDTO sameBreed = card(4L, 10L, "02", "002", 0);
+        PetCardDTO sameCanton = card(3L, 20L, "01", "009", 0);
+        PetCardDTO nothingInCommon = card(2L, 20L, "02", "002", 0);
+
+        List<PetCardDTO> ranked = compatibilityRankingService.topK(
+            swipingPet,
+            Arrays.asList(nothingInCommon, sameCanton, sameBreed, sameBreedSameDistrict),
+            3
+        );
+
+        assertThat(ranked).containsExactly(sameBreedSameDistrict, sameBreed, sameCanton);
+    }
+
+    @Test
+    void topKShouldBeReproducibleWhateverTheInputOrder() {
+        List<PetCardDTO> candidates = new ArrayList<>();
+        for (long id = 2; id < 500; id++) {
+            candidates.add(card(id, id % 3 == 0 ? 10L : 20L, "0" + (id % 4), "00" + (id % 7), (int) (id % 6)));
+        }
+        List<Long> expected = ids(compatibilityRankingService.topK(swipingPet, candidates, 20));
+
+        Collections.shuffle(candidates, new Random(42));
+
+        assertThat(ids(compatibilityRankingService.topK(swipingPet, candidates, 20))).containsExactlyElementsOf(expected);
+    }
+
+    private static List<Long> ids(List<PetCardDTO> cards) {
+        return cards.stream().map(PetCardDTO::getId).collect(Collectors.toList());
+    }
+
+    private static PetCardDTO card(Long id, Long breedId, String canton, String district, int photos) {
+        PetCardDTO card = new PetCardDTO();
+        card.setId(id);
+        card.setBreedId(breedId);
+        card.setProvince("1");
+        card.setCanton(canton);
+        card.setDistrict(district);
+        for (int photo = 0; photo < photos; photo++) {
+            card.getPhotoUrls().add("https://example.com/" + id + "/" + photo + ".jpg");
+        }
+        return card;
+    }
+}
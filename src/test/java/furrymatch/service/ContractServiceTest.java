@@ -0,0 +1,31 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import furrymatch.domain.enumeration.ContractStatus;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the status transitions of {@link ContractService}.
+ */
+class ContractServiceTest {
+
+    @Test
+    void canMoveShouldFollowTheContractLifecycle() {
+        assertThat(ContractService.canMove(null, ContractStatus.DRAFT)).isTrue();
+        assertThat(ContractService.canMove(ContractStatus.DRAFT, ContractStatus.DRAFT)).isTrue();
+        assertThat(ContractService.canMove(ContractStatus.DRAFT, ContractStatus.SENT)).isTrue();
+        assertThat(ContractService.canMove(ContractStatus.SENT, ContractStatus.DRAFT)).isTrue();
+        assertThat(ContractService.canMove(ContractStatus.SENT, ContractStatus.ACCEPTED)).isTrue();
+    }
+
+    @Test
+    void canMoveShouldRejectSkippedOrFinalTransitions() {
+        assertThat(ContractService.canMove(null, ContractStatus.SENT)).isFalse();
+        assertThat(ContractService.canMove(ContractStatus.DRAFT, ContractStatus.ACCEPTED)).isFalse();
+        assertThat(ContractService.canMove(ContractStatus.SENT, ContractStatus.SENT)).isFalse();
+        for (ContractStatus next : ContractStatus.values()) {
+            assertThat(ContractService.canMove(ContractStatus.ACCEPTED, next)).isFalse();
+        }
+    }
+}
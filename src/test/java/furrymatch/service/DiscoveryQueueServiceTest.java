@@ -0,0 +1,190 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.carrotsearch.hppc.LongHashSet;
+import furrymatch.domain.Pet;
+import furrymatch.domain.SearchCriteria;
+import furrymatch.domain.enumeration.Sex;
+import furrymatch.repository.PetSeenRegistry;
+import furrymatch.repository.SearchPetRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DiscoveryQueueService}.
+ */
+class DiscoveryQueueServiceTest {
+
+    private SearchPetRepository searchPetRepository;
+
+    private PetSeenRegistry petSeenRegistry;
+
+    private SearchCriteria filters;
+
+    @BeforeEach
+    public void init() {
+        searchPetRepository = mock(SearchPetRepository.class);
+        petSeenRegistry = mock(PetSeenRegistry.class);
+        when(petSeenRegistry.seenBy(any())).thenReturn(new LongHashSet());
+        filters = new SearchCriteria().id(10L).sex(Sex.Hembra).pet(new Pet().id(1L));
+        when(searchPetRepository.searchPetIds(any(), eq(2L), isNull(), eq(DiscoveryQueueService.QUEUE_CAPACITY)))
+            .thenReturn(ids(1, 200));
+        when(searchPetRepository.searchPetIds(any(), eq(2L), eq(200L), anyInt())).thenReturn(ids(201, 250));
+    }
+
+    @Test
+    void windowShouldHoldAllTheBufferedCandidates() {
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, Runnable::run);
+
+        DiscoveryQueueService.Window window = discoveryQueueService.window(filters, 2L, null, 20);
+
+        assertThat(window.getIds()).isEqualTo(ids(1, 200));
+    }
+
+    @Test
+    void takeShouldRemoveTheDeliveredCandidatesInDeliveryOrder() {
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, Runnable::run);
+
+        DiscoveryQueueService.Window window = discoveryQueueService.window(filters, 2L, null, 3);
+        DiscoveryQueueService.Batch batch = discoveryQueueService.take(window, List.of(150L, 3L, 77L));
+        DiscoveryQueueService.Window next = discoveryQueueService.window(filters, 2L, batch.getPass(), 3);
+
+        assertThat(batch.getIds()).containsExactly(150L, 3L, 77L);
+        assertThat(batch.hasMore()).isTrue();
+        assertThat(next.getIds()).hasSize(197).doesNotContain(150L, 3L, 77L);
+    }
+
+    @Test
+    void takeShouldNotDeliverACandidateTwice() {
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, Runnable::run);
+
+        DiscoveryQueueService.Window first = discoveryQueueService.window(filters, 2L, null, 2);
+        DiscoveryQueueService.Window second = discoveryQueueService.window(filters, 2L, null, 2);
+        DiscoveryQueueService.Batch firstBatch = discoveryQueueService.take(first, List.of(10L, 20L));
+        DiscoveryQueueService.Batch secondBatch = discoveryQueueService.take(second, List.of(20L, 30L));
+
+        assertThat(firstBatch.getIds()).containsExactly(10L, 20L);
+        assertThat(secondBatch.getIds()).containsExactly(30L);
+    }
+
+    @Test
+    void windowShouldLeaveOutTheSwipedCandidates() {
+        LongHashSet seen = new LongHashSet();
+        seen.add(5L);
+        when(petSeenRegistry.seenBy(1L)).thenReturn(seen);
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, Runnable::run);
+
+        DiscoveryQueueService.Window window = discoveryQueueService.window(filters, 2L, null, 20);
+
+        assertThat(window.getIds()).hasSize(199).doesNotContain(5L);
+    }
+
+    @Test
+    void aPassShouldEndOnceItsCandidatesAreDelivered() {
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, Runnable::run);
+
+        DiscoveryQueueService.Window first = discoveryQueueService.window(filters, 2L, null, 100);
+        DiscoveryQueueService.Batch firstBatch = discoveryQueueService.take(first, ids(1, 180));
+        DiscoveryQueueService.Window last = discoveryQueueService.window(filters, 2L, firstBatch.getPass(), 100);
+        DiscoveryQueueService.Batch lastBatch = discoveryQueueService.take(last, last.getIds());
+        DiscoveryQueueService.Window over = discoveryQueueService.window(filters, 2L, lastBatch.getPass(), 100);
+        DiscoveryQueueService.Window restarted = discoveryQueueService.window(filters, 2L, null, 100);
+
+        assertThat(firstBatch.hasMore()).isTrue();
+        assertThat(last.getIds()).isEqualTo(ids(181, 250));
+        assertThat(lastBatch.hasMore()).isFalse();
+        assertThat(over.getIds()).isEmpty();
+        assertThat(restarted.getIds()).isEqualTo(ids(1, 200));
+    }
+
+    @Test
+    void windowOfADroppedPassShouldBeEmpty() {
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, Runnable::run);
+        DiscoveryQueueService.Batch batch = discoveryQueueService.take(discoveryQueueService.window(filters, 2L, null, 1), List.of(1L));
+
+        DiscoveryQueueService.Window window = discoveryQueueService.window(
+            new SearchCriteria().id(10L).sex(Sex.Macho).pet(new Pet().id(1L)),
+            2L,
+            batch.getPass(),
+            1
+        );
+
+        assertThat(window.getIds()).isEmpty();
+    }
+
+    @Test
+    void windowShouldNotWaitForTheRunningRefill() {
+        Executor neverRuns = runnable -> {};
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, neverRuns);
+
+        DiscoveryQueueService.Batch batch = discoveryQueueService.take(discoveryQueueService.window(filters, 2L, null, 100), ids(1, 180));
+        DiscoveryQueueService.Window window = discoveryQueueService.window(filters, 2L, batch.getPass(), 60);
+
+        assertThat(window.getIds()).isEqualTo(ids(181, 200));
+        verify(searchPetRepository, never()).searchPetIds(any(), eq(2L), eq(200L), anyInt());
+    }
+
+    @Test
+    void windowShouldFillAnEmptyQueueWhileTheRefillIsRunning() {
+        Executor neverRuns = runnable -> {};
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, neverRuns);
+
+        DiscoveryQueueService.Batch batch = discoveryQueueService.take(discoveryQueueService.window(filters, 2L, null, 200), ids(1, 200));
+        DiscoveryQueueService.Window window = discoveryQueueService.window(filters, 2L, batch.getPass(), 20);
+
+        assertThat(batch.hasMore()).isTrue();
+        assertThat(window.getIds()).isEqualTo(ids(201, 250));
+    }
+
+    @Test
+    void windowShouldScheduleARefillWhenItHoldsFewerCandidatesThanTheLimit() {
+        LongHashSet seen = new LongHashSet();
+        when(petSeenRegistry.seenBy(1L)).thenReturn(seen);
+        List<Runnable> scheduled = new ArrayList<>();
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, scheduled::add);
+
+        discoveryQueueService.window(filters, 2L, null, 20);
+        ids(1, 190).forEach(id -> seen.add(id));
+        DiscoveryQueueService.Window window = discoveryQueueService.window(filters, 2L, null, 20);
+        scheduled.forEach(Runnable::run);
+        DiscoveryQueueService.Window next = discoveryQueueService.window(filters, 2L, null, 20);
+
+        assertThat(window.getIds()).isEqualTo(ids(191, 200));
+        assertThat(scheduled).hasSize(1);
+        assertThat(next.getIds()).isEqualTo(ids(191, 250));
+    }
+
+    @Test
+    void refillsShouldUseACopyOfTheFilters() {
+        DiscoveryQueueService discoveryQueueService = new DiscoveryQueueService(searchPetRepository, petSeenRegistry, Runnable::run);
+
+        discoveryQueueService.window(filters, 2L, null, 10);
+
+        verify(searchPetRepository)
+            .searchPetIds(
+                argThat(copy -> copy != filters && copy.getSex() == filters.getSex() && copy.getPet().getId().equals(1L)),
+                eq(2L),
+                isNull(),
+                eq(DiscoveryQueueService.QUEUE_CAPACITY)
+            );
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+}
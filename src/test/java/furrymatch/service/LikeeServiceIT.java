@@ -0,0 +1,136 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import furrymatch.IntegrationTest;
+import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
+import furrymatch.domain.User;
+import furrymatch.domain.enumeration.LikeType;
+import furrymatch.service.dto.SwipeBatchDTO;
+import furrymatch.service.dto.SwipeDTO;
+import furrymatch.web.rest.OwnerResourceIT;
+import furrymatch.web.rest.PetResourceIT;
+import furrymatch.web.rest.UserResourceIT;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the concurrent swipes of {@link LikeeService}.
+ * <p>
+ * The swipes run in their own committed transactions, so this class is not transactional and cleans up its rows.
+ */
+@IntegrationTest
+class LikeeServiceIT {
+
+    private static final int PAIRS = 20;
+
+    @Autowired
+    private LikeeService likeeService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Long ownerId;
+
+    private final List<Long> petIds = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = UserResourceIT.createEntity(em);
+            em.persist(user);
+            Owner owner = OwnerResourceIT.createEntity(em).user(user);
+            em.persist(owner);
+            ownerId = owner.getId();
+            for (int i = 0; i < 2 * PAIRS; i++) {
+                Pet pet = PetResourceIT.createEntity(em).owner(owner);
+                em.persist(pet);
+                petIds.add(pet.getId());
+            }
+        });
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> matchIds = em
+                .createQuery("select pair.matchId from MatchPair pair where pair.lowPetId in :petIds", Long.class)
+                .setParameter("petIds", petIds)
+                .getResultList();
+            em.createQuery("delete from MatchPair pair where pair.lowPetId in :petIds").setParameter("petIds", petIds).executeUpdate();
+            if (!matchIds.isEmpty()) {
+                em.createQuery("delete from Match m where m.id in :matchIds").setParameter("matchIds", matchIds).executeUpdate();
+            }
+            em.createQuery("delete from Likee likee where likee.firstPet.id in :petIds").setParameter("petIds", petIds).executeUpdate();
+            em.createQuery("delete from Pet pet where pet.id in :petIds").setParameter("petIds", petIds).executeUpdate();
+            em.createQuery("delete from Owner owner where owner.id = :ownerId").setParameter("ownerId", ownerId).executeUpdate();
+            em.createQuery("delete from User u where u.id = :ownerId").setParameter("ownerId", ownerId).executeUpdate();
+        });
+        petIds.clear();
+    }
+
+    @Test
+    void concurrentBatchesOfBothPetsOfAPairShouldMatchThemOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int pair = 0; pair < PAIRS; pair++) {
+                Long petId = petIds.get(2 * pair);
+                Long otherPetId = petIds.get(2 * pair + 1);
+                CountDownLatch start = new CountDownLatch(1);
+                Future<List<Long>> swipe = executor.submit(() -> {
+                    start.await();
+                    return likeeService.saveBatch(batch(petId, otherPetId), ownerId).orElseThrow();
+                });
+                Future<List<Long>> swipeBack = executor.submit(() -> {
+                    start.await();
+                    return likeeService.saveBatch(batch(otherPetId, petId), ownerId).orElseThrow();
+                });
+                start.countDown();
+
+                // The batch that commits last sees the like of the other one and creates the match, never both
+                Set<Long> matchIds = new HashSet<>(swipe.get(10, TimeUnit.SECONDS));
+                matchIds.addAll(swipeBack.get(10, TimeUnit.SECONDS));
+                assertThat(matchIds).hasSize(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Long pairCount = transactionTemplate.execute(status ->
+            em
+                .createQuery("select count(pair) from MatchPair pair where pair.lowPetId in :petIds", Long.class)
+                .setParameter("petIds", petIds)
+                .getSingleResult()
+        );
+        assertThat(pairCount).isEqualTo(PAIRS);
+    }
+
+    private static SwipeBatchDTO batch(Long petId, Long likedPetId) {
+        SwipeBatchDTO batch = new SwipeBatchDTO();
+        batch.setPetId(petId);
+        batch.setSwipes(Collections.singletonList(new SwipeDTO(likedPetId, LikeType.Like)));
+        return batch;
+    }
+}
@@ -0,0 +1,85 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import furrymatch.domain.Likee;
+import furrymatch.repository.LikeeBatchRepository;
+import furrymatch.repository.LikeeRepository;
+import furrymatch.repository.PetRepository;
+import furrymatch.repository.PetSeenRegistry;
+import furrymatch.repository.ReciprocalLikeIndex;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LikeeService}.
+ */
+class LikeeServiceTest {
+
+    private LikeeRepository likeeRepository;
+
+    private ReciprocalLikeIndex reciprocalLikeIndex;
+
+    private LikeeService likeeService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void init() {
+        EntityManager em = mock(EntityManager.class);
+        TypedQuery<Object[]> query = mock(TypedQuery.class);
+        when(em.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(new Object[] { 1L, 2L }, new Object[] { 2L, 1L }));
+        reciprocalLikeIndex = new ReciprocalLikeIndex(em);
+
+        likeeRepository = mock(LikeeRepository.class);
+        when(likeeRepository.findByFirstPetIdAndSecondPetId(any(), any())).thenReturn(Optional.of(new Likee()));
+        likeeService =
+            new LikeeService(
+                likeeRepository,
+                mock(LikeeBatchRepository.class),
+                mock(PetRepository.class),
+                mock(UserService.class),
+                mock(MatchService.class),
+                mock(PetSeenRegistry.class),
+                reciprocalLikeIndex
+            );
+    }
+
+    @Test
+    void mutualLikesShouldBeReadFromTheDatabaseWhileTheIndexIsWarming() {
+        assertThat(likeeService.checkIfBothPetsLikedEachOther(1L, 2L)).isTrue();
+
+        verify(likeeRepository).findByFirstPetIdAndSecondPetId(1L, 2L);
+        verify(likeeRepository).findByFirstPetIdAndSecondPetId(2L, 1L);
+    }
+
+    @Test
+    void mutualLikesShouldBeReadFromTheIndexOnceItIsLoaded() {
+        reciprocalLikeIndex.warmUp();
+
+        assertThat(likeeService.checkIfBothPetsLikedEachOther(1L, 2L)).isTrue();
+        assertThat(likeeService.checkIfBothPetsLikedEachOther(1L, 3L)).isFalse();
+
+        verify(likeeRepository, never()).findByFirstPetIdAndSecondPetId(any(), any());
+    }
+
+    @Test
+    void mutualLikesOfIdsTheIndexCannotPackShouldBeReadFromTheDatabase() {
+        reciprocalLikeIndex.warmUp();
+
+        assertThat(likeeService.checkIfBothPetsLikedEachOther(1L, 1L << 32)).isTrue();
+
+        verify(likeeRepository).findByFirstPetIdAndSecondPetId(1L, 1L << 32);
+    }
+}
@@ -0,0 +1,194 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import furrymatch.IntegrationTest;
+import furrymatch.domain.MailOutbox;
+import furrymatch.domain.enumeration.MailOutboxStatus;
+import furrymatch.repository.MailOutboxRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailOutboxDispatcher} against a local SMTP server.
+ * <p>
+ * The outbox rows are committed, as in production, so this class is not transactional and cleans up its rows.
+ */
+@IntegrationTest
+class MailOutboxDispatcherIT {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    /**
+     * Keeps the scheduled dispatcher of the context away from the rows of these tests.
+     */
+    @MockBean
+    private MailOutboxDispatcher scheduledDispatcher;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RecordingMailSender mailSender;
+
+    private MailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void init() {
+        mailOutboxRepository.deleteAll();
+        mailSender = new RecordingMailSender(ServerSetupTest.SMTP.getPort());
+        dispatcher = new MailOutboxDispatcher(jHipsterProperties, mailSender, mailOutboxRepository, transactionManager);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        mailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void dueEmailsShouldBeSentOverOneConnectionOutsideOfTheClaimTransaction() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mailService.sendEmail("john" + i + "@example.com", "testSubject" + i, "testContent", false, false);
+        }
+        Instant before = Instant.now();
+
+        assertThat(dispatcher.dispatch()).isEqualTo(3);
+
+        assertThat(mailSender.batches).containsExactly(3);
+        assertThat(mailSender.inTransaction).containsExactly(false);
+        // The claim was committed before sending: another connection sees the emails leased
+        assertThat(mailSender.leasedUntil)
+            .hasSize(3)
+            .allSatisfy(leaseEnd -> assertThat(leaseEnd).isAfterOrEqualTo(before.plus(MailOutboxDispatcher.LEASE)));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(Arrays.stream(received).map(this::recipient)).containsExactlyInAnyOrder(
+            "john0@example.com",
+            "john1@example.com",
+            "john2@example.com"
+        );
+        assertThat(mailOutboxRepository.count()).isZero();
+    }
+
+    @Test
+    void anEmailThatCannotBeBuiltShouldNotStopTheRestOfItsBatch() {
+        mailService.sendEmail("john@example.com", "testSubject", "testContent", false, false);
+        mailService.sendEmail("john doe@example.com", "testSubject", "testContent", false, false);
+
+        assertThat(dispatcher.dispatch()).isEqualTo(2);
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(mailOutboxRepository.findAll())
+            .singleElement()
+            .satisfies(mail -> {
+                assertThat(mail.getRecipient()).isEqualTo("john doe@example.com");
+                assertThat(mail.getStatus()).isEqualTo(MailOutboxStatus.FAILED);
+                assertThat(mail.getAttempts()).isEqualTo(1);
+            });
+    }
+
+    @Test
+    void emailsShouldBeRetriedWithABackoffUntilTheServerAnswers() {
+        mailService.sendEmail("john@example.com", "testSubject", "testContent", false, false);
+        // Nothing listens on this port
+        MailOutboxDispatcher unreachable = new MailOutboxDispatcher(
+            jHipsterProperties,
+            new RecordingMailSender(ServerSetupTest.SMTP.getPort() + 1),
+            mailOutboxRepository,
+            transactionManager
+        );
+
+        Instant firstAttempt = Instant.now();
+        assertThat(unreachable.dispatch()).isEqualTo(1);
+        MailOutbox mail = mailOutboxRepository.findAll().get(0);
+        assertThat(mail.getStatus()).isEqualTo(MailOutboxStatus.PENDING);
+        assertThat(mail.getAttempts()).isEqualTo(1);
+        assertThat(mail.getLastError()).startsWith("Mail");
+        assertThat(mail.getNextAttemptAt()).isCloseTo(firstAttempt.plus(MailOutboxDispatcher.FIRST_RETRY_DELAY), within(5, ChronoUnit.SECONDS));
+        // Not due yet
+        assertThat(unreachable.dispatch()).isZero();
+
+        Instant secondAttempt = makeDue(mail);
+        assertThat(unreachable.dispatch()).isEqualTo(1);
+        mail = mailOutboxRepository.findAll().get(0);
+        assertThat(mail.getAttempts()).isEqualTo(2);
+        assertThat(mail.getNextAttemptAt())
+            .isCloseTo(secondAttempt.plus(MailOutboxDispatcher.FIRST_RETRY_DELAY.multipliedBy(2)), within(5, ChronoUnit.SECONDS));
+
+        makeDue(mail);
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(mailOutboxRepository.count()).isZero();
+    }
+
+    /**
+     * Move the next attempt of an email to now, as if its retry delay was over.
+     */
+    private Instant makeDue(MailOutbox mail) {
+        Instant now = Instant.now();
+        mail.setNextAttemptAt(now.minus(Duration.ofSeconds(1)));
+        mailOutboxRepository.save(mail);
+        return now;
+    }
+
+    private String recipient(MimeMessage message) {
+        try {
+            return ((InternetAddress) message.getAllRecipients()[0]).getAddress();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A real SMTP sender that records, for each batch, whether a transaction was open on its thread and the leases of
+     * the outbox as committed.
+     */
+    private class RecordingMailSender extends JavaMailSenderImpl {
+
+        private final List<Integer> batches = new ArrayList<>();
+
+        private final List<Boolean> inTransaction = new ArrayList<>();
+
+        private final List<Instant> leasedUntil = new ArrayList<>();
+
+        RecordingMailSender(int port) {
+            setHost("localhost");
+            setPort(port);
+        }
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            batches.add(mimeMessages.length);
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            mailOutboxRepository.findAll().forEach(mail -> leasedUntil.add(mail.getNextAttemptAt()));
+            super.send(mimeMessages);
+        }
+    }
+}
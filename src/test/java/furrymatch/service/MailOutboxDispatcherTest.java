@@ -0,0 +1,85 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import furrymatch.domain.MailOutbox;
+import furrymatch.domain.enumeration.MailOutboxStatus;
+import furrymatch.repository.MailOutboxRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the dispatch transactions and the retry delays of {@link MailOutboxDispatcher}.
+ */
+class MailOutboxDispatcherTest {
+
+    @Test
+    void emailsShouldBeSentBetweenTheClaimAndTheUpdateTransactions() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setFrom("test@localhost");
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+        MailOutboxRepository mailOutboxRepository = mock(MailOutboxRepository.class);
+        MailOutbox mail = new MailOutbox();
+        mail.setRecipient("john.doe@example.com");
+        mail.setStatus(MailOutboxStatus.PENDING);
+        mail.setAttempts(0);
+        mail.setNextAttemptAt(Instant.now());
+        when(mailOutboxRepository.findDue(eq(MailOutboxStatus.PENDING), any(), any())).thenReturn(List.of(mail));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        MailOutboxDispatcher dispatcher = new MailOutboxDispatcher(
+            jHipsterProperties,
+            javaMailSender,
+            mailOutboxRepository,
+            transactionManager
+        );
+        Instant before = Instant.now();
+
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+
+        InOrder order = inOrder(transactionManager, mailOutboxRepository, javaMailSender);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(mailOutboxRepository).findDue(eq(MailOutboxStatus.PENDING), any(), any());
+        order.verify(transactionManager).commit(any());
+        order.verify(javaMailSender).send(new MimeMessage[] { any(MimeMessage.class) });
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(mailOutboxRepository).deleteAll(List.of(mail));
+        order.verify(transactionManager).commit(any());
+        // The claim leased the email until its dispatcher is done with it
+        assertThat(mail.getNextAttemptAt()).isAfterOrEqualTo(before.plus(MailOutboxDispatcher.LEASE));
+    }
+
+    @Test
+    void retryDelayShouldDoubleAfterEachAttempt() {
+        assertThat(MailOutboxDispatcher.retryDelay(1)).isEqualTo(MailOutboxDispatcher.FIRST_RETRY_DELAY);
+        assertThat(MailOutboxDispatcher.retryDelay(2)).isEqualTo(MailOutboxDispatcher.FIRST_RETRY_DELAY.multipliedBy(2));
+        assertThat(MailOutboxDispatcher.retryDelay(4)).isEqualTo(MailOutboxDispatcher.FIRST_RETRY_DELAY.multipliedBy(8));
+    }
+
+    @Test
+    void retryDelayShouldBeCapped() {
+        assertThat(MailOutboxDispatcher.retryDelay(MailOutboxDispatcher.MAX_ATTEMPTS)).isLessThanOrEqualTo(MailOutboxDispatcher.MAX_RETRY_DELAY);
+        assertThat(MailOutboxDispatcher.retryDelay(Integer.MAX_VALUE)).isEqualTo(MailOutboxDispatcher.MAX_RETRY_DELAY);
+    }
+
+    @Test
+    void retryDelayShouldNotBeShorterThanTheFirstOne() {
+        assertThat(MailOutboxDispatcher.retryDelay(0)).isEqualTo(MailOutboxDispatcher.FIRST_RETRY_DELAY);
+        assertThat(MailOutboxDispatcher.retryDelay(-1)).isGreaterThanOrEqualTo(Duration.ZERO);
+    }
+}
@@ -7,6 +7,8 @@ import static org.mockito.Mockito.*;
 import furrymatch.IntegrationTest;
 import furrymatch.config.Constants;
 import furrymatch.domain.User;
+import furrymatch.domain.enumeration.MailOutboxStatus;
+import furrymatch.repository.MailOutboxRepository;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -14,6 +16,7 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.time.Instant;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -30,12 +33,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
  * Integration tests for {@link MailService}.
  */
 @IntegrationTest
+@Transactional
 class MailServiceIT {
 
     private static final String[] languages = {
@@ -57,16 +62,24 @@ class MailServiceIT {
     @Autowired
     private MailService mailService;
 
+    @Autowired
+    private MailOutboxDispatcher mailOutboxDispatcher;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
     @BeforeEach
     public void setup() {
-        doNothing().when(javaMailSender).send(any(MimeMessage.class));
+        mailOutboxRepository.deleteAll();
+        doNothing().when(javaMailSender).send(new MimeMessage[] { any(MimeMessage.class) });
         when(javaMailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
     }
 
     @Test
     void testSendEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
-        verify(javaMailSender).send(messageCaptor.capture());
+        mailOutboxDispatcher.dispatch();
+        verify(javaMailSender).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
@@ -79,7 +92,8 @@ class MailServiceIT {
     @Test
     void testSendHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true);
-        verify(javaMailSender).send(messageCaptor.capture());
+        mailOutboxDispatcher.dispatch();
+        verify(javaMailSender).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
@@ -92,7 +106,8 @@ class MailServiceIT {
     @Test
     void testSendMultipartEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false);
-        verify(javaMailSender).send(messageCaptor.capture());
+        mailOutboxDispatcher.dispatch();
+        verify(javaMailSender).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
@@ -109,7 +124,8 @@ class MailServiceIT {
     @Test
     void testSendMultipartHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true);
-        verify(javaMailSender).send(messageCaptor.capture());
+        mailOutboxDispatcher.dispatch();
+        verify(javaMailSender).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
@@ -130,7 +146,8 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-        verify(javaMailSender).send(messageCaptor.capture());
+        mailOutboxDispatcher.dispatch();
+        verify(javaMailSender).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("test title");
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
@@ -146,7 +163,8 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendActivationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
+        mailOutboxDispatcher.dispatch();
+        verify(javaMailSender).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -161,7 +179,8 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendCreationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
+        mailOutboxDispatcher.dispatch();
+        verify(javaMailSender).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -176,7 +195,8 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendPasswordResetMail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
+        mailOutboxDispatcher.dispatch();
+        verify(javaMailSender).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -186,14 +206,45 @@ class MailServiceIT {
 
     @Test
     void testSendEmailWithException() {
-        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        doThrow(MailSendException.class).when(javaMailSender).send(new MimeMessage[] { any(MimeMessage.class) });
         try {
             mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+            mailOutboxDispatcher.dispatch();
         } catch (Exception e) {
             fail("Exception shouldn't have been thrown");
         }
     }
 
+    @Test
+    void testSendEmailWithExceptionIsRetriedLater() {
+        doThrow(MailSendException.class).when(javaMailSender).send(new MimeMessage[] { any(MimeMessage.class) });
+        Instant before = Instant.now();
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(mailOutboxRepository.findAll())
+            .singleElement()
+            .satisfies(mail -> {
+                assertThat(mail.getStatus()).isEqualTo(MailOutboxStatus.PENDING);
+                assertThat(mail.getAttempts()).isEqualTo(1);
+                assertThat(mail.getNextAttemptAt()).isAfterOrEqualTo(before.plus(MailOutboxDispatcher.FIRST_RETRY_DELAY));
+                assertThat(mail.getLastError()).startsWith("MailSendException");
+            });
+        assertThat(mailOutboxDispatcher.dispatch()).isZero();
+    }
+
+    @Test
+    void testSentEmailIsRemovedFromTheOutbox() {
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+        assertThat(mailOutboxRepository.count()).isEqualTo(1);
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(mailOutboxRepository.count()).isZero();
+        verify(javaMailSender).send(new MimeMessage[] { any(MimeMessage.class) });
+    }
+
     @Test
     void testSendLocalizedEmailForAllSupportedLanguages() throws Exception {
         User user = new User();
@@ -202,7 +253,8 @@ class MailServiceIT {
         for (String langKey : languages) {
             user.setLangKey(langKey);
             mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-            verify(javaMailSender, atLeastOnce()).send(messageCaptor.capture());
+            mailOutboxDispatcher.dispatch();
+            verify(javaMailSender, atLeastOnce()).send(new MimeMessage[] { messageCaptor.capture() });
             MimeMessage message = messageCaptor.getValue();
 
             String propertyFilePath = "i18n/messages_" + getJavaLocale(langKey) + ".properties";
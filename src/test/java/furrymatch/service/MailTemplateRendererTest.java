@@ -0,0 +1,73 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import furrymatch.config.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.MessageSource;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+/**
+ * Unit tests for {@link MailTemplateRenderer}.
+ */
+class MailTemplateRendererTest {
+
+    private MessageSource messageSource;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MailTemplateRenderer mailTemplateRenderer;
+
+    @BeforeEach
+    public void init() {
+        messageSource = mock(MessageSource.class);
+        when(messageSource.getMessage(eq("email.test.title"), isNull(), any(Locale.class)))
+            .thenAnswer(invocation -> "title " + invocation.getArgument(2, Locale.class).getLanguage());
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        // The name of a template is its content
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+        meterRegistry = new SimpleMeterRegistry();
+        mailTemplateRenderer = new MailTemplateRenderer(templateEngine, messageSource, meterRegistry);
+    }
+
+    @Test
+    void subjectShouldBeResolvedOncePerLocale() {
+        Locale english = mailTemplateRenderer.locale("en");
+        Locale spanish = mailTemplateRenderer.locale("es");
+
+        assertThat(mailTemplateRenderer.subject("email.test.title", english)).isEqualTo("title en");
+        assertThat(mailTemplateRenderer.subject("email.test.title", english)).isEqualTo("title en");
+        assertThat(mailTemplateRenderer.subject("email.test.title", spanish)).isEqualTo("title es");
+
+        verify(messageSource, times(1)).getMessage("email.test.title", null, english);
+        verify(messageSource, times(1)).getMessage("email.test.title", null, spanish);
+    }
+
+    @Test
+    void localeShouldFallBackToTheDefaultLanguage() {
+        assertThat(mailTemplateRenderer.locale(null)).isEqualTo(Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE));
+        assertThat(mailTemplateRenderer.locale("en")).isSameAs(mailTemplateRenderer.locale("en"));
+    }
+
+    @Test
+    void renderShouldEvaluateTheTemplateAndRecordItsTime() {
+        String template = "<p th:text=\"${user}\">name</p>";
+
+        String content = mailTemplateRenderer.render(template, Locale.ENGLISH, Map.of("user", "john"));
+
+        assertThat(content).isEqualTo("<p>john</p>");
+        assertThat(meterRegistry.get("furrymatch.mail.render").tag("template", template).timer().count()).isEqualTo(1);
+    }
+}
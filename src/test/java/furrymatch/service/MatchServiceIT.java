@@ -0,0 +1,96 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import furrymatch.IntegrationTest;
+import furrymatch.domain.Likee;
+import furrymatch.domain.Match;
+import furrymatch.domain.MatchPair;
+import furrymatch.domain.Pet;
+import furrymatch.domain.enumeration.LikeType;
+import furrymatch.repository.MatchPairRepository;
+import furrymatch.repository.ReciprocalLikeIndex;
+import furrymatch.web.rest.PetResourceIT;
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link MatchService}.
+ */
+@IntegrationTest
+@Transactional
+class MatchServiceIT {
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private LikeeService likeeService;
+
+    @Autowired
+    private MatchPairRepository matchPairRepository;
+
+    @Autowired
+    private ReciprocalLikeIndex reciprocalLikeIndex;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void saveShouldStoreThePairWithTheLowPetFirst() {
+        Pet lowPet = createPet();
+        Pet highPet = createPet();
+        Likee likee = new Likee().likeState(LikeType.Like).firstPet(highPet).secondPet(lowPet);
+        em.persist(likee);
+
+        Match match = matchService.save(new Match().notifyMatch(true).dateMatch(LocalDate.now()).firstLiked(likee));
+
+        MatchPair pair = matchPairRepository.findById(match.getId()).orElseThrow();
+        assertThat(pair.getLowPetId()).isEqualTo(lowPet.getId());
+        assertThat(pair.getHighPetId()).isEqualTo(highPet.getId());
+        assertThat(matchService.findOneByPets(lowPet.getId(), highPet.getId())).contains(match);
+        assertThat(matchService.findOneByPets(highPet.getId(), lowPet.getId())).contains(match);
+    }
+
+    @Test
+    void updateShouldDropThePairOfAMatchWithoutLikees() {
+        Likee likee = new Likee().likeState(LikeType.Like).firstPet(createPet()).secondPet(createPet());
+        em.persist(likee);
+        Match match = matchService.save(new Match().notifyMatch(true).dateMatch(LocalDate.now()).firstLiked(likee));
+
+        match.setFirstLiked(null);
+        matchService.update(match);
+
+        assertThat(matchPairRepository.findById(match.getId())).isEmpty();
+    }
+
+    @Test
+    void matchingAPairAgainShouldReturnTheExistingMatch() {
+        Pet pet = createPet();
+        Pet otherPet = createPet();
+        Likee like = likeeService.save(new Likee().likeState(LikeType.Like).firstPet(pet).secondPet(otherPet));
+        Likee likeBack = likeeService.save(new Likee().likeState(LikeType.Like).firstPet(otherPet).secondPet(pet));
+        em.flush();
+        // The index only sees committed likes otherwise
+        reciprocalLikeIndex.warmUp();
+
+        Long matchId = likeeService.checkIfMatch(likeBack);
+        Long sameMatchId = likeeService.checkIfMatch(like);
+
+        assertThat(matchId).isNotNull();
+        assertThat(sameMatchId).isEqualTo(matchId);
+        assertThat(matchPairRepository.findAll())
+            .filteredOn(pair -> pair.getLowPetId().equals(Math.min(pet.getId(), otherPet.getId())))
+            .filteredOn(pair -> pair.getHighPetId().equals(Math.max(pet.getId(), otherPet.getId())))
+            .hasSize(1);
+    }
+
+    private Pet createPet() {
+        Pet pet = PetResourceIT.createEntity(em);
+        em.persist(pet);
+        return pet;
+    }
+}
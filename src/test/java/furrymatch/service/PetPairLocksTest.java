@@ -0,0 +1,66 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link PetPairLocks}.
+ */
+class PetPairLocksTest {
+
+    private final PetPairLocks petPairLocks = new PetPairLocks();
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void bothDirectionsOfAPairShouldShareTheirStripe() {
+        assertThat(PetPairLocks.stripe(3L, 42L)).isEqualTo(PetPairLocks.stripe(42L, 3L));
+    }
+
+    @Test
+    void lockingOutsideOfATransactionShouldFail() {
+        assertThatThrownBy(() -> petPairLocks.lockUntilCompletion(1L, Collections.singletonList(2L)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void pairShouldStayLockedUntilTheTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        petPairLocks.lockUntilCompletion(1L, Arrays.asList(2L, 3L, 2L));
+
+        AtomicBoolean acquired = new AtomicBoolean();
+        CompletableFuture<Void> otherSide = CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                petPairLocks.lockUntilCompletion(2L, Collections.singletonList(1L));
+                acquired.set(true);
+                TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+        Thread.sleep(100);
+        assertThat(acquired).isFalse();
+
+        TransactionSynchronizationManager
+            .getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        otherSide.get(5, TimeUnit.SECONDS);
+        assertThat(acquired).isTrue();
+    }
+}
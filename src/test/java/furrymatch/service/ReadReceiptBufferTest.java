@@ -0,0 +1,52 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ReadReceiptBuffer}.
+ */
+class ReadReceiptBufferTest {
+
+    private ReadReceiptBuffer readReceiptBuffer;
+
+    @BeforeEach
+    public void init() {
+        readReceiptBuffer = new ReadReceiptBuffer();
+    }
+
+    @Test
+    void recordShouldKeepTheHighestMarkOfEachReader() {
+        assertThat(readReceiptBuffer.record(1L, 10L, 5L)).isTrue();
+        assertThat(readReceiptBuffer.record(1L, 10L, 7L)).isTrue();
+        assertThat(readReceiptBuffer.record(1L, 20L, 3L)).isTrue();
+
+        assertThat(readReceiptBuffer.drain())
+            .containsOnly(Map.entry(new ReadReceiptBuffer.Receipt(1L, 10L), 7L), Map.entry(new ReadReceiptBuffer.Receipt(1L, 20L), 3L));
+        assertThat(readReceiptBuffer.drain()).isEmpty();
+    }
+
+    @Test
+    void recordShouldIgnoreMarksAlreadyRecorded() {
+        readReceiptBuffer.record(1L, 10L, 7L);
+        readReceiptBuffer.drain();
+
+        assertThat(readReceiptBuffer.record(1L, 10L, 7L)).isFalse();
+        assertThat(readReceiptBuffer.record(1L, 10L, 6L)).isFalse();
+        assertThat(readReceiptBuffer.drain()).isEmpty();
+    }
+
+    @Test
+    void requeueShouldNotOverrideNewerMarks() {
+        readReceiptBuffer.record(1L, 10L, 7L);
+        Map<ReadReceiptBuffer.Receipt, Long> failed = readReceiptBuffer.drain();
+        readReceiptBuffer.record(1L, 10L, 9L);
+
+        readReceiptBuffer.requeue(failed);
+
+        assertThat(readReceiptBuffer.drain()).containsOnly(Map.entry(new ReadReceiptBuffer.Receipt(1L, 10L), 9L));
+    }
+}
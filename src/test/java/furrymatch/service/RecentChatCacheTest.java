@@ -0,0 +1,134 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import furrymatch.service.dto.ChatMessageDTO;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RecentChatCache}.
+ */
+class RecentChatCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    private RecentChatCache recentChatCache;
+
+    @BeforeEach
+    public void init() {
+        recentChatCache = new RecentChatCache();
+    }
+
+    @Test
+    void latestShouldLoadAMatchOnlyOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        recentChatCache.latest(1L, () -> {
+            loads.incrementAndGet();
+            return snapshot(message(1L, 1), message(2L, 2));
+        });
+        RecentChatCache.Snapshot recent = recentChatCache.latest(1L, () -> {
+            loads.incrementAndGet();
+            return snapshot();
+        });
+
+        assertThat(loads).hasValue(1);
+        assertThat(ids(recent)).containsExactly(1L, 2L);
+        assertThat(recent.getOwnerIds()).containsExactly(10L, 20L);
+    }
+
+    @Test
+    void appendShouldKeepTheLatestMessagesInOrder() {
+        recentChatCache.latest(1L, RecentChatCacheTest::snapshot);
+        List<Long> expected = new ArrayList<>();
+        for (long id = 1; id <= RecentChatCache.CAPACITY + 10; id++) {
+            if (id > 10) {
+                expected.add(id);
+            }
+        }
+        List<Long> shuffled = new ArrayList<>(expected);
+        shuffled.addAll(0, List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+        Collections.reverse(shuffled.subList(RecentChatCache.CAPACITY, shuffled.size()));
+
+        for (Long id : shuffled) {
+            recentChatCache.append(message(id, id.intValue()));
+        }
+
+        assertThat(ids(recentChatCache.latest(1L, RecentChatCacheTest::snapshot))).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void latestShouldMergeTheMessagesCommittedWhileLoading() {
+        RecentChatCache.Snapshot recent = recentChatCache.latest(1L, () -> {
+            recentChatCache.append(message(3L, 3));
+            return snapshot(message(1L, 1), message(2L, 2), message(3L, 3));
+        });
+
+        assertThat(ids(recent)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void latestShouldReplayTheChangesCommittedWhileLoading() {
+        ChatMessageDTO edited = message(1L, 1);
+        edited.setMessage("edited");
+
+        RecentChatCache.Snapshot recent = recentChatCache.latest(1L, () -> {
+            // Committed after the loader read the messages
+            recentChatCache.replace(edited);
+            recentChatCache.markRead(1L, 20L, 2L);
+            return snapshot(message(1L, 1), message(2L, 2));
+        });
+
+        assertThat(recent.getMessages()).extracting(ChatMessageDTO::getMessage).containsExactly("edited", "message 2");
+        assertThat(recent.getMessages()).extracting(ChatMessageDTO::getStateChat).containsExactly("10;20;read", "10;20;read");
+    }
+
+    @Test
+    void markReadShouldOnlyChangeTheMessagesOfTheRecipient() {
+        ChatMessageDTO received = message(2L, 2);
+        received.setSenderId(20L);
+        received.setRecipientId(10L);
+        received.setStateChat("20;10;unread");
+        recentChatCache.latest(1L, () -> snapshot(message(1L, 1), received));
+
+        recentChatCache.markRead(1L, 20L, 2L);
+
+        assertThat(recentChatCache.latest(1L, RecentChatCacheTest::snapshot).getMessages())
+            .extracting(ChatMessageDTO::getStateChat)
+            .containsExactly("10;20;read", "20;10;unread");
+    }
+
+    @Test
+    void appendShouldIgnoreMatchesThatWereNotRead() {
+        recentChatCache.append(message(1L, 1));
+
+        assertThat(ids(recentChatCache.latest(1L, RecentChatCacheTest::snapshot))).isEmpty();
+    }
+
+    private static RecentChatCache.Snapshot snapshot(ChatMessageDTO... messages) {
+        return new RecentChatCache.Snapshot(List.of(10L, 20L), List.of(messages));
+    }
+
+    private static ChatMessageDTO message(Long id, int minutes) {
+        ChatMessageDTO message = new ChatMessageDTO();
+        message.setId(id);
+        message.setMatchId(1L);
+        message.setMessage("message " + id);
+        message.setDateChat(START.plusMinutes(minutes));
+        message.setSenderId(10L);
+        message.setRecipientId(20L);
+        message.setStateChat("10;20;unread");
+        return message;
+    }
+
+    private static List<Long> ids(RecentChatCache.Snapshot recent) {
+        return recent.getMessages().stream().map(ChatMessageDTO::getId).collect(Collectors.toList());
+    }
+}
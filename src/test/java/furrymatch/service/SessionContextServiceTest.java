@@ -0,0 +1,169 @@
+package furrymatch.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import furrymatch.domain.User;
+import furrymatch.domain.UserSessionContext;
+import furrymatch.repository.UserSessionContextRepository;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Unit tests for {@link SessionContextService}.
+ */
+class SessionContextServiceTest {
+
+    private UserSessionContextRepository userSessionContextRepository;
+
+    private SessionContextService sessionContextService;
+
+    @BeforeEach
+    void setup() {
+        userSessionContextRepository = mock(UserSessionContextRepository.class);
+        when(userSessionContextRepository.findOneByLogin(any())).thenReturn(Optional.empty());
+        when(userSessionContextRepository.findById(any())).thenReturn(Optional.empty());
+        when(userSessionContextRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        sessionContextService = new SessionContextService(userSessionContextRepository, new ConcurrentMapCacheManager());
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(sessionContextService);
+    }
+
+    @Test
+    void getShouldLoadAContextOnce() {
+        UserSessionContext stored = new UserSessionContext();
+        stored.setUserId(1L);
+        stored.setLogin("alice");
+        stored.setSelectedPetId(10L);
+        when(userSessionContextRepository.findOneByLogin("alice")).thenReturn(Optional.of(stored));
+
+        assertThat(sessionContextService.get("alice").getSelectedPetId()).contains(10L);
+        assertThat(sessionContextService.get("alice").getSelectedPetId()).contains(10L);
+        verify(userSessionContextRepository, times(1)).findOneByLogin("alice");
+    }
+
+    @Test
+    void getShouldRememberUsersWithoutContext() {
+        assertThat(sessionContextService.get("bob").getSelectedPetId()).isEmpty();
+        assertThat(sessionContextService.get("bob").getMatchId()).isEmpty();
+        verify(userSessionContextRepository, times(1)).findOneByLogin("bob");
+    }
+
+    @Test
+    void updatesShouldReplaceTheContextInMemory() {
+        User user = user(2L, "carol");
+        sessionContextService.selectPet(user, 20L);
+        sessionContextService.openMatch(user, 30L);
+        sessionContextService.openContract(user, 40L, 5L, 50L);
+
+        SessionContextService.SessionContext context = sessionContextService.get("carol");
+        assertThat(context.getSelectedPetId()).contains(20L);
+        assertThat(context.getMatchId()).contains(30L);
+        assertThat(context.getContractMatchId()).contains(40L);
+        assertThat(context.getContractOwnerId()).contains(5L);
+        assertThat(context.getContractPetId()).contains(50L);
+    }
+
+    @Test
+    void getShouldNotCacheAContextChangedDuringItsLoad() {
+        UserSessionContext stored = new UserSessionContext();
+        stored.setUserId(4L);
+        stored.setLogin("erin");
+        stored.setSelectedPetId(10L);
+        when(userSessionContextRepository.findOneByLogin("erin"))
+            .thenAnswer(invocation -> {
+                // Another request commits a new context while this one reads the previous row
+                sessionContextService.selectPet(user(4L, "erin"), 70L);
+                return Optional.of(stored);
+            });
+
+        assertThat(sessionContextService.get("erin").getSelectedPetId()).contains(10L);
+        assertThat(sessionContextService.get("erin").getSelectedPetId()).contains(70L);
+        verify(userSessionContextRepository, times(1)).findOneByLogin("erin");
+    }
+
+    @Test
+    void aTransactionShouldReadItsOwnChangesWithoutCachingThem() {
+        TransactionSynchronizationManager.initSynchronization();
+        sessionContextService.selectPet(user(5L, "frank"), 80L);
+
+        assertThat(sessionContextService.get("frank").getSelectedPetId()).contains(80L);
+        assertThat(sessionContextService.get("grace").getSelectedPetId()).isEmpty();
+
+        // Roll back
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+            TransactionSynchronizationManager.getSynchronizations(),
+            TransactionSynchronization.STATUS_ROLLED_BACK
+        );
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(sessionContextService.get("frank").getSelectedPetId()).isEmpty();
+        assertThat(sessionContextService.get("grace").getSelectedPetId()).isEmpty();
+        verify(userSessionContextRepository, times(2)).findOneByLogin("grace");
+    }
+
+    @Test
+    void forgetShouldEvictTheContext() {
+        sessionContextService.selectPet(user(6L, "heidi"), 90L);
+
+        sessionContextService.forget("heidi");
+
+        assertThat(sessionContextService.get("heidi").getSelectedPetId()).isEmpty();
+        verify(userSessionContextRepository, times(1)).findOneByLogin("heidi");
+    }
+
+    @Test
+    void currentShouldBeResolvedOncePerRequest() {
+        login("dave");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(sessionContextService.current().getSelectedPetId()).isEmpty();
+        sessionContextService.selectPet(user(3L, "dave"), 60L);
+        assertThat(sessionContextService.current().getSelectedPetId()).contains(60L);
+        assertThat(sessionContextService.current().getSelectedPetId()).contains(60L);
+        verify(userSessionContextRepository, times(1)).findOneByLogin("dave");
+    }
+
+    @Test
+    void currentShouldBeEmptyWithoutUser() {
+        assertThat(sessionContextService.current().getSelectedPetId()).isEmpty();
+        verify(userSessionContextRepository, times(0)).findOneByLogin(any());
+    }
+
+    private static User user(Long id, String login) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(login);
+        return user;
+    }
+
+    private static void login(String login) {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(login, login));
+        SecurityContextHolder.setContext(securityContext);
+    }
+}
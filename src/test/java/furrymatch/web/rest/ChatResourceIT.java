@@ -1,6 +1,7 @@
 package furrymatch.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -8,10 +9,27 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import furrymatch.IntegrationTest;
 import furrymatch.domain.Chat;
+import furrymatch.domain.ChatInboxId;
+import furrymatch.domain.Likee;
+import furrymatch.domain.Match;
+import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
+import furrymatch.domain.User;
+import furrymatch.domain.enumeration.LikeType;
+import furrymatch.repository.ChatInboxRepository;
 import furrymatch.repository.ChatRepository;
+import furrymatch.repository.ChatUnreadCounterRepository;
+import furrymatch.repository.UserRepository;
+import furrymatch.service.ChatService;
+import furrymatch.service.MatchService;
+import furrymatch.service.RecentChatCache;
+import furrymatch.web.rest.util.CursorUtil;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -51,6 +69,21 @@ class ChatResourceIT {
     @Autowired
     private ChatRepository chatRepository;
 
+    @Autowired
+    private ChatUnreadCounterRepository chatUnreadCounterRepository;
+
+    @Autowired
+    private ChatInboxRepository chatInboxRepository;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MatchService matchService;
+
     @Autowired
     private EntityManager em;
 
@@ -403,4 +436,110 @@ class ChatResourceIT {
         List<Chat> chatList = chatRepository.findAll();
         assertThat(chatList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void getMatchChatsBeyondTheRecentMessages() throws Exception {
+        // Initialize the database: a conversation longer than the recent messages kept in memory, ten messages a day
+        Owner owner = createOwner(userRepository.findOneByLogin("user").orElseThrow());
+        Match match = createMatch(createPet(owner), createPet(null));
+        List<Chat> chats = new ArrayList<>();
+        for (int i = 0; i < RecentChatCache.CAPACITY + 10; i++) {
+            Chat message = new Chat()
+                .match(match)
+                .message("message " + i)
+                .dateChat(LocalDate.of(2026, 10, 1).plusDays(i / 10).atStartOfDay())
+                .stateChat(owner.getId() + ";0;read");
+            em.persist(message);
+            chats.add(message);
+        }
+        em.flush();
+        int total = chats.size();
+
+        // The latest page, from memory
+        restChatMockMvc
+            .perform(get("/api/matches/{id}/chats?limit=25", match.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(ids(chats.subList(total - 25, total)))))
+            .andExpect(header().string(CursorUtil.NEXT_CURSOR_HEADER, cursor(chats.get(total - 25))));
+
+        // The oldest messages kept in memory
+        restChatMockMvc
+            .perform(get("/api/matches/{id}/chats?limit=25&before=" + cursor(chats.get(total - 25)), match.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(ids(chats.subList(total - RecentChatCache.CAPACITY, total - 25)))))
+            .andExpect(header().string(CursorUtil.NEXT_CURSOR_HEADER, cursor(chats.get(total - RecentChatCache.CAPACITY))));
+
+        // The rest, from the database
+        restChatMockMvc
+            .perform(get("/api/matches/{id}/chats?limit=25&before=" + cursor(chats.get(total - RecentChatCache.CAPACITY)), match.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(ids(chats.subList(0, total - RecentChatCache.CAPACITY)))))
+            .andExpect(header().doesNotExist(CursorUtil.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @Transactional
+    void updateChatStateShouldMarkTheReceivedMessagesReadOnFlush() throws Exception {
+        // Initialize the database: a message received by the current owner, and one they sent
+        Owner owner = createOwner(userRepository.findOneByLogin("user").orElseThrow());
+        User otherUser = UserResourceIT.createEntity(em);
+        em.persist(otherUser);
+        Owner otherOwner = createOwner(otherUser);
+        Pet pet = createPet(owner);
+        Pet otherPet = createPet(otherOwner);
+        Match match = createMatch(pet, otherPet);
+        Chat received = chatService.send(match.getId(), otherUser.getLogin(), "hello").orElseThrow();
+        Chat sent = chatService.send(match.getId(), "user", "hi").orElseThrow();
+        em.flush();
+        int unreadBefore = chatUnreadCounterRepository.findUnreadCountByOwnerId(owner.getId()).orElse(0);
+
+        // Mark the match read, then write the buffered receipt
+        restChatMockMvc
+            .perform(put(ENTITY_API_URL + "/update-state/{matchId}/{senderId}", match.getId(), otherOwner.getId()).with(csrf()))
+            .andExpect(status().isOk());
+        chatService.flushReadReceipts();
+        em.flush();
+        em.clear();
+
+        // Only the received message is read, and it is taken off the counters of the current owner
+        Chat readChat = chatRepository.findById(received.getId()).orElseThrow();
+        assertThat(readChat.getReadFlag()).isTrue();
+        assertThat(readChat.getStateChat()).isEqualTo(otherOwner.getId() + ";" + owner.getId() + ";read");
+        assertThat(chatRepository.findById(sent.getId()).orElseThrow().getReadFlag()).isFalse();
+        assertThat(chatUnreadCounterRepository.findUnreadCountByOwnerId(owner.getId())).contains(unreadBefore - 1);
+        assertThat(chatInboxRepository.findById(new ChatInboxId(pet.getId(), match.getId())).orElseThrow().getUnreadCount()).isZero();
+        assertThat(chatInboxRepository.findById(new ChatInboxId(otherPet.getId(), match.getId())).orElseThrow().getUnreadCount())
+            .isEqualTo(1);
+    }
+
+    private Owner createOwner(User user) {
+        Owner owner = OwnerResourceIT.createEntity(em).user(user);
+        em.persist(owner);
+        return owner;
+    }
+
+    private Pet createPet(Owner owner) {
+        Pet pet = PetResourceIT.createEntity(em).owner(owner);
+        em.persist(pet);
+        return pet;
+    }
+
+    private Match createMatch(Pet pet, Pet otherPet) {
+        Likee likee = new Likee().likeState(LikeType.Like).firstPet(pet).secondPet(otherPet);
+        em.persist(likee);
+        return matchService.save(new Match().notifyMatch(true).dateMatch(LocalDate.now()).firstLiked(likee));
+    }
+
+    private static Object[] ids(List<Chat> chats) {
+        return chats.stream().map(message -> message.getId().intValue()).toArray();
+    }
+
+    /**
+     * The cursor of a message is its date and id, joined and encoded in URL-safe base64.
+     */
+    private static String cursor(Chat message) {
+        String raw = message.getDateChat() + "|" + message.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 }
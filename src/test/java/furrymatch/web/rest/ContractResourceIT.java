@@ -1,14 +1,29 @@
 package furrymatch.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import furrymatch.IntegrationTest;
 import furrymatch.domain.Contract;
+import furrymatch.domain.Likee;
+import furrymatch.domain.Match;
+import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
+import furrymatch.domain.User;
+import furrymatch.domain.enumeration.ContractStatus;
+import furrymatch.domain.enumeration.LikeType;
 import furrymatch.repository.ContractRepository;
+import furrymatch.repository.UserRepository;
+import furrymatch.service.MatchService;
+import furrymatch.service.SessionContextService;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
@@ -56,6 +71,15 @@ class ContractResourceIT {
     @Autowired
     private ContractRepository contractRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private SessionContextService sessionContextService;
+
     @Autowired
     private EntityManager em;
 
@@ -64,6 +88,10 @@ class ContractResourceIT {
 
     private Contract contract;
 
+    private Owner currentOwner;
+
+    private Owner otherOwner;
+
     /**
      * Create an entity for this test.
      *
@@ -76,7 +104,8 @@ class ContractResourceIT {
             .tradePups(DEFAULT_TRADE_PUPS)
             .pedigree(DEFAULT_PEDIGREE)
             .otherNotes(DEFAULT_OTHER_NOTES)
-            .contractDate(DEFAULT_CONTRACT_DATE);
+            .contractDate(DEFAULT_CONTRACT_DATE)
+            .status(ContractStatus.DRAFT);
         return contract;
     }
 
@@ -92,7 +121,8 @@ class ContractResourceIT {
             .tradePups(UPDATED_TRADE_PUPS)
             .pedigree(UPDATED_PEDIGREE)
             .otherNotes(UPDATED_OTHER_NOTES)
-            .contractDate(UPDATED_CONTRACT_DATE);
+            .contractDate(UPDATED_CONTRACT_DATE)
+            .status(ContractStatus.DRAFT);
         return contract;
     }
 
@@ -168,6 +198,26 @@ class ContractResourceIT {
             .andExpect(jsonPath("$.[*].contractDate").value(hasItem(DEFAULT_CONTRACT_DATE.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllContractsWhereMatchIsNull() throws Exception {
+        // Initialize the database
+        contractRepository.saveAndFlush(contract);
+        Contract matchedContract = contractRepository.saveAndFlush(createUpdatedEntity(em));
+        Match match = MatchResourceIT.createEntity(em).contract(matchedContract);
+        em.persist(match);
+        em.flush();
+
+        // Get the contracts no match points to
+        restContractMockMvc
+            .perform(get(ENTITY_API_URL + "?filter=match-is-null&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(contract.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(matchedContract.getId().intValue()))));
+    }
+
     @Test
     @Transactional
     void getContract() throws Exception {
@@ -198,7 +248,7 @@ class ContractResourceIT {
     @Transactional
     void putExistingContract() throws Exception {
         // Initialize the database
-        contractRepository.saveAndFlush(contract);
+        createMatchContract(true, ContractStatus.DRAFT);
 
         int databaseSizeBeforeUpdate = contractRepository.findAll().size();
 
@@ -300,7 +350,7 @@ class ContractResourceIT {
     @Transactional
     void partialUpdateContractWithPatch() throws Exception {
         // Initialize the database
-        contractRepository.saveAndFlush(contract);
+        createMatchContract(true, ContractStatus.DRAFT);
 
         int databaseSizeBeforeUpdate = contractRepository.findAll().size();
 
@@ -334,7 +384,7 @@ class ContractResourceIT {
     @Transactional
     void fullUpdateContractWithPatch() throws Exception {
         // Initialize the database
-        contractRepository.saveAndFlush(contract);
+        createMatchContract(true, ContractStatus.DRAFT);
 
         int databaseSizeBeforeUpdate = contractRepository.findAll().size();
 
@@ -449,4 +499,221 @@ class ContractResourceIT {
         List<Contract> contractList = contractRepository.findAll();
         assertThat(contractList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void sendContractAsInitiator() throws Exception {
+        createMatchContract(true, ContractStatus.DRAFT);
+
+        restContractMockMvc
+            .perform(get(ENTITY_API_URL + "/sendEmail/{id}", contract.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value(ContractStatus.SENT.toString()));
+    }
+
+    @Test
+    @Transactional
+    void sendContractOfTheOtherOwnerShouldFail() throws Exception {
+        createMatchContract(false, ContractStatus.DRAFT);
+
+        restContractMockMvc
+            .perform(get(ENTITY_API_URL + "/sendEmail/{id}", contract.getId()))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidtransition"));
+
+        assertThat(contractRepository.findById(contract.getId()).orElseThrow().getStatus()).isEqualTo(ContractStatus.DRAFT);
+    }
+
+    @Test
+    @Transactional
+    void editSentContractAsInitiator() throws Exception {
+        createMatchContract(true, ContractStatus.SENT);
+
+        restContractMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, contract.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(createUpdatedEntity(em).id(contract.getId()).status(ContractStatus.ACCEPTED)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value(ContractStatus.DRAFT.toString()))
+            .andExpect(jsonPath("$.initiatorId").value(currentOwner.getId().intValue()))
+            .andExpect(jsonPath("$.otherNotes").value(UPDATED_OTHER_NOTES));
+    }
+
+    @Test
+    @Transactional
+    void editContractOfTheOtherOwnerShouldFail() throws Exception {
+        createMatchContract(false, ContractStatus.DRAFT);
+
+        restContractMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, contract.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(createUpdatedEntity(em).id(contract.getId())))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidtransition"));
+    }
+
+    @Test
+    @Transactional
+    void editAcceptedContractShouldFail() throws Exception {
+        createMatchContract(true, ContractStatus.ACCEPTED);
+
+        restContractMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, contract.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(createUpdatedEntity(em).id(contract.getId())))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidtransition"));
+    }
+
+    @Test
+    @Transactional
+    void patchAcceptedContractShouldFail() throws Exception {
+        createMatchContract(true, ContractStatus.ACCEPTED);
+
+        restContractMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, contract.getId())
+                    .with(csrf())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new Contract().id(contract.getId()).tradePups(UPDATED_TRADE_PUPS)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidtransition"));
+
+        assertThat(contractRepository.findById(contract.getId()).orElseThrow().getTradePups()).isEqualTo(DEFAULT_TRADE_PUPS);
+    }
+
+    @Test
+    @Transactional
+    void patchContractOfTheOtherOwnerShouldFail() throws Exception {
+        createMatchContract(false, ContractStatus.DRAFT);
+
+        restContractMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, contract.getId())
+                    .with(csrf())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new Contract().id(contract.getId()).tradePups(UPDATED_TRADE_PUPS)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidtransition"));
+    }
+
+    @Test
+    @Transactional
+    void acceptContractAsOtherOwner() throws Exception {
+        createMatchContract(false, ContractStatus.SENT);
+
+        restContractMockMvc
+            .perform(post(ENTITY_API_URL_ID + "/accept", contract.getId()).with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value(ContractStatus.ACCEPTED.toString()));
+    }
+
+    @Test
+    @Transactional
+    void acceptOwnContractShouldFail() throws Exception {
+        createMatchContract(true, ContractStatus.SENT);
+
+        restContractMockMvc
+            .perform(post(ENTITY_API_URL_ID + "/accept", contract.getId()).with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidtransition"));
+    }
+
+    @Test
+    @Transactional
+    void acceptDraftShouldFail() throws Exception {
+        createMatchContract(false, ContractStatus.DRAFT);
+
+        restContractMockMvc
+            .perform(post(ENTITY_API_URL_ID + "/accept", contract.getId()).with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidtransition"));
+    }
+
+    @Test
+    @Transactional
+    void getPendingContracts() throws Exception {
+        createMatchContract(true, ContractStatus.SENT);
+        Contract draft = createEntity(em).initiatorId(currentOwner.getId());
+        em.persist(draft);
+        Contract received = createEntity(em).status(ContractStatus.SENT).initiatorId(otherOwner.getId());
+        em.persist(received);
+        em.flush();
+
+        // Only the sent contracts of the current owner
+        restContractMockMvc
+            .perform(get(ENTITY_API_URL + "/pending"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(contract.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(draft.getId().intValue()))))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(received.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getMatchedPetsOfBothSidesOfThePairs() throws Exception {
+        // Initialize the database: the pet is the high pet of its pair with the first pet, and the low pet of the other
+        Pet lowPet = PetResourceIT.createEntity(em);
+        em.persist(lowPet);
+        Pet pet = PetResourceIT.createEntity(em);
+        em.persist(pet);
+        Pet highPet = PetResourceIT.createEntity(em);
+        em.persist(highPet);
+        Match lowMatch = createMatch(lowPet, pet);
+        Match highMatch = createMatch(pet, highPet);
+        em.flush();
+
+        restContractMockMvc
+            .perform(get(ENTITY_API_URL + "/matched-pets-no-contract/{currentPetId}", pet.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[*][0].id").value(containsInAnyOrder(lowMatch.getId().intValue(), highMatch.getId().intValue())))
+            .andExpect(jsonPath("$[*][1].id").value(everyItem(is(pet.getId().intValue()))))
+            .andExpect(jsonPath("$[*][2].id").value(containsInAnyOrder(lowPet.getId().intValue(), highPet.getId().intValue())));
+    }
+
+    private Match createMatch(Pet firstPet, Pet secondPet) {
+        Likee likee = new Likee().likeState(LikeType.Like).firstPet(firstPet).secondPet(secondPet);
+        em.persist(likee);
+        return matchService.save(new Match().notifyMatch(true).dateMatch(LocalDate.now()).firstLiked(likee));
+    }
+
+    /**
+     * Create a match between a pet of the current user and a pet of another owner, with the contract of this test,
+     * and open it as the contract match of the current user.
+     */
+    private void createMatchContract(boolean initiatedByCurrentOwner, ContractStatus status) {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        currentOwner = OwnerResourceIT.createEntity(em).user(user);
+        em.persist(currentOwner);
+        User otherUser = UserResourceIT.createEntity(em);
+        em.persist(otherUser);
+        otherOwner = OwnerResourceIT.createEntity(em).user(otherUser);
+        em.persist(otherOwner);
+        Pet pet = PetResourceIT.createEntity(em).owner(currentOwner);
+        em.persist(pet);
+        Pet otherPet = PetResourceIT.createEntity(em).owner(otherOwner);
+        em.persist(otherPet);
+        Likee likee = new Likee().likeState(LikeType.Like).firstPet(pet).secondPet(otherPet);
+        em.persist(likee);
+
+        contract.status(status).initiatorId(initiatedByCurrentOwner ? currentOwner.getId() : otherOwner.getId());
+        em.persist(contract);
+        Match match = new Match().notifyMatch(true).dateMatch(LocalDate.now()).firstLiked(likee);
+        contract.setMatch(match);
+        matchService.save(match);
+        sessionContextService.openContract(user, match.getId(), otherOwner.getId(), otherPet.getId());
+        em.flush();
+    }
 }
@@ -2,14 +2,23 @@ package furrymatch.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import furrymatch.IntegrationTest;
 import furrymatch.domain.Likee;
+import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
 import furrymatch.domain.enumeration.LikeType;
 import furrymatch.repository.LikeeRepository;
+import furrymatch.repository.ReciprocalLikeIndex;
+import furrymatch.repository.UserRepository;
+import furrymatch.service.MatchService;
+import furrymatch.service.dto.SwipeBatchDTO;
+import furrymatch.service.dto.SwipeDTO;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -43,6 +52,15 @@ class LikeeResourceIT {
     @Autowired
     private LikeeRepository likeeRepository;
 
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReciprocalLikeIndex reciprocalLikeIndex;
+
     @Autowired
     private EntityManager em;
 
@@ -135,6 +153,149 @@ class LikeeResourceIT {
         assertThat(likeeList).hasSize(databaseSizeBeforeTest);
     }
 
+    @Test
+    @Transactional
+    void createLikeeBatch() throws Exception {
+        Pet pet = createOwnedPet();
+        Pet liked = PetResourceIT.createEntity(em);
+        Pet disliked = PetResourceIT.createEntity(em);
+        em.persist(liked);
+        em.persist(disliked);
+        em.flush();
+        int databaseSizeBeforeCreate = likeeRepository.findAll().size();
+
+        SwipeBatchDTO swipeBatch = new SwipeBatchDTO();
+        swipeBatch.setPetId(pet.getId());
+        swipeBatch.setSwipes(
+            Arrays.asList(
+                new SwipeDTO(liked.getId(), LikeType.Like),
+                new SwipeDTO(disliked.getId(), LikeType.Dislike),
+                // Repeated and self swipes are ignored
+                new SwipeDTO(liked.getId(), LikeType.Dislike),
+                new SwipeDTO(pet.getId(), LikeType.Like)
+            )
+        );
+        restLikeeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(swipeBatch))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(0)));
+
+        assertThat(likeeRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(likeeRepository.findByFirstPetIdAndSecondPetId(pet.getId(), liked.getId()))
+            .hasValueSatisfying(likee -> assertThat(likee.getLikeState()).isEqualTo(LikeType.Like));
+        assertThat(likeeRepository.findByFirstPetIdAndSecondPetId(pet.getId(), disliked.getId()))
+            .hasValueSatisfying(likee -> assertThat(likee.getLikeState()).isEqualTo(LikeType.Dislike));
+    }
+
+    @Test
+    @Transactional
+    void createLikeeBatchShouldOnlyMatchLikes() throws Exception {
+        Pet pet = createOwnedPet();
+        Pet disliked = PetResourceIT.createEntity(em);
+        Pet liked = PetResourceIT.createEntity(em);
+        em.persist(disliked);
+        em.persist(liked);
+        // Both pets already liked the pet of the current owner
+        em.persist(new Likee().likeState(LikeType.Like).firstPet(disliked).secondPet(pet));
+        em.persist(new Likee().likeState(LikeType.Like).firstPet(liked).secondPet(pet));
+        em.flush();
+        reciprocalLikeIndex.warmUp();
+
+        SwipeBatchDTO swipeBatch = new SwipeBatchDTO();
+        swipeBatch.setPetId(pet.getId());
+        swipeBatch.setSwipes(Arrays.asList(new SwipeDTO(disliked.getId(), LikeType.Dislike), new SwipeDTO(liked.getId(), LikeType.Like)));
+        restLikeeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(swipeBatch))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasSize(1)));
+
+        assertThat(matchService.findOneByPets(pet.getId(), disliked.getId())).isEmpty();
+        assertThat(matchService.findOneByPets(pet.getId(), liked.getId())).isPresent();
+    }
+
+    @Test
+    @Transactional
+    void createLikeeBatchForAnotherOwnerPetShouldFail() throws Exception {
+        Pet pet = PetResourceIT.createEntity(em);
+        Pet liked = PetResourceIT.createEntity(em);
+        em.persist(pet);
+        em.persist(liked);
+        em.flush();
+        int databaseSizeBeforeCreate = likeeRepository.findAll().size();
+
+        SwipeBatchDTO swipeBatch = new SwipeBatchDTO();
+        swipeBatch.setPetId(pet.getId());
+        swipeBatch.setSwipes(Arrays.asList(new SwipeDTO(liked.getId(), LikeType.Like)));
+        restLikeeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(swipeBatch))
+            )
+            .andExpect(status().isNotFound());
+
+        assertThat(likeeRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void createEmptyLikeeBatchShouldFail() throws Exception {
+        SwipeBatchDTO swipeBatch = new SwipeBatchDTO();
+        swipeBatch.setPetId(1L);
+
+        restLikeeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(swipeBatch))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void createLikeeWithoutPetIdShouldFail() throws Exception {
+        int databaseSizeBeforeCreate = likeeRepository.findAll().size();
+        likee.firstPet(createOwnedPet()).secondPet(new Pet());
+
+        restLikeeMockMvc
+            .perform(
+                post(ENTITY_API_URL).with(csrf()).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(likee))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.petidnull"));
+
+        assertThat(likeeRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void createLikeMatchWithoutSecondPetShouldFail() throws Exception {
+        likee.firstPet(createOwnedPet());
+
+        restLikeeMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/match")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(likee))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.petidnull"));
+    }
+
     @Test
     @Transactional
     void getAllLikees() throws Exception {
@@ -402,4 +563,15 @@ class LikeeResourceIT {
         List<Likee> likeeList = likeeRepository.findAll();
         assertThat(likeeList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    /**
+     * Create a pet owned by the mock user.
+     */
+    private Pet createOwnedPet() {
+        Owner owner = OwnerResourceIT.createEntity(em).user(userRepository.findOneByLogin("user").orElseThrow());
+        em.persist(owner);
+        Pet pet = PetResourceIT.createEntity(em).owner(owner);
+        em.persist(pet);
+        return pet;
+    }
 }
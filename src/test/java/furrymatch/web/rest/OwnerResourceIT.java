@@ -1,15 +1,28 @@
 package furrymatch.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import furrymatch.IntegrationTest;
+import furrymatch.domain.Chat;
+import furrymatch.domain.Likee;
+import furrymatch.domain.Match;
 import furrymatch.domain.Owner;
+import furrymatch.domain.Pet;
+import furrymatch.domain.User;
+import furrymatch.domain.enumeration.LikeType;
 import furrymatch.repository.OwnerRepository;
+import furrymatch.repository.UserRepository;
+import furrymatch.service.ChatService;
+import furrymatch.service.MatchService;
+import furrymatch.service.SessionContextService;
+import furrymatch.web.rest.util.CursorUtil;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Random;
@@ -83,6 +96,18 @@ class OwnerResourceIT {
     @Autowired
     private OwnerRepository ownerRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private SessionContextService sessionContextService;
+
     @Autowired
     private EntityManager em;
 
@@ -733,4 +758,105 @@ class OwnerResourceIT {
         List<Owner> ownerList = ownerRepository.findAll();
         assertThat(ownerList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void getUserChatsShouldPageTheInbox() throws Exception {
+        // Initialize the database: the pet of the current user matched two pets, the latest message is in the second match
+        em.persist(owner.user(userRepository.findOneByLogin("user").orElseThrow()));
+        User otherUser = UserResourceIT.createEntity(em);
+        em.persist(otherUser);
+        Owner otherOwner = createEntity(em).user(otherUser);
+        em.persist(otherOwner);
+        Pet pet = createPet(owner);
+        Match firstMatch = createMatch(pet, createPet(otherOwner));
+        Match secondMatch = createMatch(pet, createPet(otherOwner));
+        Chat received = chatService.send(firstMatch.getId(), otherUser.getLogin(), "hello").orElseThrow();
+        Chat sent = chatService.send(secondMatch.getId(), "user", "hi").orElseThrow();
+        sessionContextService.selectPet(userRepository.findOneByLogin("user").orElseThrow(), pet.getId());
+        em.flush();
+
+        // The most recently active conversation first
+        restOwnerMockMvc
+            .perform(get(ENTITY_API_URL + "/user?limit=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].matchId").value(contains(secondMatch.getId().intValue())))
+            .andExpect(jsonPath("$.[0].counterpartOwnerId").value(otherOwner.getId().intValue()))
+            .andExpect(jsonPath("$.[0].firstName").value(otherOwner.getFirstName()))
+            .andExpect(jsonPath("$.[0].lastChatId").value(sent.getId().intValue()))
+            .andExpect(jsonPath("$.[0].lastMessage").value("hi"))
+            .andExpect(jsonPath("$.[0].unreadCount").value(0))
+            .andExpect(header().string(CursorUtil.NEXT_CURSOR_HEADER, CursorUtil.encode(sent.getId())));
+
+        restOwnerMockMvc
+            .perform(get(ENTITY_API_URL + "/user?limit=1&cursor=" + CursorUtil.encode(sent.getId())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].matchId").value(contains(firstMatch.getId().intValue())))
+            .andExpect(jsonPath("$.[0].lastChatId").value(received.getId().intValue()))
+            .andExpect(jsonPath("$.[0].lastMessage").value("hello"))
+            .andExpect(jsonPath("$.[0].unreadCount").value(1))
+            .andExpect(header().string(CursorUtil.NEXT_CURSOR_HEADER, CursorUtil.encode(received.getId())));
+
+        restOwnerMockMvc
+            .perform(get(ENTITY_API_URL + "/user?limit=1&cursor=" + CursorUtil.encode(received.getId())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty())
+            .andExpect(header().doesNotExist(CursorUtil.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @Transactional
+    void getUserChatsShouldFollowEditsReadsAndDeletes() throws Exception {
+        // Initialize the database
+        em.persist(owner.user(userRepository.findOneByLogin("user").orElseThrow()));
+        User otherUser = UserResourceIT.createEntity(em);
+        em.persist(otherUser);
+        Owner otherOwner = createEntity(em).user(otherUser);
+        em.persist(otherOwner);
+        Pet pet = createPet(owner);
+        Match firstMatch = createMatch(pet, createPet(otherOwner));
+        Match secondMatch = createMatch(pet, createPet(otherOwner));
+        Chat received = chatService.send(firstMatch.getId(), otherUser.getLogin(), "hello").orElseThrow();
+        chatService.send(secondMatch.getId(), otherUser.getLogin(), "hi").orElseThrow();
+        sessionContextService.selectPet(userRepository.findOneByLogin("user").orElseThrow(), pet.getId());
+        em.flush();
+
+        // Edit the last message of the first match
+        LocalDateTime editedDate = LocalDateTime.of(2026, 10, 20, 9, 30, 15);
+        chatService.partialUpdate(new Chat().id(received.getId()).message("edited").dateChat(editedDate));
+        // Read the first match
+        restOwnerMockMvc
+            .perform(put("/api/chats/update-state/{matchId}/{senderId}", firstMatch.getId(), otherOwner.getId()).with(csrf()))
+            .andExpect(status().isOk());
+        chatService.flushReadReceipts();
+        em.flush();
+
+        restOwnerMockMvc
+            .perform(get(ENTITY_API_URL + "/user"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].matchId").value(contains(secondMatch.getId().intValue(), firstMatch.getId().intValue())))
+            .andExpect(jsonPath("$.[*].unreadCount").value(contains(1, 0)))
+            .andExpect(jsonPath("$.[1].lastMessage").value("edited"))
+            .andExpect(jsonPath("$.[1].lastDateChat").value(editedDate.toString()));
+
+        // Delete the conversation of the second match
+        restOwnerMockMvc.perform(delete("/api/chats/{id}", secondMatch.getId()).with(csrf())).andExpect(status().isNoContent());
+
+        restOwnerMockMvc
+            .perform(get(ENTITY_API_URL + "/user"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].matchId").value(contains(firstMatch.getId().intValue())));
+    }
+
+    private Pet createPet(Owner owner) {
+        Pet pet = PetResourceIT.createEntity(em).owner(owner);
+        em.persist(pet);
+        return pet;
+    }
+
+    private Match createMatch(Pet pet, Pet otherPet) {
+        Likee likee = new Likee().likeState(LikeType.Like).firstPet(pet).secondPet(otherPet);
+        em.persist(likee);
+        return matchService.save(new Match().notifyMatch(true).dateMatch(LocalDate.now()).firstLiked(likee));
+    }
 }
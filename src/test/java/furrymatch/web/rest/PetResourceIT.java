@@ -1,20 +1,47 @@
 package furrymatch.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.in;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import furrymatch.IntegrationTest;
+import furrymatch.domain.Breed;
+import furrymatch.domain.Likee;
+import furrymatch.domain.Match;
+import furrymatch.domain.Owner;
 import furrymatch.domain.Pet;
+import furrymatch.domain.Photo;
+import furrymatch.domain.SearchCriteria;
+import furrymatch.domain.User;
+import furrymatch.domain.enumeration.LikeType;
 import furrymatch.domain.enumeration.PetType;
 import furrymatch.domain.enumeration.Sex;
 import furrymatch.repository.PetRepository;
+import furrymatch.repository.PetSearchIndex;
+import furrymatch.repository.UserRepository;
+import furrymatch.service.MatchService;
+import furrymatch.service.SessionContextService;
+import furrymatch.web.rest.util.CursorUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +49,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -65,9 +93,27 @@ class PetResourceIT {
     @Autowired
     private PetRepository petRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private PetSearchIndex petSearchIndex;
+
+    @Autowired
+    private SessionContextService sessionContextService;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private MockMvc restPetMockMvc;
 
@@ -241,9 +287,15 @@ class PetResourceIT {
     @Transactional
     void getAllPets() throws Exception {
         // Initialize the database
-        petRepository.saveAndFlush(pet);
-
-        // Get all the petList
+        Owner owner = OwnerResourceIT.createEntity(em).user(userRepository.findOneByLogin("user").orElseThrow());
+        em.persist(owner);
+        Breed breed = BreedResourceIT.createEntity(em);
+        em.persist(breed);
+        petRepository.saveAndFlush(pet.owner(owner).breed(breed));
+        em.persist(new Photo().uploadDate(LocalDate.now()).photoUrl("http://photo/1").pet(pet));
+        em.flush();
+
+        // Get all the pet cards of the current owner
         restPetMockMvc
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
@@ -256,7 +308,111 @@ class PetResourceIT {
             .andExpect(jsonPath("$.[*].tradeMoney").value(hasItem(DEFAULT_TRADE_MONEY.booleanValue())))
             .andExpect(jsonPath("$.[*].tradePups").value(hasItem(DEFAULT_TRADE_PUPS.booleanValue())))
             .andExpect(jsonPath("$.[*].pedigree").value(hasItem(DEFAULT_PEDIGREE.booleanValue())))
-            .andExpect(jsonPath("$.[*].desireAmmount").value(hasItem(DEFAULT_DESIRE_AMMOUNT.doubleValue())));
+            .andExpect(jsonPath("$.[*].desireAmmount").value(hasItem(DEFAULT_DESIRE_AMMOUNT.doubleValue())))
+            .andExpect(jsonPath("$.[*].breedId").value(hasItem(breed.getId().intValue())))
+            .andExpect(jsonPath("$.[*].breedName").value(hasItem(breed.getBreed())))
+            .andExpect(jsonPath("$.[*].province").value(hasItem(owner.getProvince())))
+            .andExpect(jsonPath("$.[*].canton").value(hasItem(owner.getCanton())))
+            .andExpect(jsonPath("$.[*].district").value(hasItem(owner.getDistrict())))
+            .andExpect(jsonPath("$.[*].photoUrls[*]").value(hasItem("http://photo/1")))
+            // A card holds no association
+            .andExpect(jsonPath("$.[*].owner").doesNotExist())
+            .andExpect(jsonPath("$.[*].photos").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllPetsShouldLoadThePhotosWithAConstantNumberOfQueries() throws Exception {
+        // Initialize the database
+        Owner owner = OwnerResourceIT.createEntity(em).user(userRepository.findOneByLogin("user").orElseThrow());
+        em.persist(owner);
+        createPetsWithPhotos(owner, 2);
+        em.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            // Warm the caches up, then count the statements of a request with 2 pets, then with 20
+            restPetMockMvc.perform(get(ENTITY_API_URL)).andExpect(status().isOk());
+            long[] fewPets = countQueries(statistics, 2);
+            createPetsWithPhotos(owner, 18);
+            em.flush();
+            long[] manyPets = countQueries(statistics, 20);
+
+            assertThat(manyPets).isEqualTo(fewPets);
+            assertThat(fewPets[1]).isEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getPetMatches() throws Exception {
+        // Initialize the database: the pet is the high pet of its pair with the first pet, and the low pet of the others
+        Owner owner = OwnerResourceIT.createEntity(em).user(userRepository.findOneByLogin("user").orElseThrow());
+        em.persist(owner);
+        Pet lowPet = createEntity(em);
+        em.persist(lowPet);
+        em.persist(pet.owner(owner));
+        Pet firstHighPet = createEntity(em);
+        em.persist(firstHighPet);
+        Pet secondHighPet = createEntity(em);
+        em.persist(secondHighPet);
+        Long oldestMatchId = createMatch(pet, firstHighPet);
+        Long lowMatchId = createMatch(lowPet, pet);
+        Long newestMatchId = createMatch(pet, secondHighPet);
+        em.flush();
+
+        // Get the first page, newest first across both sides of the pairs
+        restPetMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/matches?limit=2", pet.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].matchId").value(contains(newestMatchId.intValue(), lowMatchId.intValue())))
+            .andExpect(jsonPath("$.[*].pet.id").value(contains(secondHighPet.getId().intValue(), lowPet.getId().intValue())))
+            .andExpect(header().string(CursorUtil.NEXT_CURSOR_HEADER, CursorUtil.encode(lowMatchId)));
+
+        // Get the last page from the cursor
+        restPetMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/matches?limit=2&cursor=" + CursorUtil.encode(lowMatchId), pet.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].matchId").value(contains(oldestMatchId.intValue())))
+            .andExpect(jsonPath("$.[*].pet.id").value(contains(firstHighPet.getId().intValue())))
+            .andExpect(header().doesNotExist(CursorUtil.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @Transactional
+    void getMatchByPetIdShouldReturnTheNewestMatchOfBothSides() throws Exception {
+        // Initialize the database: the newest match has the pet on the high side of the pair, the oldest on the low side
+        Pet lowPet = createEntity(em);
+        em.persist(lowPet);
+        em.persist(pet);
+        Pet highPet = createEntity(em);
+        em.persist(highPet);
+        Long oldestMatchId = createMatch(pet, highPet);
+        Long newestMatchId = createMatch(lowPet, pet);
+        em.flush();
+
+        restPetMockMvc
+            .perform(get(ENTITY_API_URL + "/match/{petId}", pet.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string(newestMatchId.toString()));
+        restPetMockMvc
+            .perform(get(ENTITY_API_URL + "/match/{petId}", highPet.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string(oldestMatchId.toString()));
+    }
+
+    @Test
+    @Transactional
+    void getMatchesOfAnotherOwnerPet() throws Exception {
+        // Initialize the database
+        petRepository.saveAndFlush(pet);
+
+        // The pet has no owner, so it is not one of the current owner's
+        restPetMockMvc.perform(get(ENTITY_API_URL_ID + "/matches", pet.getId())).andExpect(status().isNotFound());
     }
 
     @Test
@@ -555,4 +711,145 @@ class PetResourceIT {
         List<Pet> petList = petRepository.findAll();
         assertThat(petList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void searchPetsFirstPage() throws Exception {
+        // Initialize the database
+        String district = UUID.randomUUID().toString();
+        createSearchingPet(district);
+        List<Long> candidateIds = createCandidates(district, 3);
+
+        // Get the first batch, with a cursor to the rest
+        restPetMockMvc
+            .perform(get(ENTITY_API_URL + "/search?limit=2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$.[*].id").value(everyItem(in(toInts(candidateIds)))))
+            .andExpect(header().exists(CursorUtil.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @Transactional
+    void searchPetsShouldFollowTheCursorWithoutDuplicatesOrGaps() throws Exception {
+        // Initialize the database
+        String district = UUID.randomUUID().toString();
+        createSearchingPet(district);
+        List<Long> candidateIds = createCandidates(district, 7);
+
+        // Follow the cursors until the last batch
+        List<Integer> deliveredIds = new ArrayList<>();
+        String cursor = null;
+        int batches = 0;
+        do {
+            MvcResult result = restPetMockMvc
+                .perform(get(ENTITY_API_URL + "/search?limit=3" + (cursor == null ? "" : "&after=" + cursor)))
+                .andExpect(status().isOk())
+                .andReturn();
+            deliveredIds.addAll(JsonPath.read(result.getResponse().getContentAsString(), "$[*].id"));
+            cursor = result.getResponse().getHeader(CursorUtil.NEXT_CURSOR_HEADER);
+            batches++;
+        } while (cursor != null && batches < 10);
+
+        assertThat(batches).isEqualTo(3);
+        assertThat(deliveredIds).hasSize(7).containsExactlyInAnyOrderElementsOf(toInts(candidateIds));
+    }
+
+    @Test
+    @Transactional
+    void searchPetsShouldClampTheLimit() throws Exception {
+        // Initialize the database
+        String district = UUID.randomUUID().toString();
+        createSearchingPet(district);
+        createCandidates(district, 101);
+
+        restPetMockMvc.perform(get(ENTITY_API_URL + "/search?limit=1000")).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(100)));
+    }
+
+    @Test
+    @Transactional
+    void searchPetsWithAMalformedCursorShouldFail() throws Exception {
+        // Initialize the database
+        String district = UUID.randomUUID().toString();
+        createSearchingPet(district);
+        createCandidates(district, 1);
+
+        restPetMockMvc
+            .perform(get(ENTITY_API_URL + "/search").param("after", "@@@"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.cursorinvalid"));
+        restPetMockMvc
+            .perform(get(ENTITY_API_URL + "/search").param("after", CursorUtil.encode("not-a-pass")))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.cursorinvalid"));
+    }
+
+    /**
+     * Create the pet of the current user, searching the pets of a district, and select it in the session.
+     */
+    private Pet createSearchingPet(String district) {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        Owner owner = OwnerResourceIT.createEntity(em).user(user);
+        em.persist(owner);
+        em.persist(pet.owner(owner));
+        em.persist(new SearchCriteria().filterType(DEFAULT_PET_TYPE.name()).district(district).pet(pet));
+        sessionContextService.selectPet(user, pet.getId());
+        return pet;
+    }
+
+    /**
+     * Create pets of another owner living in a district, then reload the search index, which only sees committed pets
+     * otherwise.
+     */
+    private List<Long> createCandidates(String district, int count) {
+        User otherUser = UserResourceIT.createEntity(em);
+        em.persist(otherUser);
+        Owner otherOwner = OwnerResourceIT.createEntity(em).user(otherUser).district(district);
+        em.persist(otherOwner);
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Pet candidate = createEntity(em).owner(otherOwner);
+            em.persist(candidate);
+            ids.add(candidate.getId());
+        }
+        em.flush();
+        petSearchIndex.warmUp();
+        return ids;
+    }
+
+    private void createPetsWithPhotos(Owner owner, int count) {
+        for (int i = 0; i < count; i++) {
+            Pet ownPet = createEntity(em).owner(owner);
+            em.persist(ownPet);
+            em.persist(new Photo().uploadDate(LocalDate.now()).photoUrl("http://photo/" + i + "/1").pet(ownPet));
+            em.persist(new Photo().uploadDate(LocalDate.now()).photoUrl("http://photo/" + i + "/2").pet(ownPet));
+        }
+    }
+
+    /**
+     * Get the pets of the current owner, and count the SQL statements and the photo hydration queries it took.
+     */
+    private long[] countQueries(Statistics statistics, int expectedPets) throws Exception {
+        Counter hydrationQueries = meterRegistry.get("furrymatch.pet.photo.hydration.queries").counter();
+        double hydrationQueriesBefore = hydrationQueries.count();
+        em.clear();
+        statistics.clear();
+        restPetMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(expectedPets)))
+            .andExpect(jsonPath("$.[*].photoUrls", everyItem(hasSize(2))));
+        return new long[] { statistics.getPrepareStatementCount(), (long) (hydrationQueries.count() - hydrationQueriesBefore) };
+    }
+
+    private static List<Integer> toInts(List<Long> ids) {
+        return ids.stream().map(Long::intValue).collect(Collectors.toList());
+    }
+
+    private Long createMatch(Pet firstPet, Pet secondPet) {
+        Likee likee = new Likee().likeState(LikeType.Like).firstPet(firstPet).secondPet(secondPet);
+        em.persist(likee);
+        return matchService.save(new Match().notifyMatch(true).dateMatch(LocalDate.now()).firstLiked(likee)).getId();
+    }
 }
@@ -0,0 +1,92 @@
+package furrymatch.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import furrymatch.service.ChatService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Unit tests for {@link ChatChannelInterceptor}.
+ */
+class ChatChannelInterceptorTest {
+
+    private static final Long MATCH_ID = 42L;
+
+    private ChatService chatService;
+
+    private MessageChannel channel;
+
+    private ChatChannelInterceptor chatChannelInterceptor;
+
+    @BeforeEach
+    public void init() {
+        chatService = mock(ChatService.class);
+        when(chatService.isMatchOwner(MATCH_ID, "owner")).thenReturn(true);
+        channel = mock(MessageChannel.class);
+        chatChannelInterceptor = new ChatChannelInterceptor(chatService);
+    }
+
+    @Test
+    void subscribeOfAnOwnerShouldBeAllowed() {
+        Message<?> message = frame(StompCommand.SUBSCRIBE, ChatService.matchTopic(MATCH_ID), "owner");
+
+        assertThat(chatChannelInterceptor.preSend(message, channel)).isSameAs(message);
+        verify(chatService).isMatchOwner(MATCH_ID, "owner");
+    }
+
+    @Test
+    void subscribeOfAnotherUserShouldBeRejected() {
+        Message<?> message = frame(StompCommand.SUBSCRIBE, ChatService.matchTopic(MATCH_ID), "stranger");
+
+        assertThatThrownBy(() -> chatChannelInterceptor.preSend(message, channel)).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void anonymousSubscribeShouldBeRejected() {
+        Message<?> message = frame(StompCommand.SUBSCRIBE, ChatService.matchTopic(MATCH_ID), null);
+
+        assertThatThrownBy(() -> chatChannelInterceptor.preSend(message, channel)).isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(chatService);
+    }
+
+    @Test
+    void subscribeToAnotherDestinationShouldBeRejected() {
+        Message<?> message = frame(StompCommand.SUBSCRIBE, "/topic/tracker", "owner");
+
+        assertThatThrownBy(() -> chatChannelInterceptor.preSend(message, channel)).isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(chatService);
+    }
+
+    @Test
+    void otherFramesShouldPass() {
+        Message<?> send = frame(StompCommand.SEND, "/app/matches/" + MATCH_ID + "/chats", "stranger");
+        Message<?> unsubscribe = frame(StompCommand.UNSUBSCRIBE, null, "stranger");
+
+        assertThat(chatChannelInterceptor.preSend(send, channel)).isSameAs(send);
+        assertThat(chatChannelInterceptor.preSend(unsubscribe, channel)).isSameAs(unsubscribe);
+        verifyNoInteractions(chatService);
+    }
+
+    private static Message<?> frame(StompCommand command, String destination, String login) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        if (login != null) {
+            accessor.setUser(new UsernamePasswordAuthenticationToken(login, null));
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
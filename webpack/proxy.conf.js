@@ -6,6 +6,11 @@ function setupProxy({ tls }) {
       secure: false,
       changeOrigin: tls,
     },
+    {
+      context: ['/websocket'],
+      target: 'ws://127.0.0.1:8080',
+      ws: true,
+    },
   ];
   return conf;
 }